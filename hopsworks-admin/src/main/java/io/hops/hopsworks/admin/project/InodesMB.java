@@ -103,12 +103,13 @@ public class InodesMB implements Serializable {
     }
     //get from DB and update Inode
     cwdChildren = inodes.findByParent(cwd);
+    String cwdPath = inodes.getPath(cwd);
     List<InodeView> kids = new ArrayList<>();
     for (Inode i : cwdChildren) {
-      kids.add(new InodeView(i, inodes.getPath(i)));
+      kids.add(new InodeView(i, cwdPath + "/" + i.getInodePK().getName()));
     }
     if (!inodes.isProjectRoot(cwd)) { // root doesn't have a parent to show
-      InodeView parent = InodeView.getParentInode(inodes.getPath(cwd));
+      InodeView parent = InodeView.getParentInode(cwdPath);
       kids.add(0, parent);
     }
     return kids;
@@ -0,0 +1,105 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.api.admin;
+
+import io.hops.hopsworks.api.admin.dto.DownloadMetrics;
+import io.hops.hopsworks.api.admin.dto.InodePathCacheMetrics;
+import io.hops.hopsworks.api.admin.dto.WebSocketMetrics;
+import io.hops.hopsworks.api.filter.NoCacheResponse;
+import io.hops.hopsworks.api.util.DownloadBuffers;
+import io.hops.hopsworks.api.zeppelin.socket.NotebookServerImplFactory;
+import io.hops.hopsworks.common.dao.hdfs.inode.InodePathCache;
+import io.swagger.annotations.Api;
+
+import javax.annotation.security.RolesAllowed;
+import javax.ejb.EJB;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+
+/**
+ * REST API exposing the counters of the in-memory caches and buffers
+ */
+@Path("/admin/metrics")
+@RolesAllowed({"HOPS_ADMIN"})
+@Api(value = "Admin")
+@Produces(MediaType.APPLICATION_JSON)
+@Stateless
+@TransactionAttribute(TransactionAttributeType.NEVER)
+public class MetricsAdmin {
+
+  @EJB
+  private NoCacheResponse noCacheResponse;
+  @EJB
+  private InodePathCache inodePathCache;
+  @EJB
+  private DownloadBuffers downloadBuffers;
+  @EJB
+  private NotebookServerImplFactory notebookServerImplFactory;
+
+  /**
+   * Gets the size, hits, misses and hit rate of the inode path resolution cache.
+   * @param sc
+   * @param request
+   * @return
+   */
+  @GET
+  @Path("/inodePathCache")
+  public Response getInodePathCacheMetrics(@Context SecurityContext sc, @Context HttpServletRequest request) {
+    GenericEntity<InodePathCacheMetrics> response =
+        new GenericEntity<InodePathCacheMetrics>(new InodePathCacheMetrics(inodePathCache)){};
+    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(response).build();
+  }
+
+  /**
+   * Gets the number of downloads, the bytes sent, the throughput and the durations of the downloads, and the state
+   * of the pool of copy buffers.
+   * @param sc
+   * @param request
+   * @return
+   */
+  @GET
+  @Path("/downloads")
+  public Response getDownloadMetrics(@Context SecurityContext sc, @Context HttpServletRequest request) {
+    GenericEntity<DownloadMetrics> response =
+        new GenericEntity<DownloadMetrics>(new DownloadMetrics(downloadBuffers)){};
+    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(response).build();
+  }
+
+  /**
+   * Gets the depth of the websocket send queues and the number of sent and dropped messages and closed slow sessions.
+   * @param sc
+   * @param request
+   * @return
+   */
+  @GET
+  @Path("/websockets")
+  public Response getWebSocketMetrics(@Context SecurityContext sc, @Context HttpServletRequest request) {
+    GenericEntity<WebSocketMetrics> response = new GenericEntity<WebSocketMetrics>(
+        new WebSocketMetrics(notebookServerImplFactory.getSendQueueDepth())){};
+    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(response).build();
+  }
+}
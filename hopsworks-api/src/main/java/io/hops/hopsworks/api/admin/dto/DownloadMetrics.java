@@ -0,0 +1,154 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.api.admin.dto;
+
+import io.hops.hopsworks.api.util.DownloadBuffers;
+
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+
+@XmlRootElement
+public class DownloadMetrics implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  private long downloads;
+  private long rangeDownloads;
+  private long failedDownloads;
+  private long bytesSent;
+  private double throughput;
+  private long allocatedBuffers;
+  private int pooledBuffers;
+  private double meanDurationMs;
+  private long p50DurationMs;
+  private long p95DurationMs;
+  private long p99DurationMs;
+  private long maxDurationMs;
+
+  public DownloadMetrics() {
+  }
+
+  public DownloadMetrics(DownloadBuffers downloadBuffers) {
+    this.downloads = downloadBuffers.getDownloadCount();
+    this.rangeDownloads = downloadBuffers.getRangeDownloadCount();
+    this.failedDownloads = downloadBuffers.getFailedDownloadCount();
+    this.bytesSent = downloadBuffers.getBytesSent();
+    this.throughput = downloadBuffers.getThroughput();
+    this.allocatedBuffers = downloadBuffers.getAllocatedBufferCount();
+    this.pooledBuffers = downloadBuffers.getPooledBufferCount();
+    this.meanDurationMs = downloadBuffers.getDurations().getMean();
+    this.p50DurationMs = downloadBuffers.getDurations().getPercentile(50);
+    this.p95DurationMs = downloadBuffers.getDurations().getPercentile(95);
+    this.p99DurationMs = downloadBuffers.getDurations().getPercentile(99);
+    this.maxDurationMs = downloadBuffers.getDurations().getMax();
+  }
+
+  public long getDownloads() {
+    return downloads;
+  }
+
+  public void setDownloads(long downloads) {
+    this.downloads = downloads;
+  }
+
+  public long getRangeDownloads() {
+    return rangeDownloads;
+  }
+
+  public void setRangeDownloads(long rangeDownloads) {
+    this.rangeDownloads = rangeDownloads;
+  }
+
+  public long getFailedDownloads() {
+    return failedDownloads;
+  }
+
+  public void setFailedDownloads(long failedDownloads) {
+    this.failedDownloads = failedDownloads;
+  }
+
+  public long getBytesSent() {
+    return bytesSent;
+  }
+
+  public void setBytesSent(long bytesSent) {
+    this.bytesSent = bytesSent;
+  }
+
+  public double getThroughput() {
+    return throughput;
+  }
+
+  public void setThroughput(double throughput) {
+    this.throughput = throughput;
+  }
+
+  public long getAllocatedBuffers() {
+    return allocatedBuffers;
+  }
+
+  public void setAllocatedBuffers(long allocatedBuffers) {
+    this.allocatedBuffers = allocatedBuffers;
+  }
+
+  public int getPooledBuffers() {
+    return pooledBuffers;
+  }
+
+  public void setPooledBuffers(int pooledBuffers) {
+    this.pooledBuffers = pooledBuffers;
+  }
+
+  public double getMeanDurationMs() {
+    return meanDurationMs;
+  }
+
+  public void setMeanDurationMs(double meanDurationMs) {
+    this.meanDurationMs = meanDurationMs;
+  }
+
+  public long getP50DurationMs() {
+    return p50DurationMs;
+  }
+
+  public void setP50DurationMs(long p50DurationMs) {
+    this.p50DurationMs = p50DurationMs;
+  }
+
+  public long getP95DurationMs() {
+    return p95DurationMs;
+  }
+
+  public void setP95DurationMs(long p95DurationMs) {
+    this.p95DurationMs = p95DurationMs;
+  }
+
+  public long getP99DurationMs() {
+    return p99DurationMs;
+  }
+
+  public void setP99DurationMs(long p99DurationMs) {
+    this.p99DurationMs = p99DurationMs;
+  }
+
+  public long getMaxDurationMs() {
+    return maxDurationMs;
+  }
+
+  public void setMaxDurationMs(long maxDurationMs) {
+    this.maxDurationMs = maxDurationMs;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.api.admin.dto;
+
+import io.hops.hopsworks.common.dao.hdfs.inode.InodePathCache;
+
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+
+@XmlRootElement
+public class InodePathCacheMetrics implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  private int size;
+  private long hits;
+  private long misses;
+  private long invalidations;
+  private double hitRate;
+
+  public InodePathCacheMetrics() {
+  }
+
+  public InodePathCacheMetrics(InodePathCache cache) {
+    this.size = cache.size();
+    this.hits = cache.getHits();
+    this.misses = cache.getMisses();
+    this.invalidations = cache.getInvalidations();
+    this.hitRate = cache.getHitRate();
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public void setSize(int size) {
+    this.size = size;
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public void setHits(long hits) {
+    this.hits = hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  public void setMisses(long misses) {
+    this.misses = misses;
+  }
+
+  public long getInvalidations() {
+    return invalidations;
+  }
+
+  public void setInvalidations(long invalidations) {
+    this.invalidations = invalidations;
+  }
+
+  public double getHitRate() {
+    return hitRate;
+  }
+
+  public void setHitRate(double hitRate) {
+    this.hitRate = hitRate;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.api.admin.dto;
+
+import io.hops.hopsworks.api.util.SessionSender;
+
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+
+@XmlRootElement
+public class WebSocketMetrics implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  private long sendQueueDepth;
+  private int notebookSendQueueDepth;
+  private long sentMessages;
+  private long droppedMessages;
+  private long evictedSessions;
+
+  public WebSocketMetrics() {
+  }
+
+  public WebSocketMetrics(int notebookSendQueueDepth) {
+    this.sendQueueDepth = SessionSender.getQueuedMessages();
+    this.notebookSendQueueDepth = notebookSendQueueDepth;
+    this.sentMessages = SessionSender.getSentMessages();
+    this.droppedMessages = SessionSender.getDroppedMessages();
+    this.evictedSessions = SessionSender.getEvictedSessions();
+  }
+
+  public long getSendQueueDepth() {
+    return sendQueueDepth;
+  }
+
+  public void setSendQueueDepth(long sendQueueDepth) {
+    this.sendQueueDepth = sendQueueDepth;
+  }
+
+  public int getNotebookSendQueueDepth() {
+    return notebookSendQueueDepth;
+  }
+
+  public void setNotebookSendQueueDepth(int notebookSendQueueDepth) {
+    this.notebookSendQueueDepth = notebookSendQueueDepth;
+  }
+
+  public long getSentMessages() {
+    return sentMessages;
+  }
+
+  public void setSentMessages(long sentMessages) {
+    this.sentMessages = sentMessages;
+  }
+
+  public long getDroppedMessages() {
+    return droppedMessages;
+  }
+
+  public void setDroppedMessages(long droppedMessages) {
+    this.droppedMessages = droppedMessages;
+  }
+
+  public long getEvictedSessions() {
+    return evictedSessions;
+  }
+
+  public void setEvictedSessions(long evictedSessions) {
+    this.evictedSessions = evictedSessions;
+  }
+}
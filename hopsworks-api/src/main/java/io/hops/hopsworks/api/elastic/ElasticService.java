@@ -44,6 +44,7 @@ import io.hops.hopsworks.api.filter.AllowedProjectRoles;
 import io.hops.hopsworks.api.filter.NoCacheResponse;
 import io.hops.hopsworks.common.elastic.ElasticController;
 import io.hops.hopsworks.common.elastic.ElasticHit;
+import io.hops.hopsworks.common.elastic.ElasticHitPage;
 import io.hops.hopsworks.common.exception.ServiceException;
 import io.swagger.annotations.Api;
 
@@ -53,16 +54,22 @@ import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -76,6 +83,9 @@ public class ElasticService {
 
   private static final Logger logger = Logger.getLogger(ElasticService.class.
           getName());
+
+  public static final String TOTAL_HITS_HEADER = "X-Total-Count";
+  private static final long SEARCH_TIMEOUT_SEC = 60;
   @EJB
   private NoCacheResponse noCacheResponse;
   @EJB
@@ -86,27 +96,31 @@ public class ElasticService {
    * indices: 'project' and 'dataset'
    * <p/>
    * @param searchTerm
+   * @param from index of the first hit to return
+   * @param size maximum number of hits to return
    * @param sc
    * @param req
-   * @return
+   * @param asyncResponse
    */
   @GET
   @Path("globalsearch/{searchTerm}")
   @Produces(MediaType.APPLICATION_JSON)
   @AllowedProjectRoles({AllowedProjectRoles.DATA_SCIENTIST, AllowedProjectRoles.DATA_OWNER})
-  public Response globalSearch(
+  public void globalSearch(
           @PathParam("searchTerm") String searchTerm,
+          @QueryParam("from") @DefaultValue("0") int from,
+          @QueryParam("size") @DefaultValue("" + ElasticController.DEFAULT_PAGE_SIZE) int size,
           @Context SecurityContext sc,
-          @Context HttpServletRequest req) throws ServiceException {
+          @Context HttpServletRequest req,
+          @Suspended final AsyncResponse asyncResponse) throws ServiceException {
   
     if (Strings.isNullOrEmpty(searchTerm)) {
       throw new IllegalArgumentException("searchTerm was not provided or was empty");
     }
+    checkPage(from, size);
 
-    logger.log(Level.INFO, "Local content path {0}", req.getRequestURL().toString());
-    GenericEntity<List<ElasticHit>> searchResults = new GenericEntity<List<ElasticHit>>(elasticController.
-        globalSearch(searchTerm)) {};
-    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(searchResults).build();
+    logger.log(Level.FINE, "Local content path {0}", req.getRequestURL().toString());
+    resume(asyncResponse, elasticController.globalSearch(searchTerm, from, size));
   }
 
   /**
@@ -114,26 +128,30 @@ public class ElasticService {
    * <p/>
    * @param projectId
    * @param searchTerm
+   * @param from index of the first hit to return
+   * @param size maximum number of hits to return
    * @param sc
    * @param req
-   * @return
+   * @param asyncResponse
    */
   @GET
   @Path("projectsearch/{projectId}/{searchTerm}")
   @Produces(MediaType.APPLICATION_JSON)
   @AllowedProjectRoles({AllowedProjectRoles.DATA_SCIENTIST, AllowedProjectRoles.DATA_OWNER})
-  public Response projectSearch(
+  public void projectSearch(
       @PathParam("projectId") Integer projectId,
       @PathParam("searchTerm") String searchTerm,
+      @QueryParam("from") @DefaultValue("0") int from,
+      @QueryParam("size") @DefaultValue("" + ElasticController.DEFAULT_PAGE_SIZE) int size,
       @Context SecurityContext sc,
-      @Context HttpServletRequest req) throws ServiceException {
+      @Context HttpServletRequest req,
+      @Suspended final AsyncResponse asyncResponse) throws ServiceException {
     if (Strings.isNullOrEmpty(searchTerm) || projectId == null) {
       throw new IllegalArgumentException("One or more required parameters were not provided.");
     }
+    checkPage(from, size);
 
-    GenericEntity<List<ElasticHit>> searchResults = new GenericEntity<List<ElasticHit>>(elasticController.projectSearch(
-        projectId, searchTerm)) {};
-    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(searchResults).build();
+    resume(asyncResponse, elasticController.projectSearch(projectId, searchTerm, from, size));
   }
 
   /**
@@ -142,28 +160,59 @@ public class ElasticService {
    * @param projectId
    * @param datasetName
    * @param searchTerm
+   * @param from index of the first hit to return
+   * @param size maximum number of hits to return
    * @param sc
    * @param req
-   * @return
+   * @param asyncResponse
    */
   @GET
   @Path("datasetsearch/{projectId}/{datasetName}/{searchTerm}")
   @Produces(MediaType.APPLICATION_JSON)
   @AllowedProjectRoles({AllowedProjectRoles.DATA_SCIENTIST, AllowedProjectRoles.DATA_OWNER})
-  public Response datasetSearch(
+  public void datasetSearch(
       @PathParam("projectId") Integer projectId,
       @PathParam("datasetName") String datasetName,
       @PathParam("searchTerm") String searchTerm,
+      @QueryParam("from") @DefaultValue("0") int from,
+      @QueryParam("size") @DefaultValue("" + ElasticController.DEFAULT_PAGE_SIZE) int size,
       @Context SecurityContext sc,
-      @Context HttpServletRequest req) throws ServiceException {
+      @Context HttpServletRequest req,
+      @Suspended final AsyncResponse asyncResponse) throws ServiceException {
   
     if (Strings.isNullOrEmpty(searchTerm) || Strings.isNullOrEmpty(datasetName) || projectId == null) {
       throw new IllegalArgumentException("One or more required parameters were not provided.");
     }
+    checkPage(from, size);
+
+    resume(asyncResponse, elasticController.datasetSearch(projectId, datasetName, searchTerm, from, size));
+  }
 
-    GenericEntity<List<ElasticHit>> searchResults = new GenericEntity<List<ElasticHit>>(elasticController.
-                    datasetSearch(projectId, datasetName, searchTerm)) {};
-    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK). entity(searchResults).build();
+  private void checkPage(int from, int size) {
+    if (from < 0 || size < 1 || size > ElasticController.MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("from must be positive and size between 1 and "
+          + ElasticController.MAX_PAGE_SIZE);
+    }
+    if ((long) from + size > ElasticController.MAX_RESULT_WINDOW) {
+      throw new IllegalArgumentException("from + size must not exceed " + ElasticController.MAX_RESULT_WINDOW);
+    }
+  }
+
+  /**
+   * Resume the request with the page of hits once the search completes. The
+   * total number of hits is returned in the {@value #TOTAL_HITS_HEADER} header.
+   */
+  private void resume(final AsyncResponse asyncResponse, CompletableFuture<ElasticHitPage> search) {
+    asyncResponse.setTimeout(SEARCH_TIMEOUT_SEC, TimeUnit.SECONDS);
+    search.whenComplete((page, throwable) -> {
+      if (throwable != null) {
+        asyncResponse.resume(elasticController.toServiceException(throwable));
+      } else {
+        GenericEntity<List<ElasticHit>> searchResults = new GenericEntity<List<ElasticHit>>(page.getHits()) {};
+        asyncResponse.resume(noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK)
+            .header(TOTAL_HITS_HEADER, page.getTotal()).entity(searchResults).build());
+      }
+    });
   }
 
 }
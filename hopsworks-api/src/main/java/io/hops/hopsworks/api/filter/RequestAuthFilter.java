@@ -42,14 +42,18 @@ package io.hops.hopsworks.api.filter;
 import io.hops.hopsworks.api.util.RESTApiJsonResponse;
 import io.hops.hopsworks.common.dao.project.Project;
 import io.hops.hopsworks.common.dao.project.ProjectFacade;
+import io.hops.hopsworks.common.dao.project.team.ProjectRoleCache;
 import io.hops.hopsworks.common.dao.project.team.ProjectTeamFacade;
 import io.hops.hopsworks.common.exception.RESTCodes;
 import io.hops.hopsworks.common.util.JsonResponse;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.ejb.EJB;
@@ -74,18 +78,33 @@ public class RequestAuthFilter implements ContainerRequestFilter {
   @EJB
   private ProjectFacade projectBean;
   
+  @EJB
+  private ProjectRoleCache projectRoleCache;
+  
   @Context
   private ResourceInfo resourceInfo;
   
   private static final Logger LOGGER = Logger.getLogger(RequestAuthFilter.class.
     getName());
   
+  // The roles allowed by the AllowedProjectRoles annotation of each resource method
+  private static final Map<Method, Set<String>> ALLOWED_ROLES = new ConcurrentHashMap<>();
+  
+  private static Set<String> getAllowedRoles(Method method) {
+    return ALLOWED_ROLES.computeIfAbsent(method, m -> {
+      AllowedProjectRoles rolesAnnotation = m.getAnnotation(AllowedProjectRoles.class);
+      return rolesAnnotation == null ? null : Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+        rolesAnnotation.value())));
+    });
+  }
+  
   @Override
   public void filter(ContainerRequestContext requestContext) {
     
     String path = requestContext.getUriInfo().getPath();
     Method method = resourceInfo.getResourceMethod();
-    String[] pathParts = path.split("/");
+    // Only the first two parts are used
+    String[] pathParts = path.split("/", 3);
     LOGGER.log(Level.FINEST, "Rest call to {0}, from {1}.", new Object[]{path,
       requestContext.getSecurityContext().getUserPrincipal()});
     LOGGER.log(Level.FINEST, "Filtering request path: {0}", pathParts[0]);
@@ -108,26 +127,32 @@ public class RequestAuthFilter implements ContainerRequestFilter {
         return;
       }
       
-      Project project = projectBean.find(projectId);
-      if (project == null) {
+      Set<String> rolesSet = getAllowedRoles(method);
+      String userEmail = requestContext.getSecurityContext().getUserPrincipal() == null ? null : requestContext.
+        getSecurityContext().getUserPrincipal().getName();
+      // A cached role means the project existed when it was cached, it is invalidated when the project is removed
+      userRole = rolesSet == null || userEmail == null || rolesSet.contains(AllowedProjectRoles.ANYONE) ? null :
+        projectRoleCache.get(projectId, userEmail);
+      Project project = null;
+      if (userRole == null) {
+        project = projectBean.find(projectId);
+      }
+      if (userRole == null && project == null) {
         jsonResponse.setErrorCode(RESTCodes.ProjectErrorCode.PROJECT_NOT_FOUND.getCode());
         jsonResponse.setErrorMsg(RESTCodes.ProjectErrorCode.PROJECT_NOT_FOUND.getMessage());
         requestContext.abortWith(Response.status(Response.Status.NOT_FOUND).entity(jsonResponse).build());
         
         return;
       }
-      LOGGER.log(Level.FINEST, "Filtering project request path: {0}", project.getName());
+      LOGGER.log(Level.FINEST, "Filtering project request path: {0}", projectId);
       
-      if (!method.isAnnotationPresent(AllowedProjectRoles.class)) {
+      if (rolesSet == null) {
         jsonResponse.setErrorCode(RESTCodes.GenericErrorCode.ENDPOINT_ANNOTATION_MISSING.getCode());
         jsonResponse.setErrorMsg(RESTCodes.GenericErrorCode.ENDPOINT_ANNOTATION_MISSING.getMessage());
         //Should throw exception if there is a method that is not annotated in this path.
         requestContext.abortWith(Response.status(Response.Status.SERVICE_UNAVAILABLE).entity(jsonResponse).build());
         return;
       }
-      AllowedProjectRoles rolesAnnotation = method.getAnnotation(AllowedProjectRoles.class);
-      Set<String> rolesSet;
-      rolesSet = new HashSet<>(Arrays.asList(rolesAnnotation.value()));
       
       //If the resource is allowed for all roles continue with the request. 
       if (rolesSet.contains(AllowedProjectRoles.ANYONE)) {
@@ -135,7 +160,7 @@ public class RequestAuthFilter implements ContainerRequestFilter {
         return;
       }
       
-      if (requestContext.getSecurityContext().getUserPrincipal() == null) {
+      if (userEmail == null) {
         jsonResponse.setErrorCode(RESTCodes.SecurityErrorCode.EJB_ACCESS_LOCAL.getCode());
         jsonResponse.setErrorMsg(RESTCodes.SecurityErrorCode.EJB_ACCESS_LOCAL.getMessage());
         requestContext.abortWith(Response.
@@ -144,10 +169,10 @@ public class RequestAuthFilter implements ContainerRequestFilter {
       }
       
       //if the resource is only allowed for some roles check if the user have the requierd role for the resource.
-      String userEmail = requestContext.getSecurityContext().getUserPrincipal().
-        getName();
-      
-      userRole = projectTeamBean.findCurrentRole(project, userEmail);
+      if (userRole == null) {
+        userRole = projectTeamBean.findCurrentRole(project, userEmail);
+        projectRoleCache.put(projectId, userEmail, userRole);
+      }
       
       if (userRole == null || userRole.isEmpty()) {
         LOGGER.log(Level.INFO,
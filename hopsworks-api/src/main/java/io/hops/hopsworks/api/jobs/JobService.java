@@ -64,6 +64,10 @@ import io.hops.hopsworks.common.hdfs.DistributedFileSystemOps;
 import io.hops.hopsworks.common.hdfs.DistributedFsService;
 import io.hops.hopsworks.common.hdfs.HdfsUsersController;
 import io.hops.hopsworks.common.jobs.JobController;
+import io.hops.hopsworks.common.jobs.JobLogChunk;
+import io.hops.hopsworks.common.jobs.JobLogController;
+import io.hops.hopsworks.common.jobs.JobLogGrepResult;
+import io.hops.hopsworks.common.jobs.JobLogMatch;
 import io.hops.hopsworks.common.jobs.configuration.JobConfiguration;
 import io.hops.hopsworks.common.jobs.configuration.ScheduleDTO;
 import io.hops.hopsworks.common.jobs.jobhistory.JobFinalStatus;
@@ -103,11 +107,13 @@ import javax.json.JsonObjectBuilder;
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.GenericEntity;
@@ -138,6 +144,8 @@ import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -188,6 +196,8 @@ public class JobService {
   private HdfsUsersController hdfsUsersController;
   @EJB
   private YarnApplicationstateFacade appStateBean;
+  @EJB
+  private JobLogController jobLogController;
 
   // No @EJB annotation for Project, it's injected explicitly in ProjectService.
   private Project project;
@@ -1085,22 +1095,22 @@ public class JobService {
   private void readLog(Execution e, String type, DistributedFileSystemOps dfso, JsonObjectBuilder arrayObjectBuilder)
       throws IOException {
     String message;
-    String stdPath;
     String path = (type.equals("log") ? e.getStdoutPath() : e.getStderrPath());
     String retry = (type.equals("log") ? "retriableOut" : "retriableErr");
     boolean status = (type.equals("log") ? e.getFinalStatus().equals(JobFinalStatus.SUCCEEDED) : true);
     String hdfsPath = "hdfs://" + path;
     if (path != null && !path.isEmpty() && dfso.exists(hdfsPath)) {
-      if (dfso.listStatus(new org.apache.hadoop.fs.Path(hdfsPath))[0].getLen() > settings.getJobLogsDisplaySize()) {
-        stdPath = path.split(this.project.getName())[1];
-        int fileIndex = stdPath.lastIndexOf("/");
-        String stdDirPath = stdPath.substring(0, fileIndex);
-        arrayObjectBuilder.add(type, "Log is too big to display. Please retrieve it by clicking ");
-        arrayObjectBuilder.add(type + "Path", "/project/" + this.project.getId() + "/datasets" + stdDirPath);
+      int displaySize = (int) Math.min(settings.getJobLogsDisplaySize(), JobLogController.MAX_RANGE_LENGTH);
+      if (dfso.getFileStatus(new org.apache.hadoop.fs.Path(hdfsPath)).getLen() > displaySize) {
+        // Show the end of big logs, the rest can be paged through the log endpoint or downloaded
+        JobLogChunk chunk = jobLogController.tail(dfso, hdfsPath, JobLogController.MAX_LINES, displaySize);
+        String stdPath = path.split(this.project.getName())[1];
+        arrayObjectBuilder.add(type, "*** Showing the last " + (chunk.getFileLength() - chunk.getOffset())
+            + " bytes of " + chunk.getFileLength() + ". The full log is in " + stdPath + "\n\n"
+            + chunk.getContent());
+        arrayObjectBuilder.add(type + "Truncated", "true");
       } else {
-        try (InputStream input = dfso.open(hdfsPath)) {
-          message = IOUtils.toString(input, "UTF-8");
-        }
+        message = jobLogController.readRange(dfso, hdfsPath, 0, displaySize).getContent();
         arrayObjectBuilder.add(type, message.isEmpty() ? "No information." : message);
         if (message.isEmpty() && e.getState().isFinalState() && e.getAppId() != null && status) {
           arrayObjectBuilder.add(retry, "true");
@@ -1114,12 +1124,7 @@ public class JobService {
     }
   }
 
-  @GET
-  @Path("/getLog/{appId}/{type}")
-  @Produces(MediaType.APPLICATION_JSON)
-  @AllowedProjectRoles({AllowedProjectRoles.DATA_OWNER, AllowedProjectRoles.DATA_SCIENTIST})
-  public Response getLog(@PathParam("appId") String appId,
-      @PathParam("type") String type) throws JobException {
+  private Execution findFinishedExecution(String appId) throws JobException {
     if (Strings.isNullOrEmpty(appId)) {
       throw new IllegalArgumentException("appId cannot be null or empty.");
     }
@@ -1134,6 +1139,166 @@ public class JobService {
       throw new JobException(RESTCodes.JobErrorCode.JOB_ACCESS_ERROR, Level.FINE,
         "Requested execution does not belong to a job of project: " + project.getName());
     }
+    return execution;
+  }
+
+  private String getLogPath(Execution execution, String type) throws JobException {
+    String path;
+    if (type.equals("out") || type.equals("log")) {
+      path = execution.getStdoutPath();
+    } else if (type.equals("err")) {
+      path = execution.getStderrPath();
+    } else {
+      throw new IllegalArgumentException("type must be one of out, err.");
+    }
+    if (Strings.isNullOrEmpty(path)) {
+      throw new JobException(RESTCodes.JobErrorCode.JOB_LOG, Level.FINE, "No log available for " + execution.
+          getAppId());
+    }
+    return "hdfs://" + path;
+  }
+
+  /**
+   * Read a part of the stdout (out) or stderr (err) log of an execution
+   * without loading the whole log. With tail, the last lines of the log are
+   * returned. With line, the lines starting from that line. Otherwise the
+   * complete lines in the byte range starting at offset. The response gives
+   * the offset to continue from in nextOffset.
+   * <p>
+   * @param appId
+   * @param type out or err
+   * @param offset the byte offset to start from
+   * @param length the maximum number of bytes to return
+   * @param line the first line to return, counting from 0
+   * @param lines the maximum number of lines to return
+   * @param tail the number of lines to return from the end of the log
+   * @return
+   * @throws JobException
+   */
+  @GET
+  @Path("/{appId}/log/{type}")
+  @Produces(MediaType.APPLICATION_JSON)
+  @AllowedProjectRoles({AllowedProjectRoles.DATA_OWNER, AllowedProjectRoles.DATA_SCIENTIST})
+  public Response getLogRange(@PathParam("appId") String appId,
+      @PathParam("type") String type,
+      @QueryParam("offset") @DefaultValue("0") long offset,
+      @QueryParam("length") @DefaultValue("65536") int length,
+      @QueryParam("line") Long line,
+      @QueryParam("lines") @DefaultValue("1000") int lines,
+      @QueryParam("tail") Integer tail) throws JobException {
+    if (offset < 0 || length <= 0 || lines <= 0 || (line != null && line < 0) || (tail != null && tail <= 0)) {
+      throw new IllegalArgumentException("offset and line cannot be negative, length, lines and tail must be "
+          + "positive.");
+    }
+    Execution execution = findFinishedExecution(appId);
+    String logPath = getLogPath(execution, type);
+    DistributedFileSystemOps dfso = null;
+    JobLogChunk chunk;
+    try {
+      dfso = dfs.getDfsOps();
+      if (!dfso.exists(logPath)) {
+        throw new JobException(RESTCodes.JobErrorCode.JOB_LOG, Level.FINE, "No log available for " + appId);
+      }
+      if (tail != null) {
+        chunk = jobLogController.tail(dfso, logPath, tail, JobLogController.MAX_RANGE_LENGTH);
+      } else if (line != null) {
+        chunk = jobLogController.readLines(dfso, logPath, line, lines);
+      } else {
+        chunk = jobLogController.readRange(dfso, logPath, offset, length);
+      }
+    } catch (IOException ex) {
+      throw new JobException(RESTCodes.JobErrorCode.LOG_RETRIEVAL_ERROR, Level.SEVERE, "AppId: " + appId,
+          ex.getMessage(), ex);
+    } finally {
+      if (dfso != null) {
+        dfso.close();
+      }
+    }
+    JsonObjectBuilder builder = Json.createObjectBuilder();
+    builder.add("offset", chunk.getOffset());
+    builder.add("nextOffset", chunk.getNextOffset());
+    builder.add("length", chunk.getFileLength());
+    if (chunk.getFirstLine() >= 0) {
+      builder.add("line", chunk.getFirstLine());
+    }
+    builder.add("content", chunk.getContent());
+    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(builder.build()).build();
+  }
+
+  /**
+   * Find the lines of the stdout (out) or stderr (err) log of an execution
+   * that match a regular expression. At most maxMatches lines are returned,
+   * nextLine is set when there may be more.
+   * <p>
+   * @param appId
+   * @param type out or err
+   * @param pattern the regular expression to search
+   * @param line the first line to search, counting from 0
+   * @param maxMatches
+   * @return
+   * @throws JobException
+   */
+  @GET
+  @Path("/{appId}/log/{type}/grep")
+  @Produces(MediaType.APPLICATION_JSON)
+  @AllowedProjectRoles({AllowedProjectRoles.DATA_OWNER, AllowedProjectRoles.DATA_SCIENTIST})
+  public Response grepLog(@PathParam("appId") String appId,
+      @PathParam("type") String type,
+      @QueryParam("pattern") String pattern,
+      @QueryParam("line") @DefaultValue("0") long line,
+      @QueryParam("maxMatches") @DefaultValue("100") int maxMatches) throws JobException {
+    if (Strings.isNullOrEmpty(pattern)) {
+      throw new IllegalArgumentException("pattern cannot be null or empty.");
+    }
+    if (line < 0 || maxMatches <= 0) {
+      throw new IllegalArgumentException("line cannot be negative and maxMatches must be positive.");
+    }
+    Pattern regex;
+    try {
+      regex = Pattern.compile(pattern);
+    } catch (PatternSyntaxException ex) {
+      throw new IllegalArgumentException("Invalid pattern: " + ex.getDescription());
+    }
+    Execution execution = findFinishedExecution(appId);
+    String logPath = getLogPath(execution, type);
+    DistributedFileSystemOps dfso = null;
+    JobLogGrepResult result;
+    try {
+      dfso = dfs.getDfsOps();
+      if (!dfso.exists(logPath)) {
+        throw new JobException(RESTCodes.JobErrorCode.JOB_LOG, Level.FINE, "No log available for " + appId);
+      }
+      result = jobLogController.grep(dfso, logPath, regex, line, maxMatches);
+    } catch (IOException ex) {
+      throw new JobException(RESTCodes.JobErrorCode.LOG_RETRIEVAL_ERROR, Level.SEVERE, "AppId: " + appId,
+          ex.getMessage(), ex);
+    } finally {
+      if (dfso != null) {
+        dfso.close();
+      }
+    }
+    JsonArrayBuilder matchesBuilder = Json.createArrayBuilder();
+    for (JobLogMatch match : result.getMatches()) {
+      matchesBuilder.add(Json.createObjectBuilder()
+          .add("line", match.getLine())
+          .add("offset", match.getOffset())
+          .add("text", match.getText()));
+    }
+    JsonObjectBuilder builder = Json.createObjectBuilder();
+    builder.add("matches", matchesBuilder);
+    if (result.getNextLine() != null) {
+      builder.add("nextLine", result.getNextLine());
+    }
+    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(builder.build()).build();
+  }
+
+  @GET
+  @Path("/getLog/{appId}/{type}")
+  @Produces(MediaType.APPLICATION_JSON)
+  @AllowedProjectRoles({AllowedProjectRoles.DATA_OWNER, AllowedProjectRoles.DATA_SCIENTIST})
+  public Response getLog(@PathParam("appId") String appId,
+      @PathParam("type") String type) throws JobException {
+    Execution execution = findFinishedExecution(appId);
 
     JsonObjectBuilder arrayObjectBuilder = Json.createObjectBuilder();
     DistributedFileSystemOps dfso = null;
@@ -1261,6 +1426,7 @@ public class JobService {
             try {
               YarnLogUtil.copyAggregatedYarnLogs(udfso, aggregatedLogPath,
                   hdfsLogPath, desiredLogTypes, monitor);
+              jobLogController.buildLineIndexQuietly(udfso, hdfsLogPath);
             } catch (IOException | InterruptedException | YarnException ex) {
               throw new JobException(RESTCodes.JobErrorCode.LOG_RETRIEVAL_ERROR, Level.SEVERE,
                 "Something went wrong during the log aggregation", ex.getMessage(), ex);
@@ -1287,6 +1453,7 @@ public class JobService {
             try {
               YarnLogUtil.copyAggregatedYarnLogs(udfso, aggregatedLogPath,
                   hdfsErrPath, desiredLogTypes, monitor);
+              jobLogController.buildLineIndexQuietly(udfso, hdfsErrPath);
             } catch (IOException | InterruptedException | YarnException ex) {
               throw new JobException(RESTCodes.JobErrorCode.LOG_RETRIEVAL_ERROR, Level.SEVERE,
                 "Something went wrong during the log aggregation", ex.getMessage(), ex);
@@ -0,0 +1,159 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.api.metadata.wscomm;
+
+import io.hops.hopsworks.common.dao.metadata.InodeTableComposite;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Caches the metadata response of an inode for a metadata table, as built by
+ * {@link ResponseBuilder#fetchInodeMetadata(InodeTableComposite)}. The entries of an inode are invalidated when its
+ * metadata is stored, updated or removed, and all entries are invalidated when a template changes. Entries also
+ * expire after {@link #TTL} so that changes made by another instance are seen.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class InodeMetadataCache {
+
+  public static final long TTL = TimeUnit.MINUTES.toMillis(5);
+  private static final int MAX_ENTRIES = 10000;
+
+  // inode (parent id and name) -> table id -> response
+  private final Map<String, Map<Integer, CachedMetadata>> metadata = new ConcurrentHashMap<>();
+  private final AtomicLong size = new AtomicLong(0);
+  private final AtomicLong hits = new AtomicLong(0);
+  private final AtomicLong misses = new AtomicLong(0);
+
+  @Resource
+  private TransactionSynchronizationRegistry transactionRegistry;
+
+  private static class CachedMetadata {
+
+    private final String json;
+    private final long loadedAt;
+
+    private CachedMetadata(String json) {
+      this.json = json;
+      this.loadedAt = System.currentTimeMillis();
+    }
+  }
+
+  private static String inodeKey(int inodePid, String inodeName) {
+    return inodePid + "/" + inodeName;
+  }
+
+  /**
+   * @param itc
+   * @return the cached response, or null if it is not cached
+   */
+  public String get(InodeTableComposite itc) {
+    Map<Integer, CachedMetadata> tables = metadata.get(inodeKey(itc.getInodePid(), itc.getInodeName()));
+    CachedMetadata cached = tables == null ? null : tables.get(itc.getTableid());
+    if (cached == null || System.currentTimeMillis() - cached.loadedAt > TTL) {
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    return cached.json;
+  }
+
+  public void put(InodeTableComposite itc, String json) {
+    if (size.get() >= MAX_ENTRIES) {
+      invalidateAll();
+    }
+    CachedMetadata previous = metadata.computeIfAbsent(inodeKey(itc.getInodePid(), itc.getInodeName()),
+        key -> new ConcurrentHashMap<>()).put(itc.getTableid(), new CachedMetadata(json));
+    if (previous == null) {
+      size.incrementAndGet();
+    }
+  }
+
+  /**
+   * Drops the responses of an inode for all tables.
+   *
+   * @param inodePid
+   * @param inodeName
+   */
+  public void invalidate(int inodePid, String inodeName) {
+    Map<Integer, CachedMetadata> tables = metadata.remove(inodeKey(inodePid, inodeName));
+    if (tables != null) {
+      size.addAndGet(-tables.size());
+    }
+  }
+
+  /**
+   * Drops the responses of an inode once the current transaction completes, so that a concurrent request cannot
+   * cache the metadata read before the commit. Drops them immediately if there is no transaction.
+   *
+   * @param inodePid
+   * @param inodeName
+   */
+  @TransactionAttribute(TransactionAttributeType.REQUIRED)
+  public void invalidateAfterCompletion(int inodePid, String inodeName) {
+    afterCompletion(() -> invalidate(inodePid, inodeName));
+  }
+
+  /**
+   * Drops all the responses once the current transaction completes.
+   */
+  @TransactionAttribute(TransactionAttributeType.REQUIRED)
+  public void invalidateAllAfterCompletion() {
+    afterCompletion(this::invalidateAll);
+  }
+
+  private void afterCompletion(Runnable invalidation) {
+    if (transactionRegistry.getTransactionKey() == null) {
+      invalidation.run();
+      return;
+    }
+    transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+      @Override
+      public void beforeCompletion() {
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        invalidation.run();
+      }
+    });
+  }
+
+  public void invalidateAll() {
+    metadata.clear();
+    size.set(0);
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+}
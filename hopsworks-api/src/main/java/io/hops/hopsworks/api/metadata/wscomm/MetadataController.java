@@ -73,6 +73,7 @@ import io.hops.hopsworks.common.exception.DatasetException;
 import io.hops.hopsworks.common.exception.RESTCodes;
 import io.hops.hopsworks.common.exception.MetadataException;
 import io.hops.hopsworks.common.util.HopsUtils;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.logging.Level;
@@ -112,6 +113,8 @@ public class MetadataController {
   private DatasetFacade datasetFacade;
   @EJB
   private SchemalessMetadataFacade schemalessMetadataFacade;
+  @EJB
+  private InodeMetadataCache inodeMetadataCache;
 
   public MetadataController() {
   }
@@ -151,6 +154,7 @@ public class MetadataController {
    */
   public void removeTemplate(Template template) {
     this.templateFacade.removeTemplate(template);
+    this.inodeMetadataCache.invalidateAllAfterCompletion();
   }
 
   /**
@@ -188,6 +192,7 @@ public class MetadataController {
         this.addFieldsPredefinedValues(predef, fieldid);
       }
     }
+    this.inodeMetadataCache.invalidateAllAfterCompletion();
   }
 
   /**
@@ -215,6 +220,7 @@ public class MetadataController {
   public void deleteTable(MTable table) {
     LOGGER.log(Level.INFO, "DELETING TABLE {0} ", table.getName());
     this.tableFacade.deleteTable(table);
+    this.inodeMetadataCache.invalidateAllAfterCompletion();
   }
 
   /**
@@ -225,6 +231,7 @@ public class MetadataController {
   public void deleteField(Field field) {
     LOGGER.log(Level.INFO, "DELETING FIELD {0} ", field);
     this.fieldFacade.deleteField(field);
+    this.inodeMetadataCache.invalidateAllAfterCompletion();
   }
 
   /**
@@ -279,6 +286,50 @@ public class MetadataController {
       //move on to persist the child entities
       this.storeMetaData(metadataList, tupleid);
     }
+    this.inodeMetadataCache.invalidateAfterCompletion(itc.getInodePid(), itc.getInodeName());
+  }
+
+  /**
+   * Stores the raw data of several inodes in a single transaction. One tuple is
+   * created per inode, then all the raw data and metadata records are persisted
+   * with a single flush. The raw data entities are modified, they cannot be
+   * stored again if the transaction rolls back
+   * <p/>
+   * @param items the inodes and the raw data to attach to each of them, as
+   * parsed by JsonUtil.parseSchemaPayload
+   */
+  public void storeRawData(List<Pair<Inode, List<EntityIntf>>> items) {
+  
+    List<TupleToFile> tuples = new ArrayList<>(items.size());
+    for (Pair<Inode, List<EntityIntf>> item : items) {
+      tuples.add(new TupleToFile(-1, item.getL()));
+    }
+    this.tupletoFileFacade.addTuplesToFiles(tuples);
+  
+    List<RawData> rawData = new ArrayList<>();
+    List<Metadata> metadata = new ArrayList<>();
+    for (int i = 0; i < items.size(); i++) {
+      int tupleid = tuples.get(i).getId();
+      for (EntityIntf raww : items.get(i).getR()) {
+        RawData r = (RawData) raww;
+        r.getRawdataPK().setTupleid(tupleid);
+        for (Metadata m : r.getMetadata()) {
+          m.getMetadataPK().setTupleid(tupleid);
+          metadata.add(m);
+        }
+        r.resetMetadata();
+        rawData.add(r);
+      }
+    }
+    this.metadataFacade.addRawDataAndMetadata(rawData, metadata);
+  
+    for (Metadata m : metadata) {
+      logMetadataOperation(m, OperationType.Add);
+    }
+    for (Pair<Inode, List<EntityIntf>> item : items) {
+      this.inodeMetadataCache.invalidateAfterCompletion(item.getL().getInodePK().getParentId(),
+        item.getL().getInodePK().getName());
+    }
   }
 
   /**
@@ -294,6 +345,7 @@ public class MetadataController {
     metadata.setData(metaObj);
     this.metadataFacade.addMetadata(metadata);
     logMetadataOperation(metadata, OperationType.Update);
+    this.invalidateInodeMetadata(composite);
 
   }
 
@@ -311,9 +363,25 @@ public class MetadataController {
     metadata.setData(metaObj);
     this.metadataFacade.removeMetadata(metadata);
     logMetadataOperation(metadata, OperationType.Delete);
+    this.invalidateInodeMetadata(composite);
 
   }
 
+  /**
+   * Drops the cached metadata responses of the inode the composite refers to, or of all inodes if it does not
+   * carry one.
+   * <p/>
+   * @param composite
+   */
+  private void invalidateInodeMetadata(List<EntityIntf> composite) {
+    if (composite != null && !composite.isEmpty() && composite.get(0) instanceof InodeTableComposite) {
+      InodeTableComposite itc = (InodeTableComposite) composite.get(0);
+      this.inodeMetadataCache.invalidateAfterCompletion(itc.getInodePid(), itc.getInodeName());
+    } else {
+      this.inodeMetadataCache.invalidateAllAfterCompletion();
+    }
+  }
+
   /**
    * Stores the actual metadata for an inode. Associates a raw data record with
    * a metadata record in the meta_data table
@@ -58,6 +58,7 @@ import io.hops.hopsworks.common.dao.metadata.TupleToFile;
 import io.hops.hopsworks.common.dao.metadata.db.FieldFacade;
 import io.hops.hopsworks.common.dao.metadata.db.FieldTypeFacade;
 import io.hops.hopsworks.common.dao.metadata.db.MTableFacade;
+import io.hops.hopsworks.common.dao.metadata.db.MetadataFacade;
 import io.hops.hopsworks.common.dao.metadata.db.TemplateFacade;
 import io.hops.hopsworks.common.dao.metadata.db.TupleToFileFacade;
 import io.hops.hopsworks.common.exception.GenericException;
@@ -95,6 +96,10 @@ public class ResponseBuilder {
   private FieldTypeFacade fieldTypeFacade;
   @EJB
   private FieldFacade fieldFacade;
+  @EJB
+  private MetadataFacade metadataFacade;
+  @EJB
+  private InodeMetadataCache inodeMetadataCache;
 
   public ResponseBuilder() {
     logger.log(Level.INFO, "ResponseBuilder initialized");
@@ -242,35 +247,15 @@ public class ResponseBuilder {
   
     FetchMetadataMessage message = new FetchMetadataMessage("Server", "");
   
-    MTable t = this.tableFacade.getTable(itc.getTableid());
-    List<TupleToFile> ttfList = this.tupletofileFacade.getTuplesByInodeId(itc.
-      getInodePid(), itc.getInodeName());
-  
-    List<Field> fields = t.getFields();
-  
-    for (Field field : fields) {
-      /*
-       * Load raw data based on the field id. Keep only data related to
-       * a specific inode
-       */
-      List<RawData> rawList = field.getRawData();
-      List<RawData> toKeep = new LinkedList<>();
-    
-      for (RawData raw : rawList) {
-        for (TupleToFile ttf : ttfList) {
-        
-          if (raw.getRawdataPK().getTupleid() == ttf.getId()) {
-            toKeep.add(raw);
-          }
-        }
-      }
-    
-      field.setRawData(toKeep);
+    String jsonMsg = this.inodeMetadataCache.get(itc);
+    if (jsonMsg == null) {
+      MTable t = this.tableFacade.getTable(itc.getTableid());
+      //the metadata of the inode for all the fields of the table, grouped by field id
+      Map<Integer, List<String>> data = this.metadataFacade.getFieldDataByTableAndInode(
+        itc.getTableid(), itc.getInodePid(), itc.getInodeName());
+      jsonMsg = message.buildSchema(t, data);
+      this.inodeMetadataCache.put(itc, jsonMsg);
     }
-  
-    List<MTable> tables = new LinkedList<>();
-    tables.add(t);
-    String jsonMsg = message.buildSchema((List<EntityIntf>) (List<?>) tables);
     message.setMessage(jsonMsg);
   
     return message;
@@ -309,6 +294,7 @@ public class ResponseBuilder {
   
     //remove the child entities first
     this.fieldFacade.deleteField(field);
+    this.inodeMetadataCache.invalidateAllAfterCompletion();
   
     for (Integer id : rawdataAsTuple) {
       //get the changed tupletofile object from the database
@@ -41,6 +41,7 @@ package io.hops.hopsworks.api.metadata.wscomm;
 
 import io.hops.hopsworks.api.metadata.wscomm.message.Message;
 import io.hops.hopsworks.api.metadata.wscomm.message.TextMessage;
+import io.hops.hopsworks.api.util.SessionSender;
 import io.hops.hopsworks.common.dao.project.Project;
 import io.hops.hopsworks.common.dao.project.ProjectFacade;
 import io.hops.hopsworks.common.dao.project.team.ProjectTeamFacade;
@@ -49,6 +50,9 @@ import io.hops.hopsworks.common.exception.GenericException;
 import io.hops.hopsworks.common.exception.MetadataException;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.ejb.EJB;
@@ -72,6 +76,8 @@ public class WebSocketEndpoint {
 
   private static final Logger logger = Logger.getLogger(WebSocketEndpoint.class.
           getName());
+  //open sessions of each project, so broadcasting does not scan every open metadata socket of the server
+  private static final Map<Integer, Set<Session>> projectSessions = new ConcurrentHashMap<>();
 
   @EJB
   private ProjectTeamFacade projectTeamFacade;
@@ -116,8 +122,10 @@ public class WebSocketEndpoint {
       } catch (IOException ex) {
         logger.log(Level.SEVERE, ex.getMessage(), ex);
       }
+      return;
     }
     session.getUserProperties().put("projectID", this.project.getId());
+    projectSessions.computeIfAbsent(this.project.getId(), id -> ConcurrentHashMap.newKeySet()).add(session);
   }
 
   @OnMessage
@@ -136,6 +144,15 @@ public class WebSocketEndpoint {
     logger.log(Level.INFO,
             "HOPSWORKS: USER {0} SESSION DESTROYED sessions {1}",
             new Object[]{this.sender, session.getOpenSessions().size()});
+    Integer projectId = (Integer) session.getUserProperties().get("projectID");
+    //the session was rejected on open, it was never registered for broadcasts
+    if (projectId == null) {
+      return;
+    }
+    projectSessions.computeIfPresent(projectId, (id, sessions) -> {
+      sessions.remove(session);
+      return sessions.isEmpty() ? null : sessions;
+    });
     Message message = new TextMessage(this.sender, " Left");
     message.setStatus("INFO");
     this.broadcast(message, session);
@@ -143,17 +160,20 @@ public class WebSocketEndpoint {
 
   //broadcast to every one connected to the same project
   private void broadcast(Message msg, Session session) {
-    for (Session s : session.getOpenSessions()) {
-      try {
-        if (s.isOpen() && s.getUserProperties().get("projectID").equals(
-                session.getUserProperties().get("projectID"))) {
-          s.getBasicRemote().sendObject(msg);//RemoteEndpoint.Basic interface provides blocking methods to send
-          //messages; the RemoteEndpoint.Async interface provides nonblocking methods.
-          //logger.log(Level.INFO, "Sending >>> {0} to session: {1}",
-          //new Object[]{msg, s.getUserPrincipal()});
-        }
-      } catch (IOException | EncodeException ex) {
-        this.sendError(session, ex.getMessage());
+    Integer projectId = (Integer) session.getUserProperties().get("projectID");
+    if (projectId == null) {
+      return;
+    }
+    Set<Session> sessions = projectSessions.get(projectId);
+    if (sessions == null || sessions.isEmpty()) {
+      return;
+    }
+    //encode once for all the recipients, same as MessageEncoder
+    String text = msg.encode();
+    for (Session s : sessions) {
+      //queued and sent through the async remote, a slow client does not block the others
+      if (!SessionSender.of(s).send(text)) {
+        logger.log(Level.FINE, "Message to session {0} was dropped", s.getId());
       }
     }
   }
@@ -163,6 +183,7 @@ public class WebSocketEndpoint {
     logger.log(Level.SEVERE, t.getMessage(), t);
   }
 
+  //only used before the session is registered for broadcasts, so no async send can be in progress
   private void sendClient(Session session, Message message) {
     try {
       session.getBasicRemote().sendObject(message);
@@ -44,7 +44,9 @@ import io.hops.hopsworks.common.dao.metadata.Field;
 import io.hops.hopsworks.common.dao.metadata.MTable;
 import io.hops.hopsworks.common.dao.metadata.Metadata;
 import io.hops.hopsworks.common.dao.metadata.RawData;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import javax.json.Json;
 import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
@@ -149,6 +151,37 @@ public class FetchMetadataMessage extends MetadataMessage {
     return builder.build().toString();
   }
 
+  /**
+   * Builds the same schema as {@link #buildSchema(List)} from the fields of a table and the metadata values of an
+   * inode grouped by field id, without touching the raw data of the fields.
+   *
+   * @param table the metadata table
+   * @param data the metadata values of each field id
+   * @return the json schema
+   */
+  public String buildSchema(MTable table, Map<Integer, List<String>> data) {
+    JsonObjectBuilder builder = Json.createObjectBuilder();
+    builder.add("table", table.getName());
+
+    JsonArrayBuilder fields = Json.createArrayBuilder();
+    for (Field fi : table.getFields()) {
+      JsonObjectBuilder field = Json.createObjectBuilder();
+      field.add("id", fi.getId());
+      field.add("name", fi.getName());
+
+      JsonArrayBuilder rd = Json.createArrayBuilder();
+      for (String value : data.getOrDefault(fi.getId(), Collections.<String>emptyList())) {
+        rd.add(value);
+      }
+      field.add("data", rd);
+      fields.add(field);
+    }
+
+    builder.add("fields", fields);
+
+    return builder.build().toString();
+  }
+
   @Override
   public String getMessage() {
     return this.message;
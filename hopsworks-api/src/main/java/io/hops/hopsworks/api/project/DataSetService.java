@@ -46,6 +46,7 @@ import io.hops.hopsworks.api.project.util.DsPath;
 import io.hops.hopsworks.api.project.util.PathValidator;
 import io.hops.hopsworks.api.util.DownloadService;
 import io.hops.hopsworks.api.util.FilePreviewImageTypes;
+import io.hops.hopsworks.api.util.JsonArrayWriter;
 import io.hops.hopsworks.api.util.RESTApiJsonResponse;
 import io.hops.hopsworks.api.util.UploadService;
 import io.hops.hopsworks.common.constants.message.ResponseMessages;
@@ -56,6 +57,7 @@ import io.hops.hopsworks.common.dao.dataset.DatasetPermissions;
 import io.hops.hopsworks.common.dao.dataset.DatasetRequest;
 import io.hops.hopsworks.common.dao.dataset.DatasetRequestFacade;
 import io.hops.hopsworks.common.dao.hdfs.inode.Inode;
+import io.hops.hopsworks.common.dao.hdfs.inode.InodeChildrenFilter;
 import io.hops.hopsworks.common.dao.hdfs.inode.InodeFacade;
 import io.hops.hopsworks.common.dao.hdfs.inode.InodeView;
 import io.hops.hopsworks.common.dao.jobhistory.Execution;
@@ -103,6 +105,7 @@ import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
@@ -116,12 +119,19 @@ import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Providers;
 import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -132,6 +142,10 @@ public class DataSetService {
   private static final Logger LOGGER = Logger.getLogger(DataSetService.class.
           getName());
 
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  // Maximum number of children read from the database at once
+  private static final int DIR_CONTENT_PAGE_SIZE = 1000;
+
   @EJB
   private ProjectFacade projectFacade;
   @EJB
@@ -320,11 +334,24 @@ public class DataSetService {
   }
 
   /**
-   * Get the inodes in the given project-relative path.
+   * Get the inodes in the given project-relative path. Without a <i>limit</i>
+   * the whole directory is returned. With a <i>limit</i> at most that many
+   * children are returned, and if there are more the cursor of the next page
+   * is set in the {@value #NEXT_CURSOR_HEADER} header. Children are sorted and
+   * filtered in the database and written to the response as they are read.
    * <p/>
    * @param path
+   * @param limit maximum number of children to return
+   * @param cursor position to continue from, as returned by a previous page
+   * @param sort name, modified or size
+   * @param order asc or desc
+   * @param prefix only children whose name starts with this prefix
+   * @param type file or dir
+   * @param modifiedAfter only children modified after this time, in milliseconds
+   * @param modifiedBefore only children modified before this time, in milliseconds
    * @param sc
    * @param req
+   * @param providers
    * @return
    */
   @GET
@@ -333,33 +360,144 @@ public class DataSetService {
   @AllowedProjectRoles({AllowedProjectRoles.DATA_SCIENTIST, AllowedProjectRoles.DATA_OWNER})
   public Response getDirContent(
           @PathParam("path") String path,
+          @QueryParam("limit") Integer limit,
+          @QueryParam("cursor") String cursor,
+          @QueryParam("sort") @DefaultValue("name") String sort,
+          @QueryParam("order") @DefaultValue("asc") String order,
+          @QueryParam("prefix") String prefix,
+          @QueryParam("type") String type,
+          @QueryParam("modifiedAfter") Long modifiedAfter,
+          @QueryParam("modifiedBefore") Long modifiedBefore,
           @Context SecurityContext sc,
-          @Context HttpServletRequest req) throws DatasetException, ProjectException {
+          @Context HttpServletRequest req,
+          @Context Providers providers) throws DatasetException, ProjectException {
     DsPath dsPath = pathValidator.validatePath(this.project, path);
     String fullPath = dsPath.getFullPath().toString();
     Inode parent = dsPath.validatePathExists(inodes,true);
-    List<Inode> cwdChildren = inodes.getChildren(parent);
+    InodeChildrenFilter filter = getChildrenFilter(sort, order, prefix, type, modifiedAfter, modifiedBefore,
+        cursor);
+    boolean shared = dsPath.getDs().isShared();
+    MessageBodyWriter<InodeView> writer = providers.getMessageBodyWriter(InodeView.class, InodeView.class,
+        new Annotation[0], MediaType.APPLICATION_JSON_TYPE);
+
+    if (limit == null) {
+      StreamingOutput stream = out -> {
+        JsonArrayWriter<InodeView> array = new JsonArrayWriter<>(writer, out);
+        List<Inode> page;
+        do {
+          page = inodes.findChildren(parent, filter, DIR_CONTENT_PAGE_SIZE);
+          array.writeAll(getInodeViews(page, fullPath, shared));
+          if (!page.isEmpty()) {
+            filter.setAfter(page.get(page.size() - 1));
+          }
+        } while (page.size() == DIR_CONTENT_PAGE_SIZE);
+        array.close();
+      };
+      return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(stream).build();
+    }
 
-    List<InodeView> kids = new ArrayList<>();
-    for (Inode i : cwdChildren) {
-      InodeView inodeView = new InodeView(i, fullPath + "/" + i.getInodePK().getName());
-      if (dsPath.getDs().isShared()) {
+    if (limit < 1 || limit > DIR_CONTENT_PAGE_SIZE) {
+      throw new DatasetException(RESTCodes.DatasetErrorCode.DATASET_PARAMETERS_INVALID, Level.FINE,
+          "limit must be between 1 and " + DIR_CONTENT_PAGE_SIZE);
+    }
+    // Read one more to know whether there is a next page
+    List<Inode> children = inodes.findChildren(parent, filter, limit + 1);
+    String nextCursor = null;
+    if (children.size() > limit) {
+      children = children.subList(0, limit);
+      filter.setAfter(children.get(limit - 1));
+      nextCursor = filter.getCursor();
+    }
+    final List<Inode> page = children;
+    StreamingOutput stream = out -> {
+      JsonArrayWriter<InodeView> array = new JsonArrayWriter<>(writer, out);
+      array.writeAll(getInodeViews(page, fullPath, shared));
+      array.close();
+    };
+    Response.ResponseBuilder response = noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(stream);
+    if (nextCursor != null) {
+      response.header(NEXT_CURSOR_HEADER, nextCursor);
+    }
+    return response.build();
+  }
+
+  private InodeChildrenFilter getChildrenFilter(String sort, String order, String prefix, String type,
+      Long modifiedAfter, Long modifiedBefore, String cursor) throws DatasetException {
+    InodeChildrenFilter filter = new InodeChildrenFilter();
+    try {
+      switch (sort.toLowerCase()) {
+        case "name":
+          filter.setSortBy(InodeChildrenFilter.SortBy.NAME);
+          break;
+        case "modified":
+          filter.setSortBy(InodeChildrenFilter.SortBy.MODIFICATION_TIME);
+          break;
+        case "size":
+          filter.setSortBy(InodeChildrenFilter.SortBy.SIZE);
+          break;
+        default:
+          throw new IllegalArgumentException("sort must be one of name, modified, size");
+      }
+      switch (order.toLowerCase()) {
+        case "asc":
+          filter.setDescending(false);
+          break;
+        case "desc":
+          filter.setDescending(true);
+          break;
+        default:
+          throw new IllegalArgumentException("order must be asc or desc");
+      }
+      if (type != null) {
+        switch (type.toLowerCase()) {
+          case "dir":
+            filter.setDir(true);
+            break;
+          case "file":
+            filter.setDir(false);
+            break;
+          default:
+            throw new IllegalArgumentException("type must be file or dir");
+        }
+      }
+      filter.setNamePrefix(prefix);
+      filter.setModifiedAfter(modifiedAfter);
+      filter.setModifiedBefore(modifiedBefore);
+      filter.setCursor(cursor);
+    } catch (IllegalArgumentException ex) {
+      throw new DatasetException(RESTCodes.DatasetErrorCode.DATASET_PARAMETERS_INVALID, Level.FINE,
+          ex.getMessage(), ex.getMessage(), ex);
+    }
+    return filter;
+  }
+
+  /**
+   * Build the views of a page of children, resolving their owners in one query.
+   */
+  private List<InodeView> getInodeViews(List<Inode> children, String fullPath, boolean shared) {
+    Set<String> usernames = new HashSet<>();
+    for (Inode i : children) {
+      usernames.add(i.getHdfsUser().getUsername());
+    }
+    Map<String, Users> owners = userFacade.findByUsernames(usernames);
+
+    List<InodeView> kids = new ArrayList<>(children.size());
+    for (Inode i : children) {
+      String childPath = fullPath + "/" + i.getInodePK().getName();
+      InodeView inodeView = new InodeView(i, childPath);
+      if (shared) {
         //Get project of project__user the inode is owned by
         inodeView.setOwningProjectName(hdfsUsersBean.getProjectName(i.getHdfsUser().getName()));
       }
-      inodeView.setZipState(settings.getZipState(
-              fullPath + "/" + i.getInodePK().getName()));
-      Users user = userFacade.findByUsername(inodeView.getOwner());
+      inodeView.setZipState(settings.getZipState(childPath));
+      Users user = owners.get(inodeView.getOwner());
       if (user != null) {
         inodeView.setOwner(user.getFname() + " " + user.getLname());
         inodeView.setEmail(user.getEmail());
       }
       kids.add(inodeView);
     }
-    GenericEntity<List<InodeView>> inodeViews
-            = new GenericEntity<List<InodeView>>(kids) { };
-    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(
-            inodeViews).build();
+    return kids;
   }
 
   @GET
@@ -839,6 +977,7 @@ public class DataSetService {
         dfso = dfs.getDfsOps(username);// do it as project user
       }
       success = dfso.rm(fullPath, true);
+      inodes.invalidatePath(fullPath.toUri().getPath());
     } catch (IOException ex) {
       throw new DatasetException(RESTCodes.DatasetErrorCode.INODE_DELETION_ERROR, Level.SEVERE,
         "path: " + fullPath.toString(), ex.getMessage(), ex);
@@ -926,6 +1065,7 @@ public class DataSetService {
       String owner = udfso.getFileStatus(sourcePath).getOwner();
 
       udfso.moveWithinHdfs(sourcePath, destPath);
+      inodes.invalidatePath(sourcePath.toUri().getPath());
 
       // Change permissions recursively
       datasetController.recChangeOwnershipAndPermission(destPath, permission,
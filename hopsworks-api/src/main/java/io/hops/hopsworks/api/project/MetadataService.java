@@ -39,8 +39,10 @@
 
 package io.hops.hopsworks.api.project;
 
+import io.hops.common.Pair;
 import io.hops.hopsworks.api.filter.AllowedProjectRoles;
 import io.hops.hopsworks.api.filter.NoCacheResponse;
+import io.hops.hopsworks.api.metadata.wscomm.InodeMetadataCache;
 import io.hops.hopsworks.api.metadata.wscomm.MetadataController;
 import io.hops.hopsworks.api.metadata.wscomm.MetadataProtocol;
 import io.hops.hopsworks.api.metadata.wscomm.message.ContentMessage;
@@ -82,11 +84,14 @@ import org.codehaus.jackson.node.ObjectNode;
 
 import javax.annotation.security.RolesAllowed;
 import javax.ejb.EJB;
+import javax.ejb.EJBException;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.inject.Inject;
 import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
 import javax.json.JsonString;
 import javax.servlet.http.HttpServletRequest;
@@ -104,10 +109,13 @@ import javax.ws.rs.core.SecurityContext;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -121,6 +129,9 @@ public class MetadataService {
 
   private final static Logger LOGGER = Logger.getLogger(MetadataService.class.
           getName());
+  //maximum number of inodes in a bulk request, and number of inodes stored per transaction
+  private static final int MAX_BULK_ITEMS = 10000;
+  private static final int BULK_CHUNK_SIZE = 500;
 
   private enum MetadataOp {
     ADD,
@@ -150,6 +161,8 @@ public class MetadataService {
   private ProjectFacade projectFacade;
   @EJB
   private ProjectTeamFacade projectTeamFacade;
+  @EJB
+  private InodeMetadataCache inodeMetadataCache;
 
   /**
    * Uploads a template file (.json) to the file system (hopsfs) and persists it
@@ -443,6 +456,7 @@ public class MetadataService {
           }
         }
       }
+      inodeMetadataCache.invalidateAfterCompletion(inode.getInodePK().getParentId(), inode.getInodePK().getName());
     }
 
     RESTApiJsonResponse json = new RESTApiJsonResponse();
@@ -527,6 +541,152 @@ public class MetadataService {
     return mutateMetadata(email, metaObj, MetadataOp.REMOVE);
   }
 
+  /**
+   * Attaches metadata to many inodes in one request. The body is a json array
+   * of objects in the format of addWithSchema. Inodes are resolved in batches
+   * per parent, and metadata is stored in one transaction per chunk of
+   * inodes. Items that fail are reported back by their index in the array,
+   * the rest are stored
+   * <p/>
+   * @param sc
+   * @param req
+   * @param metaObjs
+   * @return the number of stored items and the errors of the failed ones
+   */
+  @POST
+  @Path("addWithSchemaBulk")
+  @Consumes(MediaType.APPLICATION_JSON)
+  @AllowedProjectRoles({AllowedProjectRoles.DATA_SCIENTIST, AllowedProjectRoles.DATA_OWNER})
+  public Response addMetadataWithSchemaBulk(
+          @Context SecurityContext sc, @Context HttpServletRequest req,
+          String metaObjs) {
+    if (metaObjs == null) {
+      throw new IllegalArgumentException("metaObjs were not provided.");
+    }
+    JsonArray array = Json.createReader(new StringReader(metaObjs)).readArray();
+    if (array.size() > MAX_BULK_ITEMS) {
+      throw new IllegalArgumentException("At most " + MAX_BULK_ITEMS + " items can be added in one request.");
+    }
+    Users user = userFacade.findByEmail(sc.getUserPrincipal().getName());
+
+    Map<Integer, String> errors = new TreeMap<>();
+    List<Integer> indexes = new ArrayList<>();
+    List<InodeTableComposite> headers = new ArrayList<>();
+    List<JsonObject> payloads = new ArrayList<>();
+    Map<Integer, List<String>> namesByParent = new HashMap<>();
+    for (int i = 0; i < array.size(); i++) {
+      try {
+        JsonObject obj = array.getJsonObject(i);
+        InodeTableComposite itc = JsonUtil.parseSchemaHeader(obj);
+        if (itc == null) {
+          errors.put(i, "Missing inodepid, inodename or tableid");
+          continue;
+        }
+        //parsed up front to report badly formatted items, and again for every attempt to store them
+        JsonUtil.parseSchemaPayload(obj);
+        indexes.add(i);
+        headers.add(itc);
+        payloads.add(obj);
+        namesByParent.computeIfAbsent(itc.getInodePid(), pid -> new ArrayList<>()).add(itc.getInodeName());
+      } catch (RuntimeException ex) {
+        errors.put(i, "Badly formatted json message");
+      }
+    }
+
+    //resolve all the inodes of a parent in batches instead of one by one
+    Map<Integer, Map<String, Inode>> inodesByParent = new HashMap<>();
+    for (Map.Entry<Integer, List<String>> entry : namesByParent.entrySet()) {
+      Map<String, Inode> inodes = new HashMap<>();
+      for (Inode inode : inodeFacade.findByParentIdAndNames(entry.getKey(), entry.getValue(), 3)) {
+        inodes.put(inode.getInodePK().getName(), inode);
+      }
+      inodesByParent.put(entry.getKey(), inodes);
+    }
+
+    //children of the same parent belong to the same project, check the role once per parent
+    Map<Integer, Boolean> allowedParents = new HashMap<>();
+    List<Integer> validIndexes = new ArrayList<>();
+    List<Pair<Inode, JsonObject>> items = new ArrayList<>();
+    for (int i = 0; i < indexes.size(); i++) {
+      InodeTableComposite itc = headers.get(i);
+      Inode inode = inodesByParent.get(itc.getInodePid()).get(itc.getInodeName());
+      if (inode == null) {
+        errors.put(indexes.get(i), "Incorrect parent inodeId or inode name");
+        continue;
+      }
+      Boolean allowed = allowedParents.get(itc.getInodePid());
+      if (allowed == null) {
+        allowed = isDataOwner(user, inode);
+        allowedParents.put(itc.getInodePid(), allowed);
+      }
+      if (!allowed) {
+        errors.put(indexes.get(i), "You do not have permission to modify metadata in this project.");
+        continue;
+      }
+      validIndexes.add(indexes.get(i));
+      items.add(new Pair<>(inode, payloads.get(i)));
+    }
+
+    int stored = 0;
+    for (int from = 0; from < items.size(); from += BULK_CHUNK_SIZE) {
+      int to = Math.min(from + BULK_CHUNK_SIZE, items.size());
+      try {
+        metadataController.storeRawData(parseRawData(items.subList(from, to)));
+        stored += to - from;
+      } catch (EJBException ex) {
+        //the chunk was rolled back, store its items one by one to find the ones that fail. The entities of the
+        //chunk were modified by the failed attempt, so every attempt stores newly parsed ones
+        LOGGER.log(Level.FINE, "Could not store metadata chunk, retrying item by item", ex);
+        for (int i = from; i < to; i++) {
+          try {
+            metadataController.storeRawData(parseRawData(items.subList(i, i + 1)));
+            stored++;
+          } catch (EJBException itemEx) {
+            errors.put(validIndexes.get(i), "Could not store metadata");
+          }
+        }
+      }
+    }
+
+    JsonArrayBuilder failed = Json.createArrayBuilder();
+    for (Map.Entry<Integer, String> error : errors.entrySet()) {
+      failed.add(Json.createObjectBuilder()
+        .add("index", error.getKey())
+        .add("errorMsg", error.getValue()));
+    }
+    JsonObject response = Json.createObjectBuilder()
+      .add("stored", stored)
+      .add("failed", failed)
+      .build();
+    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(
+            response.toString()).build();
+  }
+
+  private List<Pair<Inode, List<EntityIntf>>> parseRawData(List<Pair<Inode, JsonObject>> items) {
+    List<Pair<Inode, List<EntityIntf>>> rawData = new ArrayList<>(items.size());
+    for (Pair<Inode, JsonObject> item : items) {
+      rawData.add(new Pair<>(item.getL(), JsonUtil.parseSchemaPayload(item.getR())));
+    }
+    return rawData;
+  }
+
+  private boolean isDataOwner(Users user, Inode inode) {
+    Project project;
+    try {
+      Inode projectInode = inodeFacade.getProjectRootForInode(inode);
+      project = projectFacade.findByInodeId(projectInode.getInodePK().
+              getParentId(), projectInode.getInodePK().getName());
+    } catch (IllegalStateException ex) {
+      //the inode is not inside a project
+      return false;
+    }
+    if (project == null) {
+      return false;
+    }
+    String userRole = projectTeamFacade.findCurrentRole(project, user);
+    return userRole != null && userRole.compareToIgnoreCase(AllowedProjectRoles.DATA_OWNER) == 0;
+  }
+
   private Response mutateMetadata(String email, String metaObj, MetadataOp op)
     throws MetadataException, GenericException {
     if (op == null || email == null || metaObj == null) {
@@ -81,6 +81,7 @@ import io.hops.hopsworks.common.exception.UserException;
 import io.hops.hopsworks.common.hdfs.DistributedFileSystemOps;
 import io.hops.hopsworks.common.hdfs.DistributedFsService;
 import io.hops.hopsworks.common.hdfs.HdfsUsersController;
+import io.hops.hopsworks.common.hdfs.InodeSizeController;
 import io.hops.hopsworks.common.message.MessageController;
 import io.hops.hopsworks.common.project.MoreInfoDTO;
 import io.hops.hopsworks.common.project.ProjectController;
@@ -170,6 +171,8 @@ public class ProjectService {
   @EJB
   private InodeFacade inodes;
   @EJB
+  private InodeSizeController inodeSizeController;
+  @EJB
   private HdfsUsersController hdfsUsersBean;
   @EJB
   private UsersController usersController;
@@ -353,7 +356,7 @@ public class ProjectService {
     MoreInfoDTO info = new MoreInfoDTO(inode);
     Users user = userFacade.findByUsername(info.getUser());
     info.setUser(user.getFname() + " " + user.getLname());
-    info.setSize(inodes.getSize(inode));
+    info.setSize(inodeSizeController.getSize(inode));
     info.setPath(inodes.getPath(inode));
     return info;
   }
@@ -371,7 +374,7 @@ public class ProjectService {
     MoreInfoDTO info = new MoreInfoDTO(inode);
     Users user = userFacade.findByUsername(info.getUser());
     info.setUser(user.getFname() + " " + user.getLname());
-    info.setSize(inodes.getSize(inode));
+    info.setSize(inodeSizeController.getSize(inode));
     info.setPath(inodes.getPath(inode));
     return info;
   }
@@ -0,0 +1,159 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.api.serving;
+
+import io.hops.hopsworks.common.serving.inference.InferenceHttpClient;
+import io.hops.hopsworks.common.util.LatencyHistogram;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+import java.util.Map;
+
+@XmlRootElement
+@ApiModel(value = "Latencies of the inference requests sent to a TfServing instance")
+public class InferenceLatenciesView implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private HistogramView queue;
+  private HistogramView connect;
+  private HistogramView server;
+
+  public InferenceLatenciesView() { }
+
+  public InferenceLatenciesView(InferenceHttpClient.InferenceLatencies latencies) {
+    if (latencies != null) {
+      this.queue = new HistogramView(latencies.getQueue());
+      this.connect = new HistogramView(latencies.getConnect());
+      this.server = new HistogramView(latencies.getServer());
+    }
+  }
+
+  @ApiModelProperty(value = "Time an asynchronous inference request waited for an executor thread, before a "
+      + "connection is leased. Requests sent on the calling thread are not recorded")
+  public HistogramView getQueue() {
+    return queue;
+  }
+
+  public void setQueue(HistogramView queue) {
+    this.queue = queue;
+  }
+
+  @ApiModelProperty(value = "Time from the start of the request until it is written to a connection: waiting "
+      + "for a connection lease from the pool and, for a new connection, the TCP connect and TLS handshake")
+  public HistogramView getConnect() {
+    return connect;
+  }
+
+  public void setConnect(HistogramView connect) {
+    this.connect = connect;
+  }
+
+  @ApiModelProperty(value = "Time from writing the request until the response is read, including the network "
+      + "transfer of request and response")
+  public HistogramView getServer() {
+    return server;
+  }
+
+  public void setServer(HistogramView server) {
+    this.server = server;
+  }
+
+  @ApiModel(value = "Latency histogram in milliseconds")
+  public static class HistogramView implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long count;
+    private long max;
+    private double mean;
+    private long p50;
+    private long p95;
+    private long p99;
+    private Map<String, Long> buckets;
+
+    public HistogramView() { }
+
+    public HistogramView(LatencyHistogram histogram) {
+      this.count = histogram.getCount();
+      this.max = histogram.getMax();
+      this.mean = histogram.getMean();
+      this.p50 = histogram.getPercentile(50);
+      this.p95 = histogram.getPercentile(95);
+      this.p99 = histogram.getPercentile(99);
+      this.buckets = histogram.getBuckets();
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public void setCount(long count) {
+      this.count = count;
+    }
+
+    public long getMax() {
+      return max;
+    }
+
+    public void setMax(long max) {
+      this.max = max;
+    }
+
+    public double getMean() {
+      return mean;
+    }
+
+    public void setMean(double mean) {
+      this.mean = mean;
+    }
+
+    public long getP50() {
+      return p50;
+    }
+
+    public void setP50(long p50) {
+      this.p50 = p50;
+    }
+
+    public long getP95() {
+      return p95;
+    }
+
+    public void setP95(long p95) {
+      this.p95 = p95;
+    }
+
+    public long getP99() {
+      return p99;
+    }
+
+    public void setP99(long p99) {
+      this.p99 = p99;
+    }
+
+    public Map<String, Long> getBuckets() {
+      return buckets;
+    }
+
+    public void setBuckets(Map<String, Long> buckets) {
+      this.buckets = buckets;
+    }
+  }
+}
@@ -45,6 +45,7 @@ import io.hops.hopsworks.common.exception.ProjectException;
 import io.hops.hopsworks.common.exception.RESTCodes;
 import io.hops.hopsworks.common.exception.ServiceException;
 import io.hops.hopsworks.common.exception.UserException;
+import io.hops.hopsworks.common.serving.inference.InferenceHttpClient;
 import io.hops.hopsworks.common.serving.tf.TfServingCommands;
 import io.hops.hopsworks.common.dao.user.Users;
 import io.hops.hopsworks.common.serving.tf.TfServingController;
@@ -58,6 +59,7 @@ import org.elasticsearch.common.Strings;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.logging.Level;
 
 @RequestScoped
 @TransactionAttribute(TransactionAttributeType.NEVER)
@@ -69,6 +71,8 @@ public class TfServingService {
 
   @EJB
   private NoCacheResponse noCacheResponse;
+  @EJB
+  private InferenceHttpClient inferenceHttpClient;
 
   @EJB
   private TfServingModelPathValidator tfServingModelPathValidator;
@@ -145,6 +149,33 @@ public class TfServingService {
         .build();
   }
 
+  @GET
+  @Path("/{servingId}/latencies")
+  @Produces(MediaType.APPLICATION_JSON)
+  @AllowedProjectRoles({AllowedProjectRoles.DATA_OWNER, AllowedProjectRoles.DATA_SCIENTIST})
+  @ApiOperation(value = "Get the latencies of the inference requests sent to a TfServing instance",
+      response = InferenceLatenciesView.class)
+  public Response getInferenceLatencies(
+      @ApiParam(value = "Id of the TfServing instance", required = true) @PathParam("servingId") Integer servingId)
+      throws TfServingException, KafkaException, CryptoPasswordNotFoundException {
+    if (servingId == null) {
+      throw new IllegalArgumentException("servingId was not provided");
+    }
+    TfServingWrapper tfServingWrapper = tfServingController.getTfServing(project, servingId);
+    if (tfServingWrapper == null) {
+      throw new TfServingException(RESTCodes.TfServingErrorCode.INSTANCENOTFOUND, Level.FINE);
+    }
+
+    InferenceLatenciesView latenciesView =
+        new InferenceLatenciesView(inferenceHttpClient.getLatencies(tfServingWrapper.getTfServing().getId()));
+    GenericEntity<InferenceLatenciesView> latenciesEntity =
+        new GenericEntity<InferenceLatenciesView>(latenciesView){};
+
+    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK)
+        .entity(latenciesEntity)
+        .build();
+  }
+
   @DELETE
   @Path("/{servingId}")
   @AllowedProjectRoles({AllowedProjectRoles.DATA_OWNER, AllowedProjectRoles.DATA_SCIENTIST})
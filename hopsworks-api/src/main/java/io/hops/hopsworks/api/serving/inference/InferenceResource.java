@@ -34,8 +34,12 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 @RequestScoped
 @TransactionAttribute(TransactionAttributeType.NEVER)
@@ -45,6 +49,9 @@ public class InferenceResource {
   @EJB
   private InferenceController inferenceController;
 
+  // Should be larger than the socket timeout of the inference http client
+  private static final long INFERENCE_TIMEOUT_SEC = 90;
+
   private Project project;
 
   public void setProject(Project project) {
@@ -57,18 +64,27 @@ public class InferenceResource {
   @Produces(MediaType.APPLICATION_JSON)
   @ApiOperation(value = "Make inference")
   @AllowedProjectRoles({AllowedProjectRoles.DATA_OWNER, AllowedProjectRoles.DATA_SCIENTIST})
-  public Response infer(
+  public void infer(
       @ApiParam(value = "Name of the model to query", required = true) @PathParam("modelName") String modelName,
       @ApiParam(value = "Version fo the model to query") @PathParam("version") String modelVersion,
       @ApiParam(value = "Type of query") @PathParam("verb") String verb,
-      String inferenceRequestJson) throws InferenceException {
+      String inferenceRequestJson,
+      @Suspended final AsyncResponse asyncResponse) throws InferenceException {
 
     Integer version = null;
     if (!Strings.isNullOrEmpty(modelVersion)) {
       version = Integer.valueOf(modelVersion.split("/")[2]);
     }
 
-    String inferenceResult = inferenceController.infer(project, modelName, version, verb, inferenceRequestJson);
-    return Response.ok().entity(inferenceResult).build();
+    // The container thread is released here, the response is resumed once the model server has answered
+    asyncResponse.setTimeout(INFERENCE_TIMEOUT_SEC, TimeUnit.SECONDS);
+    inferenceController.inferAsync(project, modelName, version, verb, inferenceRequestJson)
+        .whenComplete((inferenceResult, throwable) -> {
+          if (throwable != null) {
+            asyncResponse.resume(throwable instanceof CompletionException ? throwable.getCause() : throwable);
+          } else {
+            asyncResponse.resume(Response.ok().entity(inferenceResult).build());
+          }
+        });
   }
 }
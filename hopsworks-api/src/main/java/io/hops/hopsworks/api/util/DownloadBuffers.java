@@ -0,0 +1,126 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.api.util;
+
+import io.hops.hopsworks.common.util.LatencyHistogram;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copy buffers shared by the downloads, and the download metrics.
+ * <p>
+ * The buffers are large so that a download moves whole packets of the HDFS
+ * client in each write. They are heap arrays because the servlet output
+ * stream only takes arrays, a direct buffer would add a copy. At most
+ * {@link #MAX_POOLED_BUFFERS} are kept, a download that finds none gets a new
+ * one which is dropped when it is returned to a full pool.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class DownloadBuffers {
+
+  public static final int BUFFER_SIZE = 1024 * 1024;
+  private static final int MAX_POOLED_BUFFERS = 64;
+
+  private final BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+
+  private final AtomicLong downloads = new AtomicLong(0);
+  private final AtomicLong rangeDownloads = new AtomicLong(0);
+  private final AtomicLong failedDownloads = new AtomicLong(0);
+  private final AtomicLong bytesSent = new AtomicLong(0);
+  private final AtomicLong transferMs = new AtomicLong(0);
+  private final AtomicLong allocated = new AtomicLong(0);
+  private final LatencyHistogram durations = new LatencyHistogram();
+
+  public byte[] acquire() {
+    byte[] buffer = buffers.poll();
+    if (buffer == null) {
+      allocated.incrementAndGet();
+      buffer = new byte[BUFFER_SIZE];
+    }
+    return buffer;
+  }
+
+  public void release(byte[] buffer) {
+    if (buffer != null && buffer.length == BUFFER_SIZE) {
+      buffers.offer(buffer);
+    }
+  }
+
+  /**
+   * Record a finished download.
+   *
+   * @param bytes the number of bytes sent
+   * @param durationMs how long sending took
+   * @param ranged whether only ranges of the file were sent
+   * @param failed whether the download was interrupted
+   */
+  public void record(long bytes, long durationMs, boolean ranged, boolean failed) {
+    downloads.incrementAndGet();
+    if (ranged) {
+      rangeDownloads.incrementAndGet();
+    }
+    if (failed) {
+      failedDownloads.incrementAndGet();
+    }
+    bytesSent.addAndGet(bytes);
+    transferMs.addAndGet(durationMs);
+    durations.record(durationMs);
+  }
+
+  public long getDownloadCount() {
+    return downloads.get();
+  }
+
+  public long getRangeDownloadCount() {
+    return rangeDownloads.get();
+  }
+
+  public long getFailedDownloadCount() {
+    return failedDownloads.get();
+  }
+
+  public long getBytesSent() {
+    return bytesSent.get();
+  }
+
+  /**
+   * @return the average throughput of a download in bytes per second
+   */
+  public double getThroughput() {
+    long ms = transferMs.get();
+    return ms == 0 ? 0 : bytesSent.get() * 1000.0 / ms;
+  }
+
+  public long getAllocatedBufferCount() {
+    return allocated.get();
+  }
+
+  public int getPooledBufferCount() {
+    return buffers.size();
+  }
+
+  public LatencyHistogram getDurations() {
+    return durations;
+  }
+
+}
@@ -51,23 +51,35 @@ import io.hops.hopsworks.common.exception.RESTCodes;
 import io.hops.hopsworks.common.hdfs.DistributedFileSystemOps;
 import io.hops.hopsworks.common.hdfs.DistributedFsService;
 import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.Path;
+import org.apache.http.client.utils.DateUtils;
 
 import javax.ejb.EJB;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.enterprise.context.RequestScoped;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
 import javax.ws.rs.core.StreamingOutput;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -77,10 +89,20 @@ public class DownloadService {
 
   private static final Logger LOGGER = Logger.getLogger(DownloadService.class.getName());
 
+  private static final String BYTES_UNIT = "bytes=";
+  private static final String RANGE = "Range";
+  private static final String IF_RANGE = "If-Range";
+  private static final String ACCEPT_RANGES = "Accept-Ranges";
+  private static final String CONTENT_RANGE = "Content-Range";
+  // More ranges than this in one request are answered with the whole file
+  private static final int MAX_RANGES = 64;
+
   @EJB
   private DistributedFsService dfs;
   @EJB
   private PathValidator pathValidator;
+  @EJB
+  private DownloadBuffers downloadBuffers;
 
   private String projectUsername;
   private Project project;
@@ -100,7 +122,11 @@ public class DownloadService {
   @javax.ws.rs.Path("/{path: .+}")
   @Produces(MediaType.APPLICATION_OCTET_STREAM)
   @AllowedProjectRoles({AllowedProjectRoles.DATA_SCIENTIST, AllowedProjectRoles.DATA_OWNER})
-  public Response downloadFromHDFS(@PathParam("path") String path, @Context SecurityContext sc)
+  public Response downloadFromHDFS(@PathParam("path") String path,
+    @HeaderParam(RANGE) String range,
+    @HeaderParam(IF_RANGE) String ifRange,
+    @Context Request request,
+    @Context SecurityContext sc)
     throws DatasetException, ProjectException {
 
     DsPath dsPath = pathValidator.validatePath(this.project, path);
@@ -109,47 +135,253 @@ public class DownloadService {
     if (ds.isShared() && ds.getEditable()==DatasetPermissions.OWNER_ONLY && !ds.isPublicDs()) {
       throw new DatasetException(RESTCodes.DatasetErrorCode.DOWNLOAD_ERROR, Level.FINE);
     }
+    if (projectUsername == null) {
+      throw new DatasetException(RESTCodes.DatasetErrorCode.DOWNLOAD_ERROR, Level.WARNING);
+    }
 
-    FSDataInputStream stream;
-    DistributedFileSystemOps udfso;
+    DistributedFileSystemOps udfso = null;
+    FSDataInputStream stream = null;
     try {
-      if (projectUsername != null) {
-        udfso = dfs.getDfsOps(projectUsername);
-        stream = udfso.open(new Path(fullPath));
-        Response.ResponseBuilder response = Response.ok(buildOutputStream(stream, udfso));
-        response.header("Content-disposition", "attachment;");
-        return response.build();
-      } else {
-        throw new DatasetException(RESTCodes.DatasetErrorCode.DOWNLOAD_ERROR, Level.WARNING);
+      udfso = dfs.getDfsOps(projectUsername);
+      Path hdfsPath = new Path(fullPath);
+      FileStatus status = udfso.getFileStatus(hdfsPath);
+      long length = status.getLen();
+      Date lastModified = new Date(status.getModificationTime());
+      EntityTag etag = getEntityTag(status);
+
+      Response.ResponseBuilder response = request.evaluatePreconditions(lastModified, etag);
+      if (response != null) {
+        return response.tag(etag).lastModified(lastModified).build();
       }
 
+      List<long[]> ranges = null;
+      if (range != null && isRangeCurrent(ifRange, etag, lastModified)) {
+        ranges = parseRanges(range, length);
+        if (ranges != null && ranges.isEmpty()) {
+          return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+            .header(CONTENT_RANGE, "bytes */" + length)
+            .tag(etag)
+            .build();
+        }
+      }
+
+      stream = udfso.open(hdfsPath);
+      if (ranges == null) {
+        response = Response.ok(buildOutputStream(stream, udfso, null, length))
+          .header(HttpHeaders.CONTENT_LENGTH, length);
+      } else if (ranges.size() == 1) {
+        long[] part = ranges.get(0);
+        response = Response.status(Response.Status.PARTIAL_CONTENT)
+          .entity(buildOutputStream(stream, udfso, ranges, length))
+          .header(CONTENT_RANGE, contentRange(part, length))
+          .header(HttpHeaders.CONTENT_LENGTH, part[1] - part[0] + 1);
+      } else {
+        String boundary = UUID.randomUUID().toString();
+        response = Response.status(Response.Status.PARTIAL_CONTENT)
+          .entity(buildOutputStream(stream, udfso, ranges, length, boundary))
+          .type("multipart/byteranges; boundary=" + boundary)
+          .header(HttpHeaders.CONTENT_LENGTH, multipartLength(ranges, length, boundary));
+      }
+      // The stream and the client are closed once the body is written
+      stream = null;
+      udfso = null;
+      response.header("Content-disposition", "attachment;");
+      response.header(ACCEPT_RANGES, "bytes");
+      response.tag(etag);
+      response.lastModified(lastModified);
+      return response.build();
     } catch (IOException ex) {
       throw new DatasetException(RESTCodes.DatasetErrorCode.DOWNLOAD_ERROR, Level.SEVERE, "path: " + fullPath,
         ex.getMessage(), ex);
+    } finally {
+      if (stream != null) {
+        try {
+          stream.close();
+        } catch (IOException ex) {
+          LOGGER.log(Level.FINE, null, ex);
+        }
+      }
+      if (udfso != null) {
+        dfs.closeDfsClient(udfso);
+      }
+    }
+  }
+
+  /**
+   * A strong validator of the file content. Any write to an HDFS file changes
+   * its modification time, and computing the HDFS checksum of the file would
+   * mean reading the checksums of all its blocks on the DataNodes, so the
+   * tag is built from the length and the modification time.
+   */
+  private EntityTag getEntityTag(FileStatus status) {
+    return new EntityTag(Long.toHexString(status.getLen()) + "-" + Long.toHexString(status.getModificationTime()));
+  }
+
+  /**
+   * If-Range holds an entity tag or an HTTP date, the ranges are only sent if
+   * the file did not change since.
+   */
+  private boolean isRangeCurrent(String ifRange, EntityTag etag, Date lastModified) {
+    if (ifRange == null || ifRange.isEmpty()) {
+      return true;
+    }
+    if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+      // Weak tags never match for ranges
+      return ifRange.equals("\"" + etag.getValue() + "\"");
+    }
+    try {
+      Date date = DateUtils.parseDate(ifRange);
+      return date != null && lastModified.getTime() / 1000 <= date.getTime() / 1000;
+    } catch (IllegalArgumentException ex) {
+      return false;
+    }
+  }
+
+  /**
+   * Parse a bytes Range header. Overlapping and adjacent ranges are merged, and ranges adding up to more than the
+   * file are ignored, so that a request cannot make the file be sent more than once.
+   *
+   * @return the first and last byte of each satisfiable range, sorted and disjoint, an empty list if none is
+   * satisfiable, or null if the header is not a valid bytes range or asks for more than the file, in which case the
+   * whole file is sent
+   */
+  private List<long[]> parseRanges(String range, long length) {
+    if (!range.startsWith(BYTES_UNIT)) {
+      return null;
+    }
+    String[] specs = range.substring(BYTES_UNIT.length()).split(",");
+    if (specs.length > MAX_RANGES) {
+      return null;
+    }
+    List<long[]> ranges = new ArrayList<>(specs.length);
+    try {
+      for (String spec : specs) {
+        spec = spec.trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+          return null;
+        }
+        String first = spec.substring(0, dash).trim();
+        String last = spec.substring(dash + 1).trim();
+        long start;
+        long end;
+        if (first.isEmpty()) {
+          // Suffix range, the last bytes of the file
+          long suffix = Long.parseLong(last);
+          if (suffix <= 0) {
+            continue;
+          }
+          start = Math.max(0, length - suffix);
+          end = length - 1;
+        } else {
+          start = Long.parseLong(first);
+          end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+          if (start < 0 || (!last.isEmpty() && Long.parseLong(last) < start)) {
+            return null;
+          }
+        }
+        if (start < length && start <= end) {
+          ranges.add(new long[]{start, end});
+        }
+      }
+    } catch (NumberFormatException ex) {
+      return null;
+    }
+    long requested = 0;
+    for (long[] part : ranges) {
+      requested += part[1] - part[0] + 1;
+    }
+    if (requested > length) {
+      return null;
     }
+    return mergeRanges(ranges);
+  }
+
+  private static List<long[]> mergeRanges(List<long[]> ranges) {
+    ranges.sort((a, b) -> Long.compare(a[0], b[0]));
+    List<long[]> merged = new ArrayList<>(ranges.size());
+    for (long[] part : ranges) {
+      long[] previous = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+      if (previous != null && part[0] <= previous[1] + 1) {
+        previous[1] = Math.max(previous[1], part[1]);
+      } else {
+        merged.add(part);
+      }
+    }
+    return merged;
+  }
+
+  private static String contentRange(long[] range, long length) {
+    return "bytes " + range[0] + "-" + range[1] + "/" + length;
+  }
+
+  private static String partHeader(long[] range, long length, String boundary) {
+    return "\r\n--" + boundary + "\r\n"
+      + HttpHeaders.CONTENT_TYPE + ": " + MediaType.APPLICATION_OCTET_STREAM + "\r\n"
+      + CONTENT_RANGE + ": " + contentRange(range, length) + "\r\n\r\n";
+  }
+
+  private static String multipartEnd(String boundary) {
+    return "\r\n--" + boundary + "--\r\n";
+  }
+
+  private static long multipartLength(List<long[]> ranges, long length, String boundary) {
+    long total = multipartEnd(boundary).length();
+    for (long[] range : ranges) {
+      total += partHeader(range, length, boundary).length() + range[1] - range[0] + 1;
+    }
+    return total;
+  }
+
+  private StreamingOutput buildOutputStream(final FSDataInputStream stream,
+      final DistributedFileSystemOps udfso, final List<long[]> ranges, final long length) {
+    return buildOutputStream(stream, udfso, ranges, length, null);
   }
 
   /**
    *
    * @param stream
+   * @param udfso
+   * @param ranges the ranges to send, null for the whole file
+   * @param length the length of the file
+   * @param boundary the multipart boundary if there is more than one range
    * @return
    */
   private StreamingOutput buildOutputStream(final FSDataInputStream stream,
-      final DistributedFileSystemOps udfso) {
+      final DistributedFileSystemOps udfso, final List<long[]> ranges, final long length, final String boundary) {
     StreamingOutput output = new StreamingOutput() {
       @Override
       public void write(OutputStream out) throws IOException,
           WebApplicationException {
+        long start = System.currentTimeMillis();
+        // Bytes written so far, also counted when the transfer fails
+        long[] sent = new long[1];
+        boolean failed = true;
+        byte[] buffer = downloadBuffers.acquire();
         try {
-          int length;
-          byte[] buffer = new byte[1024];
-          while ((length = stream.read(buffer)) != -1) {
-            out.write(buffer, 0, length);
+          if (ranges == null) {
+            copy(stream, out, buffer, 0, length, sent);
+          } else {
+            for (long[] range : ranges) {
+              if (boundary != null) {
+                out.write(partHeader(range, length, boundary).getBytes(StandardCharsets.US_ASCII));
+              }
+              copy(stream, out, buffer, range[0], range[1] - range[0] + 1, sent);
+            }
+            if (boundary != null) {
+              out.write(multipartEnd(boundary).getBytes(StandardCharsets.US_ASCII));
+            }
           }
           out.flush();
-          stream.close();
+          failed = false;
         } finally {
-          dfs.closeDfsClient(udfso);
+          downloadBuffers.release(buffer);
+          downloadBuffers.record(sent[0], System.currentTimeMillis() - start, ranges != null, failed);
+          try {
+            stream.close();
+          } finally {
+            dfs.closeDfsClient(udfso);
+          }
         }
       }
     };
@@ -157,4 +389,24 @@ public class DownloadService {
     return output;
   }
 
+  /**
+   * @param sent incremented by the bytes written to out
+   */
+  private static void copy(FSDataInputStream stream, OutputStream out, byte[] buffer, long offset, long count,
+      long[] sent) throws IOException {
+    if (stream.getPos() != offset) {
+      stream.seek(offset);
+    }
+    long remaining = count;
+    while (remaining > 0) {
+      int read = stream.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+      if (read == -1) {
+        throw new EOFException("The file is shorter than expected, " + remaining + " bytes missing");
+      }
+      out.write(buffer, 0, read);
+      sent[0] += read;
+      remaining -= read;
+    }
+  }
+
 }
@@ -0,0 +1,93 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.api.util;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * Writes a JSON array one element at a time, so large responses can be
+ * streamed without building the whole list first. Each element is serialized
+ * by the JSON provider of the application, the elements look exactly as if the
+ * whole list had been returned as an entity.
+ *
+ * @param <T> type of the elements
+ */
+public class JsonArrayWriter<T> {
+
+  private static final byte[] OPEN = "[".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] SEPARATOR = ",".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] CLOSE = "]".getBytes(StandardCharsets.UTF_8);
+  private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+  private final MessageBodyWriter<T> writer;
+  private final OutputStream out;
+  // The provider must not close the response stream after each element
+  private final OutputStream element;
+  private boolean first = true;
+
+  public JsonArrayWriter(MessageBodyWriter<T> writer, OutputStream out) throws IOException {
+    this.writer = writer;
+    this.out = out;
+    this.element = new FilterOutputStream(out) {
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+      }
+
+      @Override
+      public void close() throws IOException {
+        flush();
+      }
+    };
+    out.write(OPEN);
+  }
+
+  public void write(T item) throws IOException {
+    if (!first) {
+      out.write(SEPARATOR);
+    }
+    first = false;
+    Class<?> type = item.getClass();
+    writer.writeTo(item, type, type, NO_ANNOTATIONS, MediaType.APPLICATION_JSON_TYPE,
+        new MultivaluedHashMap<String, Object>(), element);
+  }
+
+  public void writeAll(Collection<? extends T> items) throws IOException {
+    for (T item : items) {
+      write(item);
+    }
+    out.flush();
+  }
+
+  /**
+   * Close the array, the underlying stream is left open.
+   *
+   * @throws IOException
+   */
+  public void close() throws IOException {
+    out.write(CLOSE);
+    out.flush();
+  }
+}
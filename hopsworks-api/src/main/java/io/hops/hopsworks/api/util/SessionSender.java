@@ -0,0 +1,173 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.api.util;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.websocket.CloseReason;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+
+/**
+ * Bounded asynchronous send queue of a websocket session. Messages are sent one at a time through the async remote
+ * so a slow client only fills its own queue instead of blocking the thread that broadcasts to its note or project.
+ * A session whose queue is full, or whose send fails or times out, is closed on the first dropped message so that
+ * the client reconnects and reloads its state instead of silently missing updates.
+ */
+public final class SessionSender implements SendHandler {
+
+  private static final Logger LOG = Logger.getLogger(SessionSender.class.getName());
+  private static final String USER_PROPERTY = SessionSender.class.getName();
+
+  static final int MAX_QUEUED_MESSAGES = 1000;
+  static final long SEND_TIMEOUT_MS = 30000;
+
+  private static final AtomicLong QUEUED_MESSAGES = new AtomicLong(0);
+  private static final AtomicLong SENT_MESSAGES = new AtomicLong(0);
+  private static final AtomicLong DROPPED_MESSAGES = new AtomicLong(0);
+  private static final AtomicLong EVICTED_SESSIONS = new AtomicLong(0);
+
+  private final Session session;
+  private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger depth = new AtomicInteger(0);
+  private final AtomicBoolean sending = new AtomicBoolean(false);
+  private final AtomicBoolean evicted = new AtomicBoolean(false);
+
+  private SessionSender(Session session) {
+    this.session = session;
+    session.getAsyncRemote().setSendTimeout(SEND_TIMEOUT_MS);
+  }
+
+  /**
+   * Returns the sender of the session, creating it on first use. The sender is kept in the session user properties
+   * so it lives exactly as long as the session.
+   */
+  public static SessionSender of(Session session) {
+    synchronized (session) {
+      Map<String, Object> properties = session.getUserProperties();
+      SessionSender sender = (SessionSender) properties.get(USER_PROPERTY);
+      if (sender == null) {
+        sender = new SessionSender(session);
+        properties.put(USER_PROPERTY, sender);
+      }
+      return sender;
+    }
+  }
+
+  /**
+   * Queues a message for sending.
+   *
+   * @return false if the message was dropped because the queue is full or the session is closed. A full queue
+   * closes the session.
+   */
+  public boolean send(String msg) {
+    if (evicted.get() || !session.isOpen()) {
+      return false;
+    }
+    if (depth.incrementAndGet() > MAX_QUEUED_MESSAGES) {
+      depth.decrementAndGet();
+      DROPPED_MESSAGES.incrementAndGet();
+      evict("client is not reading messages");
+      return false;
+    }
+    queue.add(msg);
+    QUEUED_MESSAGES.incrementAndGet();
+    sendNext();
+    return true;
+  }
+
+  private void sendNext() {
+    while (sending.compareAndSet(false, true)) {
+      String next = queue.poll();
+      if (next == null) {
+        sending.set(false);
+        if (queue.isEmpty()) {
+          return;
+        }
+        // a message was queued after poll and before sending was reset, try again
+        continue;
+      }
+      depth.decrementAndGet();
+      QUEUED_MESSAGES.decrementAndGet();
+      try {
+        session.getAsyncRemote().sendText(next, this);
+      } catch (RuntimeException ex) {
+        LOG.log(Level.WARNING, "Could not send message to session " + session.getId(), ex);
+        evict("send failed");
+      }
+      return;
+    }
+  }
+
+  @Override
+  public void onResult(SendResult result) {
+    if (!result.isOK()) {
+      LOG.log(Level.WARNING, "Could not send message to session " + session.getId(), result.getException());
+      evict("send failed");
+      return;
+    }
+    SENT_MESSAGES.incrementAndGet();
+    sending.set(false);
+    sendNext();
+  }
+
+  private void evict(String reason) {
+    if (!evicted.compareAndSet(false, true)) {
+      return;
+    }
+    EVICTED_SESSIONS.incrementAndGet();
+    int pending = depth.getAndSet(0);
+    queue.clear();
+    QUEUED_MESSAGES.addAndGet(-pending);
+    DROPPED_MESSAGES.addAndGet(pending);
+    LOG.log(Level.WARNING, "Closing slow websocket session {0}: {1}, {2} queued messages dropped",
+        new Object[]{session.getId(), reason, pending});
+    try {
+      session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, reason));
+    } catch (IOException | RuntimeException ex) {
+      LOG.log(Level.FINE, "Could not close websocket session " + session.getId(), ex);
+    }
+  }
+
+  public int getQueueDepth() {
+    return depth.get();
+  }
+
+  public static long getQueuedMessages() {
+    return QUEUED_MESSAGES.get();
+  }
+
+  public static long getSentMessages() {
+    return SENT_MESSAGES.get();
+  }
+
+  public static long getDroppedMessages() {
+    return DROPPED_MESSAGES.get();
+  }
+
+  public static long getEvictedSessions() {
+    return EVICTED_SESSIONS.get();
+  }
+}
@@ -60,12 +60,14 @@ import io.hops.hopsworks.common.exception.MetadataException;
 import io.hops.hopsworks.common.hdfs.DistributedFileSystemOps;
 import io.hops.hopsworks.common.hdfs.DistributedFsService;
 import io.hops.hopsworks.common.hdfs.Utils;
+import io.hops.hopsworks.common.upload.HdfsChunkWriter;
 import io.hops.hopsworks.common.upload.HttpUtils;
 import io.hops.hopsworks.common.upload.ResumableInfo;
 import io.hops.hopsworks.common.upload.ResumableInfoStorage;
 import io.hops.hopsworks.common.upload.StagingManager;
 import io.hops.hopsworks.common.util.HopsUtils;
 import io.hops.hopsworks.common.util.Settings;
+import org.apache.commons.io.IOUtils;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.security.AccessControlException;
 import org.glassfish.jersey.media.multipart.FormDataContentDisposition;
@@ -85,12 +87,13 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.RandomAccessFile;
 import java.io.StringReader;
+import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -99,6 +102,8 @@ import java.util.logging.Logger;
 public class UploadService {
 
   private static final Logger logger = Logger.getLogger(UploadService.class.getName());
+  //Bigger chunks are staged instead of being held in memory
+  private static final int MAX_BUFFERED_CHUNK_SIZE = 16 * 1024 * 1024;
 
   @EJB
   private NoCacheResponse noCacheResponse;
@@ -227,10 +232,8 @@ public class UploadService {
             "filename: " + fileName);
         }
       }
-      //test if the user have permission to create a file in the path.
-      //the file will be overwriten by the uploaded 
-      //TODO: *** WARNING ***
-      //Check permissions before creating file
+      //test if the user have permission to create a file in the path, with a probe file so that the
+      //destination is not created before the upload completes
       if (this.username != null) {
         DistributedFileSystemOps udfso = null;
         try {
@@ -240,7 +243,9 @@ public class UploadService {
           } else {
             udfso = dfs.getDfsOps(username);
           }
-          udfso.touchz(new Path(this.path, fileName));
+          Path probe = new Path(this.path, "." + fileName + "." + UUID.randomUUID() + ".probe");
+          udfso.touchz(probe);
+          udfso.rm(probe, false);
         } catch (AccessControlException ex) {
           throw new AccessControlException(
                   "Permission denied: You can not upload to this folder. ");
@@ -289,25 +294,29 @@ public class UploadService {
     String fileName = info.getResumableFilename();
     int templateid = info.getResumableTemplateId();
 
-    long content_length;
-    //Seek to position
-    try (RandomAccessFile raf
-            = new RandomAccessFile(info.getResumableFilePath(), "rw");
-            InputStream is = uploadedInputStream) {
-      //Seek to position
-      raf.seek((resumableChunkNumber - 1) * (long) info.getResumableChunkSize());
-      //Save to file
-      long readed = 0;
-      content_length = HttpUtils.toLong(flowCurrentChunkSize, -1);
-      byte[] bytes = new byte[1024 * 1024];//Default chunk size for ng-flow.js is set to chunkSize: 1024 * 1024
-      while (readed < content_length) {
-        int r = is.read(bytes);
-        if (r < 0) {
-          break;
-        }
-        raf.write(bytes, 0, r);
-        readed += r;
+    long content_length = HttpUtils.toLong(flowCurrentChunkSize, -1);
+    if (resumableChunkNumber < 1 || content_length < 0) {
+      throw new DatasetException(RESTCodes.DatasetErrorCode.UPLOAD_ERROR, Level.FINE,
+        "Invalid chunk number or size: " + flowChunkNumber + ", " + flowCurrentChunkSize);
+    }
+    //Templates are validated from the staging dir, other files go straight to HDFS
+    HdfsChunkWriter writer = this.isTemplate ? null : getHdfsWriter(info, fileName);
+    try (InputStream is = uploadedInputStream) {
+      long written;
+      if (writer == null) {
+        written = HdfsChunkWriter.writeToFile(info.getResumableFilePath(),
+          (resumableChunkNumber - 1) * (long) info.getResumableChunkSize(), is, content_length);
+      } else {
+        written = writeChunk(writer, resumableChunkNumber, is, content_length);
+      }
+      if (written < content_length) {
+        throw new IOException("Chunk " + resumableChunkNumber + " of " + fileName + " is incomplete");
       }
+    } catch (IOException ex) {
+      if (writer != null && writer.isFailed()) {
+        abortUpload(info);
+      }
+      throw ex;
     }
 
     boolean finished = false;
@@ -316,6 +325,14 @@ public class UploadService {
     if (info.addChunkAndCheckIfFinished(new ResumableInfo.ResumableChunkNumber(
             resumableChunkNumber), content_length)) { //Check if all chunks uploaded, and change filename
       ResumableInfoStorage.getInstance().remove(info);
+      if (writer != null) {
+        try {
+          writer.complete();
+        } catch (IOException ex) {
+          info.abort();
+          throw ex;
+        }
+      }
       logger.log(Level.INFO, "All finished.");
       finished = true;
     } else {
@@ -363,10 +380,12 @@ public class UploadService {
           dfsOps = dfs.getDfsOps(username);
         } 
 
-        dfsOps.copyToHDFSFromLocal(true, stagingFilePath, location.toString());
+        if (writer == null) {
+          dfsOps.copyToHDFSFromLocal(true, stagingFilePath, location.toString());
+          logger.log(Level.INFO, "Copied to HDFS");
+        }
         dfsOps.setPermission(location, dfsOps.getParentPermission(location));
         dfsOps.setOwner(location, username, dfsOps.getFileStatus(location).getGroup());
-        logger.log(Level.INFO, "Copied to HDFS");
 
         if (templateid != 0 && templateid != -1) {
           this.attachTemplateToInode(info, this.path + fileName);
@@ -403,6 +422,74 @@ public class UploadService {
             json).build();
   }
 
+  /**
+   * The writer that streams the chunks of the upload into its destination,
+   * created with the first chunk. A chunk of an upload that already completed
+   * finds the destination and is rejected.
+   */
+  private HdfsChunkWriter getHdfsWriter(ResumableInfo info, String fileName) throws IOException, DatasetException {
+    synchronized (info) {
+      HdfsChunkWriter writer = info.getHdfsWriter();
+      if (writer == null) {
+        DistributedFileSystemOps dfsOps;
+        //If the user has a role in the owning project of the Dataset and that is Data Owner
+        //perform operation as superuser
+        if (!Strings.isNullOrEmpty(role) && role.equals(AllowedProjectRoles.DATA_OWNER)) {
+          dfsOps = dfs.getDfsOps();
+        } else {
+          dfsOps = dfs.getDfsOps(username);
+        }
+        try {
+          Path location = new Path(this.path, fileName);
+          if (dfsOps.exists(location)) {
+            dfs.closeDfsClient(dfsOps);
+            throw new DatasetException(RESTCodes.DatasetErrorCode.DESTINATION_EXISTS, Level.FINE,
+              "filename: " + fileName);
+          }
+          writer = new HdfsChunkWriter(dfsOps, location, info.getResumableFilePath(), info.getResumableChunkSize());
+        } catch (AccessControlException ex) {
+          dfs.closeDfsClient(dfsOps);
+          throw new AccessControlException("Permission denied: You can not upload to this folder. ");
+        } catch (IOException ex) {
+          dfs.closeDfsClient(dfsOps);
+          throw ex;
+        }
+        info.setHdfsWriter(writer);
+      }
+      return writer;
+    }
+  }
+
+  /**
+   * Write a chunk in HDFS if it is the next one of the file, otherwise stage
+   * it until the chunks before it arrive. Chunks are read completely before
+   * they are written so that an interrupted request leaves no partial chunk
+   * in HDFS.
+   *
+   * @return the number of bytes of the chunk
+   * @throws IOException if the chunk was not received completely, in which case it is not recorded
+   */
+  private long writeChunk(HdfsChunkWriter writer, int chunkNumber, InputStream is, long length)
+    throws IOException {
+    if (length > MAX_BUFFERED_CHUNK_SIZE) {
+      writer.stage(chunkNumber, is, length);
+      return length;
+    }
+    byte[] chunk = new byte[(int) length];
+    IOUtils.readFully(is, chunk);
+    if (!writer.writeIfNext(chunkNumber, chunk, chunk.length)) {
+      writer.stage(chunkNumber, new ByteArrayInputStream(chunk), chunk.length);
+    } else {
+      writer.drain();
+    }
+    return length;
+  }
+
+  private void abortUpload(ResumableInfo info) {
+    ResumableInfoStorage.getInstance().remove(info);
+    info.abort();
+  }
+
   private void attachTemplateToInode(ResumableInfo info, String path) {
     //find the inode
     Inode inode = inodes.getInodeAtPath(path);
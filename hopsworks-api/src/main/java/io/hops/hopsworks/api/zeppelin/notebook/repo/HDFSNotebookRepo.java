@@ -43,6 +43,7 @@ import com.google.common.collect.Lists;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -50,6 +51,9 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -92,6 +96,19 @@ public class HDFSNotebookRepo implements NotebookRepo {
 
   private final Logger logger = LoggerFactory.getLogger(HDFSNotebookRepo.class);
 
+  /**
+   * Sidecar file in the notebook root holding id, name and note directory modification time of every note, so
+   * that list() does not have to open and deserialize every note.json.
+   */
+  static final String INDEX_FILE = ".notebook-index.json";
+  // Upper bound of the note.json content held by the note cache, in chars
+  private static final long MAX_CACHED_NOTE_CHARS = 16L * 1024 * 1024;
+  // Gson is thread safe. The Date deserializer only affects reading, so the same instance is used for writing.
+  private static final Gson GSON = new GsonBuilder()
+      .setPrettyPrinting()
+      .registerTypeAdapter(Date.class, new NotebookImportDeserializer())
+      .create();
+
   private URI filesystemRoot;
   private final ZeppelinConfiguration conf;
   private String hdfsUser;
@@ -102,6 +119,13 @@ public class HDFSNotebookRepo implements NotebookRepo {
       + HdfsUsersController.USER_NAME_DELIMITER + "\\w*");
   private final Pattern pguPattern = Pattern.compile("(\\w*)" +
       Settings.PROJECT_GENERIC_USER_SUFFIX);
+  // Content of note.json keyed by note id, valid as long as note.json has the same modification time and length.
+  // The JSON is cached rather than the Note, as callers modify the Note they get.
+  private final NoteCache noteCache = new NoteCache(MAX_CACHED_NOTE_CHARS);
+  private final Object indexLock = new Object();
+  // Last index read from or written to HDFS, guarded by indexLock
+  private Map<String, IndexEntry> index;
+  private long indexModificationTime = -1;
 
   public HDFSNotebookRepo(ZeppelinConfiguration conf) throws IOException {
     this.conf = conf;
@@ -226,27 +250,25 @@ public class HDFSNotebookRepo implements NotebookRepo {
 
   private Note getNote(Path noteDir, DistributedFileSystemOps dfs) throws
           IOException {
-    if (!dfs.getFilesystem().isDirectory(noteDir)) {
-      throw new IOException(noteDir.toString() + " is not a directory");
-    }
-
     Path noteJson = new Path(noteDir, "note.json");
-    if (!dfs.getFilesystem().exists(noteJson)) {
-      throw new IOException(noteJson.toString() + " not found");
+    FileStatus status;
+    try {
+      status = dfs.getFileStatus(noteJson);
+    } catch (FileNotFoundException e) {
+      throw new IOException(noteJson.toString() + " not found", e);
     }
 
-    GsonBuilder gsonBuilder = new GsonBuilder();
-    gsonBuilder.setPrettyPrinting();
-    Gson gson = gsonBuilder.registerTypeAdapter(Date.class,
-            new NotebookImportDeserializer())
-            .create();
-
-    InputStream ins = dfs.open(noteJson);
-    String json = IOUtils.toString(ins, conf.getString(
+    String noteId = noteDir.getName();
+    String json = noteCache.get(noteId, status);
+    if (json == null) {
+      try (InputStream ins = dfs.open(noteJson)) {
+        json = IOUtils.toString(ins, conf.getString(
             ZeppelinConfiguration.ConfVars.ZEPPELIN_ENCODING));
-    ins.close();
+      }
+      noteCache.put(noteId, new CachedNote(json, status));
+    }
 
-    Note note = gson.fromJson(json, Note.class);
+    Note note = GSON.fromJson(json, Note.class);
 
     for (Paragraph p : note.getParagraphs()) {
       if (p.getStatus() == Job.Status.PENDING || p.getStatus()
@@ -258,10 +280,88 @@ public class HDFSNotebookRepo implements NotebookRepo {
     return note;
   }
 
-  private NoteInfo getNoteInfo(Path noteDir, DistributedFileSystemOps dfs)
-      throws IOException {
-    Note note = getNote(noteDir, dfs);
-    return new NoteInfo(note);
+  /**
+   * Returns the index of the notebook root. The copy in memory is used as long as the index file has not been
+   * modified since it was last read or written, otherwise the file is read again.
+   *
+   * @param indexStatus status of the index file, null if it does not exist
+   * @return a copy of the index that the caller may modify
+   */
+  private Map<String, IndexEntry> readIndex(FileStatus indexStatus, DistributedFileSystemOps dfs) {
+    synchronized (indexLock) {
+      if (indexStatus == null) {
+        return new HashMap<>();
+      }
+      if (index == null || indexModificationTime != indexStatus.getModificationTime()) {
+        Map<String, IndexEntry> entries = new HashMap<>();
+        try (InputStream ins = dfs.open(indexStatus.getPath())) {
+          String json = IOUtils.toString(ins, conf.getString(
+              ZeppelinConfiguration.ConfVars.ZEPPELIN_ENCODING));
+          IndexEntry[] read = GSON.fromJson(json, IndexEntry[].class);
+          if (read != null) {
+            for (IndexEntry entry : read) {
+              if (entry != null && entry.id != null) {
+                entries.put(entry.id, entry);
+              }
+            }
+          }
+        } catch (IOException | RuntimeException e) {
+          logger.warn("Could not read notebook index " + indexStatus.getPath() + ", it will be rebuilt", e);
+        }
+        index = entries;
+        indexModificationTime = indexStatus.getModificationTime();
+      }
+      return new HashMap<>(index);
+    }
+  }
+
+  /**
+   * Writes the index to the notebook root. The index is only an optimization, failing to write it is logged and
+   * the next list() rebuilds the missing entries.
+   */
+  private void writeIndex(Path rootDir, Map<String, IndexEntry> entries, DistributedFileSystemOps dfs) {
+    synchronized (indexLock) {
+      Path indexFile = new Path(rootDir, INDEX_FILE);
+      Path indexTemp = new Path(rootDir, INDEX_FILE + ".tmp");
+      try {
+        try (OutputStream out = dfs.getFilesystem().create(indexTemp, true)) {
+          out.write(GSON.toJson(entries.values().toArray(new IndexEntry[entries.size()])).getBytes(
+              conf.getString(ZeppelinConfiguration.ConfVars.ZEPPELIN_ENCODING)));
+        }
+        dfs.getFilesystem().rename(indexTemp, indexFile, Options.Rename.OVERWRITE);
+        index = new HashMap<>(entries);
+        indexModificationTime = dfs.getFileStatus(indexFile).getModificationTime();
+      } catch (IOException e) {
+        logger.warn("Could not write notebook index " + indexFile, e);
+        index = null;
+      }
+    }
+  }
+
+  /**
+   * Applies a single change to the index after a save or remove. A null entry removes the note.
+   */
+  private void updateIndex(Path rootDir, String noteId, IndexEntry entry, DistributedFileSystemOps dfs) {
+    synchronized (indexLock) {
+      FileStatus indexStatus = null;
+      try {
+        indexStatus = dfs.getFileStatus(new Path(rootDir, INDEX_FILE));
+      } catch (FileNotFoundException e) {
+        // written from scratch, list() adds the other notes
+      } catch (IOException e) {
+        logger.warn("Could not read notebook index status", e);
+        return;
+      }
+      Map<String, IndexEntry> entries = readIndex(indexStatus, dfs);
+      if (entry == null) {
+        if (entries.remove(noteId) == null) {
+          return;
+        }
+      } else {
+        entries.put(noteId, entry);
+      }
+      writeIndex(rootDir, entries, dfs);
+    }
   }
 
   private DistributedFileSystemOps getDistributedFs(Path path,
@@ -308,8 +408,14 @@ public class HDFSNotebookRepo implements NotebookRepo {
       Path rootDir = getRootDir(udfso);
       FileStatus[] children = udfso.listStatus(rootDir);
       
+      FileStatus indexStatus = null;
+      List<FileStatus> noteDirs = new LinkedList<>();
       for (FileStatus f : children) {
         String fileName = f.getPath().getName();
+        if (INDEX_FILE.equals(fileName)) {
+          indexStatus = f;
+          continue;
+        }
         if (fileName.startsWith(".")
             || fileName.startsWith("#")
             || fileName.startsWith("~")) {
@@ -317,21 +423,37 @@ public class HDFSNotebookRepo implements NotebookRepo {
           continue;
         }
     
-        if (!udfso.getFilesystem().isDirectory(f.getPath())) {
+        if (!f.isDirectory()) {
           // currently single note is saved like, [NOTE_ID]/note.json.
           // so it must be a directory
           continue;
         }
+        noteDirs.add(f);
+      }
   
-        NoteInfo info;
-        try {
-          info = getNoteInfo(f.getPath(), udfso);
-          if (info != null) {
-            infos.add(info);
+      // A save renames note.json into the note directory which updates the directory modification time, so
+      // only notes whose directory changed since the index was written have to be read.
+      Map<String, IndexEntry> entries = readIndex(indexStatus, udfso);
+      Map<String, IndexEntry> current = new HashMap<>();
+      boolean dirty = false;
+      for (FileStatus f : noteDirs) {
+        String noteId = f.getPath().getName();
+        IndexEntry entry = entries.get(noteId);
+        if (entry == null || entry.modificationTime != f.getModificationTime()) {
+          try {
+            Note note = getNote(f.getPath(), udfso);
+            entry = new IndexEntry(noteId, note.getName(), f.getModificationTime());
+            dirty = true;
+          } catch (Exception e) {
+            logger.error("Can't read note " + f.getPath().toString(), e);
+            continue;
           }
-        } catch (Exception e) {
-          logger.error("Can't read note " + f.getPath().toString(), e);
         }
+        current.put(noteId, entry);
+        infos.add(new NoteInfo(entry.id, entry.name, new HashMap<String, Object>()));
+      }
+      if (dirty || current.size() != entries.size()) {
+        writeIndex(rootDir, current, udfso);
       }
     } finally {
       closeDfsClient(udfso);
@@ -359,10 +481,7 @@ public class HDFSNotebookRepo implements NotebookRepo {
   @Override
   public synchronized void save(Note note, AuthenticationInfo subject) throws
           IOException {
-    GsonBuilder gsonBuilder = new GsonBuilder();
-    gsonBuilder.setPrettyPrinting();
-    Gson gson = gsonBuilder.create();
-    String json = gson.toJson(note);
+    String json = GSON.toJson(note);
 
     DistributedFileSystemOps udfso = null;
     DistributedFileSystemOps dfsOp = null;
@@ -394,6 +513,9 @@ public class HDFSNotebookRepo implements NotebookRepo {
       out.close();
       dfsOp.getFilesystem().rename(noteJsonTemp, noteJson, Options.Rename
           .OVERWRITE);
+      noteCache.remove(note.getId());
+      updateIndex(rootDir, note.getId(), new IndexEntry(note.getId(), note.getName(),
+          udfso.getFileStatus(noteDir).getModificationTime()), udfso);
   
     } finally {
       if (null != udfso) {
@@ -432,6 +554,7 @@ public class HDFSNotebookRepo implements NotebookRepo {
   
       if (!dfso.getFilesystem().exists(noteDir)) {
         // nothing to do
+        noteCache.remove(noteId);
         return;
       }
   
@@ -440,6 +563,8 @@ public class HDFSNotebookRepo implements NotebookRepo {
         throw new IOException("Can not remove " + noteDir.toString());
       }
       dfso.getFilesystem().delete(noteDir, true);
+      noteCache.remove(noteId);
+      updateIndex(rootDir, noteId, null, dfso);
     } finally {
       if (dfso != null) {
         dfsService.closeDfsClient(dfso);
@@ -520,9 +645,94 @@ public class HDFSNotebookRepo implements NotebookRepo {
             subject.getUser(), getNotebookDirPath(), newNotebookDirectotyPath);
     try {
       setNotebookDirectory(newNotebookDirectotyPath);
+      noteCache.clear();
+      synchronized (indexLock) {
+        index = null;
+      }
     } catch (IOException e) {
       logger.error("Cannot update notebook directory", e);
     }
   }
 
+  /**
+   * Least recently used notes, bounded by the total length of their JSON.
+   */
+  private static class NoteCache {
+
+    private final long maxChars;
+    private final LinkedHashMap<String, CachedNote> notes = new LinkedHashMap<>(16, 0.75f, true);
+    private long chars = 0;
+
+    NoteCache(long maxChars) {
+      this.maxChars = maxChars;
+    }
+
+    /**
+     * @return the cached JSON of the note if note.json has not changed since it was cached, null otherwise
+     */
+    synchronized String get(String noteId, FileStatus status) {
+      CachedNote cached = notes.get(noteId);
+      return cached != null && cached.isValid(status) ? cached.json : null;
+    }
+
+    synchronized void put(String noteId, CachedNote note) {
+      remove(noteId);
+      if (note.json.length() > maxChars) {
+        return;
+      }
+      Iterator<CachedNote> eldest = notes.values().iterator();
+      while (chars + note.json.length() > maxChars && eldest.hasNext()) {
+        chars -= eldest.next().json.length();
+        eldest.remove();
+      }
+      notes.put(noteId, note);
+      chars += note.json.length();
+    }
+
+    synchronized void remove(String noteId) {
+      CachedNote removed = notes.remove(noteId);
+      if (removed != null) {
+        chars -= removed.json.length();
+      }
+    }
+
+    synchronized void clear() {
+      notes.clear();
+      chars = 0;
+    }
+  }
+
+  private static class CachedNote {
+
+    private final String json;
+    private final long modificationTime;
+    private final long length;
+
+    CachedNote(String json, FileStatus status) {
+      this.json = json;
+      this.modificationTime = status.getModificationTime();
+      this.length = status.getLen();
+    }
+
+    boolean isValid(FileStatus status) {
+      return modificationTime == status.getModificationTime() && length == status.getLen();
+    }
+  }
+
+  private static class IndexEntry {
+
+    private String id;
+    private String name;
+    private long modificationTime;
+
+    IndexEntry() {
+    }
+
+    IndexEntry(String id, String name, long modificationTime) {
+      this.id = id;
+      this.name = name;
+      this.modificationTime = modificationTime;
+    }
+  }
+
 }
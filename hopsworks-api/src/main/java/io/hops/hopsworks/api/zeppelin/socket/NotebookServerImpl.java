@@ -47,6 +47,7 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import io.hops.hopsworks.api.filter.AllowedProjectRoles;
+import io.hops.hopsworks.api.util.SessionSender;
 import io.hops.hopsworks.api.zeppelin.rest.exception.ForbiddenException;
 import io.hops.hopsworks.api.zeppelin.server.ZeppelinConfig;
 import io.hops.hopsworks.api.zeppelin.server.ZeppelinConfigFactory;
@@ -138,7 +139,10 @@ public class NotebookServerImpl implements
       .setPrettyPrinting()
       .registerTypeAdapterFactory(Input.TypeAdapterFactory).create();
 
-  private final Map<String, List<Session>> noteSocketMap = new HashMap<>();
+  // Membership is lock free so that broadcasting to one note never waits for another note
+  private final Map<String, Set<Session>> noteSocketMap = new ConcurrentHashMap<>();
+  // The note each socket has open, a socket relates only to a single note
+  private final Map<Session, String> socketNoteMap = new ConcurrentHashMap<>();
   private final Queue<Session> connectedSockets = new ConcurrentLinkedQueue<>();
   private final Map<String, Queue<Session>> userConnectedSockets = new ConcurrentHashMap<>();
   /**
@@ -185,74 +189,49 @@ public class NotebookServerImpl implements
   }
 
   private void addConnectionToNote(String noteId, Session socket) {
-    synchronized (noteSocketMap) {
-      removeConnectionFromAllNote(socket); // make sure a socket relates only a single note.
-      List<Session> socketList = noteSocketMap.get(noteId);
-      if (socketList == null) {
-        socketList = new LinkedList<>();
-        noteSocketMap.put(noteId, socketList);
-      }
-      if (!socketList.contains(socket)) {
-        socketList.add(socket);
+    String previous = socketNoteMap.put(socket, noteId); // make sure a socket relates only a single note.
+    if (previous != null && !previous.equals(noteId)) {
+      Set<Session> socketSet = noteSocketMap.get(previous);
+      if (socketSet != null) {
+        socketSet.remove(socket);
       }
     }
+    noteSocketMap.computeIfAbsent(noteId, k -> ConcurrentHashMap.newKeySet()).add(socket);
   }
 
   private void removeConnectionFromNote(String noteId, Session socket) {
-    synchronized (noteSocketMap) {
-      List<Session> socketList = noteSocketMap.get(noteId);
-      if (socketList != null) {
-        socketList.remove(socket);
-      }
+    Set<Session> socketSet = noteSocketMap.get(noteId);
+    if (socketSet != null) {
+      socketSet.remove(socket);
     }
+    socketNoteMap.remove(socket, noteId);
   }
 
   private void removeNote(String noteId) {
-    synchronized (noteSocketMap) {
-      noteSocketMap.remove(noteId);
+    Set<Session> socketSet = noteSocketMap.remove(noteId);
+    if (socketSet != null) {
+      for (Session socket : socketSet) {
+        socketNoteMap.remove(socket, noteId);
+      }
     }
   }
 
   public void removeConnectionFromAllNote(Session socket) {
-    synchronized (noteSocketMap) {
-      Set<String> keys = noteSocketMap.keySet();
-      for (String noteId : keys) {
-        removeConnectionFromNote(noteId, socket);
+    String noteId = socketNoteMap.remove(socket);
+    if (noteId != null) {
+      Set<Session> socketSet = noteSocketMap.get(noteId);
+      if (socketSet != null) {
+        socketSet.remove(socket);
       }
     }
   }
 
   private String getOpenNoteId(Session socket) {
-    String id = null;
-    synchronized (noteSocketMap) {
-      Set<String> keys = noteSocketMap.keySet();
-      for (String noteId : keys) {
-        List<Session> sockets = noteSocketMap.get(noteId);
-        if (sockets.contains(socket)) {
-          id = noteId;
-        }
-      }
-    }
-
-    return id;
+    return socketNoteMap.get(socket);
   }
 
   private void broadcast(String noteId, Message m) {
-    synchronized (noteSocketMap) {
-      broadcastToWatchers(noteId, StringUtils.EMPTY, m);
-      List<Session> socketLists = noteSocketMap.get(noteId);
-      if (socketLists == null || socketLists.isEmpty()) {
-        return;
-      }
-      LOG.log(Level.FINE, "SEND >> {0}", m.op);
-      for (Session conn : socketLists) {
-        try {
-          sendMsg(conn, serializeMessage(m));
-        } catch (IOException ex) {
-          LOG.log(Level.SEVERE, "Unable to send message " + m, ex);
-        }
-      }
-    }
+    broadcastExcept(noteId, m, null);
   }
 
   private void broadcastToNoteBindedInterpreter(String interpreterGroupId, Message m) {
@@ -269,22 +248,21 @@ public class NotebookServerImpl implements
   }
 
   private void broadcastExcept(String noteId, Message m, Session exclude) {
-    synchronized (noteSocketMap) {
-      broadcastToWatchers(noteId, StringUtils.EMPTY, m);
-      List<Session> socketLists = noteSocketMap.get(noteId);
-      if (socketLists == null || socketLists.isEmpty()) {
-        return;
+    broadcastToWatchers(noteId, StringUtils.EMPTY, m);
+    Set<Session> socketSet = noteSocketMap.get(noteId);
+    if (socketSet == null || socketSet.isEmpty()) {
+      return;
+    }
+    LOG.log(Level.FINE, "SEND >> {0}", m.op);
+    String msg = serializeMessage(m);
+    for (Session conn : socketSet) {
+      if (conn.equals(exclude)) {
+        continue;
       }
-      LOG.log(Level.FINE, "SEND >> {0}", m.op);
-      for (Session conn : socketLists) {
-        if (exclude.equals(conn)) {
-          continue;
-        }
-        try {
-          sendMsg(conn, serializeMessage(m));
-        } catch (IOException ex) {
-          LOG.log(Level.SEVERE, "Unable to send message " + m, ex);
-        }
+      try {
+        sendMsg(conn, msg);
+      } catch (IOException ex) {
+        LOG.log(Level.SEVERE, "Unable to send message " + m, ex);
       }
     }
   }
@@ -295,9 +273,15 @@ public class NotebookServerImpl implements
       return;
     }
 
+    String msg = serializeMessage(m);
     for (Session conn : userConnectedSockets.get(user)) {
-      unicast(m, conn);
+      try {
+        sendMsg(conn, msg);
+      } catch (IOException e) {
+        LOG.log(Level.SEVERE, "socket error", e);
+      }
     }
+    broadcastToWatchers(StringUtils.EMPTY, StringUtils.EMPTY, m);
   }
 
   public void unicast(Message m, Session conn) {
@@ -418,10 +402,7 @@ public class NotebookServerImpl implements
       return;
     }
 
-    for (Session conn : userConnectedSockets.get(user)) {
-      Message m = new Message(Message.OP.PARAGRAPH).put("paragraph", p);
-      unicast(m, conn);
-    }
+    multicastToUser(user, new Message(Message.OP.PARAGRAPH).put("paragraph", p));
   }
 
   public void broadcastParagraph(Note note, Paragraph p) {
@@ -2282,17 +2263,15 @@ public class NotebookServerImpl implements
 
   private void broadcastToWatchers(String noteId, String subject,
       Message message) {
-    synchronized (watcherSockets) {
-      if (watcherSockets.isEmpty()) {
-        return;
-      }
-      for (Session watcher : watcherSockets) {
-        try {
-          sendMsg(watcher, WatcherMessage.builder(noteId).subject(subject).message(serializeMessage(message)).build().
-              toJson());
-        } catch (IOException e) {
-          LOG.log(Level.SEVERE, "Cannot broadcast message to watcher", e);
-        }
+    if (watcherSockets.isEmpty()) {
+      return;
+    }
+    String msg = WatcherMessage.builder(noteId).subject(subject).message(serializeMessage(message)).build().toJson();
+    for (Session watcher : watcherSockets) {
+      try {
+        sendMsg(watcher, msg);
+      } catch (IOException e) {
+        LOG.log(Level.SEVERE, "Cannot broadcast message to watcher", e);
       }
     }
   }
@@ -2350,7 +2329,18 @@ public class NotebookServerImpl implements
       LOG.log(Level.SEVERE, "Can't handle message. The connection has been closed.");
       return;
     }
-    conn.getBasicRemote().sendText(msg);
+    SessionSender.of(conn).send(msg);
+  }
+
+  /**
+   * @return number of messages waiting in the send queues of the sockets connected to this project
+   */
+  public int getSendQueueDepth() {
+    int depth = 0;
+    for (Session conn : connectedSockets) {
+      depth += SessionSender.of(conn).getQueueDepth();
+    }
+    return depth;
   }
 
   protected String serializeMessage(Message m) {
@@ -2369,15 +2359,22 @@ public class NotebookServerImpl implements
       NotebookServerImplFactory notebookServerImplFactory) {
     try {
       if (session.isOpen()) {
+        // a message may still be in flight on the async remote, in which case the text is not sent
         session.getBasicRemote().sendText("Restarting zeppelin.");
+      }
+    } catch (IOException | IllegalStateException ex) {
+      LOG.log(Level.FINE, null, ex);
+    }
+    try {
+      if (session.isOpen()) {
         session.close(new CloseReason(CloseReason.CloseCodes.SERVICE_RESTART, "Restarting zeppelin."));
       }
-      removeConnectionFromAllNote(session);
-      removeConnectedSockets(session, notebookServerImplFactory);
-      removeUserConnection(hdfsUsername, session);
-      removeUserConnection(project.getProjectGenericUser(), session);
     } catch (IOException ex) {
       LOG.log(Level.SEVERE, null, ex);
     }
+    removeConnectionFromAllNote(session);
+    removeConnectedSockets(session, notebookServerImplFactory);
+    removeUserConnection(hdfsUsername, session);
+    removeUserConnection(project.getProjectGenericUser(), session);
   }
 }
@@ -45,8 +45,8 @@ import io.hops.hopsworks.common.dao.certificates.CertsFacade;
 import io.hops.hopsworks.common.dao.project.Project;
 import io.hops.hopsworks.common.dao.project.ProjectFacade;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.ejb.ConcurrencyManagement;
 import javax.ejb.ConcurrencyManagementType;
 import javax.ejb.EJB;
@@ -78,7 +78,7 @@ public class NotebookServerImplFactory {
   @EJB
   private CertificatesMgmService certificatesMgmService;
   
-  private Map<String, NotebookServerImpl> notebookServerImpls = new HashMap<>();
+  private Map<String, NotebookServerImpl> notebookServerImpls = new ConcurrentHashMap<>();
 
   public NotebookServerImpl getNotebookServerImpl(String projectName){
     return notebookServerImpls.get(projectName);
@@ -101,6 +101,17 @@ public class NotebookServerImplFactory {
     return impl;
   }
 
+  /**
+   * @return number of messages waiting in the send queues of the notebook sockets of all projects
+   */
+  public int getSendQueueDepth() {
+    int depth = 0;
+    for (NotebookServerImpl impl : notebookServerImpls.values()) {
+      depth += impl.getSendQueueDepth();
+    }
+    return depth;
+  }
+
   public void removeNotebookServerImpl(String projectName) {
     if (notebookServerImpls.get(projectName) != null && 
         notebookServerImpls.get(projectName).connectedSocketsIsEmpty()) {
@@ -102,6 +102,7 @@ public class ApplicationConfig extends ResourceConfig {
     register(io.hops.hopsworks.api.admin.ProjectsAdmin.class);
     register(io.hops.hopsworks.api.admin.llap.LlapAdmin.class);
     register(io.hops.hopsworks.api.admin.CertificateMaterializerAdmin.class);
+    register(io.hops.hopsworks.api.admin.MetricsAdmin.class);
 
     register(org.glassfish.jersey.media.multipart.MultiPartFeature.class);
 
@@ -26,6 +26,7 @@ import io.hops.hopsworks.common.dao.host.Health;
 import io.hops.hopsworks.common.dao.host.Hosts;
 import io.hops.hopsworks.common.dao.host.HostsFacade;
 import io.hops.hopsworks.common.dao.host.Status;
+import io.hops.hopsworks.common.dao.kagent.ClusterRollupCache;
 import io.hops.hopsworks.common.dao.kagent.HostServices;
 import io.hops.hopsworks.common.dao.kagent.HostServicesFacade;
 import io.hops.hopsworks.common.dao.project.Project;
@@ -40,11 +41,14 @@ import io.hops.hopsworks.common.exception.ServiceException;
 import io.hops.hopsworks.common.util.EmailBean;
 import io.hops.hopsworks.common.util.Settings;
 
+import javax.annotation.Resource;
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.mail.MessagingException;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -53,7 +57,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -80,6 +87,12 @@ public class AgentController {
   private SystemCommandFacade systemCommandFacade;
   @EJB
   private AlertEJB alertFacade;
+  @EJB
+  private AgentHostCache agentHostCache;
+  @EJB
+  private ClusterRollupCache clusterRollupCache;
+  @Resource
+  private TransactionSynchronizationRegistry transactionRegistry;
   
   public String register(String hostId, String password) {
     Hosts host = hostsFacade.findByHostname(hostId);
@@ -89,22 +102,33 @@ public class AgentController {
     // Jim: We set the hostname as hopsworks::default pre-populates with the hostname,
     // but it's not the correct hostname for GCE.
     hostsFacade.storeHost(host);
+    agentHostCache.invalidate(hostId);
     return settings.getHadoopVersionedDir();
   }
   
+  /**
+   * Processes a heartbeat of an agent. The host is cached, its metrics are written with a single statement and the
+   * services are only written in full when they differ from the previous heartbeat; otherwise only the uptime of the
+   * started services is updated. Reported commands are read in one query and only written if their status changed.
+   *
+   * @param heartbeat
+   * @return the new commands for the agent
+   * @throws ServiceException
+   */
   public HeartbeatReplyDTO heartbeat(AgentHeartbeatDTO heartbeat) throws ServiceException {
-    Hosts host = hostsFacade.findByHostname(heartbeat.hostId);
-    if (host == null) {
+    AgentHostCache.HostState hostState = agentHostCache.get(heartbeat.hostId);
+    if (hostState == null) {
       throw new ServiceException(RESTCodes.ServiceErrorCode.HOST_NOT_FOUND, Level.WARNING,
         "hostId: " + heartbeat.hostId);
     }
+    Hosts host = hostState.getHost();
     if (!host.isRegistered()) {
       throw new ServiceException(RESTCodes.ServiceErrorCode.HOST_NOT_REGISTERED, Level.WARNING,
         "hostId: " + heartbeat.hostId);
     }
     
     updateHostMetrics(host, heartbeat);
-    updateServices(heartbeat);
+    updateServices(hostState, heartbeat);
     processCondaCommands(heartbeat);
     processSystemCommands(heartbeat);
     if (heartbeat.condaReport != null && !heartbeat.condaReport.isEmpty()) {
@@ -144,22 +168,14 @@ public class AgentController {
   }
   
   private void addNewCommandsToResponse(final Hosts host, final HeartbeatReplyDTO response) {
-    final List<CondaCommands> newCondaCommands = new ArrayList<>();
-    final List<CondaCommands> allCondaCommands = pythonDepsFacade.findByHost(host);
-    for (final CondaCommands cc : allCondaCommands) {
-      if (cc.getStatus().equals(PythonDepsFacade.CondaStatus.NEW)) {
-        newCondaCommands.add(cc);
-        cc.setHostId(host);
-      }
+    final List<CondaCommands> newCondaCommands = new ArrayList<>(pythonDepsFacade.findByHostAndStatus(host,
+        PythonDepsFacade.CondaStatus.NEW));
+    for (final CondaCommands cc : newCondaCommands) {
+      cc.setHostId(host);
     }
     
-    final List<SystemCommand> newSystemCommands = new ArrayList<>();
-    final List<SystemCommand> allSystemCommands = systemCommandFacade.findByHost(host);
-    for (final SystemCommand sc : allSystemCommands) {
-      if (sc.getStatus().equals(SystemCommandFacade.STATUS.NEW)) {
-        newSystemCommands.add(sc);
-      }
-    }
+    final List<SystemCommand> newSystemCommands = new ArrayList<>(systemCommandFacade.findByHostAndStatus(host,
+        SystemCommandFacade.STATUS.NEW));
   
     newCondaCommands.sort(ASC_COMPARATOR);
     newSystemCommands.sort(ASC_COMPARATOR);
@@ -188,16 +204,67 @@ public class AgentController {
     host.setMemoryCapacity(heartbeat.memoryCapacity);
     host.setPrivateIp(heartbeat.privateIp);
     host.setCores(heartbeat.cores);
-    hostsFacade.storeHost(host);
+    if (!hostsFacade.updateHeartbeat(host)) {
+      agentHostCache.invalidate(host.getHostname());
+      throw new ServiceException(RESTCodes.ServiceErrorCode.HOST_NOT_FOUND, Level.WARNING,
+        "hostId: " + heartbeat.hostId);
+    }
   }
   
-  private void updateServices(AgentHeartbeatDTO heartbeat) throws ServiceException {
-    List<HostServices> updatedHostServices = hostServicesFacade.updateHostServices(heartbeat);
+  private void updateServices(AgentHostCache.HostState hostState, AgentHeartbeatDTO heartbeat)
+    throws ServiceException {
+    if (heartbeat.services == null) {
+      return;
+    }
+    final String fingerprint = getServicesFingerprint(heartbeat.services);
+    if (fingerprint.equals(hostState.getServicesFingerprint())) {
+      hostServicesFacade.updateUptime(hostState.getHost(), heartbeat.agentTime);
+      return;
+    }
+    List<HostServices> updatedHostServices = hostServicesFacade.updateHostServices(hostState.getHost(), heartbeat);
+    // Only skip the next update once these services are in the database
+    afterCommit(() -> hostState.setServicesFingerprint(fingerprint));
+    for (AgentServiceDTO service : heartbeat.services) {
+      clusterRollupCache.invalidateAfterCompletion(service.getCluster());
+    }
     for (HostServices updatedHostService : updatedHostServices) {
       notifyHostServiceHealth(updatedHostService);
     }
   }
   
+  private void afterCommit(Runnable action) {
+    if (transactionRegistry.getTransactionKey() == null) {
+      action.run();
+      return;
+    }
+    transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+      @Override
+      public void beforeCompletion() {
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        if (status == javax.transaction.Status.STATUS_COMMITTED) {
+          action.run();
+        }
+      }
+    });
+  }
+  
+  /**
+   * The services, with their status and pid, as reported by the agent. Only the uptime of the started services
+   * changes between two heartbeats with the same fingerprint.
+   */
+  private String getServicesFingerprint(List<AgentServiceDTO> services) {
+    final StringBuilder fingerprint = new StringBuilder();
+    for (AgentServiceDTO service : services) {
+      fingerprint.append(service.cluster).append('/').append(service.group).append('/').append(service.service)
+          .append('/').append(service.pid).append('/').append(service.status).append('/').append(service.webPort)
+          .append('\n');
+    }
+    return fingerprint.toString();
+  }
+  
   private void notifyHostServiceHealth(HostServices hostService) throws ServiceException {
     final Health previousHealthReport = hostService.getHealth();
     if (!hostService.getHealth().equals(previousHealthReport)
@@ -211,9 +278,16 @@ public class AgentController {
   }
   
   private void processCondaCommands(AgentHeartbeatDTO heartbeatDTO) throws ServiceException {
-    if (heartbeatDTO.condaCommands == null) {
+    if (heartbeatDTO.condaCommands == null || heartbeatDTO.condaCommands.isEmpty()) {
       return;
     }
+    final Map<Integer, CondaCommands> commands = new HashMap<>();
+    for (CondaCommands cc : heartbeatDTO.condaCommands) {
+      commands.put(cc.getId(), null);
+    }
+    for (CondaCommands command : pythonDepsFacade.findCondaCommands(commands.keySet())) {
+      commands.put(command.getId(), command);
+    }
     for (CondaCommands cc : heartbeatDTO.condaCommands) {
       final String projectName = cc.getProj();
       final PythonDepsFacade.CondaOp opType = cc.getOp();
@@ -224,7 +298,12 @@ public class AgentController {
       final PythonDepsFacade.CondaStatus status = cc.getStatus();
       Integer commandId = cc.getId();
       
-      CondaCommands command = pythonDepsFacade.findCondaCommand(commandId);
+      CondaCommands command = commands.get(commandId);
+      // The agent reports the commands it runs on every heartbeat, nothing to do until their status changes
+      if (command != null && status.equals(command.getStatus()) && args.equals(command.getArg())
+          && !status.equals(PythonDepsFacade.CondaStatus.SUCCESS)) {
+        continue;
+      }
       // If the command object does not exist, then the project
       // has probably been removed. We needed to send a compensating action if
       // this action was successful.
@@ -418,27 +497,39 @@ public class AgentController {
   }
   
   private void processSystemCommands(AgentHeartbeatDTO heartbeat) {
-    if (heartbeat.systemCommands == null) {
+    if (heartbeat.systemCommands == null || heartbeat.systemCommands.isEmpty()) {
       return;
     }
+    final Map<Integer, SystemCommand> commands = new HashMap<>();
+    for (final SystemCommand sc : heartbeat.systemCommands) {
+      commands.put(sc.getId(), null);
+    }
+    for (final SystemCommand systemCommand : systemCommandFacade.findByIds(commands.keySet())) {
+      commands.put(systemCommand.getId(), systemCommand);
+    }
+    // The commands whose status changed, by new status, are written with one statement per status
+    final Map<SystemCommandFacade.STATUS, List<Integer>> changed = new EnumMap<>(SystemCommandFacade.STATUS.class);
     for (final SystemCommand sc : heartbeat.systemCommands) {
       final Integer id = sc.getId();
-      final SystemCommandFacade.OP op = sc.getOp();
       final SystemCommandFacade.STATUS status = sc.getStatus();
-      final SystemCommand systemCommand = systemCommandFacade.findById(id);
+      final SystemCommand systemCommand = commands.get(id);
       if (systemCommand == null) {
         throw new IllegalArgumentException("System command with ID: " + id + " is not in the system");
       }
-      genericProcessSystemCommand(systemCommand, status);
+      if (!status.equals(systemCommand.getStatus()) || status.equals(SystemCommandFacade.STATUS.FINISHED)) {
+        changed.computeIfAbsent(status, s -> new ArrayList<>()).add(id);
+      }
+    }
+    for (Map.Entry<SystemCommandFacade.STATUS, List<Integer>> entry : changed.entrySet()) {
+      genericProcessSystemCommands(entry.getValue(), entry.getKey());
     }
   }
   
-  private void genericProcessSystemCommand(final SystemCommand command, final SystemCommandFacade.STATUS status) {
+  private void genericProcessSystemCommands(final List<Integer> ids, final SystemCommandFacade.STATUS status) {
     if (status.equals(SystemCommandFacade.STATUS.FINISHED)) {
-      systemCommandFacade.delete(command);
+      systemCommandFacade.delete(ids);
     } else {
-      command.setStatus(status);
-      systemCommandFacade.update(command);
+      systemCommandFacade.updateStatus(ids, status);
     }
   }
   
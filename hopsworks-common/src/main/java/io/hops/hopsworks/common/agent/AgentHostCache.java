@@ -0,0 +1,96 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.agent;
+
+import io.hops.hopsworks.common.dao.host.Hosts;
+import io.hops.hopsworks.common.dao.host.HostsFacade;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+
+/**
+ * The hosts running an agent, by hostname, so that heartbeats do not read the host every time, with the services
+ * reported in the last heartbeat of each host. A host is read again after {@link #TTL} or when it registers, the
+ * services are then written in full again.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class AgentHostCache {
+
+  public static final long TTL = TimeUnit.MINUTES.toMillis(1);
+
+  @EJB
+  private HostsFacade hostsFacade;
+
+  private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+  /**
+   * The state of a host kept between heartbeats. It is only used by the heartbeats of its host, which the agent
+   * sends one at a time.
+   */
+  static class HostState {
+
+    private final Hosts host;
+    private final long loadedAt;
+    private volatile String servicesFingerprint;
+
+    private HostState(Hosts host) {
+      this.host = host;
+      this.loadedAt = System.currentTimeMillis();
+    }
+
+    Hosts getHost() {
+      return host;
+    }
+
+    String getServicesFingerprint() {
+      return servicesFingerprint;
+    }
+
+    void setServicesFingerprint(String servicesFingerprint) {
+      this.servicesFingerprint = servicesFingerprint;
+    }
+  }
+
+  /**
+   * @param hostname
+   * @return the state of the host, or null if there is no such host
+   */
+  HostState get(String hostname) {
+    HostState state = hosts.get(hostname);
+    if (state != null && System.currentTimeMillis() - state.loadedAt <= TTL) {
+      return state;
+    }
+    Hosts host = hostsFacade.findByHostname(hostname);
+    if (host == null) {
+      hosts.remove(hostname);
+      return null;
+    }
+    // The services are written in full on the first heartbeat after a reload
+    HostState loaded = new HostState(host);
+    hosts.put(hostname, loaded);
+    return loaded;
+  }
+
+  public void invalidate(String hostname) {
+    hosts.remove(hostname);
+  }
+}
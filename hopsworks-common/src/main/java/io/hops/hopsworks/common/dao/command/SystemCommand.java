@@ -70,7 +70,15 @@ import java.util.List;
     @NamedQuery(name = "SystemCommand.findAll",
                 query = "SELECT c FROM SystemCommand c"),
     @NamedQuery(name = "SystemCommand.findByHost",
-                query = "SELECT C FROM SystemCommand c WHERE c.host = :host")
+                query = "SELECT C FROM SystemCommand c WHERE c.host = :host"),
+    @NamedQuery(name = "SystemCommand.findByHostAndStatus",
+                query = "SELECT c FROM SystemCommand c WHERE c.host = :host AND c.status = :status"),
+    @NamedQuery(name = "SystemCommand.findByIds",
+                query = "SELECT c FROM SystemCommand c WHERE c.id IN :ids"),
+    @NamedQuery(name = "SystemCommand.updateStatusByIds",
+                query = "UPDATE SystemCommand c SET c.status = :status WHERE c.id IN :ids"),
+    @NamedQuery(name = "SystemCommand.deleteByIds",
+                query = "DELETE FROM SystemCommand c WHERE c.id IN :ids")
   })
 public class SystemCommand implements Serializable {
   private static final long serialVersionUID = 1L;
@@ -47,6 +47,8 @@ import javax.ejb.TransactionAttributeType;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -84,6 +86,53 @@ public class SystemCommandFacade {
     return query.getResultList();
   }
   
+  public List<SystemCommand> findByHostAndStatus(Hosts host, STATUS status) {
+    TypedQuery<SystemCommand> query = entityManager.createNamedQuery("SystemCommand.findByHostAndStatus",
+        SystemCommand.class);
+    query.setParameter("host", host);
+    query.setParameter("status", status);
+    return query.getResultList();
+  }
+  
+  public List<SystemCommand> findByIds(Collection<Integer> ids) {
+    if (ids.isEmpty()) {
+      return Collections.emptyList();
+    }
+    TypedQuery<SystemCommand> query = entityManager.createNamedQuery("SystemCommand.findByIds", SystemCommand.class);
+    query.setParameter("ids", ids);
+    return query.getResultList();
+  }
+  
+  /**
+   * Sets the status of several commands with a single statement.
+   *
+   * @param ids
+   * @param status
+   */
+  public void updateStatus(Collection<Integer> ids, STATUS status) {
+    if (ids.isEmpty()) {
+      return;
+    }
+    entityManager.createNamedQuery("SystemCommand.updateStatusByIds")
+        .setParameter("ids", ids)
+        .setParameter("status", status)
+        .executeUpdate();
+  }
+  
+  /**
+   * Deletes several commands with a single statement.
+   *
+   * @param ids
+   */
+  public void delete(Collection<Integer> ids) {
+    if (ids.isEmpty()) {
+      return;
+    }
+    entityManager.createNamedQuery("SystemCommand.deleteByIds")
+        .setParameter("ids", ids)
+        .executeUpdate();
+  }
+  
   public void persist(SystemCommand command) {
     entityManager.persist(command);
   }
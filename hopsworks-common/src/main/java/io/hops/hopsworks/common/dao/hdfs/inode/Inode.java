@@ -73,9 +73,24 @@ import io.hops.hopsworks.common.dao.metadata.Template;
   @NamedQuery(name = "Inode.findById",
           query
           = "SELECT i FROM Inode i WHERE i.id = :id"),
+  @NamedQuery(name = "Inode.findByIds",
+          query
+          = "SELECT i FROM Inode i WHERE i.id IN :ids"),
   @NamedQuery(name = "Inode.findByParentId",
           query
           = "SELECT i FROM Inode i WHERE i.inodePK.parentId = :parentId"),
+  @NamedQuery(name = "Inode.findByParentIdAfterName",
+          query
+          = "SELECT i FROM Inode i WHERE i.inodePK.parentId = :parentId "
+          + "AND i.inodePK.name > :name ORDER BY i.inodePK.name"),
+  @NamedQuery(name = "Inode.findSizesByParentIdAfterName",
+          query
+          = "SELECT i.id, i.inodePK.name, i.dir, i.size FROM Inode i WHERE i.inodePK.parentId = :parentId "
+          + "AND i.inodePK.name > :name ORDER BY i.inodePK.name"),
+  @NamedQuery(name = "Inode.findByParentIdAndNames",
+          query
+          = "SELECT i FROM Inode i WHERE i.inodePK.parentId = :parentId "
+          + "AND i.inodePK.partitionId IN :partitionIds AND i.inodePK.name IN :names"),
   @NamedQuery(name = "Inode.findByHdfsUser",
           query
           = "SELECT i FROM Inode i WHERE i.hdfsUser = :hdfsUser"),
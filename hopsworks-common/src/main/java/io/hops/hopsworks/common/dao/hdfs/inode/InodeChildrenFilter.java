@@ -0,0 +1,178 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.dao.hdfs.inode;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Filter, sort order and position of a page of children of a directory, see
+ * {@link InodeFacade#findChildren(Inode, InodeChildrenFilter, int)}.
+ * <p/>
+ * Pages are addressed with a cursor pointing at the last child of the previous
+ * page rather than with an offset, so walking a large directory does not get
+ * slower with every page and concurrent inserts do not shift the pages.
+ */
+public class InodeChildrenFilter {
+
+  public enum SortBy {
+    NAME,
+    MODIFICATION_TIME,
+    SIZE
+  }
+
+  private static final char CURSOR_SEPARATOR = '/';
+
+  private String namePrefix;
+  private Boolean dir;
+  private Long modifiedAfter;
+  private Long modifiedBefore;
+  private SortBy sortBy = SortBy.NAME;
+  private boolean descending = false;
+  // Sort key and name of the last child of the previous page
+  private Object afterValue;
+  private String afterName;
+
+  public String getNamePrefix() {
+    return namePrefix;
+  }
+
+  public void setNamePrefix(String namePrefix) {
+    this.namePrefix = namePrefix;
+  }
+
+  /**
+   * @return true to only list directories, false to only list files, null for both
+   */
+  public Boolean getDir() {
+    return dir;
+  }
+
+  public void setDir(Boolean dir) {
+    this.dir = dir;
+  }
+
+  /**
+   * @return lower bound, exclusive, of the modification time in milliseconds
+   */
+  public Long getModifiedAfter() {
+    return modifiedAfter;
+  }
+
+  public void setModifiedAfter(Long modifiedAfter) {
+    this.modifiedAfter = modifiedAfter;
+  }
+
+  /**
+   * @return upper bound, exclusive, of the modification time in milliseconds
+   */
+  public Long getModifiedBefore() {
+    return modifiedBefore;
+  }
+
+  public void setModifiedBefore(Long modifiedBefore) {
+    this.modifiedBefore = modifiedBefore;
+  }
+
+  public SortBy getSortBy() {
+    return sortBy;
+  }
+
+  public void setSortBy(SortBy sortBy) {
+    this.sortBy = sortBy;
+  }
+
+  public boolean isDescending() {
+    return descending;
+  }
+
+  public void setDescending(boolean descending) {
+    this.descending = descending;
+  }
+
+  public Object getAfterValue() {
+    return afterValue;
+  }
+
+  public String getAfterName() {
+    return afterName;
+  }
+
+  /**
+   * Position the filter right after the given child.
+   *
+   * @param inode
+   */
+  public void setAfter(Inode inode) {
+    this.afterName = inode.getInodePK().getName();
+    switch (sortBy) {
+      case MODIFICATION_TIME:
+        this.afterValue = inode.getModificationTime();
+        break;
+      case SIZE:
+        this.afterValue = inode.getSize();
+        break;
+      default:
+        this.afterValue = null;
+    }
+  }
+
+  /**
+   * @return opaque cursor for the current position, null if at the beginning
+   */
+  public String getCursor() {
+    if (afterName == null) {
+      return null;
+    }
+    String key = (afterValue == null ? "" : afterValue.toString()) + CURSOR_SEPARATOR + afterName;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Position the filter at a cursor returned by {@link #getCursor()}. The sort
+   * order must be set before.
+   *
+   * @param cursor
+   * @throws IllegalArgumentException if the cursor is malformed
+   */
+  public void setCursor(String cursor) {
+    if (cursor == null || cursor.isEmpty()) {
+      this.afterName = null;
+      this.afterValue = null;
+      return;
+    }
+    String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    // Names cannot contain the separator, values cannot either
+    int idx = key.indexOf(CURSOR_SEPARATOR);
+    if (idx < 0 || idx == key.length() - 1) {
+      throw new IllegalArgumentException("Malformed cursor");
+    }
+    String value = key.substring(0, idx);
+    switch (sortBy) {
+      case MODIFICATION_TIME:
+        this.afterValue = new BigInteger(value);
+        break;
+      case SIZE:
+        this.afterValue = Long.valueOf(value);
+        break;
+      default:
+        this.afterValue = null;
+    }
+    this.afterName = key.substring(idx + 1);
+  }
+}
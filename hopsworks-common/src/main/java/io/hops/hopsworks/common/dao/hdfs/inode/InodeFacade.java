@@ -41,11 +41,21 @@ package io.hops.hopsworks.common.dao.hdfs.inode;
 
 import io.hops.common.Pair;
 import java.io.FileNotFoundException;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -53,6 +63,12 @@ import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
 import io.hops.hopsworks.common.dao.hdfsUser.HdfsUsers;
 import io.hops.hopsworks.common.util.HopsUtils;
 import io.hops.hopsworks.common.util.Settings;
@@ -64,8 +80,15 @@ public class InodeFacade extends AbstractFacade<Inode> {
   private static final Logger logger = Logger.getLogger(InodeFacade.class.
           getName());
 
+  // Maximum number of parameters in a single IN clause
+  private static final int MAX_BATCH_SIZE = 500;
+  // Number of children read per query when walking a subtree
+  private static final int CHILDREN_PAGE_SIZE = 1000;
+
   @PersistenceContext(unitName = "kthfsPU")
   private EntityManager em;
+  @EJB
+  private InodePathCache pathCache;
 
   @Override
   protected EntityManager getEntityManager() {
@@ -112,25 +135,109 @@ public class InodeFacade extends AbstractFacade<Inode> {
   }
 
   /**
-   * Get all the children of <i>parent</i>. Alias of findByParent().
+   * Get one page of the children of <i>parent</i> matching <i>filter</i>, in the
+   * order of the filter and starting right after its cursor.
    * <p/>
    * @param parent
-   * @param children
+   * @param filter
+   * @param limit maximum number of children to return
    * @return
    */
-  public void getAllChildren(Inode parent, List<Inode> children) {
-    List<Inode> curr = findByParent(parent);
-    children.addAll(curr);
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+  @SuppressWarnings("unchecked")
+  public List<Inode> findChildren(Inode parent, InodeChildrenFilter filter, int limit) {
+    CriteriaBuilder cb = em.getCriteriaBuilder();
+    CriteriaQuery<Inode> cq = cb.createQuery(Inode.class);
+    Root<Inode> root = cq.from(Inode.class);
+    Path<String> name = root.get("inodePK").get("name");
+
+    List<Predicate> predicates = new ArrayList<>();
+    predicates.add(cb.equal(root.get("inodePK").get("parentId"), parent.getId()));
+    if (filter.getNamePrefix() != null && !filter.getNamePrefix().isEmpty()) {
+      String prefix = filter.getNamePrefix().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+      predicates.add(cb.like(name, prefix + "%", '\\'));
+    }
+    if (filter.getDir() != null) {
+      predicates.add(cb.equal(root.get("dir"), filter.getDir()));
+    }
+    Path<BigInteger> modificationTime = root.get("modificationTime");
+    if (filter.getModifiedAfter() != null) {
+      predicates.add(cb.greaterThan(modificationTime, BigInteger.valueOf(filter.getModifiedAfter())));
+    }
+    if (filter.getModifiedBefore() != null) {
+      predicates.add(cb.lessThan(modificationTime, BigInteger.valueOf(filter.getModifiedBefore())));
+    }
 
-    for (Inode inode : curr) {
-      if (inode.isDir()) {
-        getAllChildren(inode, children);
+    Path sortKey;
+    switch (filter.getSortBy()) {
+      case MODIFICATION_TIME:
+        sortKey = modificationTime;
+        break;
+      case SIZE:
+        sortKey = root.get("size");
+        break;
+      default:
+        sortKey = null;
+    }
+    // Keyset pagination: (sortKey, name) strictly after the cursor
+    if (filter.getAfterName() != null) {
+      Predicate afterName = filter.isDescending()
+          ? cb.lessThan(name, filter.getAfterName())
+          : cb.greaterThan(name, filter.getAfterName());
+      if (sortKey == null) {
+        predicates.add(afterName);
+      } else {
+        Comparable value = (Comparable) filter.getAfterValue();
+        Predicate afterValue = filter.isDescending()
+            ? cb.lessThan(sortKey, value)
+            : cb.greaterThan(sortKey, value);
+        predicates.add(cb.or(afterValue, cb.and(cb.equal(sortKey, value), afterName)));
       }
     }
+    cq.where(predicates.toArray(new Predicate[predicates.size()]));
+
+    List<Order> order = new ArrayList<>();
+    if (sortKey != null) {
+      order.add(filter.isDescending() ? cb.desc(sortKey) : cb.asc(sortKey));
+    }
+    order.add(filter.isDescending() ? cb.desc(name) : cb.asc(name));
+    cq.orderBy(order);
+
+    return em.createQuery(cq).setMaxResults(limit).getResultList();
+  }
+
+  /**
+   * Get all the descendants of <i>parent</i>. The tree is walked depth-first
+   * with an explicit stack, one page of children at a time.
+   * <p/>
+   * @param parent
+   * @param children
+   * @return
+   */
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+  public void getAllChildren(Inode parent, List<Inode> children) {
+    Deque<Integer> dirs = new ArrayDeque<>();
+    dirs.push(parent.getId());
+    while (!dirs.isEmpty()) {
+      int parentId = dirs.pop();
+      String lastName = "";
+      List<Inode> page;
+      do {
+        page = findChildrenPage(parentId, lastName);
+        for (Inode inode : page) {
+          children.add(inode);
+          if (inode.isDir()) {
+            dirs.push(inode.getId());
+          }
+          lastName = inode.getInodePK().getName();
+        }
+      } while (page.size() == CHILDREN_PAGE_SIZE);
+    }
   }
 
   /**
-   * Return the size of an inode
+   * Return the size of an inode. For directories this is the total size of
+   * all the files in the subtree.
    *
    * @param inode
    * @return
@@ -140,16 +247,58 @@ public class InodeFacade extends AbstractFacade<Inode> {
     if (!inode.isDir()) {
       return inode.getSize();
     }
-    long size = 0;
-    List<Inode> children = getChildren(inode);
-    for (Inode i : children) {
-      if (!i.isDir()) {
-        size += i.getSize();
-      } else {
-        size += getSize(i);
-      }
+    return getContentSummary(inode).getLength();
+  }
+
+  /**
+   * Compute the length and file/directory counts of the subtree rooted at
+   * <i>inode</i> from the inode table. Only the ids of the directories still to
+   * be visited are kept in memory, children are read in pages of scalar rows.
+   * <p/>
+   * @param inode
+   * @return
+   */
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+  public InodeSummary getContentSummary(Inode inode) {
+    if (!inode.isDir()) {
+      return new InodeSummary(inode.getSize(), 1, 0);
+    }
+    long length = 0;
+    long files = 0;
+    long directories = 1;
+    Deque<Integer> dirs = new ArrayDeque<>();
+    dirs.push(inode.getId());
+    while (!dirs.isEmpty()) {
+      int parentId = dirs.pop();
+      String lastName = "";
+      List<Object[]> page;
+      do {
+        TypedQuery<Object[]> query = em.createNamedQuery("Inode.findSizesByParentIdAfterName", Object[].class)
+            .setParameter("parentId", parentId)
+            .setParameter("name", lastName)
+            .setMaxResults(CHILDREN_PAGE_SIZE);
+        page = query.getResultList();
+        for (Object[] row : page) {
+          if ((Boolean) row[2]) {
+            directories++;
+            dirs.push((Integer) row[0]);
+          } else {
+            files++;
+            length += ((Number) row[3]).longValue();
+          }
+          lastName = (String) row[1];
+        }
+      } while (page.size() == CHILDREN_PAGE_SIZE);
     }
-    return size;
+    return new InodeSummary(length, files, directories);
+  }
+
+  private List<Inode> findChildrenPage(int parentId, String afterName) {
+    TypedQuery<Inode> query = em.createNamedQuery("Inode.findByParentIdAfterName", Inode.class)
+        .setParameter("parentId", parentId)
+        .setParameter("name", afterName)
+        .setMaxResults(CHILDREN_PAGE_SIZE);
+    return query.getResultList();
   }
 
   /**
@@ -214,6 +363,137 @@ public class InodeFacade extends AbstractFacade<Inode> {
     }
   }
 
+  /**
+   * Find the inodes with the given ids. The ids are queried in batches.
+   * <p/>
+   * @param ids
+   * @return the inodes found, in no particular order
+   */
+  public List<Inode> findByIds(Collection<Integer> ids) {
+    List<Inode> result = new ArrayList<>(ids.size());
+    List<Integer> idList = new ArrayList<>(ids);
+    for (int from = 0; from < idList.size(); from += MAX_BATCH_SIZE) {
+      TypedQuery<Inode> q = em.createNamedQuery("Inode.findByIds", Inode.class);
+      q.setParameter("ids", idList.subList(from, Math.min(from + MAX_BATCH_SIZE, idList.size())));
+      result.addAll(q.getResultList());
+    }
+    return result;
+  }
+
+  private Map<Integer, Inode> findByIdsAsMap(Collection<Integer> ids) {
+    Map<Integer, Inode> result = new HashMap<>();
+    for (Inode inode : findByIds(ids)) {
+      result.put(inode.getId(), inode);
+    }
+    return result;
+  }
+
+  /**
+   * Find the children of the given parent with the given names.
+   * <p/>
+   * @param parentId
+   * @param names
+   * @param depth depth of the children in the tree, used to compute their partition id
+   * @return
+   */
+  public List<Inode> findByParentIdAndNames(int parentId, List<String> names, int depth) {
+    List<Inode> result = new ArrayList<>(names.size());
+    for (int from = 0; from < names.size(); from += MAX_BATCH_SIZE) {
+      List<String> batch = names.subList(from, Math.min(from + MAX_BATCH_SIZE, names.size()));
+      Set<Integer> partitionIds = new HashSet<>();
+      for (String name : batch) {
+        partitionIds.add(HopsUtils.calculatePartitionId(parentId, name, depth));
+      }
+      TypedQuery<Inode> q = em.createNamedQuery("Inode.findByParentIdAndNames", Inode.class);
+      q.setParameter("parentId", parentId);
+      q.setParameter("partitionIds", partitionIds);
+      q.setParameter("names", batch);
+      result.addAll(q.getResultList());
+    }
+    return result;
+  }
+
+  private static String[] getPathComponents(String path) {
+    if (path.charAt(0) == '/') {
+      return path.substring(1).split("/");
+    } else {
+      return path.split("/");
+    }
+  }
+
+  /**
+   * @param components path components
+   * @return the absolute paths of all the prefixes of the path, the last one is the path itself
+   */
+  private static String[] getPathPrefixes(String[] components) {
+    String[] prefixes = new String[components.length];
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < components.length; i++) {
+      sb.append('/').append(components[i]);
+      prefixes[i] = sb.toString();
+    }
+    return prefixes;
+  }
+
+  /**
+   * @param prefixes path prefixes, from the top level directory down
+   * @return the cache entries of the prefixes, up to the first one that is not cached
+   */
+  private List<InodePathCache.CachedInode> getCachedEntries(String[] prefixes) {
+    List<InodePathCache.CachedInode> entries = new ArrayList<>(prefixes.length);
+    for (String prefix : prefixes) {
+      InodePathCache.CachedInode cached = pathCache.get(prefix);
+      if (cached == null) {
+        break;
+      }
+      entries.add(cached);
+    }
+    return entries;
+  }
+
+  /**
+   * Check the cached entries against the inodes read from the database. The first stale entry and everything
+   * below it are removed from the cache.
+   *
+   * @return the inodes of the valid prefix of the chain
+   */
+  private List<Inode> validateChain(String[] prefixes, List<InodePathCache.CachedInode> entries,
+      Map<Integer, Inode> inodesById) {
+    List<Inode> validated = new ArrayList<>(entries.size());
+    int parentId = HopsUtils.ROOT_INODE_ID;
+    for (int i = 0; i < entries.size(); i++) {
+      InodePathCache.CachedInode cached = entries.get(i);
+      Inode inode = inodesById.get(cached.getId());
+      if (inode == null || cached.getParentId() != parentId || !cached.matches(inode)) {
+        // Renamed, moved or deleted since it was cached
+        pathCache.invalidate(prefixes[i]);
+        break;
+      }
+      validated.add(inode);
+      parentId = inode.getId();
+    }
+    return validated;
+  }
+
+  /**
+   * Get the longest chain of inodes for the given prefixes that is in the path cache and is still valid. The whole
+   * chain is fetched and validated with a single query.
+   *
+   * @param prefixes path prefixes, from the top level directory down
+   * @return the inodes of the cached prefixes, empty if the first component is not cached
+   */
+  private List<Inode> getCachedChain(String[] prefixes) {
+    List<InodePathCache.CachedInode> entries = getCachedEntries(prefixes);
+    if (entries.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<Integer> ids = new ArrayList<>(entries.size());
+    for (InodePathCache.CachedInode cached : entries) {
+      ids.add(cached.getId());
+    }
+    return validateChain(prefixes, entries, findByIdsAsMap(ids));
+  }
+
   /**
    *
    * @param path
@@ -222,26 +502,34 @@ public class InodeFacade extends AbstractFacade<Inode> {
   @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
   private Inode getInode(String path) {
     // Get the path components
-    String[] p;
-    if (path.charAt(0) == '/') {
-      p = path.substring(1).split("/");
-    } else {
-      p = path.split("/");
-    }
+    String[] p = getPathComponents(path);
 
     if (p.length < 1) {
       return null;
     }
+    String[] prefixes = getPathPrefixes(p);
 
-    //Get the right root node
-    Inode curr = getRootNode(p[0]);
-    if (curr == null) {
-      logger.log(Level.WARNING, "Could not resolve root inode at path: {0}",
-              path);
-      return null;
+    // Start from the deepest prefix we already know about
+    List<Inode> cachedChain = getCachedChain(prefixes);
+    pathCache.recordLookup(cachedChain.size() == p.length);
+    Inode curr;
+    int start;
+    if (cachedChain.isEmpty()) {
+      //Get the right root node
+      curr = getRootNode(p[0]);
+      if (curr == null) {
+        logger.log(Level.WARNING, "Could not resolve root inode at path: {0}",
+                path);
+        return null;
+      }
+      pathCache.put(prefixes[0], curr);
+      start = 1;
+    } else {
+      curr = cachedChain.get(cachedChain.size() - 1);
+      start = cachedChain.size();
     }
     //Move down the path
-    for (int i = 1; i < p.length; i++) {
+    for (int i = start; i < p.length; i++) {
       int partitionId = HopsUtils.
               calculatePartitionId(curr.getId(), p[i], i + 1);
       Inode next = findByInodePK(curr, p[i], partitionId);
@@ -251,12 +539,147 @@ public class InodeFacade extends AbstractFacade<Inode> {
                 path);
         return null;
       } else {
+        pathCache.put(prefixes[i], next);
         curr = next;
       }
     }
     return curr;
   }
 
+  /**
+   * Resolve many paths at once. Prefixes shared by the paths are resolved only once, cached prefixes are
+   * validated with a single query and the remaining ones are fetched with one query per parent directory,
+   * instead of one query per path component.
+   * <p/>
+   * @param paths absolute paths
+   * @return map from each of the given paths to its inode, or to null if the path does not exist
+   */
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+  public Map<String, Inode> getInodesAtPaths(Collection<String> paths) {
+    // Distinct prefixes of all the paths, by depth
+    List<Set<String>> prefixesByDepth = new ArrayList<>();
+    Map<String, String> parentOf = new HashMap<>();
+    Map<String, String> nameOf = new HashMap<>();
+    Map<String, String> normalized = new HashMap<>();
+    for (String path : paths) {
+      if (path == null || path.isEmpty()) {
+        continue;
+      }
+      String[] components = getPathComponents(path);
+      String[] prefixes = getPathPrefixes(components);
+      for (int i = 0; i < prefixes.length; i++) {
+        if (prefixesByDepth.size() <= i) {
+          prefixesByDepth.add(new LinkedHashSet<String>());
+        }
+        prefixesByDepth.get(i).add(prefixes[i]);
+        parentOf.put(prefixes[i], i == 0 ? null : prefixes[i - 1]);
+        nameOf.put(prefixes[i], components[i]);
+      }
+      if (prefixes.length > 0) {
+        normalized.put(path, prefixes[prefixes.length - 1]);
+      }
+    }
+
+    // Validate all the cached prefixes with one query
+    Map<String, Inode> resolved = new HashMap<>();
+    Map<String, InodePathCache.CachedInode> cached = new HashMap<>();
+    for (Set<String> prefixes : prefixesByDepth) {
+      for (String prefix : prefixes) {
+        InodePathCache.CachedInode entry = pathCache.get(prefix);
+        if (entry != null) {
+          cached.put(prefix, entry);
+        }
+      }
+    }
+    if (!cached.isEmpty()) {
+      Set<Integer> ids = new HashSet<>();
+      for (InodePathCache.CachedInode entry : cached.values()) {
+        ids.add(entry.getId());
+      }
+      Map<Integer, Inode> inodesById = findByIdsAsMap(ids);
+      for (Set<String> prefixes : prefixesByDepth) {
+        for (String prefix : prefixes) {
+          InodePathCache.CachedInode entry = cached.get(prefix);
+          if (entry == null) {
+            continue;
+          }
+          String parentPrefix = parentOf.get(prefix);
+          Inode parent = parentPrefix == null ? null : resolved.get(parentPrefix);
+          if (parentPrefix != null && parent == null) {
+            // The parent has to be resolved from the database first
+            continue;
+          }
+          int parentId = parent == null ? HopsUtils.ROOT_INODE_ID : parent.getId();
+          Inode inode = inodesById.get(entry.getId());
+          if (inode != null && entry.getParentId() == parentId && entry.matches(inode)) {
+            resolved.put(prefix, inode);
+          } else {
+            pathCache.invalidate(prefix);
+          }
+        }
+      }
+    }
+
+    // Resolve what is left level by level, one query per parent directory
+    for (int depth = 0; depth < prefixesByDepth.size(); depth++) {
+      Map<Integer, List<String>> pendingByParent = new HashMap<>();
+      Map<Integer, String> parentPrefixes = new HashMap<>();
+      for (String prefix : prefixesByDepth.get(depth)) {
+        if (resolved.containsKey(prefix)) {
+          continue;
+        }
+        String parentPrefix = parentOf.get(prefix);
+        int parentId = HopsUtils.ROOT_INODE_ID;
+        if (parentPrefix != null) {
+          Inode parent = resolved.get(parentPrefix);
+          if (parent == null) {
+            // The parent does not exist, neither does the child
+            continue;
+          }
+          parentId = parent.getId();
+        }
+        List<String> names = pendingByParent.get(parentId);
+        if (names == null) {
+          names = new ArrayList<>();
+          pendingByParent.put(parentId, names);
+          parentPrefixes.put(parentId, parentPrefix == null ? "" : parentPrefix);
+        }
+        names.add(nameOf.get(prefix));
+      }
+      for (Map.Entry<Integer, List<String>> entry : pendingByParent.entrySet()) {
+        String parentPrefix = parentPrefixes.get(entry.getKey());
+        for (Inode child : findByParentIdAndNames(entry.getKey(), entry.getValue(), depth + 1)) {
+          String prefix = parentPrefix + "/" + child.getInodePK().getName();
+          resolved.put(prefix, child);
+          pathCache.put(prefix, child);
+        }
+      }
+    }
+
+    Map<String, Inode> result = new HashMap<>();
+    for (String path : paths) {
+      String key = normalized.get(path);
+      result.put(path, key == null ? null : resolved.get(key));
+    }
+    return result;
+  }
+
+  /**
+   * Drop the cached resolution of the given path and of everything below it. Stale entries are detected anyway
+   * on lookup, this only avoids the extra round trip when the caller knows the path has changed.
+   * <p/>
+   * @param path absolute path
+   */
+  public void invalidatePath(String path) {
+    if (path == null || path.isEmpty()) {
+      return;
+    }
+    String[] prefixes = getPathPrefixes(getPathComponents(path));
+    if (prefixes.length > 0) {
+      pathCache.invalidate(prefixes[prefixes.length - 1]);
+    }
+  }
+
   @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
   private Inode getRootNode(String name) {
     int partitionId = HopsUtils.calculatePartitionId(HopsUtils.ROOT_INODE_ID, name, HopsUtils.ROOT_DIR_DEPTH + 1);
@@ -331,6 +754,130 @@ public class InodeFacade extends AbstractFacade<Inode> {
     }
   }
 
+  /**
+   * Get the ancestors of many inodes at once. Inodes whose path is in the path cache are validated together with
+   * a single query; for the others the tree is walked up one level at a time for all of them together, sharing the
+   * parents they have in common, so the number of queries depends on the depth of the tree and not on the number
+   * of inodes.
+   * <p/>
+   * @param inodes
+   * @return map from inode id to its ancestors, from the top level directory (child of /) down to the inode
+   * itself. Inodes whose ancestors could not be resolved are not in the map.
+   */
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+  public Map<Integer, List<Inode>> getAncestors(Collection<Inode> inodes) {
+    Map<Integer, List<Inode>> result = new HashMap<>();
+
+    // Inodes that have been resolved before: validate all their cached chains with one query
+    Map<Inode, String[]> cachedPrefixes = new HashMap<>();
+    Map<Inode, List<InodePathCache.CachedInode>> cachedEntries = new HashMap<>();
+    Set<Integer> cachedIds = new HashSet<>();
+    for (Inode inode : inodes) {
+      if (inode.getId() == HopsUtils.ROOT_INODE_ID) {
+        result.put(inode.getId(), new ArrayList<Inode>());
+        continue;
+      }
+      String path = pathCache.getPath(inode.getId());
+      if (path == null) {
+        continue;
+      }
+      String[] prefixes = getPathPrefixes(getPathComponents(path));
+      List<InodePathCache.CachedInode> entries = getCachedEntries(prefixes);
+      if (entries.size() == prefixes.length) {
+        cachedPrefixes.put(inode, prefixes);
+        cachedEntries.put(inode, entries);
+        for (InodePathCache.CachedInode entry : entries) {
+          cachedIds.add(entry.getId());
+        }
+      }
+    }
+    if (!cachedIds.isEmpty()) {
+      Map<Integer, Inode> inodesById = findByIdsAsMap(cachedIds);
+      for (Map.Entry<Inode, String[]> entry : cachedPrefixes.entrySet()) {
+        List<Inode> chain = validateChain(entry.getValue(), cachedEntries.get(entry.getKey()), inodesById);
+        if (chain.size() == entry.getValue().length
+            && chain.get(chain.size() - 1).getId() == entry.getKey().getId()) {
+          result.put(entry.getKey().getId(), chain);
+        }
+      }
+    }
+    pathCache.recordLookup(result.size() == inodes.size());
+
+    // Walk up the rest one level at a time. Chains are built from the inode up.
+    Map<Integer, Inode> known = new HashMap<>();
+    List<List<Inode>> active = new ArrayList<>();
+    for (Inode inode : inodes) {
+      if (!result.containsKey(inode.getId())) {
+        List<Inode> chain = new ArrayList<>();
+        chain.add(inode);
+        active.add(chain);
+        known.put(inode.getId(), inode);
+      }
+    }
+    while (!active.isEmpty()) {
+      Set<Integer> missing = new HashSet<>();
+      for (List<Inode> chain : active) {
+        int parentId = chain.get(chain.size() - 1).getInodePK().getParentId();
+        if (parentId != HopsUtils.ROOT_INODE_ID && !known.containsKey(parentId)) {
+          missing.add(parentId);
+        }
+      }
+      if (!missing.isEmpty()) {
+        known.putAll(findByIdsAsMap(missing));
+      }
+
+      List<List<Inode>> stillActive = new ArrayList<>(active.size());
+      for (List<Inode> chain : active) {
+        int parentId = chain.get(chain.size() - 1).getInodePK().getParentId();
+        if (parentId == HopsUtils.ROOT_INODE_ID) {
+          Collections.reverse(chain);
+          result.put(chain.get(chain.size() - 1).getId(), chain);
+          cacheChain(chain);
+        } else {
+          Inode parent = known.get(parentId);
+          if (parent == null) {
+            logger.log(Level.WARNING, "Could not resolve the ancestors of inode: {0}", chain.get(0).getId());
+          } else {
+            chain.add(parent);
+            stillActive.add(chain);
+          }
+        }
+      }
+      active = stillActive;
+    }
+    return result;
+  }
+
+  private void cacheChain(List<Inode> chain) {
+    StringBuilder path = new StringBuilder();
+    for (Inode inode : chain) {
+      path.append('/').append(inode.getInodePK().getName());
+      pathCache.put(path.toString(), inode);
+    }
+  }
+
+  private List<Inode> getAncestors(Inode i) {
+    List<Inode> chain = getAncestors(Collections.singletonList(i)).get(i.getId());
+    if (chain == null) {
+      throw new IllegalStateException("Could not resolve the path of inode: " + i.getId());
+    }
+    return chain;
+  }
+
+  /**
+   * @param i
+   * @return the ancestors of the inode, checking it is in a project
+   * @throws IllegalStateException if the inode is not a project root or one of its descendants
+   */
+  private List<Inode> getAncestorsInProject(Inode i) throws IllegalStateException {
+    List<Inode> chain = getAncestors(i);
+    if (chain.size() < 2 || !chain.get(0).getInodePK().getName().equals(Settings.DIR_ROOT)) {
+      throw new IllegalStateException(
+              "Transversing the path from folder did not encounter project root folder.");
+    }
+    return chain;
+  }
+
   /**
    * Get the project base directory of which the given Inode is a descendant.
    * <p/>
@@ -340,16 +887,7 @@ public class InodeFacade extends AbstractFacade<Inode> {
    * root directory.
    */
   public Inode getProjectRootForInode(Inode i) throws IllegalStateException {
-    if (isProjectRoot(i)) {
-      return i;
-    } else {
-      Inode parent = findParent(i);
-      if (parent == null) {
-        throw new IllegalStateException(
-                "Transversing the path from folder did not encounter project root folder.");
-      }
-      return getProjectRootForInode(parent);
-    }
+    return getAncestorsInProject(i).get(1);
   }
 
   /**
@@ -392,24 +930,16 @@ public class InodeFacade extends AbstractFacade<Inode> {
    * @return
    */
   public List<NavigationPath> getConstituentsPath(Inode i) {
-    if (isProjectRoot(i)) {
-      List<NavigationPath> p = new ArrayList<>();
-      p.add(new NavigationPath(i.getInodePK().getName(), i.getInodePK().
-              getName() + "/"));
-      return p;
-    } else {
-      List<NavigationPath> p = getConstituentsPath(findParent(i));
-      NavigationPath a;
-      if (i.isDir()) {
-        a = new NavigationPath(i.getInodePK().getName(), p.get(p.size() - 1).
-                getPath() + i.getInodePK().getName() + "/");
-      } else {
-        a = new NavigationPath(i.getInodePK().getName(), p.get(p.size() - 1).
-                getPath() + i.getInodePK().getName());
-      }
-      p.add(a);
-      return p;
+    List<Inode> chain = getAncestorsInProject(i);
+    List<NavigationPath> p = new ArrayList<>(chain.size() - 1);
+    String path = "";
+    for (int j = 1; j < chain.size(); j++) {
+      Inode inode = chain.get(j);
+      // The project root always ends with a slash
+      path = path + inode.getInodePK().getName() + (inode.isDir() || j == 1 ? "/" : "");
+      p.add(new NavigationPath(inode.getInodePK().getName(), path));
     }
+    return p;
   }
 
   /**
@@ -423,15 +953,32 @@ public class InodeFacade extends AbstractFacade<Inode> {
     if(i == null) {
       throw new IllegalArgumentException("Inode was not provided.");
     }
-    List<String> pathComponents = new ArrayList<>();
-    Inode parent = i;
-    while (parent.getId() != 1) {
-      pathComponents.add(parent.getInodePK().getName());
-      parent = findParent(parent);
+    return toPath(getAncestors(i));
+  }
+
+  /**
+   * Get the paths of many inodes at once, see {@link #getAncestors(java.util.Collection)}.
+   * <p/>
+   * @param inodes
+   * @return map from inode id to its path. Inodes whose path could not be resolved are not in the map.
+   */
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+  public Map<Integer, String> getPaths(Collection<Inode> inodes) {
+    Map<Integer, String> paths = new HashMap<>();
+    for (Map.Entry<Integer, List<Inode>> entry : getAncestors(inodes).entrySet()) {
+      paths.put(entry.getKey(), toPath(entry.getValue()));
     }
+    return paths;
+  }
+
+  /**
+   * @param chain ancestors of an inode as returned by {@link #getAncestors(java.util.Collection)}
+   * @return the absolute path of the inode
+   */
+  public static String toPath(List<Inode> chain) {
     StringBuilder path = new StringBuilder();
-    for (int j = pathComponents.size() - 1; j >= 0; j--) {
-      path.append("/").append(pathComponents.get(j));
+    for (Inode inode : chain) {
+      path.append("/").append(inode.getInodePK().getName());
     }
     return path.toString();
   }
@@ -467,17 +1014,12 @@ public class InodeFacade extends AbstractFacade<Inode> {
    */
   public Pair<Inode, Inode> getProjectAndDatasetRootForInode(Inode i) throws
           IllegalStateException {
-    Inode project = i;
-    Inode dataset = i;
-    do {
-      dataset = project;
-      project = findParent(project);
-      if (project == null) {
-        throw new IllegalStateException(
-                "Transversing the path from folder did not encounter project root folder.");
-      }
-    } while (!isProjectRoot(project));
-    return new Pair<>(project, dataset);
+    List<Inode> chain = getAncestorsInProject(i);
+    if (chain.size() < 3) {
+      throw new IllegalStateException(
+              "Transversing the path from folder did not encounter project root folder.");
+    }
+    return new Pair<>(chain.get(1), chain.get(2));
   }
 
   /**
@@ -0,0 +1,196 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.dao.hdfs.inode;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of resolved path prefixes to the primary key and id of the inode they point to, with a
+ * reverse index from inode id to path.
+ * Entries are only hints: InodeFacade validates the whole cached chain against the inode table in a single
+ * query before using it, so renames, moves and deletes done outside Hopsworks are detected and the stale
+ * prefixes dropped.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class InodePathCache {
+
+  private static final int MAX_ENTRIES = 50000;
+
+  // Reverse index used to resolve the path of an inode, guarded by the lock of cache
+  private final Map<Integer, String> pathsById = new HashMap<>();
+
+  private final Map<String, CachedInode> cache = new LinkedHashMap<String, CachedInode>(1024, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, CachedInode> eldest) {
+      if (size() > MAX_ENTRIES) {
+        removeReverse(eldest.getKey(), eldest.getValue());
+        return true;
+      }
+      return false;
+    }
+  };
+
+  private final AtomicLong hits = new AtomicLong(0);
+  private final AtomicLong misses = new AtomicLong(0);
+  private final AtomicLong invalidations = new AtomicLong(0);
+
+  public CachedInode get(String path) {
+    synchronized (cache) {
+      return cache.get(path);
+    }
+  }
+
+  /**
+   * Record the outcome of a path resolution: a hit if it was resolved from a validated cached entry.
+   */
+  void recordLookup(boolean hit) {
+    if (hit) {
+      hits.incrementAndGet();
+    } else {
+      misses.incrementAndGet();
+    }
+  }
+
+  /**
+   * @param id inode id
+   * @return the last path the inode was resolved at, it has to be validated before being used
+   */
+  public String getPath(int id) {
+    synchronized (cache) {
+      return pathsById.get(id);
+    }
+  }
+
+  public void put(String path, Inode inode) {
+    CachedInode cached = new CachedInode(inode.getId(), inode.getInodePK().getParentId(),
+        inode.getInodePK().getName(), inode.getInodePK().getPartitionId());
+    synchronized (cache) {
+      CachedInode previous = cache.put(path, cached);
+      if (previous != null) {
+        removeReverse(path, previous);
+      }
+      pathsById.put(cached.getId(), path);
+    }
+  }
+
+  private void removeReverse(String path, CachedInode cached) {
+    if (path.equals(pathsById.get(cached.getId()))) {
+      pathsById.remove(cached.getId());
+    }
+  }
+
+  /**
+   * Remove the path and everything below it.
+   *
+   * @param path absolute path, without trailing slash
+   */
+  public void invalidate(String path) {
+    invalidations.incrementAndGet();
+    String prefix = path + "/";
+    synchronized (cache) {
+      CachedInode removed = cache.remove(path);
+      if (removed != null) {
+        removeReverse(path, removed);
+      }
+      Iterator<Map.Entry<String, CachedInode>> it = cache.entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<String, CachedInode> entry = it.next();
+        if (entry.getKey().startsWith(prefix)) {
+          removeReverse(entry.getKey(), entry.getValue());
+          it.remove();
+        }
+      }
+    }
+  }
+
+  public void clear() {
+    synchronized (cache) {
+      cache.clear();
+      pathsById.clear();
+    }
+  }
+
+  public int size() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getInvalidations() {
+    return invalidations.get();
+  }
+
+  public double getHitRate() {
+    long h = hits.get();
+    long total = h + misses.get();
+    return total == 0 ? 0 : (double) h / total;
+  }
+
+  public static class CachedInode {
+    private final int id;
+    private final int parentId;
+    private final String name;
+    private final int partitionId;
+
+    CachedInode(int id, int parentId, String name, int partitionId) {
+      this.id = id;
+      this.parentId = parentId;
+      this.name = name;
+      this.partitionId = partitionId;
+    }
+
+    public int getId() {
+      return id;
+    }
+
+    public int getParentId() {
+      return parentId;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public int getPartitionId() {
+      return partitionId;
+    }
+
+    /**
+     * @return true if the inode still has the parent and name that were cached
+     */
+    boolean matches(Inode inode) {
+      return inode.getId() == id && inode.getInodePK().getParentId() == parentId
+          && inode.getInodePK().getName().equals(name);
+    }
+  }
+}
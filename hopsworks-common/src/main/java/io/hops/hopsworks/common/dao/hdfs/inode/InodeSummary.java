@@ -0,0 +1,58 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.dao.hdfs.inode;
+
+/**
+ * Aggregated length and file/directory counts of an inode subtree.
+ */
+public class InodeSummary {
+
+  private final long length;
+  private final long fileCount;
+  private final long directoryCount;
+
+  public InodeSummary(long length, long fileCount, long directoryCount) {
+    this.length = length;
+    this.fileCount = fileCount;
+    this.directoryCount = directoryCount;
+  }
+
+  /**
+   * @return total size in bytes of the files in the subtree
+   */
+  public long getLength() {
+    return length;
+  }
+
+  public long getFileCount() {
+    return fileCount;
+  }
+
+  /**
+   * @return number of directories in the subtree, including its root
+   */
+  public long getDirectoryCount() {
+    return directoryCount;
+  }
+
+  @Override
+  public String toString() {
+    return "InodeSummary{" + "length=" + length + ", fileCount=" + fileCount + ", directoryCount="
+        + directoryCount + '}';
+  }
+
+}
@@ -86,7 +86,13 @@ import org.codehaus.jackson.annotate.JsonIgnore;
   @NamedQuery(name = "Hosts.findBy-Cluster.Group.Service",
           query
           = "SELECT h FROM Hosts h, HostServices r WHERE h = r.host AND r.cluster "
-          + "= :cluster AND r.group = :group AND r.service = :service"),})
+          + "= :cluster AND r.group = :group AND r.service = :service"),
+  @NamedQuery(name = "Hosts.updateHeartbeat",
+          query
+          = "UPDATE Hosts h SET h.lastHeartbeat = :lastHeartbeat, h.load1 = :load1, h.load5 = :load5, "
+          + "h.load15 = :load15, h.numGpus = :numGpus, h.diskUsed = :diskUsed, h.diskCapacity = :diskCapacity, "
+          + "h.memoryUsed = :memoryUsed, h.memoryCapacity = :memoryCapacity, h.privateIp = :privateIp, "
+          + "h.cores = :cores WHERE h.id = :id"),})
 public class Hosts implements Serializable {
 
   private static final int HEARTBEAT_INTERVAL = 10;
@@ -133,6 +133,29 @@ public class HostsFacade implements Serializable {
     return em.merge(host);
   }
   
+  /**
+   * Writes the heartbeat metrics of a host with a single statement, without reading or merging the host.
+   *
+   * @param host
+   * @return false if the host does not exist anymore
+   */
+  public boolean updateHeartbeat(Hosts host) {
+    return em.createNamedQuery("Hosts.updateHeartbeat")
+        .setParameter("lastHeartbeat", host.getLastHeartbeat())
+        .setParameter("load1", host.getLoad1())
+        .setParameter("load5", host.getLoad5())
+        .setParameter("load15", host.getLoad15())
+        .setParameter("numGpus", host.getNumGpus())
+        .setParameter("diskUsed", host.getDiskUsed())
+        .setParameter("diskCapacity", host.getDiskCapacity())
+        .setParameter("memoryUsed", host.getMemoryUsed())
+        .setParameter("memoryCapacity", host.getMemoryCapacity())
+        .setParameter("privateIp", host.getPrivateIp())
+        .setParameter("cores", host.getCores())
+        .setParameter("id", host.getId())
+        .executeUpdate() > 0;
+  }
+  
   public boolean removeByHostname(String hostname) {
     Hosts host = findByHostname(hostname);
     if (host != null) {
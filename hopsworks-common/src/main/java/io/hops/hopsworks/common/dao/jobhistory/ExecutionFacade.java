@@ -42,6 +42,7 @@ package io.hops.hopsworks.common.dao.jobhistory;
 import io.hops.hopsworks.common.jobs.jobhistory.JobFinalStatus;
 import io.hops.hopsworks.common.jobs.jobhistory.JobState;
 import io.hops.hopsworks.common.jobs.jobhistory.JobType;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -228,6 +229,30 @@ public class ExecutionFacade extends AbstractFacade<Execution> {
     return exec;
   }
 
+  /**
+   * Write the state, final status and progress of many executions in a single
+   * transaction. Executions that no longer exist are skipped.
+   * <p/>
+   * @param execs executions carrying the new values
+   * @return the updated executions
+   */
+  public List<Execution> updateStatuses(Collection<Execution> execs) {
+    List<Execution> updated = new ArrayList<>(execs.size());
+    for (Execution exec : execs) {
+      Execution obj = em.find(Execution.class, exec.getId());
+      if (obj == null) {
+        logger.log(Level.WARNING, "Execution {0} not found, its status is not updated", exec.getId());
+        continue;
+      }
+      obj.setState(exec.getState());
+      obj.setFinalStatus(exec.getFinalStatus());
+      obj.setProgress(exec.getProgress());
+      merge(obj);
+      updated.add(obj);
+    }
+    return updated;
+  }
+
   public Execution updateExecutionStart(Execution exec, long executionStart) {
     exec = getExecution(exec);
     exec.setExecutionStart(executionStart);
@@ -89,6 +89,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -857,7 +858,7 @@ public class KafkaFacade {
   public List<PartitionDetailsDTO> getTopicDetailsfromKafkaCluster(
       Project project, Users user, String topicName) throws KafkaException, CryptoPasswordNotFoundException {
   
-    Set<String> brokers = settings.getKafkaBrokers();
+    Set<String> brokers = new HashSet<>(settings.getKafkaBrokers());
     Map<Integer, List<String>> replicas = new HashMap<>();
     Map<Integer, List<String>> inSyncReplicas = new HashMap<>();
     Map<Integer, String> leaders = new HashMap<>();
@@ -0,0 +1,240 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.dao.kagent;
+
+import io.hops.hopsworks.common.dao.host.Hosts;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Snapshots of the services and capacity of each cluster, for the monitoring pages. A snapshot is computed from a
+ * single query and shared by all the views until it is older than the kagent heartbeat interval, or until a
+ * heartbeat reports that the services of a host in the cluster changed.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class ClusterRollupCache {
+
+  /**
+   * The interval at which kagent sends heartbeats.
+   */
+  public static final long TTL = TimeUnit.SECONDS.toMillis(10);
+
+  @EJB
+  private HostServicesFacade hostServicesFacade;
+  @Resource
+  private TransactionSynchronizationRegistry transactionRegistry;
+
+  private final Map<String, ClusterRollup> rollups = new ConcurrentHashMap<>();
+  private volatile List<String> clusters;
+  private volatile long clustersLoadedAt;
+  private final AtomicLong hits = new AtomicLong(0);
+  private final AtomicLong misses = new AtomicLong(0);
+
+  /**
+   * The services of a cluster, grouped by group, and the capacity of the hosts running them.
+   */
+  public static class ClusterRollup {
+
+    private final String cluster;
+    private final List<HostServicesInfo> hostServices;
+    private final Map<String, List<HostServicesInfo>> hostServicesByGroup;
+    private final long numberOfHosts;
+    private final Long totalCores;
+    private final Long totalGPUs;
+    private final Long totalMemoryCapacity;
+    private final Long totalDiskCapacity;
+    private final long computedAt;
+
+    private ClusterRollup(String cluster, List<HostServicesInfo> hostServices) {
+      this.cluster = cluster;
+      this.hostServices = Collections.unmodifiableList(hostServices);
+      Map<String, List<HostServicesInfo>> byGroup = new TreeMap<>();
+      Map<String, Hosts> hosts = new HashMap<>();
+      for (HostServicesInfo info : hostServices) {
+        byGroup.computeIfAbsent(info.getHostServices().getGroup(), group -> new ArrayList<>()).add(info);
+        hosts.put(info.getHost().getHostname(), info.getHost());
+      }
+      for (Map.Entry<String, List<HostServicesInfo>> entry : byGroup.entrySet()) {
+        entry.setValue(Collections.unmodifiableList(entry.getValue()));
+      }
+      this.hostServicesByGroup = Collections.unmodifiableMap(byGroup);
+      this.numberOfHosts = hosts.size();
+      // Same as SUM in SQL, null when there is no value
+      Long cores = null;
+      Long gpus = null;
+      Long memory = null;
+      Long disk = null;
+      for (Hosts host : hosts.values()) {
+        cores = add(cores, host.getCores() == null ? null : host.getCores().longValue());
+        gpus = add(gpus, host.getNumGpus() == null ? null : host.getNumGpus().longValue());
+        memory = add(memory, host.getMemoryCapacity());
+        disk = add(disk, host.getDiskCapacity());
+      }
+      this.totalCores = cores;
+      this.totalGPUs = gpus;
+      this.totalMemoryCapacity = memory;
+      this.totalDiskCapacity = disk;
+      this.computedAt = System.currentTimeMillis();
+    }
+
+    private static Long add(Long total, Long value) {
+      if (value == null) {
+        return total;
+      }
+      return total == null ? value : total + value;
+    }
+
+    public String getCluster() {
+      return cluster;
+    }
+
+    public List<HostServicesInfo> getHostServices() {
+      return hostServices;
+    }
+
+    public List<String> getGroups() {
+      return new ArrayList<>(hostServicesByGroup.keySet());
+    }
+
+    public List<HostServicesInfo> getHostServices(String group) {
+      List<HostServicesInfo> services = hostServicesByGroup.get(group);
+      return services == null ? Collections.<HostServicesInfo>emptyList() : services;
+    }
+
+    public long getNumberOfHosts() {
+      return numberOfHosts;
+    }
+
+    public Long getTotalCores() {
+      return totalCores;
+    }
+
+    public Long getTotalGPUs() {
+      return totalGPUs;
+    }
+
+    public Long getTotalMemoryCapacity() {
+      return totalMemoryCapacity;
+    }
+
+    public Long getTotalDiskCapacity() {
+      return totalDiskCapacity;
+    }
+
+    public long getComputedAt() {
+      return computedAt;
+    }
+  }
+
+  /**
+   * @param cluster
+   * @return the snapshot of the cluster, computed if it is missing or older than {@link #TTL}
+   */
+  public ClusterRollup get(String cluster) {
+    ClusterRollup rollup = rollups.get(cluster);
+    if (rollup != null && System.currentTimeMillis() - rollup.computedAt <= TTL) {
+      hits.incrementAndGet();
+      return rollup;
+    }
+    misses.incrementAndGet();
+    rollup = new ClusterRollup(cluster, hostServicesFacade.findHostServicesByCluster(cluster));
+    rollups.put(cluster, rollup);
+    return rollup;
+  }
+
+  /**
+   * @return the names of the clusters, read again if older than {@link #TTL}
+   */
+  public List<String> getClusters() {
+    List<String> cached = clusters;
+    if (cached != null && System.currentTimeMillis() - clustersLoadedAt <= TTL) {
+      return cached;
+    }
+    cached = Collections.unmodifiableList(new ArrayList<>(hostServicesFacade.findClusters()));
+    clustersLoadedAt = System.currentTimeMillis();
+    clusters = cached;
+    return cached;
+  }
+
+  /**
+   * Drops the snapshot of a cluster, after the services of one of its hosts changed.
+   *
+   * @param cluster
+   */
+  public void invalidate(String cluster) {
+    rollups.remove(cluster);
+    List<String> cached = clusters;
+    if (cached != null && !cached.contains(cluster)) {
+      clusters = null;
+    }
+  }
+
+  /**
+   * Drops the snapshot of a cluster once the current transaction completes, so that a concurrent view cannot cache
+   * the services read before the commit. Drops it immediately if there is no transaction.
+   *
+   * @param cluster
+   */
+  @TransactionAttribute(TransactionAttributeType.REQUIRED)
+  public void invalidateAfterCompletion(String cluster) {
+    if (transactionRegistry.getTransactionKey() == null) {
+      invalidate(cluster);
+      return;
+    }
+    transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+      @Override
+      public void beforeCompletion() {
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        invalidate(cluster);
+      }
+    });
+  }
+
+  public void invalidateAll() {
+    rollups.clear();
+    clusters = null;
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+}
@@ -138,6 +138,10 @@ import javax.validation.constraints.Size;
   @NamedQuery(name = "HostServices.DeleteBy-Hostname",
       query = "DELETE FROM HostServices r WHERE r.host.hostname = :hostname")
   ,
+  @NamedQuery(name = "HostServices.updateUptimeBy-Host-Status",
+      query = "UPDATE HostServices r SET r.stopTime = :time, r.uptime = :time - r.startTime "
+      + "WHERE r.host = :host AND r.status = :status")
+  ,
   @NamedQuery(name = "HostServices.find.ClusterBy-Ip.WebPort",
       query
       = "SELECT r.cluster FROM Hosts h, HostServices r WHERE h = r.host AND "
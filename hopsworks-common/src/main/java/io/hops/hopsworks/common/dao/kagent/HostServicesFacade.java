@@ -50,7 +50,9 @@ import io.hops.hopsworks.common.util.WebCommunication;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
@@ -339,19 +341,31 @@ public class HostServicesFacade {
       throw new ServiceException(RESTCodes.ServiceErrorCode.HOST_NOT_FOUND, Level.WARNING,
         "hostId: " + heartbeat.getHostId());
     }
+    return updateHostServices(host, heartbeat);
+  }
+  
+  /**
+   * Updates the services of a host from a heartbeat, reading them with a single query and writing them in one
+   * transaction.
+   *
+   * @param host
+   * @param heartbeat
+   * @return the updated services
+   */
+  public List<HostServices> updateHostServices(Hosts host, AgentController.AgentHeartbeatDTO heartbeat) {
+    final Map<String, HostServices> existing = new HashMap<>();
+    for (HostServices hostService : findHostServiceByHostname(host.getHostname())) {
+      String key = hostService.getCluster() + "/" + hostService.getGroup() + "/" + hostService.getService();
+      if (existing.put(key, hostService) != null) {
+        LOGGER.log(Level.WARNING, "Duplicate service " + host.getHostname() + "/" + key);
+      }
+    }
     final List<HostServices> hostServices = new ArrayList<>(heartbeat.getServices().size());
     for (final AgentController.AgentServiceDTO service : heartbeat.getServices()) {
       final String cluster = service.getCluster();
       final String name = service.getService();
       final String group = service.getGroup();
-      HostServices hostService = null;
-      try {
-        hostService = find(heartbeat.getHostId(), cluster, group, name);
-      } catch (Exception ex) {
-        LOGGER.log(Level.WARNING, "Could not find service for " + heartbeat.getHostId() + "/"
-            + cluster + "/" + group + "/" + name);
-        continue;
-      }
+      HostServices hostService = existing.get(cluster + "/" + group + "/" + name);
       
       if (hostService == null) {
         hostService = new HostServices();
@@ -385,9 +399,28 @@ public class HostServicesFacade {
         hostService.setUptime(0L);
       }
       
-      store(hostService);
+      // The existing services are managed and written at commit
+      if (hostService.getId() == null) {
+        em.persist(hostService);
+      }
       hostServices.add(hostService);
     }
     return hostServices;
   }
+  
+  /**
+   * Updates the uptime of the started services of a host with a single statement, for heartbeats that do not change
+   * the services.
+   *
+   * @param host
+   * @param agentTime
+   * @return the number of services updated
+   */
+  public int updateUptime(Hosts host, long agentTime) {
+    return em.createNamedQuery("HostServices.updateUptimeBy-Host-Status")
+        .setParameter("time", agentTime)
+        .setParameter("host", host)
+        .setParameter("status", Status.Started)
+        .executeUpdate();
+  }
 }
@@ -67,7 +67,14 @@ import javax.xml.bind.annotation.XmlRootElement;
           query
           = "SELECT m FROM Metadata m WHERE m.metadataPK = :metadataPK"),
   @NamedQuery(name = "Metadata.findById",
-          query = "SELECT m FROM Metadata m WHERE m.metadataPK.id = :id")})
+          query = "SELECT m FROM Metadata m WHERE m.metadataPK.id = :id"),
+  @NamedQuery(name = "Metadata.findFieldDataByTableAndInode",
+          query
+          = "SELECT m.metadataPK.fieldid, m.data FROM Metadata m, TupleToFile t, Field f "
+          + "WHERE m.metadataPK.tupleid = t.tupleid AND m.metadataPK.fieldid = f.id "
+          + "AND f.tableid = :tableid AND t.inode.inodePK.parentId = :parentid "
+          + "AND t.inode.inodePK.name = :name "
+          + "ORDER BY m.metadataPK.tupleid, m.metadataPK.id")})
 public class Metadata implements EntityIntf, Serializable {
 
   private static final long serialVersionUID = 1L;
@@ -42,12 +42,17 @@ package io.hops.hopsworks.common.dao.metadata.db;
 import io.hops.hopsworks.common.dao.AbstractFacade;
 import io.hops.hopsworks.common.dao.metadata.Metadata;
 import io.hops.hopsworks.common.dao.metadata.MetadataPK;
+import io.hops.hopsworks.common.dao.metadata.RawData;
 
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -96,6 +101,30 @@ public class MetadataFacade extends AbstractFacade<Metadata> {
     }
   }
 
+  /**
+   * Loads the metadata of an inode for the fields of a table in a single query, grouped by field id. Replaces
+   * walking the raw data of every field and matching it against the tuples of the inode.
+   * <p/>
+   *
+   * @param tableid
+   * @param parentid the parent id of the inode
+   * @param name the name of the inode
+   * @return the metadata values of each field id, in insertion order
+   */
+  public Map<Integer, List<String>> getFieldDataByTableAndInode(int tableid, int parentid, String name) {
+    TypedQuery<Object[]> q = this.em.createNamedQuery(
+            "Metadata.findFieldDataByTableAndInode", Object[].class);
+    q.setParameter("tableid", tableid);
+    q.setParameter("parentid", parentid);
+    q.setParameter("name", name);
+
+    Map<Integer, List<String>> data = new HashMap<>();
+    for (Object[] row : q.getResultList()) {
+      data.computeIfAbsent((Integer) row[0], fieldid -> new ArrayList<>()).add((String) row[1]);
+    }
+    return data;
+  }
+
   /**
    * adds a new record into 'meta_data' table. MetaData is the object that's
    * going to be persisted/updated in the database
@@ -132,6 +161,23 @@ public class MetadataFacade extends AbstractFacade<Metadata> {
     }
   }
 
+  /**
+   * Persists new raw data records and their metadata with a single flush. Tuple ids must already be set.
+   * <p/>
+   *
+   * @param rawData
+   * @param metadata
+   */
+  public void addRawDataAndMetadata(List<RawData> rawData, List<Metadata> metadata) {
+    for (RawData raw : rawData) {
+      this.em.persist(raw);
+    }
+    for (Metadata m : metadata) {
+      this.em.persist(m);
+    }
+    this.em.flush();
+  }
+
   /**
    * Delete a record from 'meta_data' table.
    * <p/>
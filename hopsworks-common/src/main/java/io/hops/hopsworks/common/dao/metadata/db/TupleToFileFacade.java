@@ -94,6 +94,19 @@ public class TupleToFileFacade extends AbstractFacade<TupleToFile> {
     return ttf.getId();
   }
 
+  /**
+   * Persists new tuples with a single flush, after which their generated ids are set.
+   * <p/>
+   *
+   * @param ttfs
+   */
+  public void addTuplesToFiles(List<TupleToFile> ttfs) {
+    for (TupleToFile ttf : ttfs) {
+      this.em.persist(ttf);
+    }
+    this.em.flush();
+  }
+
   /**
    * Deletes a tupleToFile entity. If the object is an
    * unmanaged entity it has to be merged to become managed so that delete
@@ -0,0 +1,178 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.dao.project.team;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Caches the role of users in projects, as returned by
+ * {@link ProjectTeamFacade#findCurrentRole(io.hops.hopsworks.common.dao.project.Project, String)}, for the
+ * authorization of project requests. {@link ProjectTeamFacade} invalidates the entries of a project when the
+ * transaction changing its members completes, they also expire after {@link #TTL} so that changes made by another
+ * instance are seen.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class ProjectRoleCache {
+
+  /**
+   * The role cached for users that are not members of the project.
+   */
+  public static final String NO_ROLE = "";
+  public static final long TTL = TimeUnit.SECONDS.toMillis(30);
+  private static final int MAX_ENTRIES = 10000;
+
+  private final Map<Integer, Map<String, CachedRole>> roles = new ConcurrentHashMap<>();
+  private final AtomicLong size = new AtomicLong(0);
+  private final AtomicLong hits = new AtomicLong(0);
+  private final AtomicLong misses = new AtomicLong(0);
+
+  @Resource
+  private TransactionSynchronizationRegistry transactionRegistry;
+
+  private static class CachedRole {
+
+    private final String role;
+    private final long loadedAt;
+
+    private CachedRole(String role) {
+      this.role = role;
+      this.loadedAt = System.currentTimeMillis();
+    }
+  }
+
+  /**
+   * @param projectId
+   * @param email
+   * @return the cached role, {@link #NO_ROLE} if the user is not a member, or null if it is not cached
+   */
+  public String get(Integer projectId, String email) {
+    Map<String, CachedRole> projectRoles = roles.get(projectId);
+    CachedRole cached = projectRoles == null ? null : projectRoles.get(email);
+    if (cached == null || System.currentTimeMillis() - cached.loadedAt > TTL) {
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    return cached.role;
+  }
+
+  /**
+   * @param projectId
+   * @param email
+   * @param role the role of the user, null if the user is not a member
+   */
+  public void put(Integer projectId, String email, String role) {
+    if (size.get() >= MAX_ENTRIES) {
+      invalidateAll();
+    }
+    CachedRole previous = roles.computeIfAbsent(projectId, id -> new ConcurrentHashMap<>())
+        .put(email, new CachedRole(role == null ? NO_ROLE : role));
+    if (previous == null) {
+      size.incrementAndGet();
+    }
+  }
+
+  /**
+   * Drops the role of a user in a project.
+   *
+   * @param projectId
+   * @param email
+   */
+  public void invalidate(Integer projectId, String email) {
+    Map<String, CachedRole> projectRoles = roles.get(projectId);
+    if (projectRoles != null && projectRoles.remove(email) != null) {
+      size.decrementAndGet();
+    }
+  }
+
+  /**
+   * Drops the roles of all the users in a project.
+   *
+   * @param projectId
+   */
+  public void invalidate(Integer projectId) {
+    Map<String, CachedRole> projectRoles = roles.remove(projectId);
+    if (projectRoles != null) {
+      size.addAndGet(-projectRoles.size());
+    }
+  }
+
+  /**
+   * Drops the role of a user in a project once the current transaction completes, so that a concurrent request
+   * cannot cache the role read before the commit. Drops it immediately if there is no transaction.
+   *
+   * @param projectId
+   * @param email
+   */
+  @TransactionAttribute(TransactionAttributeType.REQUIRED)
+  public void invalidateAfterCompletion(Integer projectId, String email) {
+    afterCompletion(() -> invalidate(projectId, email));
+  }
+
+  /**
+   * Drops the roles of all the users in a project once the current transaction completes.
+   *
+   * @param projectId
+   */
+  @TransactionAttribute(TransactionAttributeType.REQUIRED)
+  public void invalidateAfterCompletion(Integer projectId) {
+    afterCompletion(() -> invalidate(projectId));
+  }
+
+  private void afterCompletion(Runnable invalidation) {
+    if (transactionRegistry.getTransactionKey() == null) {
+      invalidation.run();
+      return;
+    }
+    transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+      @Override
+      public void beforeCompletion() {
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        invalidation.run();
+      }
+    });
+  }
+
+  public void invalidateAll() {
+    roles.clear();
+    size.set(0);
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+}
@@ -43,6 +43,7 @@ import io.hops.hopsworks.common.dao.project.Project;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
@@ -56,6 +57,8 @@ public class ProjectTeamFacade {
 
   @PersistenceContext(unitName = "kthfsPU")
   private EntityManager em;
+  @EJB
+  private ProjectRoleCache projectRoleCache;
 
   protected EntityManager getEntityManager() {
     return em;
@@ -244,6 +247,7 @@ public class ProjectTeamFacade {
 
   public void persistProjectTeam(ProjectTeam team) {
     em.persist(team);
+    invalidateRole(team);
   }
 
   /*
@@ -253,6 +257,7 @@ public class ProjectTeamFacade {
   public void update(ProjectTeam team) {
     if (team != null) {
       em.merge(team);
+      invalidateRole(team);
     }
   }
 
@@ -267,6 +272,7 @@ public class ProjectTeamFacade {
     ProjectTeam team = findByPrimaryKey(project, user);
     if (team != null) {
       em.remove(team);
+      invalidateRole(team);
     }
   }
 
@@ -298,6 +304,7 @@ public class ProjectTeamFacade {
       team.setTeamRole(teamRole);
       team.setTimestamp(new Date());
       em.merge(team);
+      invalidateRole(team);
     }
   }
 
@@ -329,6 +336,7 @@ public class ProjectTeamFacade {
       meberber.setTimestamp(new Date());
       em.merge(meberber);
     }
+    projectRoleCache.invalidateAfterCompletion(project.getId());
     return teamMembers;
   }
 
@@ -405,4 +413,8 @@ public class ProjectTeamFacade {
     }
   }
 
+  private void invalidateRole(ProjectTeam team) {
+    projectRoleCache.invalidateAfterCompletion(team.getProjectTeamPK().getProjectId(),
+        team.getProjectTeamPK().getTeamMember());
+  }
 }
@@ -69,6 +69,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -783,6 +784,24 @@ public class PythonDepsFacade {
     return query.getResultList();
   }
 
+  @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+  public List<CondaCommands> findByHostAndStatus(Hosts host, CondaStatus status) {
+    TypedQuery<CondaCommands> query = em.createNamedQuery("CondaCommands.findByHostAndStatus",
+        CondaCommands.class);
+    query.setParameter("host", host);
+    query.setParameter("status", status);
+    return query.getResultList();
+  }
+
+  public List<CondaCommands> findCondaCommands(Collection<Integer> commandIds) {
+    if (commandIds.isEmpty()) {
+      return Collections.emptyList();
+    }
+    TypedQuery<CondaCommands> query = em.createNamedQuery("CondaCommands.findByIds", CondaCommands.class);
+    query.setParameter("ids", commandIds);
+    return query.getResultList();
+  }
+
   @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
   public List<CondaCommands> findByStatus(PythonDepsFacade.CondaStatus status) {
     TypedQuery<CondaCommands> query = em.createNamedQuery("CondaCommands.findByStatus",
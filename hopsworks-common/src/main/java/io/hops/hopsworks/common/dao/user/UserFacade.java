@@ -52,7 +52,10 @@ import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Stateless
 public class UserFacade extends AbstractFacade<Users> {
@@ -105,6 +108,24 @@ public class UserFacade extends AbstractFacade<Users> {
     }
   }
 
+  /**
+   * Find the users with the given usernames in a single query.
+   *
+   * @param usernames
+   * @return map from username to user, usernames that do not exist are not in the map
+   */
+  public Map<String, Users> findByUsernames(Collection<String> usernames) {
+    Map<String, Users> users = new HashMap<>();
+    if (usernames.isEmpty()) {
+      return users;
+    }
+    for (Users user : em.createNamedQuery("Users.findByUsernames", Users.class)
+        .setParameter("usernames", usernames).getResultList()) {
+      users.put(user.getUsername(), user);
+    }
+    return users;
+  }
+
   public List<Users> filterUsersBasedOnProject(String name) {
 
     Query query = em.createNativeQuery(
@@ -0,0 +1,165 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.elastic;
+
+import io.hops.hopsworks.common.exception.RESTCodes;
+import io.hops.hopsworks.common.exception.ServiceException;
+import io.hops.hopsworks.common.util.Ip;
+import io.hops.hopsworks.common.util.Settings;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.client.transport.TransportClient;
+import org.elasticsearch.common.transport.TransportAddress;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.transport.client.PreBuiltTransportClient;
+
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Timer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Holds the transport client used to talk to Elasticsearch. The client connects and sniffs the cluster once and is
+ * shared by all the requests; it is thread safe. A periodic health check replaces it when it has lost all its nodes
+ * or the cluster stops answering, callers that hit a connection error can also ask for a new one with
+ * {@link #reconnect()}.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@DependsOn("Settings")
+public class ElasticClientService {
+
+  private static final Logger LOG = Logger.getLogger(ElasticClientService.class.getName());
+
+  private static final TimeValue HEALTH_CHECK_TIMEOUT = TimeValue.timeValueSeconds(10);
+
+  @EJB
+  private Settings settings;
+
+  private volatile TransportClient client;
+
+  private final AtomicLong connects = new AtomicLong(0);
+  private final AtomicLong failedHealthChecks = new AtomicLong(0);
+
+  /**
+   * @return the shared client, connecting it if needed
+   * @throws ServiceException if the address of Elasticsearch is not valid
+   */
+  public Client getClient() throws ServiceException {
+    TransportClient current = client;
+    if (current == null) {
+      current = connect();
+    }
+    return current;
+  }
+
+  private synchronized TransportClient connect() throws ServiceException {
+    if (client == null) {
+      final org.elasticsearch.common.settings.Settings clientSettings
+          = org.elasticsearch.common.settings.Settings.builder()
+              .put("client.transport.sniff", true) //being able to retrieve other nodes
+              .put("cluster.name", "hops").build();
+
+      client = new PreBuiltTransportClient(clientSettings)
+          .addTransportAddress(new TransportAddress(
+              new InetSocketAddress(getElasticIpAsString(), settings.getElasticPort())));
+      connects.incrementAndGet();
+    }
+    return client;
+  }
+
+  /**
+   * Close the current client, the next call to {@link #getClient()} connects a new one.
+   */
+  public synchronized void reconnect() {
+    TransportClient old = client;
+    client = null;
+    if (old != null) {
+      try {
+        old.close();
+      } catch (RuntimeException ex) {
+        LOG.log(Level.FINE, "Error while closing the Elasticsearch client", ex);
+      }
+    }
+  }
+
+  @Schedule(persistent = false,
+      second = "*/30",
+      minute = "*",
+      hour = "*")
+  public void checkHealth(Timer timer) {
+    TransportClient current = client;
+    if (current == null) {
+      return;
+    }
+    try {
+      if (current.connectedNodes().isEmpty()) {
+        throw new IllegalStateException("No Elasticsearch node connected");
+      }
+      current.admin().cluster().prepareHealth().get(HEALTH_CHECK_TIMEOUT);
+    } catch (RuntimeException ex) {
+      failedHealthChecks.incrementAndGet();
+      LOG.log(Level.WARNING, "Elasticsearch health check failed, reconnecting: {0}", ex.getMessage());
+      // Only drop the client if nobody replaced it in the meantime
+      synchronized (this) {
+        if (client == current) {
+          reconnect();
+        }
+      }
+    }
+  }
+
+  @PreDestroy
+  public void tearDown() {
+    reconnect();
+  }
+
+  public long getConnectCount() {
+    return connects.get();
+  }
+
+  public long getFailedHealthCheckCount() {
+    return failedHealthChecks.get();
+  }
+
+  private String getElasticIpAsString() throws ServiceException {
+    String addr = settings.getElasticIp();
+
+    // Validate the ip address pulled from the variables
+    if (!Ip.validIp(addr)) {
+      try {
+        InetAddress.getByName(addr);
+      } catch (UnknownHostException ex) {
+        throw new ServiceException(RESTCodes.ServiceErrorCode.ELASTIC_SERVER_NOT_AVAILABLE, Level.SEVERE, null,
+          ex.getMessage(),
+          ex);
+
+      }
+    }
+
+    return addr;
+  }
+}
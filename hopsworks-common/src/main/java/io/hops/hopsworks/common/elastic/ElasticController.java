@@ -49,54 +49,49 @@ import io.hops.hopsworks.common.exception.ProjectException;
 import io.hops.hopsworks.common.exception.RESTCodes;
 import io.hops.hopsworks.common.exception.ServiceException;
 import io.hops.hopsworks.common.util.HopsUtils;
-import io.hops.hopsworks.common.util.Ip;
 import io.hops.hopsworks.common.util.Settings;
 import org.apache.lucene.search.join.ScoreMode;
-import org.elasticsearch.action.ActionFuture;
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.DocWriteResponse.Result;
-import org.elasticsearch.action.admin.indices.cache.clear.ClearIndicesCacheRequest;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequest;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsRequest;
-import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsRequestBuilder;
-import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsResponse;
-import org.elasticsearch.action.admin.indices.exists.types.TypesExistsRequest;
-import org.elasticsearch.action.admin.indices.exists.types.TypesExistsResponse;
 import org.elasticsearch.action.admin.indices.open.OpenIndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.action.search.MultiSearchRequestBuilder;
+import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
-import org.elasticsearch.client.AdminClient;
 import org.elasticsearch.client.Client;
-import org.elasticsearch.client.IndicesAdminClient;
+import org.elasticsearch.client.transport.NoNodeAvailableException;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
-import org.elasticsearch.common.transport.TransportAddress;
+import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
-import org.elasticsearch.transport.client.PreBuiltTransportClient;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
-import javax.annotation.PostConstruct;
-import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
 import java.io.IOException;
-import java.net.InetAddress;
-import java.net.InetSocketAddress;
-import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -125,73 +120,55 @@ public class ElasticController {
   private ProjectFacade projectFacade;
   @EJB
   private DatasetFacade datasetFacade;
+  @EJB
+  private ElasticClientService elasticClientService;
+  @Resource
+  private ManagedExecutorService executorService;
 
   private static final Logger LOG = Logger.getLogger(ElasticController.class.getName());
 
-  private Client elasticClient = null;
-
-  @PostConstruct
-  private void initClient() {
-    try {
-      getClient();
-    } catch (ServiceException ex) {
-      LOG.log(Level.SEVERE, null, ex);
-  
-    }
-  }
-
-  @PreDestroy
-  private void closeClient(){
-    shutdownClient();
-  }
-
-  public List<ElasticHit> globalSearch(String searchTerm) throws ServiceException {
-    //some necessary client settings
-    Client client = getClient();
-
-    //check if the index are up and running
-    if (!this.indexExists(client, Settings.META_INDEX)) {
-      throw new ServiceException(RESTCodes.ServiceErrorCode.ELASTIC_INDEX_NOT_FOUND,
-        Level.SEVERE, "index: " + Settings.META_INDEX);
-    }
-
-    LOG.log(Level.INFO, "Found elastic index, now executing the query.");
+  /**
+   * Searches return this many hits when no page size is given, like Elasticsearch does
+   */
+  public static final int DEFAULT_PAGE_SIZE = 10;
+  public static final int MAX_PAGE_SIZE = 1000;
+  /**
+   * Default index.max_result_window of Elasticsearch, from + size of a search may not exceed it
+   */
+  public static final int MAX_RESULT_WINDOW = 10000;
 
+  /**
+   * Global search on datasets and projects.
+   * <p/>
+   * @param searchTerm
+   * @param from index of the first hit to return
+   * @param size maximum number of hits to return
+   * @return completes with the page of hits, or exceptionally with a ServiceException
+   * @throws ServiceException if Elasticsearch cannot be reached
+   */
+  public CompletableFuture<ElasticHitPage> globalSearch(String searchTerm, int from, int size)
+      throws ServiceException {
     //hit the indices - execute the queries
-    SearchRequestBuilder srb = client.prepareSearch(Settings.META_INDEX);
-    srb = srb.setTypes(Settings.META_DEFAULT_TYPE);
-    srb = srb.setQuery(this.globalSearchQuery(searchTerm.toLowerCase()));
-    srb = srb.highlighter(new HighlightBuilder().field("name"));
-    LOG.log(Level.INFO, "Global search Elastic query is: {0}", srb);
-    ActionFuture<SearchResponse> futureResponse = srb.execute();
-    SearchResponse response = futureResponse.actionGet();
-
-    if (response.status().getStatus() == 200) {
-      //construct the response
-      List<ElasticHit> elasticHits = new LinkedList<>();
-      if (response.getHits().getHits().length > 0) {
-        SearchHit[] hits = response.getHits().getHits();
+    SearchRequestBuilder srb = prepareSearch(getClient(), globalSearchQuery(searchTerm.toLowerCase()), from, size)
+        .highlighter(new HighlightBuilder().field("name"));
+    LOG.log(Level.FINE, "Global search Elastic query is: {0}", srb);
 
-        for (SearchHit hit : hits) {
-          ElasticHit eHit = new ElasticHit(hit);
-          eHit.setLocalDataset(true);
-          int inode_id = Integer.parseInt(hit.getId());
-          List<Dataset> dsl = datasetFacade.findByInodeId(inode_id);
-          if (!dsl.isEmpty() && dsl.get(0).isPublicDs()) {
-            Dataset ds = dsl.get(0);
-            eHit.setPublicId(ds.getPublicDsId());
-          }
-          elasticHits.add(eHit);
+    return search(srb).thenApplyAsync(response -> {
+      //construct the response
+      List<ElasticHit> elasticHits = new ArrayList<>();
+      for (SearchHit hit : getHits(response)) {
+        ElasticHit eHit = new ElasticHit(hit);
+        eHit.setLocalDataset(true);
+        int inode_id = Integer.parseInt(hit.getId());
+        List<Dataset> dsl = datasetFacade.findByInodeId(inode_id);
+        if (!dsl.isEmpty() && dsl.get(0).isPublicDs()) {
+          Dataset ds = dsl.get(0);
+          eHit.setPublicId(ds.getPublicDsId());
         }
+        elasticHits.add(eHit);
       }
-
-      return elasticHits;
-    } else {
-      //something went wrong so throw an exception
-      shutdownClient();
-      throw new ServiceException(RESTCodes.ServiceErrorCode.ELASTIC_SERVER_NOT_FOUND, Level.WARNING, "Elasticsearch " +
-        "error code: " + response.status().getStatus());
-    }
+      return new ElasticHitPage(elasticHits, response.getHits().getTotalHits());
+    }, executorService);
   }
 
   public String findExperiment(String index, String app_id) throws ServiceException {
@@ -234,62 +211,75 @@ public class ElasticController {
 
   }
 
-  public List<ElasticHit> projectSearch(Integer projectId, String searchTerm) throws ServiceException {
+  /**
+   * Search inside a project and the datasets shared with it. The project and
+   * the shared datasets are searched with a single multi-search request, the
+   * hits of the project come first.
+   * <p/>
+   * @param projectId
+   * @param searchTerm
+   * @param from index of the first hit to return
+   * @param size maximum number of hits to return
+   * @return completes with the page of hits, or exceptionally with a ServiceException
+   * @throws ServiceException if Elasticsearch cannot be reached
+   */
+  public CompletableFuture<ElasticHitPage> projectSearch(Integer projectId, String searchTerm, int from, int size)
+      throws ServiceException {
     Client client = getClient();
-    //check if the index are up and running
-    if (!this.indexExists(client, Settings.META_INDEX)) {
-      throw new ServiceException(RESTCodes.ServiceErrorCode.ELASTIC_INDEX_NOT_FOUND,
-        Level.SEVERE, "index: " + Settings.META_INDEX);
-    } else if (!this.typeExists(client, Settings.META_INDEX,
-        Settings.META_DEFAULT_TYPE)) {
-      throw new ServiceException(RESTCodes.ServiceErrorCode.ELASTIC_INDEX_TYPE_NOT_FOUND, Level.SEVERE,
-        "type: " + Settings.META_DEFAULT_TYPE);
+    // Every sub-search returns the first from + size hits, enough to cut the page out of their concatenation
+    int window = from + size;
+    MultiSearchRequestBuilder msrb = client.prepareMultiSearch();
+    msrb.add(prepareSearch(client, projectSearchQuery(projectId, searchTerm.toLowerCase()), 0, window)
+        .highlighter(new HighlightBuilder().field("name")));
+    for (Integer datasetId : getSharedDatasetIds(projectId)) {
+      msrb.add(prepareSearch(client, searchSpecificDataset(datasetId, searchTerm), 0, window)
+          .highlighter(new HighlightBuilder().field("name")));
+      msrb.add(prepareSearch(client, datasetSearchQuery(datasetId, searchTerm), 0, window)
+          .highlighter(new HighlightBuilder().field("name")));
     }
-
-    SearchRequestBuilder srb = client.prepareSearch(Settings.META_INDEX);
-    srb = srb.setTypes(Settings.META_DEFAULT_TYPE);
-    srb = srb.setQuery(projectSearchQuery(projectId, searchTerm.toLowerCase()));
-    srb = srb.highlighter(new HighlightBuilder().field("name"));
-
-    LOG.log(Level.INFO, "Project Elastic query is: {0} {1}", new String[]{
-      String.valueOf(projectId), srb.toString()});
-    ActionFuture<SearchResponse> futureResponse = srb.execute();
-    SearchResponse response = futureResponse.actionGet();
-
-    if (response.status().getStatus() == 200) {
-      //construct the response
-      List<ElasticHit> elasticHits = new LinkedList<>();
-      if (response.getHits().getHits().length > 0) {
-        SearchHit[] hits = response.getHits().getHits();
-        ElasticHit eHit;
-        for (SearchHit hit : hits) {
-          eHit = new ElasticHit(hit);
-          eHit.setLocalDataset(true);
+    LOG.log(Level.FINE, "Project Elastic query is: {0} {1}", new String[]{
+      String.valueOf(projectId), msrb.request().requests().toString()});
+
+    CompletableFuture<MultiSearchResponse> future = new CompletableFuture<>();
+    msrb.execute(new CompletingListener<>(future));
+    return future.thenApplyAsync(multiResponse -> {
+      MultiSearchResponse.Item[] items = multiResponse.getResponses();
+      List<ElasticHit> elasticHits = new ArrayList<>();
+      long total = 0;
+      for (int i = 0; i < items.length; i++) {
+        if (items[i].isFailure()) {
+          if (i == 0) {
+            throw new CompletionException(items[i].getFailure());
+          }
+          // A failing shared dataset does not fail the project search
+          LOG.log(Level.WARNING, "Search in shared dataset failed", items[i].getFailure());
+          continue;
+        }
+        SearchResponse response = items[i].getResponse();
+        for (SearchHit hit : getHits(response)) {
+          ElasticHit eHit = new ElasticHit(hit);
+          eHit.setLocalDataset(i == 0);
           elasticHits.add(eHit);
         }
+        total += response.getHits().getTotalHits();
       }
-
-      projectSearchInSharedDatasets(client, projectId, searchTerm, elasticHits);
-      return elasticHits;
-    }
-
-    shutdownClient();
-    throw new ServiceException(RESTCodes.ServiceErrorCode.ELASTIC_SERVER_NOT_FOUND, Level.SEVERE);
+      return new ElasticHitPage(page(elasticHits, from, size), total);
+    }, executorService);
   }
 
-  public List<ElasticHit> datasetSearch(Integer projectId, String datasetName, String searchTerm)
-    throws ServiceException {
-    Client client = getClient();
-    //check if the indices are up and running
-    if (!this.indexExists(client, Settings.META_INDEX)) {
-      throw new ServiceException(RESTCodes.ServiceErrorCode.ELASTIC_INDEX_NOT_FOUND,
-        Level.SEVERE, "index: " + Settings.META_INDEX);
-    } else if (!this.typeExists(client, Settings.META_INDEX,
-        Settings.META_DEFAULT_TYPE)) {
-      throw new ServiceException(RESTCodes.ServiceErrorCode.ELASTIC_INDEX_TYPE_NOT_FOUND, Level.SEVERE,
-        "type: " + Settings.META_DEFAULT_TYPE);
-    }
-
+  /**
+   * Search inside a dataset of a project, or shared with it.
+   * <p/>
+   * @param projectId
+   * @param datasetName
+   * @param searchTerm
+   * @param from index of the first hit to return
+   * @param size maximum number of hits to return
+   * @return completes with the page of hits, or exceptionally with a ServiceException
+   * @throws ServiceException if Elasticsearch cannot be reached
+   */
+  public CompletableFuture<ElasticHitPage> datasetSearch(Integer projectId, String datasetName, String searchTerm,
+      int from, int size) throws ServiceException {
     String dsName = datasetName;
     Project project;
     if (datasetName.contains(Settings.SHARED_FILE_SEPARATOR)) {
@@ -304,31 +294,47 @@ public class ElasticController {
     final int datasetId = dataset.getInodeId();
 
     //hit the indices - execute the queries
-    SearchRequestBuilder srb = client.prepareSearch(Settings.META_INDEX);
-    srb = srb.setTypes(Settings.META_DEFAULT_TYPE);
-    srb = srb.setQuery(this.datasetSearchQuery(datasetId, searchTerm.toLowerCase()));
-
-    LOG.log(Level.INFO, "Dataset Elastic query is: {0}", srb.toString());
-    ActionFuture<SearchResponse> futureResponse = srb.execute();
-    SearchResponse response = futureResponse.actionGet();
+    SearchRequestBuilder srb = prepareSearch(getClient(), datasetSearchQuery(datasetId, searchTerm.toLowerCase()),
+        from, size);
+    LOG.log(Level.FINE, "Dataset Elastic query is: {0}", srb);
 
-    if (response.status().getStatus() == 200) {
+    return search(srb).thenApply(response -> {
       //construct the response
-      List<ElasticHit> elasticHits = new LinkedList<>();
-      if (response.getHits().getHits().length > 0) {
-        SearchHit[] hits = response.getHits().getHits();
-        ElasticHit eHit;
-        for (SearchHit hit : hits) {
-          eHit = new ElasticHit(hit);
-          eHit.setLocalDataset(true);
-          elasticHits.add(eHit);
-        }
+      List<ElasticHit> elasticHits = new ArrayList<>();
+      for (SearchHit hit : getHits(response)) {
+        ElasticHit eHit = new ElasticHit(hit);
+        eHit.setLocalDataset(true);
+        elasticHits.add(eHit);
       }
-      return elasticHits;
-    }
+      return new ElasticHitPage(elasticHits, response.getHits().getTotalHits());
+    });
+  }
 
-    shutdownClient();
-    throw new ServiceException(RESTCodes.ServiceErrorCode.ELASTIC_SERVER_NOT_FOUND, Level.SEVERE);
+  /**
+   * Map the failure of a search to the exception to report to the client.
+   * Connection failures also make the shared client reconnect.
+   * <p/>
+   * @param failure
+   * @return
+   */
+  public ServiceException toServiceException(Throwable failure) {
+    while (failure instanceof CompletionException && failure.getCause() != null) {
+      failure = failure.getCause();
+    }
+    if (failure instanceof ServiceException) {
+      return (ServiceException) failure;
+    }
+    // Errors raised on the Elasticsearch nodes come wrapped in transport exceptions
+    failure = ExceptionsHelper.unwrapCause(failure);
+    if (failure instanceof IndexNotFoundException) {
+      return new ServiceException(RESTCodes.ServiceErrorCode.ELASTIC_INDEX_NOT_FOUND, Level.SEVERE,
+          "index: " + Settings.META_INDEX, failure.getMessage(), failure);
+    }
+    if (failure instanceof NoNodeAvailableException) {
+      elasticClientService.reconnect();
+    }
+    return new ServiceException(RESTCodes.ServiceErrorCode.ELASTIC_SERVER_NOT_FOUND, Level.SEVERE, null,
+        failure.getMessage(), failure);
   }
 
   public boolean deleteIndex(String index) throws ServiceException {
@@ -455,22 +461,43 @@ public class ElasticController {
   }
 
   private Client getClient() throws ServiceException {
-    if (elasticClient == null) {
-      final org.elasticsearch.common.settings.Settings settings
-          = org.elasticsearch.common.settings.Settings.builder()
-              .put("client.transport.sniff", true) //being able to retrieve other nodes
-              .put("cluster.name", "hops").build();
-
-      elasticClient = new PreBuiltTransportClient(settings)
-          .addTransportAddress(new TransportAddress(
-              new InetSocketAddress(getElasticIpAsString(),
-                  this.settings.getElasticPort())));
+    return elasticClientService.getClient();
+  }
+
+  private SearchRequestBuilder prepareSearch(Client client, QueryBuilder query, int from, int size) {
+    return client.prepareSearch(Settings.META_INDEX)
+        .setTypes(Settings.META_DEFAULT_TYPE)
+        .setQuery(query)
+        .setFrom(from)
+        .setSize(size);
+  }
+
+  private CompletableFuture<SearchResponse> search(SearchRequestBuilder srb) {
+    CompletableFuture<SearchResponse> future = new CompletableFuture<>();
+    srb.execute(new CompletingListener<>(future));
+    return future;
+  }
+
+  private SearchHit[] getHits(SearchResponse response) {
+    if (response.status() != RestStatus.OK) {
+      throw new CompletionException(new ServiceException(RESTCodes.ServiceErrorCode.ELASTIC_SERVER_NOT_FOUND,
+          Level.WARNING, "Elasticsearch error code: " + response.status().getStatus()));
+    }
+    return response.getHits().getHits();
+  }
+
+  private List<ElasticHit> page(List<ElasticHit> hits, int from, int size) {
+    if (from >= hits.size()) {
+      return new ArrayList<>();
     }
-    return elasticClient;
+    return new ArrayList<>(hits.subList(from, Math.min(hits.size(), from + size)));
   }
 
-  private void projectSearchInSharedDatasets(Client client, Integer projectId,
-      String searchTerm, List<ElasticHit> elasticHits) {
+  /**
+   * Inode ids of the datasets shared with the project.
+   */
+  private List<Integer> getSharedDatasetIds(Integer projectId) {
+    List<Integer> datasetIds = new ArrayList<>();
     Project project = projectFacade.find(projectId);
     Collection<Dataset> datasets = project.getDatasetCollection();
     for (Dataset ds : datasets) {
@@ -478,36 +505,29 @@ public class ElasticController {
         List<Dataset> dss = datasetFacade.findByInode(ds.getInode());
         for (Dataset sh : dss) {
           if (!sh.isShared()) {
-            int datasetId = ds.getInodeId();
-            executeProjectSearchQuery(client, searchSpecificDataset(datasetId,
-                searchTerm), elasticHits);
-
-            executeProjectSearchQuery(client, datasetSearchQuery(datasetId,
-                searchTerm), elasticHits);
-
+            datasetIds.add(ds.getInodeId());
           }
         }
       }
     }
+    return datasetIds;
   }
 
-  private void executeProjectSearchQuery(Client client, QueryBuilder query, List<ElasticHit> elasticHits) {
-    SearchRequestBuilder srb = client.prepareSearch(Settings.META_INDEX);
-    srb = srb.setTypes(Settings.META_DEFAULT_TYPE);
-    srb = srb.setQuery(query);
-    srb = srb.highlighter(new HighlightBuilder().field("name"));
+  private static class CompletingListener<T> implements ActionListener<T> {
+    private final CompletableFuture<T> future;
+
+    CompletingListener(CompletableFuture<T> future) {
+      this.future = future;
+    }
 
-    LOG.log(Level.INFO, "Project Elastic query in Shared Dataset : {0}", srb.toString());
-    ActionFuture<SearchResponse> futureResponse = srb.execute();
-    SearchResponse response = futureResponse.actionGet();
+    @Override
+    public void onResponse(T response) {
+      future.complete(response);
+    }
 
-    if (response.status().getStatus() == 200) {
-      if (response.getHits().getHits().length > 0) {
-        SearchHit[] hits = response.getHits().getHits();
-        for (SearchHit hit : hits) {
-          elasticHits.add(new ElasticHit(hit));
-        }
-      }
+    @Override
+    public void onFailure(Exception e) {
+      future.completeExceptionally(e);
     }
   }
 
@@ -685,60 +705,6 @@ public class ElasticController {
     return nestedQuery;
   }
 
-  /**
-   * Checks if a given index exists in elastic
-   * <p/>
-   * @param client
-   * @param indexName
-   * @return
-   */
-  private boolean indexExists(Client client, String indexName) {
-    AdminClient admin = client.admin();
-    IndicesAdminClient indices = admin.indices();
-
-    IndicesExistsRequestBuilder indicesExistsRequestBuilder = indices.
-        prepareExists(indexName);
-
-    IndicesExistsResponse response = indicesExistsRequestBuilder
-        .execute()
-        .actionGet();
-
-    return response.isExists();
-  }
-
-  /**
-   * Checks if a given data type exists. It is a given that the index exists
-   * <p/>
-   * @param client
-   * @param typeName
-   * @return
-   */
-  private boolean typeExists(Client client, String indexName, String typeName) {
-    AdminClient admin = client.admin();
-    IndicesAdminClient indices = admin.indices();
-
-    ActionFuture<TypesExistsResponse> action = indices.typesExists(
-        new TypesExistsRequest(
-            new String[]{indexName}, typeName));
-
-    TypesExistsResponse response = action.actionGet();
-
-    return response.isExists();
-  }
-
-  /**
-   * Shuts down the client and clears the cache
-   * <p/>
-   */
-  private void shutdownClient() {
-    if (elasticClient != null) {
-      elasticClient.admin().indices().clearCache(new ClearIndicesCacheRequest(
-          Settings.META_INDEX));
-      elasticClient.close();
-      elasticClient = null;
-    }
-  }
-
   /**
    * Boots up a previously closed index
    */
@@ -748,24 +714,6 @@ public class ElasticController {
         Settings.META_INDEX));
   }
 
-  private String getElasticIpAsString() throws ServiceException {
-    String addr = settings.getElasticIp();
-
-    // Validate the ip address pulled from the variables
-    if (!Ip.validIp(addr)) {
-      try {
-        InetAddress.getByName(addr);
-      } catch (UnknownHostException ex) {
-        throw new ServiceException(RESTCodes.ServiceErrorCode.ELASTIC_SERVER_NOT_AVAILABLE, Level.SEVERE, null,
-          ex.getMessage(),
-          ex);
-
-      }
-    }
-
-    return addr;
-  }
-
   private JSONObject sendKibanaReq(String templateUrl, Map<String, String> params, boolean async) {
     if (async) {
       ClientBuilder.newClient()
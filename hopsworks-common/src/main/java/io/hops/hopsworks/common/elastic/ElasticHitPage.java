@@ -0,0 +1,41 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.elastic;
+
+import java.util.List;
+
+/**
+ * One page of search results along with the total number of hits of the search.
+ */
+public class ElasticHitPage {
+
+  private final List<ElasticHit> hits;
+  private final long total;
+
+  public ElasticHitPage(List<ElasticHit> hits, long total) {
+    this.hits = hits;
+    this.total = total;
+  }
+
+  public List<ElasticHit> getHits() {
+    return hits;
+  }
+
+  public long getTotal() {
+    return total;
+  }
+}
@@ -0,0 +1,277 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.hdfs;
+
+import io.hops.hopsworks.common.security.BaseHadoopClientsService;
+import io.hops.hopsworks.common.util.LatencyHistogram;
+import io.hops.hopsworks.common.util.Settings;
+
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Timer;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps one HDFS client per effective user, shared by all the callers acting as that user. Setting up a client
+ * means a new proxy UGI, a copy of the configuration, materializing the certificates of the user when RPC TLS is
+ * enabled and a handshake with the NameNode, so clients are kept open and handed out as leases.
+ * <p>
+ * DistributedFileSystem is thread safe, a lease is a {@link DistributedFileSystemOps} over the shared file system
+ * whose close() gives it back to the pool. A client is closed when it has not been leased for a while, when the
+ * pool is full and room is needed for another user, or when {@link #evict(String)} is called. In the last case a
+ * client still leased is closed when its last lease is returned.
+ * <p>
+ * Each pooled client of a user other than the superuser holds one reference on the local crypto material of the
+ * user, which is released when the client is closed.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@DependsOn("Settings")
+public class DfsOpsPool {
+
+  private static final Logger LOGGER = Logger.getLogger(DfsOpsPool.class.getName());
+
+  // Maximum number of users with a client kept open at the same time
+  private static final int MAX_CLIENTS = 256;
+  // Clients not leased for this long are closed by the eviction timer
+  private static final long MAX_IDLE_MS = TimeUnit.MINUTES.toMillis(5);
+
+  @EJB
+  private Settings settings;
+  @EJB
+  private BaseHadoopClientsService bhcs;
+
+  private final Map<String, PooledDfs> clients = new ConcurrentHashMap<>();
+
+  private final AtomicLong hits = new AtomicLong(0);
+  private final AtomicLong created = new AtomicLong(0);
+  private final AtomicLong evicted = new AtomicLong(0);
+  private final AtomicLong overflows = new AtomicLong(0);
+  private final LatencyHistogram leaseLatencies = new LatencyHistogram();
+
+  /**
+   * Lease the client of a user, creating it with <i>factory</i> if there is none in the pool. The lease must be
+   * closed, directly or through {@link DistributedFsService#closeDfsClient(DistributedFileSystemOps)}.
+   *
+   * @param username effective user of the client
+   * @param factory creates a new client for the user, may return null if it fails
+   * @return a lease on the pooled client, or an unpooled client if the pool is full of clients in use
+   */
+  public DistributedFileSystemOps lease(String username, Supplier<DistributedFileSystemOps> factory) {
+    long start = System.currentTimeMillis();
+    try {
+      PooledDfs pooled = clients.get(username);
+      if (pooled != null) {
+        DistributedFileSystemOps lease = pooled.lease();
+        if (lease != null) {
+          hits.incrementAndGet();
+          return lease;
+        }
+      }
+      // Creating a client talks to the NameNode, do not hold the pool lock meanwhile
+      DistributedFileSystemOps dfso = factory.get();
+      if (dfso == null || dfso.getFilesystem() == null) {
+        return dfso;
+      }
+      return add(username, dfso);
+    } finally {
+      leaseLatencies.record(System.currentTimeMillis() - start);
+    }
+  }
+
+  private synchronized DistributedFileSystemOps add(String username, DistributedFileSystemOps dfso) {
+    // Another thread might have created one while we were creating ours
+    PooledDfs pooled = clients.get(username);
+    if (pooled != null) {
+      DistributedFileSystemOps lease = pooled.lease();
+      if (lease != null) {
+        closeClient(dfso);
+        hits.incrementAndGet();
+        return lease;
+      }
+      clients.remove(username, pooled);
+    }
+
+    if (clients.size() >= MAX_CLIENTS && !evictLeastRecentlyUsed()) {
+      // Every client is in use, the caller gets a client of its own which is closed with the lease
+      overflows.incrementAndGet();
+      return dfso;
+    }
+
+    pooled = new PooledDfs(dfso);
+    clients.put(username, pooled);
+    created.incrementAndGet();
+    return pooled.lease();
+  }
+
+  /**
+   * Close the client of a user, if any. To be used when the user is removed or its client is known to be broken.
+   *
+   * @param username effective user of the client
+   */
+  public void evict(String username) {
+    PooledDfs pooled = clients.remove(username);
+    if (pooled != null) {
+      pooled.retire();
+    }
+  }
+
+  @Schedule(persistent = false,
+      minute = "*",
+      hour = "*")
+  public void evictIdle(Timer timer) {
+    long idleSince = System.currentTimeMillis() - MAX_IDLE_MS;
+    for (Map.Entry<String, PooledDfs> entry : new ArrayList<>(clients.entrySet())) {
+      if (entry.getValue().isIdleSince(idleSince) && clients.remove(entry.getKey(), entry.getValue())) {
+        LOGGER.log(Level.FINE, "Closing idle HDFS client of user: {0}", entry.getKey());
+        entry.getValue().retire();
+      }
+    }
+  }
+
+  private boolean evictLeastRecentlyUsed() {
+    String lru = null;
+    long oldest = Long.MAX_VALUE;
+    for (Map.Entry<String, PooledDfs> entry : clients.entrySet()) {
+      long lastReleased = entry.getValue().getLastReleased();
+      if (entry.getValue().isIdleSince(Long.MAX_VALUE) && lastReleased < oldest) {
+        oldest = lastReleased;
+        lru = entry.getKey();
+      }
+    }
+    if (lru == null) {
+      return false;
+    }
+    evict(lru);
+    return true;
+  }
+
+  private void closeClient(DistributedFileSystemOps dfso) {
+    try {
+      dfso.close();
+    } finally {
+      if (settings.getHopsRpcTls() && !dfso.getEffectiveUser().equals(settings.getHdfsSuperUser())) {
+        bhcs.removeNonSuperUserCertificate(dfso.getEffectiveUser());
+      }
+      evicted.incrementAndGet();
+    }
+  }
+
+  @PreDestroy
+  public void tearDown() {
+    for (String username : new ArrayList<>(clients.keySet())) {
+      evict(username);
+    }
+  }
+
+  public int getPoolSize() {
+    return clients.size();
+  }
+
+  public int getLeasedCount() {
+    int leased = 0;
+    for (PooledDfs pooled : clients.values()) {
+      leased += pooled.getLeases();
+    }
+    return leased;
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getCreatedCount() {
+    return created.get();
+  }
+
+  public long getEvictedCount() {
+    return evicted.get();
+  }
+
+  public long getOverflowCount() {
+    return overflows.get();
+  }
+
+  /**
+   * @return time spent by callers to get a client, including creating it on a miss
+   */
+  public LatencyHistogram getLeaseLatencies() {
+    return leaseLatencies;
+  }
+
+  private class PooledDfs {
+    private final DistributedFileSystemOps dfso;
+    private int leases = 0;
+    private long lastReleased;
+    private boolean retired = false;
+
+    PooledDfs(DistributedFileSystemOps dfso) {
+      this.dfso = dfso;
+      this.lastReleased = System.currentTimeMillis();
+    }
+
+    synchronized DistributedFileSystemOps lease() {
+      if (retired) {
+        return null;
+      }
+      leases++;
+      return new DistributedFileSystemOps(dfso, this::release);
+    }
+
+    synchronized void release() {
+      leases--;
+      lastReleased = System.currentTimeMillis();
+      if (retired && leases == 0) {
+        closeClient(dfso);
+      }
+    }
+
+    synchronized void retire() {
+      if (retired) {
+        return;
+      }
+      retired = true;
+      if (leases == 0) {
+        closeClient(dfso);
+      }
+    }
+
+    synchronized boolean isIdleSince(long since) {
+      return leases == 0 && lastReleased < since;
+    }
+
+    synchronized long getLastReleased() {
+      return lastReleased;
+    }
+
+    synchronized int getLeases() {
+      return leases;
+    }
+  }
+}
@@ -49,6 +49,7 @@ import java.io.InputStreamReader;
 import java.net.URI;
 import java.security.PrivilegedExceptionAction;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.hadoop.conf.Configuration;
@@ -76,6 +77,9 @@ public class DistributedFileSystemOps {
   private Configuration conf;
   private String hadoopConfDir;
   private final String effectiveUser;
+  // Run instead of closing the file system when this is a lease on a pooled client
+  private final Runnable release;
+  private final AtomicBoolean released = new AtomicBoolean(false);
 
   /**
    * Returns a file system with username access.
@@ -88,6 +92,22 @@ public class DistributedFileSystemOps {
     this.dfs = getDfs(ugi, conf, uri);
     this.conf = conf;
     effectiveUser = ugi.getUserName();
+    this.release = null;
+  }
+
+  /**
+   * Returns a lease on a file system shared through the {@link DfsOpsPool}.
+   * Closing the lease gives the file system back to the pool.
+   * <p>
+   * @param shared
+   * @param release
+   */
+  DistributedFileSystemOps(DistributedFileSystemOps shared, Runnable release) {
+    this.dfs = shared.dfs;
+    this.conf = shared.conf;
+    this.hadoopConfDir = shared.hadoopConfDir;
+    this.effectiveUser = shared.effectiveUser;
+    this.release = release;
   }
 
   public DistributedFileSystemOps(UserGroupInformation ugi, Configuration conf) {
@@ -122,6 +142,13 @@ public class DistributedFileSystemOps {
     return effectiveUser;
   }
 
+  /**
+   * @return true if this is a lease on a client of the {@link DfsOpsPool}
+   */
+  public boolean isPooled() {
+    return release != null;
+  }
+
   /**
    * Get the contents of the file at the given path.
    * <p/>
@@ -686,6 +713,12 @@ public class DistributedFileSystemOps {
    * Closes the distributed file system.
    */
   public void close() {
+    if (release != null) {
+      if (released.compareAndSet(false, true)) {
+        release.run();
+      }
+      return;
+    }
     try {
       dfs.close();
     } catch (IOException ex) {
@@ -706,6 +739,10 @@ public class DistributedFileSystemOps {
     return dfs.getLength(path);
   }
   
+  public ContentSummary getContentSummary(Path path) throws IOException {
+    return dfs.getContentSummary(path);
+  }
+
   public long getDatasetSize(Path datasetPath) throws IOException {
     ContentSummary cs = dfs.getContentSummary(datasetPath);
     return cs.getLength();
@@ -91,6 +91,8 @@ public class DistributedFsService {
   private Settings settings;
   @EJB
   private BaseHadoopClientsService bhcs;
+  @EJB
+  private DfsOpsPool dfsOpsPool;
 
   private Configuration conf;
   private String hadoopConfDir;
@@ -153,11 +155,21 @@ public class DistributedFsService {
   }
 
   /**
-   * creates a new distributed file system operations with the super user
+   * Returns the distributed file system operations of the super user, shared
+   * through the {@link DfsOpsPool}.
    * <p>
    * @return DistributedFileSystemOps
    */
   public DistributedFileSystemOps getDfsOps() {
+    return dfsOpsPool.lease(settings.getHdfsSuperUser(), this::createDfsOps);
+  }
+
+  /**
+   * creates a new distributed file system operations with the super user
+   * <p>
+   * @return DistributedFileSystemOps
+   */
+  private DistributedFileSystemOps createDfsOps() {
     if (settings.getHopsRpcTls()) {
       Configuration newConf = new Configuration(conf);
   
@@ -175,7 +187,7 @@ public class DistributedFsService {
     }
   
     return new DistributedFileSystemOps(UserGroupInformation.createRemoteUser(
-        settings.getHdfsSuperUser()), conf);
+        settings.getHdfsSuperUser()), new Configuration(conf));
   }
   
   public DistributedFileSystemOps getDfsOps(URI uri) {
@@ -200,7 +212,8 @@ public class DistributedFsService {
   }
   
   /**
-   * Returns the user specific distributed file system operations
+   * Returns the user specific distributed file system operations, shared
+   * through the {@link DfsOpsPool}.
    * <p>
    * @param username
    * @return
@@ -209,6 +222,10 @@ public class DistributedFsService {
     if (username == null || username.isEmpty()) {
       throw new IllegalArgumentException("username not provided.");
     }
+    return dfsOpsPool.lease(username, () -> createDfsOps(username));
+  }
+
+  private DistributedFileSystemOps createDfsOps(String username) {
     UserGroupInformation ugi;
     try {
       ugi = UserGroupInformation.createProxyUser(username, UserGroupInformation.
@@ -234,11 +251,14 @@ public class DistributedFsService {
       }
     }
 
-    return new DistributedFileSystemOps(ugi, conf);
+    return new DistributedFileSystemOps(ugi, new Configuration(conf));
   }
 
   public void closeDfsClient(DistributedFileSystemOps udfso) {
-    if (null != udfso) {
+    if (null != udfso && udfso.isPooled()) {
+      // Give the lease back, the pool releases the certificates when it closes the client
+      udfso.close();
+    } else if (null != udfso) {
       if (settings.getHopsRpcTls()
           && !udfso.getEffectiveUser().equals(settings.getHdfsSuperUser())) {
         bhcs.removeNonSuperUserCertificate(udfso.getEffectiveUser());
@@ -301,6 +321,7 @@ public class DistributedFsService {
     if (username == null || username.isEmpty()) {
       return;
     }
+    dfsOpsPool.evict(username);
     UserGroupInformation ugi = ugiService.remove(username);
     if (ugi == null) {
       return;
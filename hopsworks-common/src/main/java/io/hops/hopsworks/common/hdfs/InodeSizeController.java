@@ -0,0 +1,79 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.hdfs;
+
+import io.hops.hopsworks.common.dao.hdfs.inode.Inode;
+import io.hops.hopsworks.common.dao.hdfs.inode.InodeFacade;
+import io.hops.hopsworks.common.dao.hdfs.inode.InodeSummary;
+import org.apache.hadoop.fs.ContentSummary;
+import org.apache.hadoop.fs.Path;
+
+import javax.ejb.EJB;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Size and file counts of directory trees. The namenode is asked first, it
+ * aggregates the subtree itself and, for quota enabled directories, answers
+ * from the counters it keeps up to date on every write. If the namenode cannot
+ * be reached the subtree is walked in the inode table instead.
+ */
+@Stateless
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class InodeSizeController {
+
+  private static final Logger LOGGER = Logger.getLogger(InodeSizeController.class.getName());
+
+  @EJB
+  private InodeFacade inodeFacade;
+  @EJB
+  private DistributedFsService dfs;
+
+  /**
+   * @param inode
+   * @return size in bytes of the file, or of all the files under the directory
+   */
+  public long getSize(Inode inode) {
+    if (!inode.isDir()) {
+      return inode.getSize();
+    }
+    return getSummary(inode).getLength();
+  }
+
+  public InodeSummary getSummary(Inode inode) {
+    if (!inode.isDir()) {
+      return new InodeSummary(inode.getSize(), 1, 0);
+    }
+    String path = inodeFacade.getPath(inode);
+    DistributedFileSystemOps dfso = null;
+    try {
+      dfso = dfs.getDfsOps();
+      ContentSummary summary = dfso.getContentSummary(new Path(path));
+      return new InodeSummary(summary.getLength(), summary.getFileCount(), summary.getDirectoryCount());
+    } catch (IOException | RuntimeException ex) {
+      LOGGER.log(Level.WARNING, "Could not get content summary of " + path
+          + " from the namenode, walking the inode table", ex);
+    } finally {
+      dfs.closeDfsClient(dfso);
+    }
+    return inodeFacade.getContentSummary(inode);
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.jobs;
+
+/**
+ * A range of lines of a job log file.
+ */
+public class JobLogChunk {
+
+  private final long offset;
+  private final long nextOffset;
+  private final long fileLength;
+  private final long firstLine;
+  private final String content;
+
+  public JobLogChunk(long offset, long nextOffset, long fileLength, long firstLine, String content) {
+    this.offset = offset;
+    this.nextOffset = nextOffset;
+    this.fileLength = fileLength;
+    this.firstLine = firstLine;
+    this.content = content;
+  }
+
+  /**
+   * @return the byte offset of the first character of the content
+   */
+  public long getOffset() {
+    return offset;
+  }
+
+  /**
+   * @return the byte offset right after the content, where the next range starts
+   */
+  public long getNextOffset() {
+    return nextOffset;
+  }
+
+  public long getFileLength() {
+    return fileLength;
+  }
+
+  /**
+   * @return the number of the first line of the content, counting from 0, or -1 if it is not known
+   */
+  public long getFirstLine() {
+    return firstLine;
+  }
+
+  public String getContent() {
+    return content;
+  }
+
+}
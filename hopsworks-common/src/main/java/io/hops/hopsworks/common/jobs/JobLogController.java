@@ -0,0 +1,507 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.jobs;
+
+import io.hops.hopsworks.common.hdfs.DistributedFileSystemOps;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Reads parts of job log files in HDFS without loading the whole file: byte
+ * ranges and tails with positional reads, line ranges through a sparse line
+ * index and line searches that stream the file.
+ * <p>
+ * The line index of a log is a hidden file next to it that keeps the offset
+ * of every {@link #LINE_INDEX_INTERVAL}th line. It is built once, when the
+ * log is written, and ignored if the log changed since.
+ */
+@Stateless
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class JobLogController {
+
+  private static final Logger LOGGER = Logger.getLogger(JobLogController.class.getName());
+
+  public static final int MAX_RANGE_LENGTH = 1024 * 1024;
+  public static final int MAX_LINES = 10000;
+  public static final int MAX_MATCHES = 1000;
+  public static final long MAX_GREP_BYTES = 64L * 1024 * 1024;
+  public static final long MAX_GREP_TIME_MS = 10000;
+  public static final int LINE_INDEX_INTERVAL = 1000;
+  // Longer lines are cut in search results and line ranges
+  private static final int MAX_LINE_LENGTH = 64 * 1024;
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+  private static final int LINE_INDEX_VERSION = 1;
+
+  /**
+   * Builds the line index of a log file, replacing the previous one.
+   *
+   * @param dfso
+   * @param logPath
+   * @throws IOException
+   */
+  public void buildLineIndex(DistributedFileSystemOps dfso, String logPath) throws IOException {
+    Path path = new Path(logPath);
+    long fileLength = dfso.getFileStatus(path).getLen();
+    long[] offsets = new long[16];
+    int entries = 0;
+    long lineCount = 0;
+    try (InputStream in = new BufferedInputStream(dfso.open(path), READ_BUFFER_SIZE)) {
+      long offset = 0;
+      boolean lineStart = true;
+      int b;
+      while ((b = in.read()) != -1) {
+        if (lineStart) {
+          if (lineCount % LINE_INDEX_INTERVAL == 0) {
+            if (entries == offsets.length) {
+              long[] grown = new long[offsets.length * 2];
+              System.arraycopy(offsets, 0, grown, 0, entries);
+              offsets = grown;
+            }
+            offsets[entries++] = offset;
+          }
+          lineCount++;
+          lineStart = false;
+        }
+        if (b == '\n') {
+          lineStart = true;
+        }
+        offset++;
+      }
+      fileLength = offset;
+    }
+    try (DataOutputStream out = new DataOutputStream(dfso.create(getLineIndexPath(path)))) {
+      out.writeInt(LINE_INDEX_VERSION);
+      out.writeInt(LINE_INDEX_INTERVAL);
+      out.writeLong(fileLength);
+      out.writeLong(lineCount);
+      out.writeInt(entries);
+      for (int i = 0; i < entries; i++) {
+        out.writeLong(offsets[i]);
+      }
+    }
+  }
+
+  /**
+   * Builds the line index of a log file, logging instead of failing.
+   *
+   * @param dfso
+   * @param logPath
+   */
+  public void buildLineIndexQuietly(DistributedFileSystemOps dfso, String logPath) {
+    try {
+      if (logPath != null && dfso.exists(logPath)) {
+        buildLineIndex(dfso, logPath);
+      }
+    } catch (IOException ex) {
+      LOGGER.log(Level.WARNING, "Could not index log " + logPath, ex);
+    }
+  }
+
+  /**
+   * @param dfso
+   * @param logPath
+   * @return the number of lines of the log, or -1 if the log has no up to date line index
+   * @throws IOException
+   */
+  public long getLineCount(DistributedFileSystemOps dfso, String logPath) throws IOException {
+    Path path = new Path(logPath);
+    LineIndex index = readLineIndex(dfso, path, dfso.getFileStatus(path).getLen());
+    return index == null ? -1 : index.lineCount;
+  }
+
+  /**
+   * Reads at most length bytes of a log, starting at offset. Unless the range
+   * reaches the end of the file it is cut after its last complete line.
+   *
+   * @param dfso
+   * @param logPath
+   * @param offset
+   * @param length at most {@link #MAX_RANGE_LENGTH}
+   * @return
+   * @throws IOException
+   */
+  public JobLogChunk readRange(DistributedFileSystemOps dfso, String logPath, long offset, int length)
+      throws IOException {
+    Path path = new Path(logPath);
+    long fileLength = dfso.getFileStatus(path).getLen();
+    if (offset < 0 || offset > fileLength) {
+      throw new IllegalArgumentException("offset must be between 0 and the length of the log: " + fileLength);
+    }
+    int toRead = (int) Math.min(Math.min(length, MAX_RANGE_LENGTH), fileLength - offset);
+    byte[] buffer = new byte[Math.max(toRead, 0)];
+    try (FSDataInputStream in = dfso.open(path)) {
+      in.readFully(offset, buffer, 0, toRead);
+    }
+    int end = toRead;
+    if (offset + toRead < fileLength) {
+      int lastNewLine = lastIndexOf(buffer, toRead, (byte) '\n');
+      if (lastNewLine >= 0) {
+        end = lastNewLine + 1;
+      }
+    }
+    return new JobLogChunk(offset, offset + end, fileLength, offset == 0 ? 0 : -1,
+        new String(buffer, 0, end, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Reads the last lines of a log, reading the file backwards in blocks.
+   *
+   * @param dfso
+   * @param logPath
+   * @param lines at most {@link #MAX_LINES}
+   * @param maxLength the maximum number of bytes to return, at most {@link #MAX_RANGE_LENGTH}
+   * @return
+   * @throws IOException
+   */
+  public JobLogChunk tail(DistributedFileSystemOps dfso, String logPath, int lines, int maxLength)
+      throws IOException {
+    Path path = new Path(logPath);
+    long fileLength = dfso.getFileStatus(path).getLen();
+    int wanted = Math.max(1, Math.min(lines, MAX_LINES));
+    long limit = Math.max(0, fileLength - Math.min(maxLength, MAX_RANGE_LENGTH));
+    long start = fileLength;
+    boolean complete = false;
+    int found = 0;
+    byte[] block = new byte[READ_BUFFER_SIZE];
+    try (FSDataInputStream in = dfso.open(path)) {
+      long position = fileLength;
+      // A new line at the very end closes the last line, it does not start an empty one
+      long ignore = fileLength - 1;
+      scan:
+      while (position > limit) {
+        int read = (int) Math.min(block.length, position - limit);
+        position -= read;
+        in.readFully(position, block, 0, read);
+        for (int i = read - 1; i >= 0; i--) {
+          if (block[i] == '\n' && position + i != ignore && ++found == wanted) {
+            start = position + i + 1;
+            complete = true;
+            break scan;
+          }
+        }
+        start = position;
+      }
+      if (!complete && start > 0) {
+        // Cut by the length, drop the partial first line
+        int read = (int) Math.min(block.length, fileLength - start);
+        in.readFully(start, block, 0, read);
+        for (int i = 0; i < read; i++) {
+          if (block[i] == '\n') {
+            start += i + 1;
+            break;
+          }
+        }
+      }
+    }
+    JobLogChunk chunk = readRange(dfso, logPath, start, (int) (fileLength - start));
+    long firstLine = start == 0 ? 0 : -1;
+    if (firstLine < 0) {
+      LineIndex index = readLineIndex(dfso, path, fileLength);
+      if (index != null) {
+        firstLine = index.lineCount - countLines(chunk.getContent());
+      }
+    }
+    return new JobLogChunk(chunk.getOffset(), chunk.getNextOffset(), fileLength, firstLine, chunk.getContent());
+  }
+
+  /**
+   * Reads a range of lines of a log, starting from the closest indexed line.
+   *
+   * @param dfso
+   * @param logPath
+   * @param fromLine the first line to return, counting from 0
+   * @param lines at most {@link #MAX_LINES}
+   * @return
+   * @throws IOException
+   */
+  public JobLogChunk readLines(DistributedFileSystemOps dfso, String logPath, long fromLine, int lines)
+      throws IOException {
+    Path path = new Path(logPath);
+    long fileLength = dfso.getFileStatus(path).getLen();
+    int wanted = Math.min(lines, MAX_LINES);
+    StringBuilder content = new StringBuilder();
+    long offset = -1;
+    long nextOffset;
+    int bytes = 0;
+    try (LineScanner scanner = openAtLine(dfso, path, fileLength, fromLine)) {
+      byte[] line;
+      while (scanner.lineNumber < fromLine && scanner.next() != null) {
+      }
+      nextOffset = scanner.offset;
+      int read = 0;
+      while (read < wanted && bytes < MAX_RANGE_LENGTH && (line = scanner.next()) != null) {
+        if (offset < 0) {
+          offset = scanner.lineOffset;
+        }
+        content.append(new String(line, StandardCharsets.UTF_8));
+        if (scanner.lineEnded) {
+          content.append('\n');
+        }
+        bytes += line.length;
+        read++;
+        nextOffset = scanner.offset;
+      }
+    }
+    return new JobLogChunk(offset < 0 ? nextOffset : offset, nextOffset, fileLength, fromLine,
+        content.toString());
+  }
+
+  /**
+   * Finds the lines of a log that match a regular expression, streaming the
+   * file from the given line. A search stops after {@link #MAX_GREP_BYTES}
+   * bytes, {@link #MAX_GREP_TIME_MS} milliseconds or {@link #MAX_RANGE_LENGTH}
+   * bytes of matched text, whichever comes first.
+   *
+   * @param dfso
+   * @param logPath
+   * @param pattern
+   * @param fromLine the first line to search, counting from 0
+   * @param maxMatches at most {@link #MAX_MATCHES}
+   * @return the matching lines, in order, and the line to continue from if the search stopped before the end
+   * @throws IOException
+   * @throws IllegalArgumentException if matching a single line takes longer than the time limit
+   */
+  public JobLogGrepResult grep(DistributedFileSystemOps dfso, String logPath, Pattern pattern, long fromLine,
+      int maxMatches) throws IOException {
+    Path path = new Path(logPath);
+    long fileLength = dfso.getFileStatus(path).getLen();
+    int wanted = Math.min(maxMatches, MAX_MATCHES);
+    long deadline = System.currentTimeMillis() + MAX_GREP_TIME_MS;
+    List<JobLogMatch> matches = new ArrayList<>();
+    long matchedBytes = 0;
+    try (LineScanner scanner = openAtLine(dfso, path, fileLength, fromLine)) {
+      long startOffset = scanner.offset;
+      byte[] line;
+      while ((line = scanner.next()) != null) {
+        if (scanner.lineNumber <= fromLine) {
+          continue;
+        }
+        String text = new String(line, StandardCharsets.UTF_8);
+        try {
+          if (pattern.matcher(new DeadlineCharSequence(text, deadline)).find()) {
+            matches.add(new JobLogMatch(scanner.lineNumber - 1, scanner.lineOffset, text));
+            matchedBytes += line.length;
+          }
+        } catch (DeadlineExceededException ex) {
+          if (scanner.lineNumber - 1 == fromLine) {
+            throw new IllegalArgumentException("The pattern is too expensive to evaluate");
+          }
+          // Evaluate this line again in the next search
+          return new JobLogGrepResult(matches, scanner.lineNumber - 1);
+        }
+        if (matches.size() >= wanted || matchedBytes >= MAX_RANGE_LENGTH
+            || scanner.offset - startOffset >= MAX_GREP_BYTES || System.currentTimeMillis() >= deadline) {
+          return new JobLogGrepResult(matches, scanner.offset < fileLength ? scanner.lineNumber : null);
+        }
+      }
+    }
+    return new JobLogGrepResult(matches, null);
+  }
+
+  private static class DeadlineExceededException extends RuntimeException {
+  }
+
+  /**
+   * Lets a regular expression be abandoned while it is matching, backtracking on a long line can take minutes.
+   */
+  private static class DeadlineCharSequence implements CharSequence {
+
+    private final CharSequence text;
+    private final long deadline;
+    private int reads = 0;
+
+    DeadlineCharSequence(CharSequence text, long deadline) {
+      this.text = text;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (++reads % 10000 == 0 && System.currentTimeMillis() >= deadline) {
+        throw new DeadlineExceededException();
+      }
+      return text.charAt(index);
+    }
+
+    @Override
+    public int length() {
+      return text.length();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return new DeadlineCharSequence(text.subSequence(start, end), deadline);
+    }
+
+    @Override
+    public String toString() {
+      return text.toString();
+    }
+  }
+
+  private LineScanner openAtLine(DistributedFileSystemOps dfso, Path path, long fileLength, long line)
+      throws IOException {
+    long lineNumber = 0;
+    long offset = 0;
+    LineIndex index = readLineIndex(dfso, path, fileLength);
+    if (index != null && line > 0 && index.offsets.length > 0) {
+      int entry = (int) Math.min(line / index.interval, index.offsets.length - 1);
+      lineNumber = (long) entry * index.interval;
+      offset = index.offsets[entry];
+    }
+    FSDataInputStream in = dfso.open(path);
+    try {
+      in.seek(offset);
+    } catch (IOException ex) {
+      in.close();
+      throw ex;
+    }
+    return new LineScanner(in, offset, lineNumber);
+  }
+
+  private LineIndex readLineIndex(DistributedFileSystemOps dfso, Path path, long fileLength) {
+    Path indexPath = getLineIndexPath(path);
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(dfso.open(indexPath)))) {
+      if (in.readInt() != LINE_INDEX_VERSION) {
+        return null;
+      }
+      int interval = in.readInt();
+      long indexedLength = in.readLong();
+      long lineCount = in.readLong();
+      if (indexedLength != fileLength || interval <= 0) {
+        return null;
+      }
+      long[] offsets = new long[in.readInt()];
+      for (int i = 0; i < offsets.length; i++) {
+        offsets[i] = in.readLong();
+      }
+      return new LineIndex(interval, lineCount, offsets);
+    } catch (FileNotFoundException ex) {
+      return null;
+    } catch (IOException ex) {
+      LOGGER.log(Level.FINE, "Could not read line index " + indexPath, ex);
+      return null;
+    }
+  }
+
+  private static Path getLineIndexPath(Path logPath) {
+    return new Path(logPath.getParent(), "." + logPath.getName() + ".index");
+  }
+
+  private static int lastIndexOf(byte[] buffer, int length, byte value) {
+    for (int i = length - 1; i >= 0; i--) {
+      if (buffer[i] == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int countLines(String content) {
+    if (content.isEmpty()) {
+      return 0;
+    }
+    int lines = 0;
+    for (int i = 0; i < content.length(); i++) {
+      if (content.charAt(i) == '\n') {
+        lines++;
+      }
+    }
+    return content.charAt(content.length() - 1) == '\n' ? lines : lines + 1;
+  }
+
+  private static class LineIndex {
+
+    private final int interval;
+    private final long lineCount;
+    private final long[] offsets;
+
+    private LineIndex(int interval, long lineCount, long[] offsets) {
+      this.interval = interval;
+      this.lineCount = lineCount;
+      this.offsets = offsets;
+    }
+  }
+
+  /**
+   * Reads a log line by line, keeping track of the line numbers and offsets.
+   */
+  private static class LineScanner implements AutoCloseable {
+
+    private final InputStream in;
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+    // Offset after the last line returned
+    private long offset;
+    // Offset of the last line returned
+    private long lineOffset;
+    // Number of lines returned, including the ones skipped through the index
+    private long lineNumber;
+    // Whether the last line returned ended with a new line
+    private boolean lineEnded;
+
+    private LineScanner(InputStream in, long offset, long lineNumber) {
+      this.in = new BufferedInputStream(in, READ_BUFFER_SIZE);
+      this.offset = offset;
+      this.lineNumber = lineNumber;
+    }
+
+    private byte[] next() throws IOException {
+      line.reset();
+      lineOffset = offset;
+      lineEnded = false;
+      int b;
+      while ((b = in.read()) != -1) {
+        offset++;
+        if (b == '\n') {
+          lineEnded = true;
+          break;
+        }
+        if (line.size() < MAX_LINE_LENGTH) {
+          line.write(b);
+        }
+      }
+      if (b == -1 && offset == lineOffset) {
+        return null;
+      }
+      lineNumber++;
+      return line.toByteArray();
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+
+}
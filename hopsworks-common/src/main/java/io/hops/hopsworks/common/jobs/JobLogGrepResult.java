@@ -0,0 +1,45 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.jobs;
+
+import java.util.List;
+
+/**
+ * The lines of a job log file that matched a search, and where to continue the search from.
+ */
+public class JobLogGrepResult {
+
+  private final List<JobLogMatch> matches;
+  private final Long nextLine;
+
+  public JobLogGrepResult(List<JobLogMatch> matches, Long nextLine) {
+    this.matches = matches;
+    this.nextLine = nextLine;
+  }
+
+  public List<JobLogMatch> getMatches() {
+    return matches;
+  }
+
+  /**
+   * @return the line to continue the search from, null if the end of the log was reached
+   */
+  public Long getNextLine() {
+    return nextLine;
+  }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.jobs;
+
+/**
+ * A line of a job log file that matched a search.
+ */
+public class JobLogMatch {
+
+  private final long line;
+  private final long offset;
+  private final String text;
+
+  public JobLogMatch(long line, long offset, String text) {
+    this.line = line;
+    this.offset = offset;
+    this.text = text;
+  }
+
+  /**
+   * @return the number of the line, counting from 0
+   */
+  public long getLine() {
+    return line;
+  }
+
+  /**
+   * @return the byte offset of the start of the line
+   */
+  public long getOffset() {
+    return offset;
+  }
+
+  public String getText() {
+    return text;
+  }
+
+}
@@ -47,6 +47,7 @@ import io.hops.hopsworks.common.dao.project.service.ProjectServices;
 import io.hops.hopsworks.common.hdfs.DistributedFileSystemOps;
 import io.hops.hopsworks.common.hdfs.DistributedFsService;
 import io.hops.hopsworks.common.hdfs.Utils;
+import io.hops.hopsworks.common.jobs.JobLogController;
 import io.hops.hopsworks.common.jobs.jobhistory.JobState;
 import io.hops.hopsworks.common.jobs.jobhistory.JobType;
 import io.hops.hopsworks.common.util.Settings;
@@ -55,21 +56,26 @@ import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import javax.ejb.AsyncResult;
+import javax.annotation.Resource;
 import javax.ejb.Asynchronous;
 import javax.ejb.DependsOn;
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 
 import io.hops.hopsworks.common.yarn.YarnClientService;
 import io.hops.hopsworks.common.yarn.YarnClientWrapper;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.yarn.api.records.ApplicationId;
-import org.apache.hadoop.yarn.exceptions.YarnException;
+import org.apache.hadoop.yarn.api.records.LogAggregationStatus;
 
 @Stateless
 @DependsOn("Settings")
@@ -87,6 +93,12 @@ public class YarnExecutionFinalizer {
   private DistributedFsService dfs;
   @EJB
   private YarnClientService ycs;
+  @EJB
+  private JobLogController jobLogController;
+  @Resource
+  private ManagedScheduledExecutorService scheduler;
+  @Resource
+  private ManagedExecutorService executorService;
 
   /**
    * Update the current state of the Execution entity to the given state.
@@ -97,15 +109,70 @@ public class YarnExecutionFinalizer {
     return executionFacade.updateState(execution, newState);
   }
   
-  @Asynchronous
-  public Future<Execution> copyLogs(Execution exec) {
-    DistributedFileSystemOps udfso = dfs.getDfsOps(exec.getHdfsUser());
+  /**
+   * Copies the aggregated logs of the execution to its stdout and stderr files
+   * once YARN has finished aggregating them. The aggregation status is polled
+   * on the scheduler and the logs are split in a single pass over the
+   * aggregated files, so no thread waits for the aggregation. The copy is
+   * chained as tasks of the executor, none of them waits for another one.
+   * <p/>
+   * The tasks run after this method has returned, so they only use the
+   * container proxies of the injected beans, never this instance.
+   * <p/>
+   * @param exec the finished execution
+   * @return completes with the execution pointing to its log files
+   */
+  public Future<Execution> copyLogs(final Execution exec) {
+    final LogCopy logCopy = new LogCopy(exec, settings.getAggregatedLogPath(exec.getHdfsUser(), exec.getAppId()),
+        executionFacade, dfs, jobLogController, scheduler, executorService);
     ApplicationId applicationId = ApplicationId.fromString(exec.getAppId());
     YarnClientWrapper yarnClientWrapper = ycs.getYarnClientSuper(settings
         .getConfiguration());
-    YarnMonitor monitor = new YarnMonitor(applicationId, yarnClientWrapper,
+    final YarnMonitor monitor = new YarnMonitor(applicationId, yarnClientWrapper,
         ycs);
+    CompletableFuture<LogAggregationStatus> aggregation;
     try {
+      aggregation = YarnLogUtil.awaitLogAggregation(monitor, scheduler);
+    } catch (RuntimeException ex) {
+      monitor.close();
+      throw ex;
+    }
+    return aggregation.handle((logAggregationStatus, failure) -> {
+      monitor.close();
+      if (failure != null) {
+        LOG.severe("error while aggregation logs" + failure.toString());
+      }
+      return logAggregationStatus;
+    }).thenComposeAsync(logCopy::copy, executorService);
+  }
+
+  /**
+   * The copy of the aggregated logs of one execution, run on the executor
+   * once the aggregation is over.
+   */
+  private static class LogCopy {
+
+    private final Execution exec;
+    private final String stdOutPath;
+    private final Map<String, String[]> destinations = new LinkedHashMap<>();
+    private final String stdOutFinalDestination;
+    private final String stdErrFinalDestination;
+    private final ExecutionFacade executionFacade;
+    private final DistributedFsService dfs;
+    private final JobLogController jobLogController;
+    private final ManagedScheduledExecutorService scheduler;
+    private final ManagedExecutorService executorService;
+
+    LogCopy(Execution exec, String stdOutPath, ExecutionFacade executionFacade, DistributedFsService dfs,
+        JobLogController jobLogController, ManagedScheduledExecutorService scheduler,
+        ManagedExecutorService executorService) {
+      this.exec = exec;
+      this.stdOutPath = stdOutPath;
+      this.executionFacade = executionFacade;
+      this.dfs = dfs;
+      this.jobLogController = jobLogController;
+      this.scheduler = scheduler;
+      this.executorService = executorService;
       String defaultOutputPath;
       switch (exec.getJob().getJobType()) {
         case SPARK:
@@ -120,45 +187,61 @@ public class YarnExecutionFinalizer {
         default:
           defaultOutputPath = "Logs/";
       }
-      String stdOutFinalDestination =
+      String stdOutDestination =
           Utils.getHdfsRootPath(exec.getJob().getProject().getName()) +
               defaultOutputPath;
-      String stdErrFinalDestination =
+      String stdErrDestination =
           Utils.getHdfsRootPath(exec.getJob().getProject().getName()) +
               defaultOutputPath;
-  
-      String stdOutPath =
-          settings.getAggregatedLogPath(exec.getHdfsUser(), exec.getAppId());
+      if (stdOutDestination != null &&
+          !stdOutDestination.isEmpty()) {
+        stdOutDestination =
+            stdOutDestination + exec.getAppId() + File.separator +
+                "stdout.log";
+        destinations.put(stdOutDestination, new String[]{"out"});
+      }
+      if (stdErrDestination != null &&
+          !stdErrDestination.isEmpty()) {
+        stdErrDestination =
+            stdErrDestination + exec.getAppId() + File.separator +
+                "stderr.log";
+        destinations.put(stdErrDestination, new String[]{"err", ".log"});
+      }
+      this.stdOutFinalDestination = stdOutDestination;
+      this.stdErrFinalDestination = stdErrDestination;
+    }
+
+    CompletableFuture<Execution> copy(final LogAggregationStatus logAggregationStatus) {
+      final DistributedFileSystemOps udfso = dfs.getDfsOps(exec.getHdfsUser());
       try {
-        if (stdOutFinalDestination != null &&
-            !stdOutFinalDestination.isEmpty()) {
-          stdOutFinalDestination =
-              stdOutFinalDestination + exec.getAppId() + File.separator +
-                  "stdout.log";
-          String[] desiredLogTypes = {"out"};
-          YarnLogUtil
-              .copyAggregatedYarnLogs(udfso, stdOutPath, stdOutFinalDestination,
-                  desiredLogTypes, monitor);
-        }
-        if (stdErrFinalDestination != null &&
-            !stdErrFinalDestination.isEmpty()) {
-          stdErrFinalDestination =
-              stdErrFinalDestination + exec.getAppId() + File.separator +
-                  "stderr.log";
-          String[] desiredLogTypes = {"err", ".log"};
-          YarnLogUtil
-              .copyAggregatedYarnLogs(udfso, stdOutPath, stdErrFinalDestination,
-                  desiredLogTypes, monitor);
+        CompletableFuture<Void> copy;
+        if (logAggregationStatus != null && !destinations.isEmpty()) {
+          copy = YarnLogUtil.awaitAggregatedLogFiles(udfso, stdOutPath, logAggregationStatus, scheduler)
+              .thenComposeAsync(ready -> YarnLogUtil.copyAggregatedYarnLogsAsync(udfso, stdOutPath, destinations,
+                  logAggregationStatus, executorService), executorService);
+        } else {
+          copy = CompletableFuture.completedFuture(null);
         }
-      } catch (IOException | InterruptedException | YarnException ex) {
-        LOG.severe("error while aggregation logs" + ex.toString());
+        return copy.handleAsync((ignored, failure) -> {
+          try {
+            if (failure != null) {
+              LOG.log(Level.SEVERE, "Error copying the logs of " + exec.getAppId(), failure);
+            } else {
+              // Index the lines once so that the logs can be paged without reading them from the start
+              for (String destination : destinations.keySet()) {
+                jobLogController.buildLineIndexQuietly(udfso, destination);
+              }
+            }
+            Execution updated = executionFacade.updateStdErrPath(exec, stdErrFinalDestination);
+            return executionFacade.updateStdOutPath(updated, stdOutFinalDestination);
+          } finally {
+            dfs.closeDfsClient(udfso);
+          }
+        }, executorService);
+      } catch (RuntimeException ex) {
+        dfs.closeDfsClient(udfso);
+        throw ex;
       }
-      Execution execution = updateExecutionSTDPaths(stdOutFinalDestination,
-          stdErrFinalDestination, exec);
-      return new AsyncResult<>(execution);
-    } finally {
-      dfs.closeDfsClient(udfso);
-      monitor.close();
     }
   }
 
@@ -201,12 +284,6 @@ public class YarnExecutionFinalizer {
     jobsHistoryFacade.updateJobHistory(execution, executiontime);
   }
 
-  private Execution updateExecutionSTDPaths(String stdoutPath, String stderrPath, Execution exec) {
-    exec = executionFacade.updateStdErrPath(exec, stderrPath);
-    exec = executionFacade.updateStdOutPath(exec, stdoutPath);
-    return exec;
-  }
-
   public void removeAllNecessary(Execution exec) throws IOException {
     List<String> filesToRemove = exec.getFilesToRemove();
     String appDir = "hdfs://" + settings.getHdfsTmpCertDir() + "/" + exec.getHdfsUser() + File.separator + exec.
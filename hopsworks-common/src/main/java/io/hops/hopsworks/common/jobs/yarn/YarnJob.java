@@ -290,7 +290,10 @@ public abstract class YarnJob extends HopsJob {
     if (!proceed) {
       return;
     }
-    jobsMonitor.addToMonitor(execution.getAppId(), execution, monitor);
+    jobsMonitor.addToMonitor(execution.getAppId(), execution);
+    // The application is polled by the jobs monitor, the YARN client of the submission is no longer needed
+    monitor.close();
+    monitor = null;
 
   }
 
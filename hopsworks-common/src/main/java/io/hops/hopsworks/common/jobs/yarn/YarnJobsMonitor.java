@@ -46,14 +46,18 @@ import io.hops.hopsworks.common.jobs.jobhistory.JobState;
 import io.hops.hopsworks.common.util.Settings;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.annotation.PreDestroy;
 import javax.ejb.DependsOn;
 import javax.ejb.EJB;
 import javax.ejb.Schedule;
@@ -65,8 +69,9 @@ import javax.naming.NamingException;
 import io.hops.hopsworks.common.yarn.YarnClientService;
 import io.hops.hopsworks.common.yarn.YarnClientWrapper;
 import org.apache.hadoop.yarn.api.records.ApplicationId;
-import org.apache.hadoop.yarn.api.records.FinalApplicationStatus;
+import org.apache.hadoop.yarn.api.records.ApplicationReport;
 import org.apache.hadoop.yarn.api.records.YarnApplicationState;
+import org.apache.hadoop.yarn.client.api.YarnClient;
 import org.apache.hadoop.yarn.exceptions.YarnException;
 
 @Singleton
@@ -87,22 +92,21 @@ public class YarnJobsMonitor {
   private int maxStatusPollRetry;
 
   Map<String, Execution> executions = new HashMap<>();
-  Map<String, YarnMonitor> monitors = new HashMap<>();
   Map<String, Integer> failures = new HashMap<>();
   boolean init = true;
+  // Shared by all the status polls, recreated when the ResourceManager cannot be reached
+  private YarnClientWrapper yarnClientWrapper;
   private List<CopyLogsFutureResult> copyLogsFutures = new ArrayList<>();
   
   /**
-   * Add an execution and its monitor to the applications that need to be monitored.
+   * Add an execution to the applications that need to be monitored. The status of all the monitored applications
+   * is polled with the shared YARN client.
    * <p/>
    * @param appId the id of the application to monitor
    * @param exec the execution corresponding to the monitored application
-   * @param monitor the monitor for this application
    */
-  public void addToMonitor(String appId, Execution exec, YarnMonitor monitor) {
-    monitor = monitor.start();
+  public void addToMonitor(String appId, Execution exec) {
     executions.put(appId, exec);
-    monitors.put(appId, monitor);
   }
 
   @Schedule(persistent = false,
@@ -133,31 +137,12 @@ public class YarnJobsMonitor {
       init = false;
     }
     List<String> toRemove = new ArrayList<>();
-    List<Execution> toUpdate = new ArrayList<>();
-    for (String appID : executions.keySet()) {
-      YarnMonitor monitor = monitors.get(appID);
-      if (monitor == null) {
-        ApplicationId appId = ApplicationId.fromString(appID);
-        YarnClientWrapper newYarnclientWrapper = ycs.getYarnClientSuper(settings
-            .getConfiguration());
-        monitor = new YarnMonitor(appId, newYarnclientWrapper, ycs);
-        monitors.put(appID, monitor);
-      }
-      Execution exec = internalMonitor(executions.get(appID), monitor);
-      if (exec != null) {
-        toUpdate.add(exec);
-      } else {
-        toRemove.add(appID);
-        monitor.close();
-      }
-    }
-    for (Execution exec : toUpdate) {
-      executions.put(exec.getAppId(), exec);
+    if (!executions.isEmpty()) {
+      pollApplications(toRemove);
     }
     for (String appID : toRemove) {
       executions.remove(appID);
       failures.remove(appID);
-      monitors.remove(appID);
     }
   
     Iterator<CopyLogsFutureResult> futureResultIter = copyLogsFutures.iterator();
@@ -174,54 +159,152 @@ public class YarnJobsMonitor {
       }
     }
   }
-  
-  private Execution internalMonitor(Execution exec, YarnMonitor monitor) {
-    try {
-      YarnApplicationState appState = monitor.getApplicationState();
-      FinalApplicationStatus finalAppStatus = monitor.getFinalApplicationStatus();
-      float progress = monitor.getProgress();
-      exec = updateProgress(progress, exec);
-      exec = updateState(JobState.getJobState(appState), exec);
-      exec = updateFinalStatus(JobFinalStatus.getJobFinalStatus(finalAppStatus), exec);
 
+  /**
+   * Get the reports of all the monitored applications with one call to the
+   * ResourceManager, write the status changes in one transaction and start
+   * finalizing the applications that are done.
+   * <p/>
+   * @param toRemove collects the applications that no longer need to be monitored
+   */
+  private void pollApplications(List<String> toRemove) {
+    Map<String, ApplicationReport> reports = getApplicationReports();
+
+    List<Execution> changed = new ArrayList<>();
+    Map<String, JobState> finished = new HashMap<>();
+    List<String> unreachable = new ArrayList<>();
+    for (Map.Entry<String, Execution> entry : executions.entrySet()) {
+      String appID = entry.getKey();
+      Execution exec = entry.getValue();
+      ApplicationReport report = reports.get(appID);
+      if (report == null) {
+        // Not in the bulk answer, e.g. the ResourceManager dropped it, ask for it alone
+        try {
+          report = getYarnClient().getApplicationReport(ApplicationId.fromString(appID));
+        } catch (IOException | YarnException | RuntimeException ex) {
+          Integer failure = failures.get(appID);
+          failure = failure == null ? 1 : failure + 1;
+          failures.put(appID, failure);
+          LOGGER.log(Level.WARNING, "Failed to get application state for execution " + exec + ". Tried " + failure
+              + " time(s).", ex);
+          if (failure > maxStatusPollRetry) {
+            unreachable.add(appID);
+          }
+          continue;
+        }
+      }
+      failures.remove(appID);
+
+      YarnApplicationState appState = report.getYarnApplicationState();
+      JobState state = JobState.getJobState(appState);
       if (appState == YarnApplicationState.FAILED || appState == YarnApplicationState.FINISHED || appState
           == YarnApplicationState.KILLED) {
-        exec = executionFacade.updateState(exec, JobState.AGGREGATING_LOGS);
-        // Async call
-        Future<Execution> futureResult = execFinalizer.copyLogs(exec);
-        copyLogsFutures.add(new CopyLogsFutureResult(futureResult,
-            JobState.getJobState(appState)));
-        
-        return null;
+        finished.put(appID, state);
+        state = JobState.AGGREGATING_LOGS;
       }
-    } catch (IOException | YarnException ex) {
-      Integer failure = failures.get(exec.getAppId());
-      if (failure == null) {
-        failure = 1;
-      } else {
-        failure++;
+      JobFinalStatus finalStatus = JobFinalStatus.getJobFinalStatus(report.getFinalApplicationStatus());
+      float progress = report.getProgress();
+      if (state != exec.getState() || finalStatus != exec.getFinalStatus() || progress != exec.getProgress()) {
+        exec.setState(state);
+        exec.setFinalStatus(finalStatus);
+        exec.setProgress(progress);
+        changed.add(exec);
       }
-      failures.put(exec.getAppId(), failure);
-      LOGGER.log(Level.WARNING, "Failed to get application state for execution " + exec + ". Tried " + failures
-          + " time(s).", ex);
     }
-    if (failures.get(exec.getAppId()) != null && failures.get(exec.getAppId()) > maxStatusPollRetry) {
+
+    if (!changed.isEmpty()) {
       try {
-        LOGGER.log(Level.SEVERE, "Killing application, {0}, because unable to poll for status.", exec);
-        monitor.cancelJob(monitor.getApplicationId().toString());
-        exec = updateState(JobState.KILLED, exec);
-        exec = updateFinalStatus(JobFinalStatus.KILLED, exec);
-        exec = updateProgress(0, exec);
-        execFinalizer.finalize(exec, JobState.KILLED);
-      } catch (YarnException | IOException ex) {
-        LOGGER.
-            log(Level.SEVERE, "Failed to cancel execution, " + exec + " after failing to poll for status.", ex);
-        exec = updateState(JobState.FRAMEWORK_FAILURE, exec);
-        execFinalizer.finalize(exec, JobState.FRAMEWORK_FAILURE);
+        for (Execution exec : executionFacade.updateStatuses(changed)) {
+          executions.put(exec.getAppId(), exec);
+        }
+      } catch (RuntimeException ex) {
+        LOGGER.log(Level.SEVERE, "Failed to update the status of " + changed.size() + " executions", ex);
+        // Forget the values that were not written, they are written again on the next poll
+        for (Execution exec : changed) {
+          Execution stored = executionFacade.findById(exec.getId());
+          if (stored != null) {
+            executions.put(exec.getAppId(), stored);
+          }
+        }
+        return;
+      }
+    }
+
+    for (Map.Entry<String, JobState> entry : finished.entrySet()) {
+      // Async call
+      Future<Execution> futureResult = execFinalizer.copyLogs(executions.get(entry.getKey()));
+      copyLogsFutures.add(new CopyLogsFutureResult(futureResult, entry.getValue()));
+      toRemove.add(entry.getKey());
+    }
+
+    for (String appID : unreachable) {
+      killUnreachable(executions.get(appID));
+      toRemove.add(appID);
+    }
+  }
+
+  /**
+   * @return the reports of the monitored applications the ResourceManager knows about, by application id
+   */
+  private Map<String, ApplicationReport> getApplicationReports() {
+    // Narrow the answer down to the users running the monitored applications
+    Set<String> users = new HashSet<>();
+    for (Execution exec : executions.values()) {
+      if (exec.getHdfsUser() == null) {
+        users = null;
+        break;
+      }
+      users.add(exec.getHdfsUser());
+    }
+    Map<String, ApplicationReport> reports = new HashMap<>();
+    try {
+      for (ApplicationReport report : getYarnClient().getApplications(null, users, null,
+          EnumSet.allOf(YarnApplicationState.class))) {
+        String appID = report.getApplicationId().toString();
+        if (executions.containsKey(appID)) {
+          reports.put(appID, report);
+        }
       }
-      return null;
+    } catch (IOException | YarnException | RuntimeException ex) {
+      LOGGER.log(Level.WARNING, "Failed to get the application reports from the ResourceManager", ex);
+      closeYarnClient();
     }
-    return exec;
+    return reports;
+  }
+
+  private void killUnreachable(Execution exec) {
+    try {
+      LOGGER.log(Level.SEVERE, "Killing application, {0}, because unable to poll for status.", exec);
+      getYarnClient().killApplication(ApplicationId.fromString(exec.getAppId()));
+      exec = updateState(JobState.KILLED, exec);
+      exec = updateFinalStatus(JobFinalStatus.KILLED, exec);
+      exec = updateProgress(0, exec);
+      execFinalizer.finalize(exec, JobState.KILLED);
+    } catch (YarnException | IOException | RuntimeException ex) {
+      LOGGER.
+          log(Level.SEVERE, "Failed to cancel execution, " + exec + " after failing to poll for status.", ex);
+      exec = updateState(JobState.FRAMEWORK_FAILURE, exec);
+      execFinalizer.finalize(exec, JobState.FRAMEWORK_FAILURE);
+    }
+  }
+
+  private YarnClient getYarnClient() {
+    if (yarnClientWrapper == null) {
+      yarnClientWrapper = ycs.getYarnClientSuper(settings.getConfiguration());
+    }
+    return yarnClientWrapper.getYarnClient();
+  }
+
+  private void closeYarnClient() {
+    if (yarnClientWrapper != null) {
+      ycs.closeYarnClient(yarnClientWrapper);
+      yarnClientWrapper = null;
+    }
+  }
+
+  @PreDestroy
+  public void preDestroy() {
+    closeYarnClient();
   }
 
   private Execution updateProgress(float progress, Execution execution) {
@@ -40,12 +40,24 @@
 package io.hops.hopsworks.common.jobs.yarn;
 
 import io.hops.hopsworks.common.hdfs.DistributedFileSystemOps;
+import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.hadoop.fs.FileStatus;
@@ -61,11 +73,11 @@ public class YarnLogUtil {
   private static final Logger LOGGER = Logger.getLogger(YarnLogUtil.class.
           getName());
 
-  private enum Result {
-    FAILED,
-    SUCCESS,
-    TIMEOUT
-  }
+  private static final long LOG_AGGREGATION_POLL_INTERVAL = 1000;
+  // Backoff of the checks that the aggregated log files are complete, and how long to wait for them at most
+  private static final long LOG_FILES_FIRST_CHECK_DELAY = 1000;
+  private static final long LOG_FILES_MAX_CHECK_DELAY = TimeUnit.SECONDS.toMillis(30);
+  private static final long LOG_FILES_MAX_WAIT = TimeUnit.MINUTES.toMillis(5);
 
   public static void writeLog(DistributedFileSystemOps dfs, String dst,
       String message, Exception exception) {
@@ -105,44 +117,106 @@ public class YarnLogUtil {
       String[] desiredLogTypes, YarnMonitor monitor) throws YarnException, IOException, InterruptedException {
   
     LogAggregationStatus logAggregationStatus = waitForLogAggregation(monitor);
-    
-    
-    PrintStream writer = null;
-    String[] srcs;
-    try {   
-      srcs = getAggregatedLogFilePaths(src, dfs);
-      if (!logFilesReady(srcs, dfs)) {
-        LOGGER.log(Level.SEVERE, "Error getting logs");
-      }
-      writer = new PrintStream(dfs.create(dst));
-      switch (logAggregationStatus) {
-        case FAILED:
-          writer.print("The log aggregation failed");
-          break;
-        case TIME_OUT:
-          writer.print("*** WARNING: Log aggregation has timed-out for some of the containers\n\n\n");
-          for (String desiredLogType : desiredLogTypes) {
-            writeLogs(dfs, srcs, writer, desiredLogType);
-          }
-          break;
-        case SUCCEEDED:
-          for (String desiredLogType : desiredLogTypes) {
-            writeLogs(dfs, srcs, writer, desiredLogType);
-          }
-          break;
-        default :
-          writer.print("Something went wrong during log aggregation phase!");
+    Map<String, String[]> destinations = new LinkedHashMap<>();
+    destinations.put(dst, desiredLogTypes);
+    copyAggregatedYarnLogs(dfs, src, destinations, logAggregationStatus);
+  }
+
+  /**
+   * Reads the aggregated yarn logs once and splits them into the given
+   * destinations, e.g. stdout and stderr. Every container of every node file
+   * is read a single time, a log is written to all the destinations whose log
+   * types it matches.
+   *
+   * @param dfs
+   * @param src aggregated yarn log path
+   * @param destinations the log types to copy, by destination path
+   * @param logAggregationStatus the final log aggregation status of the application
+   */
+  public static void copyAggregatedYarnLogs(DistributedFileSystemOps dfs, String src,
+      Map<String, String[]> destinations, LogAggregationStatus logAggregationStatus) {
+    AggregatedLogCopy copy = new AggregatedLogCopy(dfs, destinations);
+    try {
+      for (String nodeSrc : copy.start(src, logAggregationStatus)) {
+        writeNodeLogs(dfs, nodeSrc, copy.writers, copy.desiredLogTypes);
       }
     } catch (Exception ex) {
-      if (writer != null) {
-        writer.print(YarnLogUtil.class.getName()
-                + ": Failed to get aggregated logs.\n" + ex.getMessage());
-      }
-      LOGGER.log(Level.SEVERE, null, ex);
+      copy.fail(ex);
     } finally {
+      copy.close();
+    }
+  }
+
+  /**
+   * Same as {@link #copyAggregatedYarnLogs(DistributedFileSystemOps, String, Map, LogAggregationStatus)} but the
+   * node files are read in parallel on the executor, each into its own local spool files. The spool files are
+   * appended to the destinations in the order of the node files by the task completing the last node. No task
+   * waits for another task, so the copy can be started from a task running on the same executor.
+   *
+   * @param dfs
+   * @param src aggregated yarn log path
+   * @param destinations the log types to copy, by destination path
+   * @param logAggregationStatus the final log aggregation status of the application
+   * @param executor runs the extraction of the node files
+   * @return completes once the destinations are written and closed
+   */
+  public static CompletableFuture<Void> copyAggregatedYarnLogsAsync(final DistributedFileSystemOps dfs, String src,
+      Map<String, String[]> destinations, LogAggregationStatus logAggregationStatus, ExecutorService executor) {
+    final AggregatedLogCopy copy = new AggregatedLogCopy(dfs, destinations);
+    final String[] srcs;
+    try {
+      srcs = copy.start(src, logAggregationStatus);
+    } catch (Exception ex) {
+      copy.fail(ex);
+      copy.close();
+      return CompletableFuture.completedFuture(null);
+    }
+    final List<File[]> spools = new ArrayList<>(srcs.length);
+    final List<CompletableFuture<Void>> nodes = new ArrayList<>(srcs.length);
+    for (final String nodeSrc : srcs) {
+      try {
+        final File[] spool = createSpool(copy.writers.length);
+        spools.add(spool);
+        nodes.add(CompletableFuture.runAsync(() -> spoolNodeLogs(dfs, nodeSrc, spool, copy.desiredLogTypes),
+            executor));
+      } catch (IOException | RuntimeException ex) {
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(ex);
+        if (spools.size() == nodes.size()) {
+          spools.add(new File[0]);
+        }
+        nodes.add(failed);
+        break;
+      }
+    }
+    return CompletableFuture.allOf(nodes.toArray(new CompletableFuture<?>[nodes.size()]))
+        .handle((ignored, failure) -> {
+          try {
+            for (int n = 0; n < nodes.size(); n++) {
+              try {
+                nodes.get(n).join();
+              } catch (CompletionException | CancellationException ex) {
+                LOGGER.log(Level.SEVERE, "Error getting logs from " + srcs[n], ex.getCause());
+                continue;
+              }
+              copy.append(spools.get(n));
+            }
+          } catch (IOException ex) {
+            copy.fail(ex);
+          } finally {
+            copy.close();
+            for (File[] spool : spools) {
+              deleteSpool(spool);
+            }
+          }
+          return null;
+        });
+  }
+
+  private static void print(PrintStream[] writers, String message) {
+    for (PrintStream writer : writers) {
       if (writer != null) {
-        writer.flush();
-        writer.close();
+        writer.print(message);
       }
     }
   }
@@ -158,6 +232,35 @@ public class YarnLogUtil {
     return logAggregationStatus;
   }
 
+  /**
+   * Polls the log aggregation status of the application on the scheduler
+   * until it is final, without holding a thread between the polls.
+   *
+   * @param monitor the monitor to check the log aggregation status
+   * @param scheduler runs the polls
+   * @return completes with the final log aggregation status, or exceptionally if it cannot be fetched
+   */
+  public static CompletableFuture<LogAggregationStatus> awaitLogAggregation(final YarnMonitor monitor,
+      final ScheduledExecutorService scheduler) {
+    final CompletableFuture<LogAggregationStatus> result = new CompletableFuture<>();
+    scheduler.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          LogAggregationStatus logAggregationStatus = monitor.getLogAggregationStatus();
+          if (isFinal(logAggregationStatus)) {
+            result.complete(logAggregationStatus);
+          } else {
+            scheduler.schedule(this, LOG_AGGREGATION_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+          }
+        } catch (Exception ex) {
+          result.completeExceptionally(ex);
+        }
+      }
+    });
+    return result;
+  }
+
   public static boolean isFinal(LogAggregationStatus status){
     switch(status){
       case RUNNING:
@@ -168,61 +271,71 @@ public class YarnLogUtil {
         return true;
     }
   }
-  
-  private static void writeLogs(DistributedFileSystemOps dfs, String[] srcs,
-          PrintStream writer, String desiredLogType) {
-    ArrayList<AggregatedLogFormat.LogKey> containerNames = new ArrayList<>();
-    LogReader reader = null;
-    DataInputStream valueStream;
-    AggregatedLogFormat.LogKey key = new AggregatedLogFormat.LogKey();
-    AggregatedLogFormat.ContainerLogsReader logReader = null;
-    Path location;
+
+  private static File[] createSpool(int size) throws IOException {
+    File[] spool = new File[size];
     try {
-      for (String src : srcs) {
-        location = new Path(src);
-        LOGGER.log(Level.INFO, "Copying log from {0}", src);
-        try {
-          reader = new LogReader(dfs.getConf(), dfs,
-                  new Path(src));
-          valueStream = reader.next(key);
-          while (valueStream != null) {
-            containerNames.add(key);
-            valueStream = reader.next(key);
-          }
-          reader.close();
-          reader = new LogReader(dfs.getConf(), dfs,
-                  new Path(src));
-        } catch (FileNotFoundException e) {
-          LOGGER.log(Level.SEVERE,
-                  "Logs not available. Aggregation may have failed.");
-          return;
-        } catch (IOException e) {
-          LOGGER.log(Level.SEVERE, "Error getting logs");
-          return;
-        }
+      for (int i = 0; i < size; i++) {
+        spool[i] = File.createTempFile("yarnlog", ".tmp");
+      }
+    } catch (IOException ex) {
+      deleteSpool(spool);
+      throw ex;
+    }
+    return spool;
+  }
 
-        try {
-          for (AggregatedLogFormat.LogKey containerKey : containerNames) {
-            valueStream = reader.next(key);
-            while (valueStream != null && !key.equals(containerKey)) {
-              valueStream = reader.next(key);
-            }
-            if (valueStream != null) {
-              logReader = new ContainerLogsReader(valueStream);
-            }
-            if (logReader != null) {
-              readContainerLogs(logReader, writer, desiredLogType, containerKey,
-                      location.getName());
-            }
-          }
+  private static void deleteSpool(File[] spool) {
+    for (File file : spool) {
+      if (file != null) {
+        file.delete();
+      }
+    }
+  }
 
-        } catch (IOException e) {
-          LOGGER.log(Level.SEVERE, "Error getting logs");
+  /**
+   * Splits one aggregated node file into the local spool files, one per destination.
+   */
+  private static void spoolNodeLogs(DistributedFileSystemOps dfs, String src, File[] spool,
+      String[][] desiredLogTypes) {
+    PrintStream[] spoolWriters = new PrintStream[spool.length];
+    try {
+      for (int i = 0; i < spool.length; i++) {
+        spoolWriters[i] = new PrintStream(new BufferedOutputStream(new FileOutputStream(spool[i])));
+      }
+      writeNodeLogs(dfs, src, spoolWriters, desiredLogTypes);
+    } catch (IOException ex) {
+      throw new CompletionException(ex);
+    } finally {
+      for (PrintStream spoolWriter : spoolWriters) {
+        if (spoolWriter != null) {
+          spoolWriter.close();
         }
-        containerNames.clear();
+      }
+    }
+  }
+
+  /**
+   * Reads all the containers of one aggregated node file in a single pass.
+   */
+  private static void writeNodeLogs(DistributedFileSystemOps dfs, String src, PrintStream[] writers,
+      String[][] desiredLogTypes) {
+    String nodename = new Path(src).getName();
+    LOGGER.log(Level.INFO, "Copying log from {0}", src);
+    LogReader reader = null;
+    try {
+      reader = new LogReader(dfs.getConf(), dfs, new Path(src));
+      AggregatedLogFormat.LogKey key = new AggregatedLogFormat.LogKey();
+      DataInputStream valueStream = reader.next(key);
+      while (valueStream != null) {
+        readContainerLogs(new ContainerLogsReader(valueStream), writers, desiredLogTypes, key, nodename);
         key = new AggregatedLogFormat.LogKey();
-        logReader = null;
+        valueStream = reader.next(key);
       }
+    } catch (FileNotFoundException e) {
+      LOGGER.log(Level.SEVERE, "Logs not available. Aggregation may have failed.");
+    } catch (IOException e) {
+      LOGGER.log(Level.SEVERE, "Error getting logs", e);
     } finally {
       if (reader != null) {
         reader.close();
@@ -231,47 +344,19 @@ public class YarnLogUtil {
   }
 
   private static boolean logsReady(DistributedFileSystemOps dfs, String src) {
-    ArrayList<AggregatedLogFormat.LogKey> containerNames = new ArrayList<>();
     LogReader reader = null;
-    DataInputStream valueStream;
     AggregatedLogFormat.LogKey key = new AggregatedLogFormat.LogKey();
-    AggregatedLogFormat.ContainerLogsReader logReader = null;
     try {
-      try {
-        reader = new LogReader(dfs.getConf(), dfs,
-                new Path(src));
-        valueStream = reader.next(key);
-        while (valueStream != null) {
-          containerNames.add(key);
-          valueStream = reader.next(key);
+      reader = new LogReader(dfs.getConf(), dfs, new Path(src));
+      DataInputStream valueStream = reader.next(key);
+      while (valueStream != null) {
+        if (!testLogs(new ContainerLogsReader(valueStream), "out")) {
+          return false;
         }
-        reader.close();
-        reader = new LogReader(dfs.getConf(), dfs,
-                new Path(src));
-      } catch (FileNotFoundException e) {
-        return false;
-      } catch (IOException e) {
-        return false;
-      }
-
-      try {
-        for (AggregatedLogFormat.LogKey containerKey : containerNames) {
-          valueStream = reader.next(key);
-          while (valueStream != null && !key.equals(containerKey)) {
-            valueStream = reader.next(key);
-          }
-          if (valueStream != null) {
-            logReader = new ContainerLogsReader(valueStream);
-          }
-          if (logReader != null) {
-            if (!testLogs(logReader, "out")) {
-              return false;
-            }
-          }
-        }
-      } catch (IOException e) {
-        LOGGER.log(Level.SEVERE, "Error testing logs");
+        valueStream = reader.next(key);
       }
+    } catch (IOException e) {
+      return false;
     } finally {
       if (reader != null) {
         reader.close();
@@ -295,98 +380,130 @@ public class YarnLogUtil {
     return foundLog;
   }
 
+  private static boolean isDesired(String logType, String[] desiredLogTypes) {
+    if (desiredLogTypes == null || desiredLogTypes.length == 0) {
+      return true;
+    }
+    for (String desiredLogType : desiredLogTypes) {
+      if (desiredLogType == null || desiredLogType.isEmpty() || logType.contains(desiredLogType)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   //Mostly taken from org.apache.hadoop.yarn.webapp.log.AggregatedLogsBlock
-  private static boolean readContainerLogs(
-          AggregatedLogFormat.ContainerLogsReader logReader, PrintStream writer,
-          String desiredLogType, AggregatedLogFormat.LogKey containerKey,
+  private static void readContainerLogs(
+          AggregatedLogFormat.ContainerLogsReader logReader, PrintStream[] writers,
+          String[][] desiredLogTypes, AggregatedLogFormat.LogKey containerKey,
           String nodename) throws
           IOException {
     int bufferSize = 65536;
     char[] cbuf = new char[bufferSize];
-    boolean foundLog = false;
+    boolean[] foundLog = new boolean[writers.length];
+    List<PrintStream> targets = new ArrayList<>(writers.length);
     String logType = logReader.nextLog();
     while (logType != null) {
-      if (desiredLogType == null || desiredLogType.isEmpty()
-              || logType.contains(desiredLogType)) {
-        long logLength = logReader.getCurrentLogLength();
-        if (!foundLog) {
-          writer.append("Container: " + containerKey.toString() + " on "
-                  + nodename + "\n"
-                  + "==============================================="
-                  + "=============================================== \n");
-        }
-        if (logLength == 0) {
-          writer.append("Log Type: " + logType + "\n");
-          writer.append("Log Length: " + 0 + "\n");
-          logType = logReader.nextLog();
-          continue;
+      targets.clear();
+      for (int i = 0; i < writers.length; i++) {
+        if (isDesired(logType, desiredLogTypes[i])) {
+          if (!foundLog[i]) {
+            writers[i].append("Container: " + containerKey.toString() + " on "
+                    + nodename + "\n"
+                    + "==============================================="
+                    + "=============================================== \n");
+            foundLog[i] = true;
+          }
+          targets.add(writers[i]);
         }
+      }
+      if (targets.isEmpty()) {
+        logType = logReader.nextLog();
+        continue;
+      }
+      long logLength = logReader.getCurrentLogLength();
+      for (PrintStream writer : targets) {
         writer.append("Log Type: " + logType + "\n");
         writer.append("Log Length: " + Long.toString(logLength) + "\n");
-        writer.append("Log Contents: \n");
-        int len = 0;
-        int currentToRead = logLength > bufferSize ? bufferSize
-                : (int) logLength;
-        while (logLength > 0 && (len = logReader.read(cbuf, 0, currentToRead))
-                > 0) {
-          writer.append(new String(cbuf, 0, len));
-          logLength = logLength - len;
-          currentToRead = logLength > bufferSize ? bufferSize : (int) logLength;
+        if (logLength > 0) {
+          writer.append("Log Contents: \n");
+        }
+      }
+      int len = 0;
+      int currentToRead = logLength > bufferSize ? bufferSize
+              : (int) logLength;
+      while (logLength > 0 && (len = logReader.read(cbuf, 0, currentToRead))
+              > 0) {
+        String chunk = new String(cbuf, 0, len);
+        for (PrintStream writer : targets) {
+          writer.append(chunk);
+        }
+        logLength = logLength - len;
+        currentToRead = logLength > bufferSize ? bufferSize : (int) logLength;
+      }
+      if (logReader.getCurrentLogLength() > 0) {
+        for (PrintStream writer : targets) {
+          writer.append("\n");
         }
-        writer.append("\n");
-        foundLog = true;
       }
       logType = logReader.nextLog();
     }
-    return foundLog;
   }
 
-  private static Result waitForAggregatedLogFileCreation(String path,
-          DistributedFileSystemOps dfs) throws
-          IOException {
-
-    boolean created = false;
+  /**
+   * Re-checks the aggregated log files on the scheduler, with an exponential backoff, until they are complete and
+   * their size did not change since the previous check, so that late writes of the NodeManagers are not missed.
+   * No thread is held between the checks. Gives up after {@link #LOG_FILES_MAX_WAIT} or once the log retention
+   * period is over, the logs are then copied as they are.
+   *
+   * @param dfs
+   * @param src aggregated yarn log path
+   * @param logAggregationStatus the final log aggregation status, only succeeded aggregations are waited for
+   * @param scheduler runs the checks
+   * @return completes when the logs can be copied, never exceptionally
+   */
+  public static CompletableFuture<Void> awaitAggregatedLogFiles(final DistributedFileSystemOps dfs,
+      final String src, LogAggregationStatus logAggregationStatus, final ScheduledExecutorService scheduler) {
+    final CompletableFuture<Void> result = new CompletableFuture<>();
+    if (logAggregationStatus != LogAggregationStatus.SUCCEEDED) {
+      result.complete(null);
+      return result;
+    }
     //If retain seconds not set deffault to 24hours.
-    long maxWait = dfs.getConf().getLong(
-            YarnConfiguration.LOG_AGGREGATION_RETAIN_SECONDS, 86400);
-    maxWait = (maxWait > 0 ? maxWait : 86400);
-    long startTime = System.currentTimeMillis();
-    long endTime = System.currentTimeMillis();
-    long retries = 0l;
-    long wait;
-    long fileSize = 0l;
-    long pFileSize = 0l;
-    String[] paths;
-    while (!created && (endTime - startTime) / 1000 < maxWait) {
-      paths = getAggregatedLogFilePaths(path, dfs);
-      created = logFilesReady(paths, dfs);
-      if (created) {
-        retries++;//wait any way to be sure there are no more logs 
-      }
-      for (String path1 : paths) {
-        fileSize += getFileLen(path1, dfs);
-      }
-      wait = (long) Math.pow(2, retries);
-      try {
-        Thread.sleep(wait * 1000);
-      } catch (InterruptedException ex) {
-      }
-      if (pFileSize == fileSize) {
-        retries++;
+    long retainSeconds = dfs.getConf().getLong(YarnConfiguration.LOG_AGGREGATION_RETAIN_SECONDS, 86400);
+    final long deadline = System.currentTimeMillis() + Math.min(LOG_FILES_MAX_WAIT,
+        TimeUnit.SECONDS.toMillis(retainSeconds > 0 ? retainSeconds : 86400));
+    scheduler.schedule(new Runnable() {
+      private long delay = LOG_FILES_FIRST_CHECK_DELAY;
+      private long previousSize = -1;
+
+      @Override
+      public void run() {
+        try {
+          String[] paths = getAggregatedLogFilePaths(src, dfs);
+          long size = 0;
+          for (String path : paths) {
+            size += getFileLen(path, dfs);
+          }
+          if (logFilesReady(paths, dfs) && size == previousSize) {
+            result.complete(null);
+            return;
+          }
+          if (System.currentTimeMillis() >= deadline) {
+            LOGGER.log(Level.WARNING, "Aggregated logs in {0} are not complete, copying them as they are", src);
+            result.complete(null);
+            return;
+          }
+          previousSize = size;
+          delay = Math.min(delay * 2, LOG_FILES_MAX_CHECK_DELAY);
+          scheduler.schedule(this, delay, TimeUnit.MILLISECONDS);
+        } catch (IOException | RuntimeException ex) {
+          LOGGER.log(Level.WARNING, "Could not check the aggregated logs in " + src, ex);
+          result.complete(null);
+        }
       }
-      retries++;
-      pFileSize = fileSize;
-      endTime = System.currentTimeMillis();
-      paths = getAggregatedLogFilePaths(path, dfs);
-      created = logFilesReady(paths, dfs);
-    }
-    if ((endTime - startTime) / 1000 >= maxWait) {
-      return Result.TIMEOUT;
-    } else if (created) {
-      return Result.SUCCESS;
-    } else {
-      return Result.FAILED;
-    }
+    }, LOG_FILES_FIRST_CHECK_DELAY, TimeUnit.MILLISECONDS);
+    return result;
   }
 
   /**
@@ -468,4 +585,68 @@ public class YarnLogUtil {
     return ready;
   }
 
+  /**
+   * The destinations of one copy of the aggregated logs.
+   */
+  private static class AggregatedLogCopy {
+
+    private final DistributedFileSystemOps dfs;
+    private final List<String> dsts;
+    private final String[][] desiredLogTypes;
+    private final PrintStream[] writers;
+
+    AggregatedLogCopy(DistributedFileSystemOps dfs, Map<String, String[]> destinations) {
+      this.dfs = dfs;
+      this.dsts = new ArrayList<>(destinations.keySet());
+      this.desiredLogTypes = new String[dsts.size()][];
+      for (int i = 0; i < dsts.size(); i++) {
+        desiredLogTypes[i] = destinations.get(dsts.get(i));
+      }
+      this.writers = new PrintStream[dsts.size()];
+    }
+
+    /**
+     * Creates the destinations and writes the aggregation status to them.
+     *
+     * @return the aggregated node files to read, none if the aggregation failed
+     */
+    String[] start(String src, LogAggregationStatus logAggregationStatus) throws IOException {
+      for (int i = 0; i < dsts.size(); i++) {
+        writers[i] = new PrintStream(dfs.create(dsts.get(i)));
+      }
+      switch (logAggregationStatus) {
+        case FAILED:
+          print(writers, "The log aggregation failed");
+          return new String[0];
+        case TIME_OUT:
+          print(writers, "*** WARNING: Log aggregation has timed-out for some of the containers\n\n\n");
+          return getAggregatedLogFilePaths(src, dfs);
+        case SUCCEEDED:
+          return getAggregatedLogFilePaths(src, dfs);
+        default :
+          print(writers, "Something went wrong during log aggregation phase!");
+          return new String[0];
+      }
+    }
+
+    void append(File[] spool) throws IOException {
+      for (int i = 0; i < writers.length; i++) {
+        Files.copy(spool[i].toPath(), writers[i]);
+      }
+    }
+
+    void fail(Exception ex) {
+      print(writers, YarnLogUtil.class.getName() + ": Failed to get aggregated logs.\n" + ex.getMessage());
+      LOGGER.log(Level.SEVERE, null, ex);
+    }
+
+    void close() {
+      for (PrintStream writer : writers) {
+        if (writer != null) {
+          writer.flush();
+          writer.close();
+        }
+      }
+    }
+  }
 }
@@ -72,6 +72,7 @@ import io.hops.hopsworks.common.dao.project.service.ProjectServiceEnum;
 import io.hops.hopsworks.common.dao.project.service.ProjectServiceFacade;
 import io.hops.hopsworks.common.dao.project.team.ProjectRoleTypes;
 import io.hops.hopsworks.common.dao.project.team.ProjectTeam;
+import io.hops.hopsworks.common.dao.project.team.ProjectRoleCache;
 import io.hops.hopsworks.common.dao.project.team.ProjectTeamFacade;
 import io.hops.hopsworks.common.dao.project.team.ProjectTeamPK;
 import io.hops.hopsworks.common.dao.pythonDeps.PythonDepsFacade;
@@ -182,6 +183,8 @@ public class ProjectController {
   @EJB
   private ProjectTeamFacade projectTeamFacade;
   @EJB
+  private ProjectRoleCache projectRoleCache;
+  @EJB
   private YarnProjectsQuotaFacade yarnProjectsQuotaFacade;
   @EJB
   protected UsersController usersController;
@@ -1168,6 +1171,7 @@ public class ProjectController {
         // remove folder
         try {
           removeProjectFolder(project.getName(), dfso);
+          projectRoleCache.invalidate(project.getId());
           cleanupLogger.logSuccess("Removed root Project folder");
         } catch (Exception ex) {
           cleanupLogger.logError("Error when removing root Project dir during project cleanup");          
@@ -1286,6 +1290,7 @@ public class ProjectController {
         // Remove root project directory
         try {
           removeProjectFolder(projectName, dfso);
+          projectRoleCache.invalidateAll();
           cleanupLogger.logSuccess("Removed root project directory");
         } catch (IOException ex) {
           cleanupLogger.logError(ex.getMessage());
@@ -1618,6 +1623,7 @@ public class ProjectController {
 
       //remove folder
       removeProjectFolder(project.getName(), dfso);
+      projectRoleCache.invalidate(project.getId());
 
       if(decreaseCreatedProj){
         usersController.decrementNumProjectsCreated(project.getOwner().getUid());
@@ -1889,13 +1895,21 @@ public class ProjectController {
     for (ProjectServiceEnum s : projectServices) {
       services.add(s.toString());
     }
-    Inode parent;
     List<InodeView> kids = new ArrayList<>();
 
     Collection<Dataset> dsInProject = project.getDatasetCollection();
+    List<Inode> dsInodes = new ArrayList<>(dsInProject.size());
+    for (Dataset ds : dsInProject) {
+      dsInodes.add(ds.getInode());
+    }
+    // Resolve the ancestors of all the datasets at once, the parent is the last but one
+    Map<Integer, List<Inode>> ancestors = inodes.getAncestors(dsInodes);
     for (Dataset ds : dsInProject) {
-      parent = inodes.findParent(ds.getInode());
-      kids.add(new InodeView(parent, ds, inodes.getPath(ds.getInode())));
+      List<Inode> chain = ancestors.get(ds.getInode().getId());
+      if (chain == null || chain.size() < 2) {
+        continue;
+      }
+      kids.add(new InodeView(chain.get(chain.size() - 2), ds, InodeFacade.toPath(chain)));
     }
 
     //send the project back to client
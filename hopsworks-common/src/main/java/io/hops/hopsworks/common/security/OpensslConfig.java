@@ -0,0 +1,138 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.security;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The subset of the OpenSSL configuration file format used by the CA
+ * configurations: sections, key = value pairs, comments and $var, ${var} and
+ * $section::var substitutions.
+ */
+class OpensslConfig {
+
+  static final String DEFAULT_SECTION = "default";
+
+  private static final Pattern SECTION = Pattern.compile("^\\[\\s*([^\\]\\s]+)\\s*\\]$");
+  private static final Pattern VARIABLE = Pattern.compile(
+      "\\$(?:\\{(?:([\\w.]+)::)?([\\w.]+)\\}|\\((?:([\\w.]+)::)?([\\w.]+)\\))|\\$(?:([\\w.]+)::)?([\\w.]+)");
+
+  private final Map<String, Map<String, String>> sections = new HashMap<>();
+
+  OpensslConfig(Path path) throws IOException {
+    String section = DEFAULT_SECTION;
+    sections.put(section, new LinkedHashMap<String, String>());
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = stripComment(line).trim();
+        if (line.isEmpty()) {
+          continue;
+        }
+        Matcher matcher = SECTION.matcher(line);
+        if (matcher.matches()) {
+          section = matcher.group(1);
+          if (!sections.containsKey(section)) {
+            sections.put(section, new LinkedHashMap<String, String>());
+          }
+          continue;
+        }
+        int eq = line.indexOf('=');
+        if (eq <= 0) {
+          continue;
+        }
+        String key = line.substring(0, eq).trim();
+        String value = unquote(line.substring(eq + 1).trim());
+        sections.get(section).put(key, expand(section, value));
+      }
+    }
+  }
+
+  /**
+   * @return the value of the key in the section, or in the default section, null if it is not set
+   */
+  String get(String section, String key) {
+    Map<String, String> values = sections.get(section);
+    if (values != null && values.containsKey(key)) {
+      return values.get(key);
+    }
+    return sections.get(DEFAULT_SECTION).get(key);
+  }
+
+  /**
+   * @return the keys and values of the section in order, empty if there is no such section
+   */
+  Map<String, String> getSection(String section) {
+    Map<String, String> values = sections.get(section);
+    return values == null ? Collections.<String, String>emptyMap() : Collections.unmodifiableMap(values);
+  }
+
+  private String expand(String section, String value) {
+    if (value.indexOf('$') < 0) {
+      return value;
+    }
+    StringBuffer expanded = new StringBuffer();
+    Matcher matcher = VARIABLE.matcher(value);
+    while (matcher.find()) {
+      String refSection = firstNonNull(matcher.group(1), matcher.group(3), matcher.group(5));
+      String refKey = firstNonNull(matcher.group(2), matcher.group(4), matcher.group(6));
+      String refValue = get(refSection == null ? section : refSection, refKey);
+      matcher.appendReplacement(expanded, Matcher.quoteReplacement(refValue == null ? "" : refValue));
+    }
+    matcher.appendTail(expanded);
+    return expanded.toString();
+  }
+
+  private static String firstNonNull(String... values) {
+    for (String value : values) {
+      if (value != null) {
+        return value;
+      }
+    }
+    return null;
+  }
+
+  private static String stripComment(String line) {
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (c == '"') {
+        quoted = !quoted;
+      } else if (c == '#' && !quoted) {
+        return line.substring(0, i);
+      }
+    }
+    return line;
+  }
+
+  private static String unquote(String value) {
+    if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+      return value.substring(1, value.length() - 1);
+    }
+    return value;
+  }
+}
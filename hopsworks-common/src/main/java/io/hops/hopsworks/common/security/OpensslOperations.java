@@ -43,7 +43,6 @@ import io.hops.hopsworks.common.hdfs.Utils;
 import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.common.util.SystemCommandExecutor;
 import org.apache.commons.io.FileUtils;
-import sun.security.provider.X509Factory;
 
 import javax.ejb.AccessTimeout;
 import javax.ejb.ConcurrencyManagement;
@@ -56,23 +55,26 @@ import javax.ejb.Singleton;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.GeneralSecurityException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static io.hops.hopsworks.common.security.CertificatesMgmService.CERTIFICATE_SUFFIX;
 
-//TODO: Can we make concurrent modifications on different CAs?
-
+/**
+ * Certificate authority operations. The CAs are run in the JVM by
+ * {@link X509CertificateAuthority} on their OpenSSL configuration and
+ * database, signing concurrently. A CA whose configuration or key it cannot
+ * handle falls back to the OpenSSL commands, serialized as before.
+ */
 @Singleton
 @DependsOn("Settings")
 @ConcurrencyManagement(ConcurrencyManagementType.CONTAINER)
@@ -82,13 +84,53 @@ public class OpensslOperations {
   private final static Logger LOG = Logger.getLogger(OpensslOperations.class.getName());
   private final static String SUDO = "/usr/bin/sudo";
   private final static String OPENSSL = "openssl";
-  private final Base64.Encoder b64encoder = Base64.getEncoder();
   
   @EJB
   private Settings settings;
   @EJB
   private PKI pki;
   
+  private final Map<PKI.CAType, X509CertificateAuthority> authorities = new ConcurrentHashMap<>();
+  private final Map<PKI.CAType, Boolean> unsupportedAuthorities = new ConcurrentHashMap<>();
+  // Guards the OpenSSL commands run under a read lock
+  private final Object opensslLock = new Object();
+  
+  /**
+   * @param caType
+   * @return the in-JVM CA, or null if the OpenSSL commands must be used for this CA
+   */
+  private X509CertificateAuthority getAuthority(PKI.CAType caType) {
+    X509CertificateAuthority authority = authorities.get(caType);
+    if (authority != null || unsupportedAuthorities.containsKey(caType)) {
+      return authority;
+    }
+    synchronized (authorities) {
+      authority = authorities.get(caType);
+      if (authority == null && !unsupportedAuthorities.containsKey(caType)) {
+        if (!pki.getCACertsDir(caType).toFile().canWrite()) {
+          LOG.log(Level.WARNING, pki.getCACertsDir(caType) + " is not writable, " + caType
+              + " certificate authority falls back to OpenSSL");
+          unsupportedAuthorities.put(caType, Boolean.TRUE);
+          return null;
+        }
+        try {
+          authority = new X509CertificateAuthority(pki.getCAConfPath(caType), pki.getCAKeyPassword(caType),
+              pki.getEffectiveExtensions(caType), pki.getCACRLPath(caType));
+          authorities.put(caType, authority);
+          LOG.log(Level.INFO, "Using in-JVM certificate authority for " + caType);
+        } catch (X509CertificateAuthority.UnsupportedConfigurationException ex) {
+          LOG.log(Level.INFO, caType + " certificate authority configuration is not supported in-JVM, falling back to "
+              + "OpenSSL: " + ex.getMessage());
+          unsupportedAuthorities.put(caType, Boolean.TRUE);
+        } catch (IOException | GeneralSecurityException | RuntimeException ex) {
+          LOG.log(Level.WARNING, "Could not load " + caType + " certificate authority, falling back to OpenSSL", ex);
+          unsupportedAuthorities.put(caType, Boolean.TRUE);
+        }
+      }
+      return authority;
+    }
+  }
+  
   @Lock(LockType.WRITE)
   public String createUserCertificate(String projectName, String userName, String countryCode, String city, String
       organization, String email, String orcid, String userKeyPassword) throws IOException {
@@ -163,9 +205,26 @@ public class OpensslOperations {
     return false;
   }
   
-  @Lock(LockType.WRITE)
+  @Lock(LockType.READ)
   public String signCertificateRequest(String csr, CertificateType certType)
       throws IOException {
+    PKI.CAType caType = pki.getResponsibileCA(certType);
+    X509CertificateAuthority authority = getAuthority(caType);
+    if (authority != null) {
+      if (!X509CertificateAuthority.verifyCSR(csr)) {
+        return null;
+      }
+      Path certificateFile = pki.getCertPath(caType, getCertFileName(csr, certType));
+      String certificate = authority.sign(csr, pki.getValidityPeriod(certType), certificateFile);
+      LOG.log(Level.FINE, "Signed CSR");
+      return certificate;
+    }
+    synchronized (opensslLock) {
+      return signCertificateRequestWithOpenssl(csr, certType);
+    }
+  }
+  
+  private String signCertificateRequestWithOpenssl(String csr, CertificateType certType) throws IOException {
     File csrFile = File.createTempFile(System.getProperty("java.io.tmpdir"), ".csr");
     try {
       FileUtils.writeStringToFile(csrFile, csr);
@@ -211,7 +270,12 @@ public class OpensslOperations {
     commands.add("-revoke");
     commands.add(certificatePath.toString());
     
-    executeCommand(commands, false);
+    X509CertificateAuthority authority = getAuthority(caType);
+    if (authority != null) {
+      authority.revoke(certificatePath);
+    } else {
+      executeCommand(commands, false);
+    }
     if (createCRL) {
       createCRL(caType);
     }
@@ -224,6 +288,11 @@ public class OpensslOperations {
   @Lock(LockType.WRITE)
   public void pruneDatabase(PKI.CAType caType) throws IOException {
     LOG.log(Level.FINE, "Pruning OpenSSL database");
+    X509CertificateAuthority authority = getAuthority(caType);
+    if (authority != null) {
+      authority.updateDatabase();
+      return;
+    }
     String openSslConf = pki.getCAConfPath(caType).toString();
     List<String> commands = new ArrayList<>();
     commands.add(OPENSSL);
@@ -250,6 +319,12 @@ public class OpensslOperations {
   public void createCRL(PKI.CAType caType) throws IOException {
     pruneDatabase(caType);
     LOG.log(Level.FINE, "Creating Certificate Revocation List");
+    X509CertificateAuthority authority = getAuthority(caType);
+    if (authority != null) {
+      authority.generateCRL();
+      LOG.log(Level.FINE, "Created CRL");
+      return;
+    }
     String openSslConfig = pki.getCAConfPath(caType).toString();
     String crlFile = pki.getCACRLPath(caType).toString();
 
@@ -268,33 +343,9 @@ public class OpensslOperations {
     LOG.log(Level.FINE, "Created CRL");
   }
   
-  @Lock(LockType.WRITE)
+  @Lock(LockType.READ)
   public void validateCertificate(X509Certificate certificate, PKI.CAType caType) throws IOException {
-    File tmpCertFile = File.createTempFile("cert-", ".pem");
-    try (FileWriter fw = new FileWriter(tmpCertFile, false)) {
-      fw.write(X509Factory.BEGIN_CERT);
-      fw.write("\n");
-      fw.write(b64encoder.encodeToString(certificate.getEncoded()));
-      fw.write("\n");
-      fw.write(X509Factory.END_CERT);
-      fw.flush();
-  
-  
-      List<String> commands = new ArrayList<>();
-      commands.add(OPENSSL);
-      commands.add("verify");
-      commands.add("-CAfile");
-      commands.add(pki.getChainOfTrustFilePath(caType).toString());
-      commands.add("-crl_check");
-      commands.add("-CRLfile");
-      commands.add(pki.getCACRLPath(caType).toString());
-      commands.add(tmpCertFile.getAbsolutePath());
-      executeCommand(commands, false);
-    } catch (GeneralSecurityException ex) {
-      throw new IOException(ex);
-    } finally {
-      tmpCertFile.delete();
-    }
+    X509CertificateAuthority.validate(certificate, pki.getChainOfTrustFilePath(caType), pki.getCACRLPath(caType));
   }
   
   private boolean verifyCSR(File csr) throws IOException {
@@ -324,15 +375,7 @@ public class OpensslOperations {
     String effectiveExtension = pki.getEffectiveExtensions(caType);
 
     String signScript = Paths.get(settings.getHopsworksDomainDir(), "bin", "global-ca-sign-csr.sh").toString();
-    String fileName;
-    try {
-      String subjectStr = getSubjectFromCSR(csrStr);
-      Map<String, String> subject = pki.getKeyValuesFromSubject(subjectStr);
-      fileName = pki.getCertFileName(certType, subject);
-    } catch (IOException ex) {
-      LOG.log(Level.SEVERE, "Error while extracting CN out of CSR", ex);
-      throw ex;
-    }
+    String fileName = getCertFileName(csrStr, certType);
 
     long valueInDays = pki.getValidityPeriod(certType);
 
@@ -354,37 +397,35 @@ public class OpensslOperations {
     
     return FileUtils.readFileToString(signedCertificateFile);
   }
+  
+  private String getCertFileName(String csr, CertificateType certType) throws IOException {
+    try {
+      Map<String, String> subject = pki.getKeyValuesFromSubject(getSubjectFromCSR(csr));
+      return pki.getCertFileName(certType, subject);
+    } catch (IOException ex) {
+      LOG.log(Level.SEVERE, "Error while extracting CN out of CSR", ex);
+      throw ex;
+    }
+  }
 
-  @Lock(LockType.WRITE)
+  /**
+   * @param cert
+   * @return the serial number, as printed by {@code openssl x509 -noout -serial}
+   * @throws IOException
+   */
+  @Lock(LockType.READ)
   public String getSerialNumberFromCert(String cert) throws IOException {
-    File csrFile = File.createTempFile(System.getProperty("java.io.tmpdir"), ".pem");
-    FileUtils.writeStringToFile(csrFile, cert);
-    List<String> cmds = new ArrayList<>();
-    //openssl x509 -in certs-dir/hops-site-certs/pub.pem -noout -serial
-    cmds.add(OPENSSL);
-    cmds.add("x509");
-    cmds.add("-in");
-    cmds.add(csrFile.getAbsolutePath());
-    cmds.add("-noout");
-    cmds.add("-serial");
-
-    return executeCommand(cmds, true);
+    return X509CertificateAuthority.getSerialNumber(cert);
   }
 
-  @Lock(LockType.WRITE)
+  /**
+   * @param csr
+   * @return the subject, as printed by {@code openssl req -noout -subject}
+   * @throws IOException
+   */
+  @Lock(LockType.READ)
   public String getSubjectFromCSR(String csr) throws IOException {
-    File csrFile = File.createTempFile(System.getProperty("java.io.tmpdir"), ".csr");
-    FileUtils.writeStringToFile(csrFile, csr);
-    List<String> cmds = new ArrayList<>();
-    //openssl req -in certs-dir/hops-site-certs/csr.pem -noout -subject
-    cmds.add(OPENSSL);
-    cmds.add("req");
-    cmds.add("-in");
-    cmds.add(csrFile.getAbsolutePath());
-    cmds.add("-noout");
-    cmds.add("-subject");
-
-    return executeCommand(cmds, true);
+    return X509CertificateAuthority.getSubjectFromCSR(csr);
   }
 
   private String executeCommand(List<String> commands, boolean redirectErrorStream) throws IOException {
@@ -0,0 +1,1199 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.security;
+
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.ASN1String;
+import org.bouncycastle.asn1.DERIA5String;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.misc.MiscObjectIdentifiers;
+import org.bouncycastle.asn1.misc.NetscapeCertType;
+import org.bouncycastle.asn1.pkcs.Attribute;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
+import org.bouncycastle.asn1.x500.AttributeTypeAndValue;
+import org.bouncycastle.asn1.x500.RDN;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x500.style.IETFUtils;
+import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.CRLDistPoint;
+import org.bouncycastle.asn1.x509.CRLNumber;
+import org.bouncycastle.asn1.x509.DistributionPoint;
+import org.bouncycastle.asn1.x509.DistributionPointName;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.asn1.x509.SubjectKeyIdentifier;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.openssl.PEMEncryptedKeyPair;
+import org.bouncycastle.openssl.PEMKeyPair;
+import org.bouncycastle.openssl.PEMParser;
+import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
+import org.bouncycastle.openssl.jcajce.JceOpenSSLPKCS8DecryptorProviderBuilder;
+import org.bouncycastle.openssl.jcajce.JcePEMDecryptorProviderBuilder;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentVerifierProviderBuilder;
+import org.bouncycastle.pkcs.PKCS10CertificationRequest;
+import org.bouncycastle.pkcs.PKCS8EncryptedPrivateKeyInfo;
+import org.bouncycastle.pkcs.PKCSException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509CRL;
+import java.security.cert.X509Certificate;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A certificate authority that signs certificates, revokes them and
+ * generates CRLs in the JVM, on the material and the database of an OpenSSL
+ * {@code ca} configuration. It reads the configuration, the CA key and
+ * certificate, the index and the serial file once, keeps the index in memory
+ * and writes every change back in the OpenSSL formats, so the OpenSSL tools
+ * and this class can be used on the same CA. Changes made by other tools are
+ * picked up the next time the index is used.
+ * <p>
+ * Signing is thread safe and runs in parallel: only allocating a serial
+ * number and appending to the index are serialized, the signature is not.
+ * The revoked certificates are kept with their revocation date, a CRL is
+ * generated without reading the index.
+ * <p>
+ * The constructor fails with an {@link UnsupportedConfigurationException} if
+ * the configuration uses an option or an extension this class does not
+ * implement, the OpenSSL tools must be used for that CA.
+ */
+public class X509CertificateAuthority {
+
+  private static final Logger LOG = Logger.getLogger(X509CertificateAuthority.class.getName());
+
+  private static final String CERT_BEGIN = "-----BEGIN CERTIFICATE-----";
+  private static final String CERT_END = "-----END CERTIFICATE-----";
+  private static final String CRL_BEGIN = "-----BEGIN X509 CRL-----";
+  private static final String CRL_END = "-----END X509 CRL-----";
+  private static final int DEFAULT_CRL_DAYS = 30;
+
+  private static final Map<String, String> SHORT_NAMES = new LinkedHashMap<>();
+  private static final Map<String, String> LONG_NAMES = new HashMap<>();
+
+  static {
+    addName("2.5.4.6", "C", "countryName");
+    addName("2.5.4.8", "ST", "stateOrProvinceName");
+    addName("2.5.4.7", "L", "localityName");
+    addName("2.5.4.10", "O", "organizationName");
+    addName("2.5.4.11", "OU", "organizationalUnitName");
+    addName("2.5.4.3", "CN", "commonName");
+    addName("1.2.840.113549.1.9.1", "emailAddress", "emailAddress");
+    addName("2.5.4.5", "serialNumber", "serialNumber");
+    addName("2.5.4.4", "SN", "surname");
+    addName("2.5.4.42", "GN", "givenName");
+    addName("2.5.4.43", "initials", "initials");
+    addName("2.5.4.12", "title", "title");
+    addName("2.5.4.41", "name", "name");
+    addName("2.5.4.9", "street", "streetAddress");
+    addName("0.9.2342.19200300.100.1.1", "UID", "userId");
+    addName("0.9.2342.19200300.100.1.25", "DC", "domainComponent");
+  }
+
+  private static void addName(String oid, String shortName, String longName) {
+    SHORT_NAMES.put(oid, shortName);
+    LONG_NAMES.put(longName, oid);
+    LONG_NAMES.put(shortName, oid);
+  }
+
+  private final X509Certificate caCert;
+  private final X500Name issuer;
+  private final PrivateKey caKey;
+  private final String signatureAlgorithm;
+  private final byte[] caKeyId;
+  private final Path databasePath;
+  private final Path serialPath;
+  private final Path crlNumberPath;
+  private final Path newCertsDir;
+  private final Path crlPath;
+  private final boolean uniqueSubject;
+  private final boolean preserveDN;
+  private final boolean emailInDN;
+  private final String copyExtensions;
+  private final int crlHours;
+  private final boolean crlAuthorityKeyId;
+  // Field OIDs in policy order, to "match", "supplied" or "optional"
+  private final Map<String, String> policy = new LinkedHashMap<>();
+  private final List<ExtensionTemplate> extensionTemplates = new ArrayList<>();
+
+  // The index, guarded by this
+  private final Map<BigInteger, IndexEntry> index = new LinkedHashMap<>();
+  private final Map<String, IndexEntry> validBySubject = new HashMap<>();
+  private final Map<BigInteger, Date> revoked = new LinkedHashMap<>();
+  private BigInteger nextSerial;
+  private FileTime databaseModified;
+  private FileTime serialModified;
+
+  private final AtomicLong signed = new AtomicLong(0);
+  private final AtomicLong revocations = new AtomicLong(0);
+  private final AtomicLong crls = new AtomicLong(0);
+
+  /**
+   * @param configPath the OpenSSL configuration of the CA
+   * @param keyPassword the password of the CA private key
+   * @param extensionsSection the section of the extensions to add to the certificates
+   * @param crlPath the file to write the CRL to
+   * @throws IOException if the material of the CA cannot be read
+   * @throws GeneralSecurityException if the CA certificate cannot be decoded
+   * @throws UnsupportedConfigurationException if the OpenSSL tools must be used for this CA
+   */
+  public X509CertificateAuthority(Path configPath, String keyPassword, String extensionsSection, Path crlPath)
+      throws IOException, GeneralSecurityException, UnsupportedConfigurationException {
+    OpensslConfig config = new OpensslConfig(configPath);
+    String ca = config.get("ca", "default_ca");
+    if (ca == null) {
+      throw new UnsupportedConfigurationException("No default_ca in " + configPath);
+    }
+    caCert = readCertificate(Paths.get(required(config, ca, "certificate")));
+    issuer = X500Name.getInstance(caCert.getSubjectX500Principal().getEncoded());
+    caKey = readPrivateKey(Paths.get(required(config, ca, "private_key")), keyPassword);
+    signatureAlgorithm = getSignatureAlgorithm(config.get(ca, "default_md"), caKey.getAlgorithm());
+    caKeyId = getKeyIdentifier(caCert);
+    databasePath = Paths.get(required(config, ca, "database"));
+    serialPath = Paths.get(required(config, ca, "serial"));
+    String crlNumber = config.get(ca, "crlnumber");
+    crlNumberPath = crlNumber == null ? null : Paths.get(crlNumber);
+    String newCerts = config.get(ca, "new_certs_dir");
+    newCertsDir = newCerts == null ? null : Paths.get(newCerts);
+    this.crlPath = crlPath;
+    // The OpenSSL commands may run as another user, the CA files must be writable by this one
+    for (Path path : new Path[]{databasePath, serialPath, crlNumberPath, newCertsDir, crlPath}) {
+      if (path != null && Files.exists(path) && !Files.isWritable(path)) {
+        throw new UnsupportedConfigurationException(path + " is not writable");
+      }
+    }
+    preserveDN = isYes(config.get(ca, "preserve"), false);
+    emailInDN = isYes(config.get(ca, "email_in_dn"), true);
+    copyExtensions = config.get(ca, "copy_extensions");
+    if (copyExtensions != null && !copyExtensions.matches("none|copy|copyall")) {
+      throw new UnsupportedConfigurationException("copy_extensions = " + copyExtensions);
+    }
+    String crlDays = config.get(ca, "default_crl_days");
+    String crlHoursValue = config.get(ca, "default_crl_hours");
+    crlHours = (crlDays == null ? (crlHoursValue == null ? DEFAULT_CRL_DAYS * 24 : 0) : Integer.parseInt(crlDays.
+        trim()) * 24) + (crlHoursValue == null ? 0 : Integer.parseInt(crlHoursValue.trim()));
+
+    String crlExtensions = config.get(ca, "crl_extensions");
+    boolean aki = false;
+    if (crlExtensions != null) {
+      for (Map.Entry<String, String> entry : config.getSection(crlExtensions).entrySet()) {
+        if (entry.getKey().equals("authorityKeyIdentifier")) {
+          aki = true;
+        } else {
+          throw new UnsupportedConfigurationException("CRL extension " + entry.getKey());
+        }
+      }
+    }
+    crlAuthorityKeyId = aki;
+
+    String policySection = config.get(ca, "policy");
+    if (policySection != null) {
+      for (Map.Entry<String, String> entry : config.getSection(policySection).entrySet()) {
+        String oid = LONG_NAMES.get(entry.getKey());
+        if (oid == null) {
+          throw new UnsupportedConfigurationException("Policy field " + entry.getKey());
+        }
+        policy.put(oid, entry.getValue().trim());
+      }
+    }
+    Map<String, String> extensions = config.getSection(extensionsSection);
+    for (Map.Entry<String, String> entry : extensions.entrySet()) {
+      extensionTemplates.add(new ExtensionTemplate(config, entry.getKey(), entry.getValue()));
+    }
+
+    Path attributes = Paths.get(databasePath.toString() + ".attr");
+    boolean unique = true;
+    if (Files.exists(attributes)) {
+      for (String line : Files.readAllLines(attributes, StandardCharsets.UTF_8)) {
+        String[] keyValue = line.split("=", 2);
+        if (keyValue.length == 2 && keyValue[0].trim().equals("unique_subject")) {
+          unique = isYes(keyValue[1], true);
+        }
+      }
+    }
+    uniqueSubject = unique;
+    synchronized (this) {
+      loadDatabase();
+    }
+  }
+
+  /**
+   * Signs a certificate signing request.
+   *
+   * @param csrPem the request, PEM encoded
+   * @param validityDays the number of days the certificate is valid
+   * @param certificateFile the file to write the certificate to
+   * @return the certificate, PEM encoded
+   * @throws IOException if the request is not valid or it cannot be signed
+   */
+  public String sign(String csrPem, long validityDays, Path certificateFile) throws IOException {
+    PKCS10CertificationRequest csr = parseCSR(csrPem);
+    X500Name subject = getSubject(csr.getSubject());
+    String subjectLine = toOneLine(subject);
+    Map<ASN1ObjectIdentifier, Extension> extensions = getExtensions(csr);
+
+    Date notBefore = new Date();
+    Date notAfter = new Date(notBefore.getTime() + TimeUnit.DAYS.toMillis(validityDays));
+    IndexEntry entry;
+    synchronized (this) {
+      refreshIfChanged();
+      if (uniqueSubject && validBySubject.containsKey(subjectLine)) {
+        throw new IOException("There is already a valid certificate for " + subjectLine);
+      }
+      entry = new IndexEntry('V', notAfter, null, nextSerial, subjectLine);
+      nextSerial = nextSerial.add(BigInteger.ONE);
+      writeSerial();
+      // Reserve the subject while the certificate is signed
+      validBySubject.put(subjectLine, entry);
+    }
+
+    String pem;
+    try {
+      X509v3CertificateBuilder builder = new X509v3CertificateBuilder(issuer, entry.serial, notBefore, notAfter,
+          subject, csr.getSubjectPublicKeyInfo());
+      for (Extension extension : extensions.values()) {
+        builder.addExtension(extension);
+      }
+      pem = toPem(CERT_BEGIN, CERT_END, builder.build(newSigner()).getEncoded());
+      if (newCertsDir != null) {
+        write(newCertsDir.resolve(toHex(entry.serial) + ".pem"), pem);
+      }
+      write(certificateFile, pem);
+    } catch (IOException | RuntimeException ex) {
+      synchronized (this) {
+        validBySubject.remove(subjectLine, entry);
+      }
+      throw ex instanceof IOException ? (IOException) ex : new IOException(ex);
+    }
+
+    synchronized (this) {
+      index.put(entry.serial, entry);
+      appendToDatabase(entry);
+    }
+    signed.incrementAndGet();
+    return pem;
+  }
+
+  /**
+   * Revokes a certificate, adding it to the index if it is not there.
+   *
+   * @param certificateFile the certificate to revoke
+   * @throws IOException if it is already revoked
+   */
+  public void revoke(Path certificateFile) throws IOException {
+    X509Certificate certificate = readCertificate(certificateFile);
+    BigInteger serial = certificate.getSerialNumber();
+    Date now = new Date();
+    synchronized (this) {
+      refreshIfChanged();
+      IndexEntry entry = index.get(serial);
+      if (entry != null && entry.status == 'R') {
+        throw new IOException("Already revoked, serial number " + toHex(serial));
+      }
+      if (entry == null) {
+        entry = new IndexEntry('R', certificate.getNotAfter(), now, serial,
+            toOneLine(X500Name.getInstance(certificate.getSubjectX500Principal().getEncoded())));
+        index.put(serial, entry);
+      } else {
+        validBySubject.remove(entry.subject, entry);
+        entry.status = 'R';
+        entry.revocation = now;
+      }
+      revoked.put(serial, now);
+      writeDatabase();
+    }
+    revocations.incrementAndGet();
+  }
+
+  /**
+   * Marks the expired certificates of the index as expired.
+   *
+   * @throws IOException
+   */
+  public void updateDatabase() throws IOException {
+    Date now = new Date();
+    synchronized (this) {
+      refreshIfChanged();
+      boolean changed = false;
+      for (IndexEntry entry : index.values()) {
+        if (entry.status == 'V' && entry.expiration.before(now)) {
+          entry.status = 'E';
+          validBySubject.remove(entry.subject, entry);
+          changed = true;
+        }
+      }
+      if (changed) {
+        writeDatabase();
+      }
+    }
+  }
+
+  /**
+   * Generates and writes the CRL with all the revoked certificates.
+   *
+   * @return the CRL, PEM encoded
+   * @throws IOException
+   */
+  public String generateCRL() throws IOException {
+    Map<BigInteger, Date> entries;
+    BigInteger number = null;
+    synchronized (this) {
+      refreshIfChanged();
+      entries = new LinkedHashMap<>(revoked);
+      if (crlNumberPath != null && Files.exists(crlNumberPath)) {
+        number = readHex(crlNumberPath);
+        writeAtomically(crlNumberPath, toHex(number.add(BigInteger.ONE)) + "\n");
+      }
+    }
+    Date thisUpdate = new Date();
+    X509v2CRLBuilder builder = new X509v2CRLBuilder(issuer, thisUpdate);
+    builder.setNextUpdate(new Date(thisUpdate.getTime() + TimeUnit.HOURS.toMillis(crlHours)));
+    for (Map.Entry<BigInteger, Date> entry : entries.entrySet()) {
+      // No reason code, as openssl ca -revoke without -crl_reason
+      builder.addCRLEntry(entry.getKey(), entry.getValue(), 0);
+    }
+    if (crlAuthorityKeyId) {
+      builder.addExtension(Extension.authorityKeyIdentifier, false, new AuthorityKeyIdentifier(caKeyId));
+    }
+    if (number != null) {
+      builder.addExtension(Extension.cRLNumber, false, new CRLNumber(number));
+    }
+    String pem = toPem(CRL_BEGIN, CRL_END, builder.build(newSigner()).getEncoded());
+    writeAtomically(crlPath, pem);
+    crls.incrementAndGet();
+    return pem;
+  }
+
+  private ContentSigner newSigner() throws IOException {
+    try {
+      return new JcaContentSignerBuilder(signatureAlgorithm).build(caKey);
+    } catch (OperatorCreationException ex) {
+      throw new IOException("Could not create the " + signatureAlgorithm + " signer", ex);
+    }
+  }
+
+  /**
+   * Checks that a certificate was issued by a CA of the chain of trust, is
+   * within its validity period and is not in the CRL. Every issuer of the
+   * chain must be a CA allowed to sign certificates, within its path length.
+   *
+   * @param certificate
+   * @param chainOfTrust the certificates of the CAs, PEM encoded
+   * @param crlFile
+   * @throws IOException if the certificate is not valid
+   */
+  public static void validate(X509Certificate certificate, Path chainOfTrust, Path crlFile) throws IOException {
+    try {
+      CertificateFactory factory = CertificateFactory.getInstance("X.509");
+      List<X509Certificate> chain = new ArrayList<>();
+      try (InputStream in = Files.newInputStream(chainOfTrust)) {
+        for (java.security.cert.Certificate ca : factory.generateCertificates(in)) {
+          chain.add((X509Certificate) ca);
+        }
+      }
+      X509CRL crl;
+      try (InputStream in = Files.newInputStream(crlFile)) {
+        crl = (X509CRL) factory.generateCRL(in);
+      }
+      certificate.checkValidity();
+      X509Certificate current = certificate;
+      // Walk up to a self-signed CA of the chain
+      for (int depth = 0; depth <= chain.size(); depth++) {
+        X509Certificate issuerCert = findIssuer(current, chain);
+        if (issuerCert == null) {
+          throw new IOException("Unable to get issuer certificate of " + current.getSubjectX500Principal());
+        }
+        checkIssuer(issuerCert, depth);
+        current.verify(issuerCert.getPublicKey());
+        issuerCert.checkValidity();
+        if (depth == 0) {
+          if (!crl.getIssuerX500Principal().equals(issuerCert.getSubjectX500Principal())) {
+            throw new IOException("Unable to get certificate CRL");
+          }
+          crl.verify(issuerCert.getPublicKey());
+          if (crl.isRevoked(certificate)) {
+            throw new IOException("Certificate revoked");
+          }
+        }
+        if (issuerCert.getSubjectX500Principal().equals(issuerCert.getIssuerX500Principal())) {
+          issuerCert.verify(issuerCert.getPublicKey());
+          return;
+        }
+        current = issuerCert;
+      }
+      throw new IOException("Certificate chain too long");
+    } catch (GeneralSecurityException ex) {
+      throw new IOException(ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * @param issuerCert
+   * @param depth the number of CAs between the issuer and the validated certificate
+   * @throws IOException if the issuer is not a CA, may not sign certificates or its path length is exceeded
+   */
+  private static void checkIssuer(X509Certificate issuerCert, int depth) throws IOException {
+    // -1 unless basicConstraints CA:TRUE
+    int pathLength = issuerCert.getBasicConstraints();
+    if (pathLength < 0) {
+      throw new IOException("Issuer " + issuerCert.getSubjectX500Principal() + " is not a CA");
+    }
+    if (depth > pathLength) {
+      throw new IOException("Path length constraint of " + issuerCert.getSubjectX500Principal() + " exceeded");
+    }
+    boolean[] keyUsage = issuerCert.getKeyUsage();
+    if (keyUsage != null && (keyUsage.length <= 5 || !keyUsage[5])) {
+      throw new IOException("Issuer " + issuerCert.getSubjectX500Principal() + " may not sign certificates");
+    }
+  }
+
+  private static X509Certificate findIssuer(X509Certificate certificate, List<X509Certificate> chain) {
+    for (X509Certificate ca : chain) {
+      if (ca.getSubjectX500Principal().equals(certificate.getIssuerX500Principal())) {
+        return ca;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Checks the signature of a certificate signing request.
+   *
+   * @param csrPem
+   * @return false if the request cannot be decoded or its signature is not valid
+   */
+  public static boolean verifyCSR(String csrPem) {
+    try {
+      parseCSR(csrPem);
+      return true;
+    } catch (IOException ex) {
+      LOG.log(Level.FINE, "Invalid CSR", ex);
+      return false;
+    }
+  }
+
+  /**
+   * @param csrPem
+   * @return the subject of the request, in the format of {@code openssl req -subject}
+   * @throws IOException
+   */
+  public static String getSubjectFromCSR(String csrPem) throws IOException {
+    return "subject=" + toOneLine(parseCSR(csrPem).getSubject());
+  }
+
+  /**
+   * @param certPem
+   * @return the serial number of the certificate, in the format of {@code openssl x509 -serial}
+   * @throws IOException
+   */
+  public static String getSerialNumber(String certPem) throws IOException {
+    try {
+      X509Certificate certificate = (X509Certificate) CertificateFactory.getInstance("X.509")
+          .generateCertificate(new ByteArrayInputStream(certPem.getBytes(StandardCharsets.US_ASCII)));
+      return "serial=" + toHex(certificate.getSerialNumber());
+    } catch (CertificateException ex) {
+      throw new IOException(ex);
+    }
+  }
+
+  public long getSignedCount() {
+    return signed.get();
+  }
+
+  public long getRevokedCount() {
+    return revocations.get();
+  }
+
+  public long getCRLCount() {
+    return crls.get();
+  }
+
+  private static PKCS10CertificationRequest parseCSR(String csrPem) throws IOException {
+    try {
+      PKCS10CertificationRequest csr = new PKCS10CertificationRequest(fromPem(csrPem, "CERTIFICATE REQUEST"));
+      if (!csr.isSignatureValid(new JcaContentVerifierProviderBuilder().build(csr.getSubjectPublicKeyInfo()))) {
+        throw new IOException("Invalid certificate signing request: bad signature");
+      }
+      return csr;
+    } catch (OperatorCreationException | PKCSException | RuntimeException ex) {
+      throw new IOException("Invalid certificate signing request: " + ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * The subject of the certificate, in the order and with the fields of the
+   * policy unless the DN is preserved, as {@code openssl ca} does.
+   */
+  private X500Name getSubject(X500Name requested) throws IOException {
+    List<RDN> rdns = new ArrayList<>();
+    if (preserveDN || policy.isEmpty()) {
+      for (RDN rdn : requested.getRDNs()) {
+        if (emailInDN || !isEmail(rdn)) {
+          rdns.add(rdn);
+        }
+      }
+    } else {
+      X500Name caName = issuer;
+      for (Map.Entry<String, String> field : policy.entrySet()) {
+        String oid = field.getKey();
+        List<RDN> values = new ArrayList<>();
+        for (RDN rdn : requested.getRDNs()) {
+          if (rdn.getFirst().getType().getId().equals(oid)) {
+            values.add(rdn);
+          }
+        }
+        String rule = field.getValue();
+        if (values.isEmpty() && (rule.equals("supplied") || rule.equals("match"))) {
+          throw new IOException("The " + SHORT_NAMES.get(oid) + " field needed to be supplied and was missing");
+        }
+        if (rule.equals("match")) {
+          String expected = getValue(caName, oid);
+          for (RDN rdn : values) {
+            if (!getValueString(rdn.getFirst()).equals(expected)) {
+              throw new IOException("The " + SHORT_NAMES.get(oid) + " field is different between CA certificate ("
+                  + expected + ") and the request (" + getValueString(rdn.getFirst()) + ")");
+            }
+          }
+        }
+        for (RDN rdn : values) {
+          if (emailInDN || !isEmail(rdn)) {
+            rdns.add(rdn);
+          }
+        }
+      }
+    }
+    return new X500Name(rdns.toArray(new RDN[rdns.size()]));
+  }
+
+  private static boolean isEmail(RDN rdn) {
+    return rdn.getFirst().getType().getId().equals("1.2.840.113549.1.9.1");
+  }
+
+  private static String getValue(X500Name name, String oid) {
+    for (RDN rdn : name.getRDNs()) {
+      for (AttributeTypeAndValue ava : rdn.getTypesAndValues()) {
+        if (ava.getType().getId().equals(oid)) {
+          return getValueString(ava);
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the value as it was encoded, without the escaping of the RFC 2253 string form
+   */
+  private static String getValueString(AttributeTypeAndValue ava) {
+    ASN1Encodable value = ava.getValue();
+    return value instanceof ASN1String ? ((ASN1String) value).getString() : IETFUtils.valueToString(value);
+  }
+
+  /**
+   * @return the extensions of the certificate by OID, in the order they are added
+   */
+  private Map<ASN1ObjectIdentifier, Extension> getExtensions(PKCS10CertificationRequest csr) throws IOException {
+    Map<ASN1ObjectIdentifier, Extension> extensions = new LinkedHashMap<>();
+    for (ExtensionTemplate template : extensionTemplates) {
+      Extension extension = template.create(csr.getSubjectPublicKeyInfo());
+      extensions.put(extension.getExtnId(), extension);
+    }
+    if (copyExtensions != null && !copyExtensions.equals("none")) {
+      for (Attribute attribute : csr.getAttributes(PKCSObjectIdentifiers.pkcs_9_at_extensionRequest)) {
+        for (ASN1Encodable value : attribute.getAttributeValues()) {
+          Extensions requested = Extensions.getInstance(value);
+          for (ASN1ObjectIdentifier oid : requested.getExtensionOIDs()) {
+            if (copyExtensions.equals("copyall") || !extensions.containsKey(oid)) {
+              extensions.put(oid, requested.getExtension(oid));
+            }
+          }
+        }
+      }
+    }
+    return extensions;
+  }
+
+  /**
+   * An extension of the extensions section of the configuration.
+   */
+  private class ExtensionTemplate {
+
+    private final String name;
+    private final boolean critical;
+    private final List<String> values = new ArrayList<>();
+    private final Extension fixed;
+
+    private ExtensionTemplate(OpensslConfig config, String name, String value) throws IOException,
+        UnsupportedConfigurationException {
+      this.name = name;
+      boolean isCritical = false;
+      for (String part : value.split(",")) {
+        part = part.trim();
+        if (part.equals("critical")) {
+          isCritical = true;
+        } else if (!part.isEmpty()) {
+          values.add(part);
+        }
+      }
+      this.critical = isCritical;
+      switch (name) {
+        case "subjectKeyIdentifier":
+          if (!values.equals(Collections.singletonList("hash"))) {
+            throw new UnsupportedConfigurationException("subjectKeyIdentifier = " + value);
+          }
+          fixed = null;
+          break;
+        case "authorityKeyIdentifier":
+          if (values.isEmpty()) {
+            throw new UnsupportedConfigurationException("authorityKeyIdentifier = " + value);
+          }
+          for (String part : values) {
+            if (!part.matches("keyid(:always)?|issuer(:always)?")) {
+              throw new UnsupportedConfigurationException("authorityKeyIdentifier = " + value);
+            }
+          }
+          fixed = null;
+          break;
+        case "basicConstraints":
+          fixed = wrap(Extension.basicConstraints, basicConstraints());
+          break;
+        case "keyUsage":
+          fixed = wrap(Extension.keyUsage, keyUsage());
+          break;
+        case "extendedKeyUsage":
+          fixed = wrap(Extension.extendedKeyUsage, extendedKeyUsage());
+          break;
+        case "nsCertType":
+          fixed = wrap(MiscObjectIdentifiers.netscapeCertType, netscapeCertType());
+          break;
+        case "nsComment":
+          fixed = wrap(MiscObjectIdentifiers.netscapeCertComment, new DERIA5String(value));
+          break;
+        case "subjectAltName":
+          fixed = wrap(Extension.subjectAlternativeName, generalNames(config));
+          break;
+        case "crlDistributionPoints":
+          fixed = wrap(Extension.cRLDistributionPoints, crlDistributionPoints());
+          break;
+        default:
+          throw new UnsupportedConfigurationException("Extension " + name);
+      }
+    }
+
+    private Extension create(SubjectPublicKeyInfo subjectKey) throws IOException {
+      if (fixed != null) {
+        return fixed;
+      }
+      if (name.equals("subjectKeyIdentifier")) {
+        return wrap(Extension.subjectKeyIdentifier, new SubjectKeyIdentifier(getKeyIdentifier(subjectKey)));
+      }
+      // authorityKeyIdentifier, the key id of the CA, and its issuer and serial if asked to
+      boolean keyId = false;
+      boolean issuerAndSerial = false;
+      for (String part : values) {
+        if (part.startsWith("keyid")) {
+          keyId = true;
+        } else if (part.equals("issuer:always") || (part.equals("issuer") && !values.contains("keyid")
+            && !values.contains("keyid:always"))) {
+          issuerAndSerial = true;
+        }
+      }
+      AuthorityKeyIdentifier authorityKeyId;
+      if (issuerAndSerial) {
+        GeneralNames issuerNames = new GeneralNames(new GeneralName(X500Name.getInstance(caCert.
+            getIssuerX500Principal().getEncoded())));
+        authorityKeyId = keyId ? new AuthorityKeyIdentifier(caKeyId, issuerNames, caCert.getSerialNumber())
+            : new AuthorityKeyIdentifier(issuerNames, caCert.getSerialNumber());
+      } else {
+        authorityKeyId = new AuthorityKeyIdentifier(caKeyId);
+      }
+      return wrap(Extension.authorityKeyIdentifier, authorityKeyId);
+    }
+
+    private Extension wrap(ASN1ObjectIdentifier id, ASN1Encodable value) throws IOException {
+      return new Extension(id, critical, new DEROctetString(value));
+    }
+
+    private BasicConstraints basicConstraints() throws UnsupportedConfigurationException {
+      boolean ca = false;
+      int pathLen = -1;
+      for (String part : values) {
+        String[] keyValue = part.split(":", 2);
+        if (keyValue.length != 2) {
+          throw new UnsupportedConfigurationException("basicConstraints = " + part);
+        }
+        if (keyValue[0].trim().equalsIgnoreCase("CA")) {
+          ca = keyValue[1].trim().equalsIgnoreCase("true");
+        } else if (keyValue[0].trim().equalsIgnoreCase("pathlen") && keyValue[1].trim().matches("[0-9]+")) {
+          pathLen = Integer.parseInt(keyValue[1].trim());
+        } else {
+          throw new UnsupportedConfigurationException("basicConstraints = " + part);
+        }
+      }
+      // The path length only applies to a CA
+      return ca && pathLen >= 0 ? new BasicConstraints(pathLen) : new BasicConstraints(ca);
+    }
+
+    private KeyUsage keyUsage() throws UnsupportedConfigurationException {
+      Map<String, Integer> bits = new HashMap<>();
+      bits.put("digitalSignature", KeyUsage.digitalSignature);
+      bits.put("nonRepudiation", KeyUsage.nonRepudiation);
+      bits.put("keyEncipherment", KeyUsage.keyEncipherment);
+      bits.put("dataEncipherment", KeyUsage.dataEncipherment);
+      bits.put("keyAgreement", KeyUsage.keyAgreement);
+      bits.put("keyCertSign", KeyUsage.keyCertSign);
+      bits.put("cRLSign", KeyUsage.cRLSign);
+      bits.put("encipherOnly", KeyUsage.encipherOnly);
+      bits.put("decipherOnly", KeyUsage.decipherOnly);
+      int usage = 0;
+      for (String part : values) {
+        Integer bit = bits.get(part);
+        if (bit == null) {
+          throw new UnsupportedConfigurationException("keyUsage = " + part);
+        }
+        usage |= bit;
+      }
+      return new KeyUsage(usage);
+    }
+
+    private ExtendedKeyUsage extendedKeyUsage() throws UnsupportedConfigurationException {
+      Map<String, KeyPurposeId> purposes = new HashMap<>();
+      purposes.put("serverAuth", KeyPurposeId.id_kp_serverAuth);
+      purposes.put("clientAuth", KeyPurposeId.id_kp_clientAuth);
+      purposes.put("codeSigning", KeyPurposeId.id_kp_codeSigning);
+      purposes.put("emailProtection", KeyPurposeId.id_kp_emailProtection);
+      purposes.put("timeStamping", KeyPurposeId.id_kp_timeStamping);
+      purposes.put("OCSPSigning", KeyPurposeId.id_kp_OCSPSigning);
+      List<KeyPurposeId> usages = new ArrayList<>();
+      for (String part : values) {
+        KeyPurposeId purpose = purposes.get(part);
+        if (purpose == null) {
+          if (!part.matches("[0-9]+(\\.[0-9]+)+")) {
+            throw new UnsupportedConfigurationException("extendedKeyUsage = " + part);
+          }
+          purpose = KeyPurposeId.getInstance(new ASN1ObjectIdentifier(part));
+        }
+        usages.add(purpose);
+      }
+      return new ExtendedKeyUsage(usages.toArray(new KeyPurposeId[usages.size()]));
+    }
+
+    private NetscapeCertType netscapeCertType() throws UnsupportedConfigurationException {
+      Map<String, Integer> bits = new HashMap<>();
+      bits.put("client", NetscapeCertType.sslClient);
+      bits.put("server", NetscapeCertType.sslServer);
+      bits.put("email", NetscapeCertType.smime);
+      bits.put("objsign", NetscapeCertType.objectSigning);
+      bits.put("reserved", NetscapeCertType.reserved);
+      bits.put("sslCA", NetscapeCertType.sslCA);
+      bits.put("emailCA", NetscapeCertType.smimeCA);
+      bits.put("objCA", NetscapeCertType.objectSigningCA);
+      int usage = 0;
+      for (String part : values) {
+        Integer bit = bits.get(part);
+        if (bit == null) {
+          throw new UnsupportedConfigurationException("nsCertType = " + part);
+        }
+        usage |= bit;
+      }
+      return new NetscapeCertType(usage);
+    }
+
+    private CRLDistPoint crlDistributionPoints() throws UnsupportedConfigurationException {
+      List<DistributionPoint> points = new ArrayList<>();
+      for (String part : values) {
+        if (!part.startsWith("URI:")) {
+          throw new UnsupportedConfigurationException("crlDistributionPoints = " + part);
+        }
+        points.add(new DistributionPoint(new DistributionPointName(new GeneralNames(new GeneralName(
+            GeneralName.uniformResourceIdentifier, part.substring(4)))), null, null));
+      }
+      return new CRLDistPoint(points.toArray(new DistributionPoint[points.size()]));
+    }
+
+    private GeneralNames generalNames(OpensslConfig config) throws UnsupportedConfigurationException {
+      List<String> entries = new ArrayList<>();
+      for (String part : values) {
+        if (part.startsWith("@")) {
+          for (Map.Entry<String, String> entry : config.getSection(part.substring(1)).entrySet()) {
+            entries.add(entry.getKey().replaceAll("\\..*$", "") + ":" + entry.getValue());
+          }
+        } else {
+          entries.add(part);
+        }
+      }
+      List<GeneralName> names = new ArrayList<>();
+      for (String entry : entries) {
+        String[] typeValue = entry.split(":", 2);
+        if (typeValue.length != 2) {
+          throw new UnsupportedConfigurationException("subjectAltName = " + entry);
+        }
+        try {
+          switch (typeValue[0].trim()) {
+            case "DNS":
+              names.add(new GeneralName(GeneralName.dNSName, typeValue[1].trim()));
+              break;
+            case "IP":
+              names.add(new GeneralName(GeneralName.iPAddress, typeValue[1].trim()));
+              break;
+            case "URI":
+              names.add(new GeneralName(GeneralName.uniformResourceIdentifier, typeValue[1].trim()));
+              break;
+            default:
+              throw new UnsupportedConfigurationException("subjectAltName = " + entry);
+          }
+        } catch (IllegalArgumentException ex) {
+          throw new UnsupportedConfigurationException("subjectAltName = " + entry);
+        }
+      }
+      return new GeneralNames(names.toArray(new GeneralName[names.size()]));
+    }
+  }
+
+  /*
+   * The OpenSSL index: one line per certificate with the status, the
+   * expiration date, the revocation date, the serial number in hex, the file
+   * name and the subject, separated by tabs.
+   */
+
+  private static class IndexEntry {
+
+    private char status;
+    private final Date expiration;
+    private Date revocation;
+    private final BigInteger serial;
+    private final String subject;
+
+    private IndexEntry(char status, Date expiration, Date revocation, BigInteger serial, String subject) {
+      this.status = status;
+      this.expiration = expiration;
+      this.revocation = revocation;
+      this.serial = serial;
+      this.subject = subject;
+    }
+
+    private String toLine() {
+      return status + "\t" + formatTime(expiration) + "\t" + (revocation == null ? "" : formatTime(revocation))
+          + "\t" + toHex(serial) + "\tunknown\t" + subject;
+    }
+  }
+
+  private void loadDatabase() throws IOException {
+    index.clear();
+    validBySubject.clear();
+    revoked.clear();
+    if (Files.exists(databasePath)) {
+      for (String line : Files.readAllLines(databasePath, StandardCharsets.UTF_8)) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length < 6 || fields[0].isEmpty()) {
+          continue;
+        }
+        try {
+          String revocationField = fields[2].split(",")[0];
+          IndexEntry entry = new IndexEntry(fields[0].charAt(0), parseTime(fields[1]),
+              revocationField.isEmpty() ? null : parseTime(revocationField), new BigInteger(fields[3], 16),
+              fields[5]);
+          index.put(entry.serial, entry);
+          if (entry.status == 'V') {
+            validBySubject.put(entry.subject, entry);
+          } else if (entry.status == 'R' && entry.revocation != null) {
+            revoked.put(entry.serial, entry.revocation);
+          }
+        } catch (ParseException | NumberFormatException ex) {
+          throw new IOException("Invalid line in " + databasePath + ": " + line, ex);
+        }
+      }
+      databaseModified = Files.getLastModifiedTime(databasePath);
+    }
+    nextSerial = readHex(serialPath);
+    serialModified = Files.getLastModifiedTime(serialPath);
+  }
+
+  /**
+   * Reloads the index if another tool changed it.
+   */
+  private void refreshIfChanged() throws IOException {
+    FileTime database = Files.exists(databasePath) ? Files.getLastModifiedTime(databasePath) : null;
+    FileTime serial = Files.getLastModifiedTime(serialPath);
+    if ((database != null && !database.equals(databaseModified)) || !serial.equals(serialModified)) {
+      LOG.log(Level.INFO, "Reloading CA database {0}", databasePath);
+      loadDatabase();
+    }
+  }
+
+  private void appendToDatabase(IndexEntry entry) throws IOException {
+    try (Writer writer = Files.newBufferedWriter(databasePath, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+        StandardOpenOption.APPEND)) {
+      writer.write(entry.toLine());
+      writer.write("\n");
+    }
+    databaseModified = Files.getLastModifiedTime(databasePath);
+  }
+
+  private void writeDatabase() throws IOException {
+    StringBuilder content = new StringBuilder();
+    for (IndexEntry entry : index.values()) {
+      content.append(entry.toLine()).append('\n');
+    }
+    writeAtomically(databasePath, content.toString());
+    databaseModified = Files.getLastModifiedTime(databasePath);
+  }
+
+  private void writeSerial() throws IOException {
+    writeAtomically(serialPath, toHex(nextSerial) + "\n");
+    serialModified = Files.getLastModifiedTime(serialPath);
+  }
+
+  private static void writeAtomically(Path path, String content) throws IOException {
+    Path tmp = Files.createTempFile(path.getParent(), "." + path.getFileName(), ".tmp");
+    try {
+      Files.write(tmp, content.getBytes(StandardCharsets.UTF_8));
+      Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  private static void write(Path path, String content) throws IOException {
+    Files.write(path, content.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private static String formatTime(Date date) {
+    SimpleDateFormat format = new SimpleDateFormat(isUtcTime(date) ? "yyMMddHHmmss'Z'" : "yyyyMMddHHmmss'Z'",
+        Locale.ROOT);
+    format.setTimeZone(TimeZone.getTimeZone("UTC"));
+    return format.format(date);
+  }
+
+  private static boolean isUtcTime(Date date) {
+    // RFC 5280 dates before 2050 are UTCTime, later ones GeneralizedTime
+    return date.getTime() < 2524608000000L;
+  }
+
+  private static Date parseTime(String time) throws ParseException {
+    SimpleDateFormat format = new SimpleDateFormat(time.length() == 13 ? "yyMMddHHmmss'Z'" : "yyyyMMddHHmmss'Z'",
+        Locale.ROOT);
+    format.setTimeZone(TimeZone.getTimeZone("UTC"));
+    return format.parse(time);
+  }
+
+  private static BigInteger readHex(Path path) throws IOException {
+    String content = new String(Files.readAllBytes(path), StandardCharsets.US_ASCII).trim();
+    try {
+      return new BigInteger(content, 16);
+    } catch (NumberFormatException ex) {
+      throw new IOException("Invalid serial in " + path + ": " + content, ex);
+    }
+  }
+
+  /**
+   * @return the number in upper case hex with an even number of digits, as OpenSSL writes serial numbers
+   */
+  static String toHex(BigInteger number) {
+    String hex = number.toString(16).toUpperCase(Locale.ROOT);
+    return hex.length() % 2 == 0 ? hex : "0" + hex;
+  }
+
+  /**
+   * @return the name in the OpenSSL one line format, /C=SE/O=Hopsworks/CN=name
+   */
+  static String toOneLine(X500Name name) {
+    StringBuilder line = new StringBuilder();
+    for (RDN rdn : name.getRDNs()) {
+      for (AttributeTypeAndValue ava : rdn.getTypesAndValues()) {
+        String oid = ava.getType().getId();
+        String shortName = SHORT_NAMES.get(oid);
+        line.append('/').append(shortName == null ? oid : shortName).append('=').append(getValueString(ava));
+      }
+    }
+    return line.toString();
+  }
+
+  private static boolean isYes(String value, boolean defaultValue) {
+    if (value == null) {
+      return defaultValue;
+    }
+    String v = value.trim().toLowerCase(Locale.ROOT);
+    return v.equals("yes") || v.equals("y") || v.equals("true");
+  }
+
+  private static String required(OpensslConfig config, String section, String key)
+      throws UnsupportedConfigurationException {
+    String value = config.get(section, key);
+    if (value == null || value.isEmpty()) {
+      throw new UnsupportedConfigurationException("No " + key + " in section " + section);
+    }
+    return value;
+  }
+
+  private static String getSignatureAlgorithm(String digest, String keyAlgorithm)
+      throws UnsupportedConfigurationException {
+    String md = digest == null || digest.equals("default") ? "sha256" : digest.trim().toLowerCase(Locale.ROOT);
+    if (!md.matches("sha(1|224|256|384|512)")) {
+      throw new UnsupportedConfigurationException("default_md = " + digest);
+    }
+    switch (keyAlgorithm) {
+      case "RSA":
+        return md.toUpperCase(Locale.ROOT) + "withRSA";
+      case "EC":
+        return md.toUpperCase(Locale.ROOT) + "withECDSA";
+      default:
+        throw new UnsupportedConfigurationException("CA key algorithm " + keyAlgorithm);
+    }
+  }
+
+  private static byte[] getKeyIdentifier(X509Certificate certificate) throws IOException {
+    byte[] extension = certificate.getExtensionValue(Extension.subjectKeyIdentifier.getId());
+    if (extension != null) {
+      // An OCTET STRING wrapping the extension value, itself an OCTET STRING
+      return SubjectKeyIdentifier.getInstance(ASN1OctetString.getInstance(extension).getOctets())
+          .getKeyIdentifier();
+    }
+    return getKeyIdentifier(SubjectPublicKeyInfo.getInstance(certificate.getPublicKey().getEncoded()));
+  }
+
+  /**
+   * @return the SHA-1 hash of the public key, as {@code subjectKeyIdentifier = hash}
+   */
+  private static byte[] getKeyIdentifier(SubjectPublicKeyInfo key) throws IOException {
+    try {
+      return MessageDigest.getInstance("SHA-1").digest(key.getPublicKeyData().getBytes());
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IOException(ex);
+    }
+  }
+
+  private static X509Certificate readCertificate(Path path) throws IOException {
+    try (InputStream in = Files.newInputStream(path)) {
+      return (X509Certificate) CertificateFactory.getInstance("X.509").generateCertificate(in);
+    } catch (CertificateException ex) {
+      throw new IOException("Could not read certificate " + path, ex);
+    }
+  }
+
+  /**
+   * Reads the CA private key: PKCS#8, or RSA or EC in the traditional
+   * OpenSSL format, plain or encrypted.
+   */
+  private static PrivateKey readPrivateKey(Path path, String password) throws IOException,
+      UnsupportedConfigurationException {
+    Object key;
+    try (PEMParser parser = new PEMParser(Files.newBufferedReader(path, StandardCharsets.US_ASCII))) {
+      key = parser.readObject();
+    }
+    try {
+      if (key instanceof PEMEncryptedKeyPair) {
+        key = ((PEMEncryptedKeyPair) key).decryptKeyPair(new JcePEMDecryptorProviderBuilder()
+            .build(password.toCharArray()));
+      } else if (key instanceof PKCS8EncryptedPrivateKeyInfo) {
+        key = ((PKCS8EncryptedPrivateKeyInfo) key).decryptPrivateKeyInfo(new JceOpenSSLPKCS8DecryptorProviderBuilder()
+            .build(password.toCharArray()));
+      }
+    } catch (OperatorCreationException | PKCSException ex) {
+      throw new IOException("Could not decrypt private key " + path + ", wrong password?", ex);
+    }
+    JcaPEMKeyConverter converter = new JcaPEMKeyConverter();
+    if (key instanceof PEMKeyPair) {
+      return converter.getKeyPair((PEMKeyPair) key).getPrivate();
+    }
+    if (key instanceof PrivateKeyInfo) {
+      return converter.getPrivateKey((PrivateKeyInfo) key);
+    }
+    throw new UnsupportedConfigurationException("Unsupported private key format in " + path);
+  }
+
+  private static byte[] fromPem(String pem, String type) throws IOException {
+    String begin = "-----BEGIN " + type + "-----";
+    String end = "-----END " + type + "-----";
+    int start = pem.indexOf(begin);
+    int stop = pem.indexOf(end);
+    if (start < 0 || stop < start) {
+      // "NEW CERTIFICATE REQUEST" is also used for requests
+      if (type.equals("CERTIFICATE REQUEST") && pem.contains("-----BEGIN NEW CERTIFICATE REQUEST-----")) {
+        return fromPem(pem, "NEW CERTIFICATE REQUEST");
+      }
+      throw new IOException("No " + type + " in PEM");
+    }
+    StringBuilder base64 = new StringBuilder();
+    for (String line : pem.substring(start + begin.length(), stop).split("\r?\n")) {
+      // Skip the headers of encrypted keys
+      if (!line.contains(":")) {
+        base64.append(line.trim());
+      }
+    }
+    return Base64.getDecoder().decode(base64.toString());
+  }
+
+  private static String toPem(String begin, String end, byte[] der) {
+    return begin + "\n" + Base64.getMimeEncoder(64, new byte[]{'\n'}).encodeToString(der) + "\n" + end + "\n";
+  }
+
+  /**
+   * The configuration or the material of the CA uses an option, an extension
+   * or a format that is not implemented, the OpenSSL tools must be used.
+   */
+  public static class UnsupportedConfigurationException extends Exception {
+
+    public UnsupportedConfigurationException(String message) {
+      super(message);
+    }
+  }
+}
@@ -30,6 +30,8 @@ import javax.ejb.TransactionAttributeType;
 import javax.enterprise.inject.Any;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -52,16 +54,45 @@ public class InferenceController {
   public String infer(Project project, String modelName, Integer modelVersion,
                       String verb, String inferenceRequestJson) throws InferenceException {
 
-    TfServing tfServing = tfServingFacade.findByProjectModelName(project, modelName);
-    if (tfServing == null) {
-      throw new InferenceException(RESTCodes.InferenceErrorCode.SERVINGNOTFOUND, Level.FINE, "name: " + modelName);
-    }
+    TfServing tfServing = getServing(project, modelName);
 
     // TODO(Fabio): ATM all the serving are tfServings. so we just redirect everything to the TfInferenceController
     // When we will add spark serving and or sklearn here we will invoke the different controllers
     Pair<Integer, String> inferenceResult =
         tfInferenceController.infer(tfServing, modelVersion, verb, inferenceRequestJson);
 
+    return handleInferenceResult(tfServing, inferenceRequestJson, inferenceResult);
+  }
+
+  /**
+   * Same as infer, but the request to the model server is not sent on the calling thread.
+   * The returned future completes exceptionally with an InferenceException in case of errors.
+   */
+  public CompletableFuture<String> inferAsync(Project project, String modelName, Integer modelVersion,
+                                              String verb, String inferenceRequestJson) throws InferenceException {
+
+    TfServing tfServing = getServing(project, modelName);
+
+    return tfInferenceController.inferAsync(tfServing, modelVersion, verb, inferenceRequestJson)
+        .thenApply(inferenceResult -> {
+          try {
+            return handleInferenceResult(tfServing, inferenceRequestJson, inferenceResult);
+          } catch (InferenceException e) {
+            throw new CompletionException(e);
+          }
+        });
+  }
+
+  private TfServing getServing(Project project, String modelName) throws InferenceException {
+    TfServing tfServing = tfServingFacade.findByProjectModelName(project, modelName);
+    if (tfServing == null) {
+      throw new InferenceException(RESTCodes.InferenceErrorCode.SERVINGNOTFOUND, Level.FINE, "name: " + modelName);
+    }
+    return tfServing;
+  }
+
+  private String handleInferenceResult(TfServing tfServing, String inferenceRequestJson,
+                                       Pair<Integer, String> inferenceResult) throws InferenceException {
     // Log the inference
     for (InferenceLogger inferenceLogger : inferenceLoggers) {
       try {
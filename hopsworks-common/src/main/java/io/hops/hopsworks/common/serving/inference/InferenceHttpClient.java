@@ -0,0 +1,233 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.serving.inference;
+
+import io.hops.common.Pair;
+import io.hops.hopsworks.common.util.LatencyHistogram;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+import org.apache.http.util.EntityUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Timer;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Shared, connection pooled HTTP client used to send inference requests to the model servers.
+ * Connections are kept alive between requests and are limited per route, so a single busy serving cannot take
+ * all the connections of the pool.
+ *
+ * For every serving it keeps latency histograms split into the time an asynchronous request waited for an executor
+ * thread (queue), the time to lease a connection from the pool, including the TCP connect and TLS handshake of new
+ * connections (connect), and the time the model server took to answer (server).
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class InferenceHttpClient {
+
+  private static final Logger LOGGER = Logger.getLogger(InferenceHttpClient.class.getName());
+
+  private static final int MAX_CONNECTIONS = 200;
+  private static final int MAX_CONNECTIONS_PER_ROUTE = 50;
+  private static final int CONNECTION_REQUEST_TIMEOUT_MS = 5000;
+  private static final int CONNECT_TIMEOUT_MS = 5000;
+  private static final int SOCKET_TIMEOUT_MS = 60000;
+  private static final long IDLE_CONNECTION_TIMEOUT_MS = 30000;
+
+  private static final String CONNECTED_AT_ATTR = "hopsworks.inference.connectedAt";
+
+  @Resource
+  private ManagedExecutorService executorService;
+
+  private PoolingHttpClientConnectionManager connectionManager;
+  private CloseableHttpClient httpClient;
+
+  private final Map<Integer, InferenceLatencies> latencies = new ConcurrentHashMap<>();
+
+  @PostConstruct
+  public void init() {
+    connectionManager = new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(MAX_CONNECTIONS);
+    connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+    connectionManager.setValidateAfterInactivity(2000);
+
+    RequestConfig requestConfig = RequestConfig.custom()
+        .setConnectionRequestTimeout(CONNECTION_REQUEST_TIMEOUT_MS)
+        .setConnectTimeout(CONNECT_TIMEOUT_MS)
+        .setSocketTimeout(SOCKET_TIMEOUT_MS)
+        .build();
+
+    httpClient = HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(requestConfig)
+        .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+        .setRequestExecutor(new HttpRequestExecutor() {
+          @Override
+          public HttpResponse execute(HttpRequest request, HttpClientConnection conn, HttpContext context)
+              throws IOException, HttpException {
+            // Invoked once the connection has been leased from the pool and is connected
+            context.setAttribute(CONNECTED_AT_ATTR, System.currentTimeMillis());
+            return super.execute(request, conn, context);
+          }
+        })
+        .build();
+  }
+
+  @PreDestroy
+  public void close() {
+    try {
+      httpClient.close();
+    } catch (IOException e) {
+      LOGGER.log(Level.WARNING, "Error closing inference http client", e);
+    }
+  }
+
+  @Schedule(persistent = false,
+      minute = "*",
+      hour = "*")
+  public void closeIdleConnections(Timer timer) {
+    connectionManager.closeExpiredConnections();
+    connectionManager.closeIdleConnections(IDLE_CONNECTION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Execute the request on the calling thread.
+   *
+   * @param servingId id of the serving the request is for, used to record the latencies
+   * @param request request to send
+   * @return status code and body of the response, the body is null if the response had no entity
+   * @throws IOException in case of connection problems
+   */
+  public Pair<Integer, String> execute(Integer servingId, HttpUriRequest request) throws IOException {
+    InferenceLatencies servingLatencies = latenciesOf(servingId);
+    HttpClientContext context = HttpClientContext.create();
+    long start = System.currentTimeMillis();
+    try {
+      return httpClient.execute(request, new ResponseHandler<Pair<Integer, String>>() {
+        @Override
+        public Pair<Integer, String> handleResponse(HttpResponse response) throws IOException {
+          HttpEntity httpEntity = response.getEntity();
+          String body = httpEntity == null ? null : EntityUtils.toString(httpEntity);
+          return new Pair<>(response.getStatusLine().getStatusCode(), body);
+        }
+      }, context);
+    } finally {
+      long end = System.currentTimeMillis();
+      Long connectedAt = (Long) context.getAttribute(CONNECTED_AT_ATTR);
+      if (connectedAt != null) {
+        servingLatencies.getConnect().record(connectedAt - start);
+        servingLatencies.getServer().record(end - connectedAt);
+      }
+    }
+  }
+
+  /**
+   * Execute the request on the managed executor service, the calling thread is not blocked.
+   * The future completes exceptionally with a CompletionException wrapping the IOException in case of errors.
+   *
+   * @param servingId id of the serving the request is for, used to record the latencies
+   * @param request request to send
+   * @return future status code and body of the response
+   */
+  public CompletableFuture<Pair<Integer, String>> executeAsync(Integer servingId, HttpUriRequest request) {
+    final long submittedAt = System.currentTimeMillis();
+    return CompletableFuture.supplyAsync(() -> {
+      latenciesOf(servingId).getQueue().record(System.currentTimeMillis() - submittedAt);
+      try {
+        return execute(servingId, request);
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      }
+    }, executorService);
+  }
+
+  private InferenceLatencies latenciesOf(Integer servingId) {
+    InferenceLatencies servingLatencies = latencies.get(servingId);
+    if (servingLatencies == null) {
+      latencies.putIfAbsent(servingId, new InferenceLatencies());
+      servingLatencies = latencies.get(servingId);
+    }
+    return servingLatencies;
+  }
+
+  /**
+   * @param servingId id of the serving
+   * @return the latencies of the requests sent to the serving, null if none was sent
+   */
+  public InferenceLatencies getLatencies(Integer servingId) {
+    return latencies.get(servingId);
+  }
+
+  /**
+   * To be called when the serving is deleted.
+   *
+   * @param servingId id of the serving
+   */
+  public void removeLatencies(Integer servingId) {
+    latencies.remove(servingId);
+  }
+
+  public static class InferenceLatencies {
+    private final LatencyHistogram queue = new LatencyHistogram();
+    private final LatencyHistogram connect = new LatencyHistogram();
+    private final LatencyHistogram server = new LatencyHistogram();
+
+    public LatencyHistogram getQueue() {
+      return queue;
+    }
+
+    public LatencyHistogram getConnect() {
+      return connect;
+    }
+
+    public LatencyHistogram getServer() {
+      return server;
+    }
+
+    @Override
+    public String toString() {
+      return "queue: [" + queue + "], connect: [" + connect + "], server: [" + server + "]";
+    }
+  }
+}
@@ -20,23 +20,18 @@ import com.google.common.base.Strings;
 import io.hops.common.Pair;
 import io.hops.hopsworks.common.dao.serving.TfServing;
 import io.hops.hopsworks.common.exception.RESTCodes;
-import org.apache.http.HttpEntity;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.util.EntityUtils;
 
-import javax.annotation.PostConstruct;
+import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.enterprise.inject.Alternative;
 import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 
 import static io.hops.hopsworks.common.serving.tf.LocalhostTfServingController.PID_STOPPED;
@@ -46,16 +41,51 @@ import static io.hops.hopsworks.common.serving.tf.LocalhostTfServingController.P
 @TransactionAttribute(TransactionAttributeType.NEVER)
 public class LocalhostTfInferenceController implements TfInferenceController {
 
-  HttpClient httpClient = null;
-
-  @PostConstruct
-  public void init() {
-    httpClient = HttpClientBuilder.create().build();
-  }
+  @EJB
+  private InferenceHttpClient inferenceHttpClient;
 
   public Pair<Integer, String> infer(TfServing tfServing, Integer modelVersion,
                                      String verb, String inferenceRequestJson) throws InferenceException {
+    HttpPost request = buildRequest(tfServing, modelVersion, verb, inferenceRequestJson);
+
+    Pair<Integer, String> response;
+    try {
+      response = inferenceHttpClient.execute(tfServing.getId(), request);
+    } catch (IOException e) {
+      throw new InferenceException(RESTCodes.InferenceErrorCode.REQUESTERROR, Level.INFO, null, e.getMessage(), e);
+    }
+    return checkResponse(response);
+  }
+
+  @Override
+  public CompletableFuture<Pair<Integer, String>> inferAsync(TfServing tfServing, Integer modelVersion,
+                                                            String verb, String inferenceRequestJson) {
+    HttpPost request;
+    try {
+      request = buildRequest(tfServing, modelVersion, verb, inferenceRequestJson);
+    } catch (InferenceException e) {
+      CompletableFuture<Pair<Integer, String>> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
 
+    return inferenceHttpClient.executeAsync(tfServing.getId(), request)
+        .handle((response, throwable) -> {
+          if (throwable != null) {
+            Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+            throw new CompletionException(new InferenceException(RESTCodes.InferenceErrorCode.REQUESTERROR,
+                Level.INFO, null, cause.getMessage(), cause));
+          }
+          try {
+            return checkResponse(response);
+          } catch (InferenceException e) {
+            throw new CompletionException(e);
+          }
+        });
+  }
+
+  private HttpPost buildRequest(TfServing tfServing, Integer modelVersion, String verb, String inferenceRequestJson)
+      throws InferenceException {
     if (tfServing.getLocalPid().equals(PID_STOPPED)) {
       throw new InferenceException(RESTCodes.InferenceErrorCode.SERVINGNOTRUNNING, Level.FINE);
     }
@@ -66,55 +96,27 @@ public class LocalhostTfInferenceController implements TfInferenceController {
 
     // TODO(Fabio) does Tf model server support TLS?
 
-    StringBuilder pathBuilder = new StringBuilder()
-        .append("/v1/models/")
-        .append(tfServing.getModelName());
+    // The model name is validated by the REST layer ([a-zA-Z0-9]+), so the URI can be concatenated directly
+    String uri = "http://localhost:" + tfServing.getLocalPort() + "/v1/models/" + tfServing.getModelName()
+        // Append the version if the user specified it.
+        + (modelVersion != null ? "/versions/" + modelVersion : "")
+        + verb;
 
-    // Append the version if the user specified it.
-    if (modelVersion != null) {
-      pathBuilder.append("/versions").append(modelVersion);
-    }
-
-    pathBuilder.append(verb);
-
-
-    HttpResponse response = null;
-    // Send request
+    HttpPost request;
     try {
-      URI uri = new URIBuilder()
-          .setScheme("http")
-          .setHost("localhost")
-          .setPort(tfServing.getLocalPort())
-          .setPath(pathBuilder.toString())
-          .build();
-
-      HttpPost request = new HttpPost(uri);
-      request.addHeader("content-type", "application/json; charset=utf-8");
-      request.setEntity(new StringEntity(inferenceRequestJson));
-      response = httpClient.execute(request);
-    } catch (URISyntaxException e) {
+      request = new HttpPost(uri);
+    } catch (IllegalArgumentException e) {
       throw new InferenceException(RESTCodes.InferenceErrorCode.REQUESTERROR, Level.SEVERE, null, e.getMessage(), e);
-    } catch (IOException e) {
-      throw new InferenceException(RESTCodes.InferenceErrorCode.REQUESTERROR, Level.INFO, null, e.getMessage(), e);
     }
+    request.setEntity(new StringEntity(inferenceRequestJson, ContentType.APPLICATION_JSON));
+    return request;
+  }
 
+  private Pair<Integer, String> checkResponse(Pair<Integer, String> response) throws InferenceException {
     // Handle response
-    if (response == null) {
+    if (response == null || response.getR() == null) {
       throw new InferenceException(RESTCodes.InferenceErrorCode.EMPTYRESPONSE, Level.INFO, "Received null response");
     }
-
-    HttpEntity httpEntity = response.getEntity();
-    if (httpEntity == null) {
-      throw new InferenceException(RESTCodes.InferenceErrorCode.EMPTYRESPONSE, Level.INFO, "Received null response");
-    }
-
-    try {
-      // Return prediction
-      String responseStr = EntityUtils.toString(httpEntity);
-      return new Pair<>(response.getStatusLine().getStatusCode(), responseStr);
-    } catch (IOException e) {
-      throw new InferenceException(RESTCodes.InferenceErrorCode.ERRORREADINGRESPONSE, Level.INFO,
-          "", e.getMessage(), e);
-    }
+    return response;
   }
 }
@@ -19,7 +19,24 @@ package io.hops.hopsworks.common.serving.inference;
 import io.hops.common.Pair;
 import io.hops.hopsworks.common.dao.serving.TfServing;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface TfInferenceController {
   Pair<Integer, String> infer(TfServing tfServing, Integer modelVersion,
                              String verb, String inferenceRequestJson) throws InferenceException;
+
+  /**
+   * Non blocking version of infer. Errors are reported by completing the future exceptionally with an
+   * InferenceException. Implementations that cannot send the request asynchronously fall back to infer.
+   */
+  default CompletableFuture<Pair<Integer, String>> inferAsync(TfServing tfServing, Integer modelVersion,
+                                                             String verb, String inferenceRequestJson) {
+    CompletableFuture<Pair<Integer, String>> result = new CompletableFuture<>();
+    try {
+      result.complete(infer(tfServing, modelVersion, verb, inferenceRequestJson));
+    } catch (InferenceException e) {
+      result.completeExceptionally(e);
+    }
+    return result;
+  }
 }
@@ -18,67 +18,39 @@ package io.hops.hopsworks.common.serving.inference.logger;
 
 import com.twitter.bijection.Injection;
 import com.twitter.bijection.avro.GenericAvroCodecs;
-import io.hops.hopsworks.common.dao.project.Project;
 import io.hops.hopsworks.common.dao.serving.TfServing;
 import io.hops.hopsworks.common.exception.CryptoPasswordNotFoundException;
-import io.hops.hopsworks.common.security.CertificateMaterializer;
-import io.hops.hopsworks.common.util.HopsUtils;
-import io.hops.hopsworks.common.util.Settings;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.reflect.ReflectData;
-import org.apache.kafka.clients.CommonClientConfigs;
-import org.apache.kafka.clients.producer.KafkaProducer;
-import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
-import org.apache.kafka.common.config.SslConfigs;
-import org.apache.kafka.common.serialization.ByteArraySerializer;
-import org.apache.kafka.common.serialization.StringSerializer;
 
 import javax.annotation.PostConstruct;
 import javax.ejb.Asynchronous;
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
-import java.io.File;
 import java.io.IOException;
-import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import static io.hops.hopsworks.common.dao.kafka.KafkaFacade.KAFKA_SECURITY_PROTOCOL;
-
 @Stateless
 public class KafkaInferenceLogger implements InferenceLogger {
 
   private static final Logger LOGGER = Logger.getLogger(KafkaInferenceLogger.class.getName());
 
   @EJB
-  private Settings settings;
-  @EJB
-  private CertificateMaterializer certificateMaterializer;
+  private KafkaInferenceProducerPool producerPool;
 
   public static final String SERVING_MANAGER_USERNAME = "srvmanager";
 
-  private KafkaProducer<String, byte[]> kafkaProducer;
   private Schema schema;
   private Injection<GenericRecord, byte[]> recordSerializer;
-  private Properties props;
 
   @PostConstruct
   public void init() {
     schema = ReflectData.get().getSchema(KafkaInferenceLog.class);
     recordSerializer = GenericAvroCodecs.toBinary(schema);
-
-    // Setup default properties
-    props = new Properties();
-    props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, settings.getKafkaBrokersStr());
-    props.put(ProducerConfig.CLIENT_ID_CONFIG, "KafkaServing");
-    props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
-        StringSerializer.class.getName());
-    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
-        ByteArraySerializer.class.getName());
-
   }
 
   @Override
@@ -91,13 +63,15 @@ public class KafkaInferenceLogger implements InferenceLogger {
       return;
     }
 
-    // Setup the producer for the given project
+    // Lease the pooled producer of the given project
+    KafkaInferenceProducerPool.ProducerLease lease;
     try {
-      setupProducer(serving.getProject());
+      lease = producerPool.lease(serving.getProject());
     } catch (IOException | CryptoPasswordNotFoundException e) {
       LOGGER.log(Level.FINE, "Failed to setup the produce for the project: "
           + serving.getProject().getName() , e);
       // We didn't manage to write the log to Kafka, nothing we can do.
+      return;
     }
 
     // Create and populate the GenericRecord
@@ -113,42 +87,22 @@ public class KafkaInferenceLogger implements InferenceLogger {
     // Serialize record to byte
     byte[] inferenceRecordBytes = recordSerializer.apply(inferenceRecord);
 
-    // Push the record to the topic
-    ProducerRecord<String, byte[]> inferenceKakfaRecord = new ProducerRecord<>(
-        serving.getKafkaTopic().getTopicName(), inferenceRecordBytes);
+    // Push the record to the topic. The producer batches the records and sends them in the background.
+    final String topicName = serving.getKafkaTopic().getTopicName();
+    ProducerRecord<String, byte[]> inferenceKakfaRecord = new ProducerRecord<>(topicName, inferenceRecordBytes);
     try {
-      kafkaProducer.send(inferenceKakfaRecord);
+      lease.getProducer().send(inferenceKakfaRecord, (metadata, exception) -> {
+        if (exception != null) {
+          LOGGER.log(Level.FINE, "Cannot write to topic: " + topicName, exception);
+        }
+      });
     } catch (Exception e) {
-      LOGGER.log(Level.FINE, "Cannot write to topic: " + serving.getKafkaTopic().getTopicName(), e);
-      // We didn't manage to write the log to Kafka, nothing we can do.
+      LOGGER.log(Level.FINE, "Cannot write to topic: " + topicName, e);
+      // The producer might be broken, let the next request create a new one
+      producerPool.evict(lease);
+    } finally {
+      lease.close();
     }
-
-    // De-materialize certificate
-    certificateMaterializer.removeCertificatesLocal(SERVING_MANAGER_USERNAME, serving.getProject().getName());
-  }
-
-
-  private void setupProducer(Project project) throws IOException, CryptoPasswordNotFoundException {
-    certificateMaterializer.materializeCertificatesLocal(SERVING_MANAGER_USERNAME, project.getName());
-    CertificateMaterializer.CryptoMaterial cryptoMaterial =
-        certificateMaterializer.getUserMaterial(SERVING_MANAGER_USERNAME, project.getName());
-
-    // Configure TLS for this producer
-    props.setProperty(CommonClientConfigs.SECURITY_PROTOCOL_CONFIG, KAFKA_SECURITY_PROTOCOL);
-
-    props.setProperty(SslConfigs.SSL_TRUSTSTORE_LOCATION_CONFIG,
-        settings.getHopsworksTmpCertDir() + File.separator + HopsUtils.getProjectTruststoreName(project.getName(),
-            SERVING_MANAGER_USERNAME));
-    props.setProperty(SslConfigs.SSL_TRUSTSTORE_PASSWORD_CONFIG, String.valueOf(cryptoMaterial.getPassword()));
-
-    props.setProperty(SslConfigs.SSL_KEYSTORE_LOCATION_CONFIG,
-        settings.getHopsworksTmpCertDir() + File.separator + HopsUtils.getProjectKeystoreName(project.getName(),
-            SERVING_MANAGER_USERNAME));
-    props.setProperty(SslConfigs.SSL_KEYSTORE_PASSWORD_CONFIG, String.valueOf(cryptoMaterial.getPassword()));
-
-    props.setProperty(SslConfigs.SSL_KEY_PASSWORD_CONFIG, String.valueOf(cryptoMaterial.getPassword()));
-
-    kafkaProducer = new KafkaProducer<>(props);
   }
 
   @Override
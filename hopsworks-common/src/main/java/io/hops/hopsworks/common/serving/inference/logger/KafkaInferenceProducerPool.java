@@ -0,0 +1,343 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.serving.inference.logger;
+
+import io.hops.hopsworks.common.dao.project.Project;
+import io.hops.hopsworks.common.exception.CryptoPasswordNotFoundException;
+import io.hops.hopsworks.common.security.CertificateMaterializer;
+import io.hops.hopsworks.common.util.HopsUtils;
+import io.hops.hopsworks.common.util.Settings;
+import org.apache.kafka.clients.CommonClientConfigs;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.config.SslConfigs;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Timer;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static io.hops.hopsworks.common.dao.kafka.KafkaFacade.KAFKA_SECURITY_PROTOCOL;
+import static io.hops.hopsworks.common.serving.inference.logger.KafkaInferenceLogger.SERVING_MANAGER_USERNAME;
+
+/**
+ * Keeps one KafkaProducer per project for the inference logger. Creating a producer requires the certificates of
+ * the serving manager to be materialized and a new connection to the brokers, so producers are reused across
+ * inference requests and closed only when they have been idle for a while or when the pool is full.
+ *
+ * Each pooled producer holds one reference on the local crypto material of the project in the
+ * CertificateMaterializer, which is released when the producer is closed.
+ *
+ * Producers are handed out as leases. A producer that is evicted while leased is only closed when the last lease
+ * is released, so a send in progress never runs on a closed producer.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@DependsOn("Settings")
+public class KafkaInferenceProducerPool {
+
+  private static final Logger LOGGER = Logger.getLogger(KafkaInferenceProducerPool.class.getName());
+
+  // Maximum number of producers kept open at the same time
+  private static final int MAX_PRODUCERS = 64;
+  // Producers not used for this long are closed by the eviction timer
+  private static final long MAX_IDLE_MS = TimeUnit.MINUTES.toMillis(10);
+  // Time given to a producer to flush its pending batches when it is closed
+  private static final long CLOSE_TIMEOUT_MS = 5000;
+
+  @EJB
+  private Settings settings;
+  @EJB
+  private CertificateMaterializer certificateMaterializer;
+
+  private final Map<Integer, PooledProducer> producers = new ConcurrentHashMap<>();
+  // Serializes the creation of the producer of a project, without blocking the other projects
+  private final Map<Integer, Object> creationLocks = new ConcurrentHashMap<>();
+
+  private final AtomicLong created = new AtomicLong(0);
+  private final AtomicLong evicted = new AtomicLong(0);
+
+  /**
+   * Lease the producer of the project, creating it if there is none in the pool. The lease must be closed once the
+   * records have been sent.
+   *
+   * @param project project the inference logs belong to
+   * @return a lease on a producer configured with the serving manager certificates of the project
+   * @throws IOException if the certificates cannot be materialized
+   * @throws CryptoPasswordNotFoundException if the password of the certificates cannot be found
+   */
+  public ProducerLease lease(Project project) throws IOException, CryptoPasswordNotFoundException {
+    while (true) {
+      PooledProducer pooled = producers.get(project.getId());
+      if (pooled == null) {
+        pooled = createProducer(project);
+      }
+      if (pooled.acquire()) {
+        return new ProducerLease(project.getId(), pooled);
+      }
+      // Evicted between the lookup and the acquire, it is no longer in the map
+    }
+  }
+
+  private void release(PooledProducer pooled) {
+    if (pooled.release()) {
+      close(pooled);
+    }
+  }
+
+  /**
+   * Remove the producer from the pool, it is closed as soon as it is no longer leased.
+   */
+  private void retire(Integer projectId, PooledProducer pooled) {
+    if (producers.remove(projectId, pooled) && pooled.retire()) {
+      close(pooled);
+    }
+  }
+
+  private PooledProducer createProducer(Project project)
+      throws IOException, CryptoPasswordNotFoundException {
+    // Closing the evicted producer can take up to CLOSE_TIMEOUT_MS, it is done before taking any lock. Projects
+    // created concurrently may exceed MAX_PRODUCERS by a few until the next eviction.
+    if (producers.size() >= MAX_PRODUCERS && !producers.containsKey(project.getId())) {
+      evictLeastRecentlyUsed();
+    }
+    synchronized (creationLocks.computeIfAbsent(project.getId(), id -> new Object())) {
+      // Another thread might have created it while we were waiting for the lock
+      PooledProducer pooled = producers.get(project.getId());
+      if (pooled != null) {
+        return pooled;
+      }
+      return newProducer(project);
+    }
+  }
+
+  private PooledProducer newProducer(Project project) throws IOException, CryptoPasswordNotFoundException {
+    PooledProducer pooled;
+    certificateMaterializer.materializeCertificatesLocal(SERVING_MANAGER_USERNAME, project.getName());
+    try {
+      CertificateMaterializer.CryptoMaterial cryptoMaterial =
+          certificateMaterializer.getUserMaterial(SERVING_MANAGER_USERNAME, project.getName());
+      pooled = new PooledProducer(project.getName(),
+          new KafkaProducer<String, byte[]>(getProducerProperties(project, cryptoMaterial)));
+    } catch (CryptoPasswordNotFoundException | RuntimeException e) {
+      certificateMaterializer.removeCertificatesLocal(SERVING_MANAGER_USERNAME, project.getName());
+      throw e;
+    }
+
+    producers.put(project.getId(), pooled);
+    created.incrementAndGet();
+    return pooled;
+  }
+
+  private Properties getProducerProperties(Project project, CertificateMaterializer.CryptoMaterial cryptoMaterial) {
+    Properties props = new Properties();
+    props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, settings.getKafkaBrokersStr());
+    props.put(ProducerConfig.CLIENT_ID_CONFIG, "KafkaServing-" + project.getName());
+    props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class.getName());
+
+    // Records are batched by the producer and sent in the background, never wait long for the brokers
+    props.put(ProducerConfig.LINGER_MS_CONFIG, "50");
+    props.put(ProducerConfig.BATCH_SIZE_CONFIG, String.valueOf(64 * 1024));
+    props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, "1000");
+    props.put(ProducerConfig.ACKS_CONFIG, "1");
+
+    // Configure TLS for this producer
+    String password = String.valueOf(cryptoMaterial.getPassword());
+    props.setProperty(CommonClientConfigs.SECURITY_PROTOCOL_CONFIG, KAFKA_SECURITY_PROTOCOL);
+    props.setProperty(SslConfigs.SSL_TRUSTSTORE_LOCATION_CONFIG,
+        settings.getHopsworksTmpCertDir() + File.separator + HopsUtils.getProjectTruststoreName(project.getName(),
+            SERVING_MANAGER_USERNAME));
+    props.setProperty(SslConfigs.SSL_TRUSTSTORE_PASSWORD_CONFIG, password);
+    props.setProperty(SslConfigs.SSL_KEYSTORE_LOCATION_CONFIG,
+        settings.getHopsworksTmpCertDir() + File.separator + HopsUtils.getProjectKeystoreName(project.getName(),
+            SERVING_MANAGER_USERNAME));
+    props.setProperty(SslConfigs.SSL_KEYSTORE_PASSWORD_CONFIG, password);
+    props.setProperty(SslConfigs.SSL_KEY_PASSWORD_CONFIG, password);
+    return props;
+  }
+
+  /**
+   * Remove the leased producer from the pool, to be used when it is known to be broken. It is closed once all its
+   * leases are released. A producer created since by another thread is left alone.
+   *
+   * @param lease lease on the broken producer
+   */
+  public void evict(ProducerLease lease) {
+    retire(lease.projectId, lease.pooled);
+  }
+
+  @Schedule(persistent = false,
+      minute = "*",
+      hour = "*")
+  public void evictIdle(Timer timer) {
+    long now = System.currentTimeMillis();
+    List<Map.Entry<Integer, PooledProducer>> idle = new ArrayList<>();
+    for (Map.Entry<Integer, PooledProducer> entry : producers.entrySet()) {
+      if (now - entry.getValue().getLastUsed() > MAX_IDLE_MS) {
+        idle.add(entry);
+      }
+    }
+    for (Map.Entry<Integer, PooledProducer> entry : idle) {
+      LOGGER.log(Level.FINE, "Closing idle inference producer for project: " + entry.getValue().getProjectName());
+      retire(entry.getKey(), entry.getValue());
+    }
+  }
+
+  private void evictLeastRecentlyUsed() {
+    Map.Entry<Integer, PooledProducer> lru = null;
+    for (Map.Entry<Integer, PooledProducer> entry : producers.entrySet()) {
+      if (lru == null || entry.getValue().getLastUsed() < lru.getValue().getLastUsed()) {
+        lru = entry;
+      }
+    }
+    if (lru != null) {
+      retire(lru.getKey(), lru.getValue());
+    }
+  }
+
+  private void close(PooledProducer pooled) {
+    try {
+      pooled.getProducer().close(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    } catch (Exception e) {
+      LOGGER.log(Level.FINE, "Error closing inference producer for project: " + pooled.getProjectName(), e);
+    } finally {
+      certificateMaterializer.removeCertificatesLocal(SERVING_MANAGER_USERNAME, pooled.getProjectName());
+      evicted.incrementAndGet();
+    }
+  }
+
+  @PreDestroy
+  public void tearDown() {
+    for (Map.Entry<Integer, PooledProducer> entry : new ArrayList<>(producers.entrySet())) {
+      retire(entry.getKey(), entry.getValue());
+    }
+  }
+
+  public int getPoolSize() {
+    return producers.size();
+  }
+
+  public long getCreatedCount() {
+    return created.get();
+  }
+
+  public long getEvictedCount() {
+    return evicted.get();
+  }
+
+  /**
+   * A producer leased from the pool, to be closed once the records have been sent.
+   */
+  public final class ProducerLease implements AutoCloseable {
+    private final Integer projectId;
+    private final PooledProducer pooled;
+    private boolean released = false;
+
+    private ProducerLease(Integer projectId, PooledProducer pooled) {
+      this.projectId = projectId;
+      this.pooled = pooled;
+    }
+
+    public KafkaProducer<String, byte[]> getProducer() {
+      return pooled.getProducer();
+    }
+
+    @Override
+    public void close() {
+      if (!released) {
+        released = true;
+        release(pooled);
+      }
+    }
+  }
+
+  private static class PooledProducer {
+    private final String projectName;
+    private final KafkaProducer<String, byte[]> producer;
+    private volatile long lastUsed;
+    // Guarded by this
+    private int leases = 0;
+    private boolean retired = false;
+
+    PooledProducer(String projectName, KafkaProducer<String, byte[]> producer) {
+      this.projectName = projectName;
+      this.producer = producer;
+      this.lastUsed = System.currentTimeMillis();
+    }
+
+    String getProjectName() {
+      return projectName;
+    }
+
+    KafkaProducer<String, byte[]> getProducer() {
+      return producer;
+    }
+
+    long getLastUsed() {
+      return lastUsed;
+    }
+
+    /**
+     * @return false if the producer was retired and must not be used
+     */
+    synchronized boolean acquire() {
+      if (retired) {
+        return false;
+      }
+      leases++;
+      lastUsed = System.currentTimeMillis();
+      return true;
+    }
+
+    /**
+     * @return true if the producer was retired and this was its last lease, the caller must close it
+     */
+    synchronized boolean release() {
+      leases--;
+      return retired && leases == 0;
+    }
+
+    /**
+     * @return true if the producer is not leased, the caller must close it
+     */
+    synchronized boolean retire() {
+      if (retired) {
+        return false;
+      }
+      retired = true;
+      return leases == 0;
+    }
+  }
+}
@@ -28,6 +28,7 @@ import io.hops.hopsworks.common.exception.ServiceException;
 import io.hops.hopsworks.common.exception.UserException;
 import io.hops.hopsworks.common.security.CertificateMaterializer;
 import io.hops.hopsworks.common.serving.KafkaServingHelper;
+import io.hops.hopsworks.common.serving.inference.InferenceHttpClient;
 import io.hops.hopsworks.common.util.Settings;
 
 import javax.ejb.EJB;
@@ -68,6 +69,8 @@ public class LocalhostTfServingController implements TfServingController {
   private CertificateMaterializer certificateMaterializer;
   @EJB
   private KafkaServingHelper kafkaServingHelper;
+  @EJB
+  private InferenceHttpClient inferenceHttpClient;
 
   @Override
   public List<TfServingWrapper> getTfServings(Project project) throws TfServingException {
@@ -106,6 +109,7 @@ public class LocalhostTfServingController implements TfServingController {
         killTfServingInstance(project, tfServing, false);
       }
       tfServingFacade.delete(tfServing);
+      inferenceHttpClient.removeLatencies(tfServing.getId());
     }
   }
 
@@ -120,6 +124,7 @@ public class LocalhostTfServingController implements TfServingController {
       killTfServingInstance(project, tfServing, false);
     }
     tfServingFacade.delete(tfServing);
+    inferenceHttpClient.removeLatencies(tfServing.getId());
   }
 
   @Override
@@ -0,0 +1,276 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.upload;
+
+import io.hops.hopsworks.common.hdfs.DistributedFileSystemOps;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Writes the chunks of a resumable upload straight into HDFS, to a hidden
+ * file next to the destination that is renamed onto the destination once the
+ * upload is complete. The destination is never opened for writing, so a late
+ * or retried chunk cannot truncate a finished file and aborting an upload
+ * only removes its own partial file.
+ * <p>
+ * HDFS files can only be written sequentially, so a chunk is streamed into
+ * HDFS when it is the next one of the file. A chunk that arrives ahead of
+ * its turn is written to the local staging file at its offset and copied
+ * into HDFS as soon as the chunks before it are written.
+ * Uploaded in order, a file never touches the local disk.
+ * <p>
+ * The writer holds an HDFS client and an open output stream until it is
+ * completed or aborted.
+ */
+public class HdfsChunkWriter {
+
+  private static final Logger LOGGER = Logger.getLogger(HdfsChunkWriter.class.getName());
+
+  private static final int COPY_BUFFER_SIZE = 1024 * 1024;
+  private static final String UPLOAD_SUFFIX = ".uploading";
+
+  private final DistributedFileSystemOps dfso;
+  private final Path location;
+  private final Path uploadLocation;
+  private final String stagingFilePath;
+  private final int chunkSize;
+  private FSDataOutputStream out;
+  // First chunk not written to HDFS yet, chunks are numbered from 1
+  private int nextChunk = 1;
+  // Length of the chunks waiting in the staging file, by chunk number
+  private final Map<Integer, Long> staged = new HashMap<>();
+  private boolean failed = false;
+
+  /**
+   * @param dfso the client to write with, closed with the writer
+   * @param location the destination file, it must not exist when the upload completes
+   * @param stagingFilePath the local file for the chunks that arrive out of order
+   * @param chunkSize the size of all the chunks but the last
+   * @throws IOException
+   */
+  public HdfsChunkWriter(DistributedFileSystemOps dfso, Path location, String stagingFilePath, int chunkSize)
+      throws IOException {
+    this.dfso = dfso;
+    this.location = location;
+    this.uploadLocation = new Path(location.getParent(), "." + location.getName() + "." + UUID.randomUUID()
+        + UPLOAD_SUFFIX);
+    this.stagingFilePath = stagingFilePath;
+    this.chunkSize = chunkSize;
+    this.out = dfso.create(uploadLocation);
+  }
+
+  public Path getLocation() {
+    return location;
+  }
+
+  public synchronized boolean isFailed() {
+    return failed;
+  }
+
+  /**
+   * Writes a chunk into HDFS if it is the next one of the file.
+   *
+   * @param chunkNumber
+   * @param data the content of the chunk
+   * @param length the length of the chunk
+   * @return false if the chunk is not the next one, it was not written
+   * @throws IOException if HDFS cannot be written, the writer is then failed
+   */
+  public synchronized boolean writeIfNext(int chunkNumber, byte[] data, int length) throws IOException {
+    checkNotFailed();
+    if (chunkNumber != nextChunk) {
+      return false;
+    }
+    try {
+      out.write(data, 0, length);
+    } catch (IOException ex) {
+      failed = true;
+      throw ex;
+    }
+    nextChunk++;
+    return true;
+  }
+
+  /**
+   * Writes a chunk that is not the next one to its offset in the staging
+   * file, with a positional write, then copies the staged chunks that became
+   * next into HDFS.
+   *
+   * @param chunkNumber
+   * @param in the content of the chunk
+   * @param length the length of the chunk
+   * @throws IOException if the chunk could not be staged completely, it is not recorded and must be sent again
+   */
+  public void stage(int chunkNumber, InputStream in, long length) throws IOException {
+    long written = writeToFile(stagingFilePath, (chunkNumber - 1) * (long) chunkSize, in, length);
+    if (written != length) {
+      throw new EOFException("Chunk " + chunkNumber + " is incomplete, " + written + " of " + length
+          + " bytes received");
+    }
+    synchronized (this) {
+      checkNotFailed();
+      if (chunkNumber >= nextChunk) {
+        staged.put(chunkNumber, written);
+      }
+    }
+    drain();
+  }
+
+  /**
+   * Copies into HDFS the staged chunks that follow the last written one.
+   *
+   * @throws IOException
+   */
+  public synchronized void drain() throws IOException {
+    checkNotFailed();
+    if (!staged.containsKey(nextChunk)) {
+      return;
+    }
+    try (FileChannel channel = FileChannel.open(Paths.get(stagingFilePath), StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+      Long length;
+      while ((length = staged.remove(nextChunk)) != null) {
+        long position = (nextChunk - 1) * (long) chunkSize;
+        long remaining = length;
+        while (remaining > 0) {
+          buffer.clear();
+          buffer.limit((int) Math.min(buffer.capacity(), remaining));
+          int read = channel.read(buffer, position);
+          if (read < 0) {
+            throw new IOException("Staged chunk " + nextChunk + " is shorter than " + length + " bytes");
+          }
+          out.write(buffer.array(), 0, read);
+          position += read;
+          remaining -= read;
+        }
+        nextChunk++;
+      }
+    } catch (IOException ex) {
+      failed = true;
+      throw ex;
+    }
+  }
+
+  /**
+   * Closes the HDFS file once all the chunks are written, renames it onto
+   * the destination and removes the staging file.
+   *
+   * @throws IOException if chunks are still missing, the file cannot be closed or the destination exists
+   */
+  public synchronized void complete() throws IOException {
+    drain();
+    if (!staged.isEmpty()) {
+      failed = true;
+      throw new IOException("Upload of " + location + " is missing chunk " + nextChunk);
+    }
+    try {
+      out.close();
+      out = null;
+      if (!dfso.getFilesystem().rename(uploadLocation, location)) {
+        throw new IOException("Could not move upload to " + location + ", the destination exists");
+      }
+    } catch (IOException ex) {
+      failed = true;
+      removeUpload();
+      throw ex;
+    } finally {
+      release();
+    }
+  }
+
+  /**
+   * Drops the upload, removing the partial file written in HDFS and the
+   * staging file. The destination is left untouched.
+   */
+  public synchronized void abort() {
+    failed = true;
+    if (out == null) {
+      return;
+    }
+    try {
+      out.close();
+    } catch (IOException ex) {
+      LOGGER.log(Level.FINE, "Could not close aborted upload " + location, ex);
+    }
+    out = null;
+    removeUpload();
+    release();
+  }
+
+  private void removeUpload() {
+    try {
+      dfso.rm(uploadLocation, false);
+    } catch (IOException ex) {
+      LOGGER.log(Level.WARNING, "Could not remove aborted upload " + uploadLocation, ex);
+    }
+  }
+
+  private void release() {
+    try {
+      Files.deleteIfExists(Paths.get(stagingFilePath));
+    } catch (IOException ex) {
+      LOGGER.log(Level.WARNING, "Could not remove staging file " + stagingFilePath, ex);
+    }
+    dfso.close();
+  }
+
+  private void checkNotFailed() throws IOException {
+    if (failed) {
+      throw new IOException("Upload of " + location + " failed");
+    }
+  }
+
+  /**
+   * Writes at most length bytes of the stream at the given offset of a local
+   * file, without moving through a user space buffer when the channel
+   * allows it.
+   *
+   * @return the number of bytes written
+   * @throws IOException
+   */
+  public static long writeToFile(String filePath, long offset, InputStream in, long length) throws IOException {
+    try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE);
+        ReadableByteChannel source = Channels.newChannel(in)) {
+      long written = 0;
+      while (written < length) {
+        long transferred = channel.transferFrom(source, offset + written, length - written);
+        if (transferred <= 0) {
+          break;
+        }
+        written += transferred;
+      }
+      return written;
+    }
+  }
+
+}
@@ -40,7 +40,7 @@
 package io.hops.hopsworks.common.upload;
 
 import java.io.File;
-import java.util.HashSet;
+import java.util.BitSet;
 
 public class ResumableInfo {
 
@@ -53,8 +53,11 @@ public class ResumableInfo {
   private long uploadedContentLength = 0;
   private String resumableFilePath;
 
-  //Chunks uploaded. Private to enable atomically add and check if finished
-  private HashSet<ResumableChunkNumber> uploadedChunks = new HashSet<>();
+  //Chunks uploaded, by chunk number. Private to enable atomically add and check if finished
+  private final BitSet uploadedChunks = new BitSet();
+  private volatile long lastAccessed = System.currentTimeMillis();
+  //Streams the chunks straight into HDFS, null if the file is assembled in the staging dir
+  private HdfsChunkWriter hdfsWriter;
 
   public static class ResumableChunkNumber {
 
@@ -91,6 +94,10 @@ public class ResumableInfo {
     if (uploadedContentLength != resumableTotalSize) {
       return false;
     }
+    if (hdfsWriter != null) {
+      //The chunks are in HDFS already
+      return true;
+    }
 
     //Upload finished, change filename.
     File file = new File(resumableFilePath);
@@ -109,10 +116,11 @@ public class ResumableInfo {
    */
   public synchronized boolean addChunkAndCheckIfFinished(
           ResumableChunkNumber rcn, long contentLength) {
-    if (!uploadedChunks.contains(rcn)) {
+    touch();
+    if (!uploadedChunks.get(rcn.number)) {
       uploadedContentLength += contentLength;
     }
-    uploadedChunks.add(rcn);
+    uploadedChunks.set(rcn.number);
     return checkIfUploadFinished();
   }
 
@@ -122,8 +130,41 @@ public class ResumableInfo {
    * @param rcn
    * @return
    */
-  public boolean isUploaded(ResumableChunkNumber rcn) {
-    return uploadedChunks.contains(rcn);
+  public synchronized boolean isUploaded(ResumableChunkNumber rcn) {
+    touch();
+    return rcn.number >= 0 && uploadedChunks.get(rcn.number);
+  }
+
+  /**
+   * Mark the upload as active, uploads not touched for a while are evicted
+   * from the {@link ResumableInfoStorage}.
+   */
+  public void touch() {
+    lastAccessed = System.currentTimeMillis();
+  }
+
+  public long getLastAccessed() {
+    return lastAccessed;
+  }
+
+  public synchronized HdfsChunkWriter getHdfsWriter() {
+    return hdfsWriter;
+  }
+
+  public synchronized void setHdfsWriter(HdfsChunkWriter hdfsWriter) {
+    this.hdfsWriter = hdfsWriter;
+  }
+
+  /**
+   * Drop an upload that will not finish, removing its partial file in HDFS
+   * and its staging file.
+   */
+  public synchronized void abort() {
+    if (hdfsWriter != null) {
+      hdfsWriter.abort();
+    } else if (resumableFilePath != null) {
+      new File(resumableFilePath).delete();
+    }
   }
 
   /*
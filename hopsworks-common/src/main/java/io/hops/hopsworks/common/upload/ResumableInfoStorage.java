@@ -39,25 +39,39 @@
 
 package io.hops.hopsworks.common.upload;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+/**
+ * The uploads in progress, by resumable identifier. An upload that has not
+ * received a chunk for {@link #MAX_IDLE_MS} is considered abandoned, it is
+ * evicted and its partial files are removed. Evictions are checked at most
+ * once every {@link #EVICTION_INTERVAL_MS}, by the caller of
+ * {@link #get(int, long, String, String, String, String, int)}.
+ */
 public class ResumableInfoStorage {
 
+  private static final Logger LOGGER = Logger.getLogger(ResumableInfoStorage.class.getName());
+
+  private static final long MAX_IDLE_MS = TimeUnit.HOURS.toMillis(1);
+  private static final long EVICTION_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+
   //Single instance
   private ResumableInfoStorage() {
   }
-  private static ResumableInfoStorage sInstance;
+  private static final ResumableInfoStorage sInstance = new ResumableInfoStorage();
 
-  public static synchronized ResumableInfoStorage getInstance() {
-    if (sInstance == null) {
-      sInstance = new ResumableInfoStorage();
-    }
+  public static ResumableInfoStorage getInstance() {
     return sInstance;
   }
 
   //resumableIdentifier --  ResumableInfo
-  private HashMap<String, ResumableInfo> mMap
-          = new HashMap<String, ResumableInfo>();
+  private final ConcurrentMap<String, ResumableInfo> mMap = new ConcurrentHashMap<>();
+  private final AtomicLong lastEviction = new AtomicLong(System.currentTimeMillis());
 
   /**
    * Get ResumableInfo from mMap or Create a new one.
@@ -71,27 +85,33 @@ public class ResumableInfoStorage {
    * @param resumableTemplateId
    * @return
    */
-  public synchronized ResumableInfo get(int resumableChunkSize,
-          long resumableTotalSize,
-          String resumableIdentifier, String resumableFilename,
-          String resumableRelativePath, String resumableFilePath,
-          int resumableTemplateId) {
-
-    ResumableInfo info = mMap.get(resumableIdentifier);
-
-    if (info == null) {
-      info = new ResumableInfo();
-
+  public ResumableInfo get(final int resumableChunkSize,
+          final long resumableTotalSize,
+          final String resumableIdentifier, final String resumableFilename,
+          final String resumableRelativePath, final String resumableFilePath,
+          final int resumableTemplateId) {
+    evictIdle();
+    if (resumableIdentifier == null) {
+      //Not valid, never stored
+      ResumableInfo info = new ResumableInfo();
       info.setResumableChunkSize(resumableChunkSize);
       info.setResumableTotalSize(resumableTotalSize);
-      info.setResumableIdentifier(resumableIdentifier);
-      info.setResumableFilename(resumableFilename);
-      info.setResumableRelativePath(resumableRelativePath);
-      info.setResumableFilePath(resumableFilePath);
-      info.setResumableTemplateId(resumableTemplateId);
-
-      mMap.put(resumableIdentifier, info);
+      return info;
     }
+
+    ResumableInfo info = mMap.computeIfAbsent(resumableIdentifier, id -> {
+      ResumableInfo created = new ResumableInfo();
+
+      created.setResumableChunkSize(resumableChunkSize);
+      created.setResumableTotalSize(resumableTotalSize);
+      created.setResumableIdentifier(resumableIdentifier);
+      created.setResumableFilename(resumableFilename);
+      created.setResumableRelativePath(resumableRelativePath);
+      created.setResumableFilePath(resumableFilePath);
+      created.setResumableTemplateId(resumableTemplateId);
+      return created;
+    });
+    info.touch();
     return info;
   }
 
@@ -101,6 +121,29 @@ public class ResumableInfoStorage {
    * @param info
    */
   public void remove(ResumableInfo info) {
-    mMap.remove(info.getResumableIdentifier());
+    if (info.getResumableIdentifier() != null) {
+      mMap.remove(info.getResumableIdentifier(), info);
+    }
+  }
+
+  /**
+   * @return the number of uploads in progress
+   */
+  public int size() {
+    return mMap.size();
+  }
+
+  private void evictIdle() {
+    long now = System.currentTimeMillis();
+    long last = lastEviction.get();
+    if (now - last < EVICTION_INTERVAL_MS || !lastEviction.compareAndSet(last, now)) {
+      return;
+    }
+    for (ResumableInfo info : mMap.values()) {
+      if (now - info.getLastAccessed() > MAX_IDLE_MS && mMap.remove(info.getResumableIdentifier(), info)) {
+        LOGGER.log(Level.INFO, "Evicting abandoned upload of {0}", info.getResumableFilename());
+        info.abort();
+      }
+    }
   }
 }
@@ -0,0 +1,194 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.util;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The clients used to talk to the kagents. The number of clients is capped, a few are created on startup and they
+ * all share the same SSLContext so that TLS sessions and keep-alive connections to an agent are reused. Conda
+ * operations can hold a client for as long as an environment takes to build, they have their own cap so that they
+ * cannot starve the service operations and the other way around.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class AgentClientPool {
+
+  private static final Logger LOGGER = Logger.getLogger(AgentClientPool.class.getName());
+
+  private static final boolean DISABLE_CERTIFICATE_VALIDATION = true;
+  public static final int MAX_CLIENTS = 32;
+  public static final int MAX_CONDA_CLIENTS = 32;
+  private static final int PREWARM_CLIENTS = 4;
+  private static final long BORROW_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(30);
+  public static final int CONNECT_TIMEOUT_MS = (int) TimeUnit.SECONDS.toMillis(10);
+  // Jersey client properties, ClientProperties.CONNECT_TIMEOUT and ClientProperties.READ_TIMEOUT
+  public static final String CONNECT_TIMEOUT_PROPERTY = "jersey.config.client.connectTimeout";
+  public static final String READ_TIMEOUT_PROPERTY = "jersey.config.client.readTimeout";
+
+  private final BlockingQueue<Client> availableClients = new ArrayBlockingQueue<>(MAX_CLIENTS + MAX_CONDA_CLIENTS);
+  private final Semaphore permits = new Semaphore(MAX_CLIENTS, true);
+  private final Semaphore condaPermits = new Semaphore(MAX_CONDA_CLIENTS, true);
+  private SSLContext sslContext;
+
+  public AgentClientPool() {
+  }
+
+  @PostConstruct
+  public void init() {
+    try {
+      for (int i = 0; i < PREWARM_CLIENTS; i++) {
+        availableClients.offer(createClient());
+      }
+    } catch (NoSuchAlgorithmException | KeyManagementException ex) {
+      LOGGER.log(Level.WARNING, "Could not create the kagent clients", ex);
+    }
+  }
+
+  @PreDestroy
+  public void cleanUp() {
+    Client client;
+    while ((client = availableClients.poll()) != null) {
+      client.close();
+    }
+  }
+
+  /**
+   * Waits for a client if {@link #MAX_CLIENTS} are already in use, for any operation but conda ones. The client must
+   * be given back with {@link #release(Client)}.
+   *
+   * @return a client
+   * @throws NoSuchAlgorithmException
+   * @throws KeyManagementException
+   */
+  public Client borrow() throws NoSuchAlgorithmException, KeyManagementException {
+    return borrow(false);
+  }
+
+  /**
+   * Conda operations wait for as long as it takes for one of the {@link #MAX_CONDA_CLIENTS} to be free, since the
+   * operations before them can take minutes. Other operations wait at most {@link #BORROW_TIMEOUT_MS} for one of the
+   * {@link #MAX_CLIENTS}. The client must be given back with {@link #release(Client, boolean)}.
+   *
+   * @param condaOp whether the client is for a conda operation
+   * @return a client
+   * @throws NoSuchAlgorithmException
+   * @throws KeyManagementException
+   */
+  public Client borrow(boolean condaOp) throws NoSuchAlgorithmException, KeyManagementException {
+    Semaphore lane = condaOp ? condaPermits : permits;
+    try {
+      if (condaOp) {
+        lane.acquire();
+      } else if (!lane.tryAcquire(BORROW_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+        throw new IllegalStateException("All the " + MAX_CLIENTS + " kagent clients are in use");
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a kagent client", ex);
+    }
+    Client client = availableClients.poll();
+    if (client == null) {
+      try {
+        client = createClient();
+      } catch (NoSuchAlgorithmException | KeyManagementException | RuntimeException ex) {
+        lane.release();
+        throw ex;
+      }
+    }
+    return client;
+  }
+
+  public void release(Client client) {
+    release(client, false);
+  }
+
+  public void release(Client client, boolean condaOp) {
+    if (!availableClients.offer(client)) {
+      client.close();
+    }
+    (condaOp ? condaPermits : permits).release();
+  }
+
+  public int getAvailable() {
+    return permits.availablePermits();
+  }
+
+  private Client createClient() throws NoSuchAlgorithmException, KeyManagementException {
+    if (DISABLE_CERTIFICATE_VALIDATION) {
+      // Ignore differences between given hostname and certificate hostname
+      HostnameVerifier hv = new HostnameVerifier() {
+        public boolean verify(String hostAddress, SSLSession session) {
+          return true;
+        }
+      };
+      return ClientBuilder.newBuilder()
+          .hostnameVerifier(hv)
+          .sslContext(getSslContext())
+          .property(CONNECT_TIMEOUT_PROPERTY, CONNECT_TIMEOUT_MS)
+          .build();
+    } else {
+      return ClientBuilder.newBuilder()
+          .property(CONNECT_TIMEOUT_PROPERTY, CONNECT_TIMEOUT_MS)
+          .build();
+    }
+  }
+
+  private synchronized SSLContext getSslContext() throws NoSuchAlgorithmException, KeyManagementException {
+    if (sslContext == null) {
+      // Create a trust manager that does not validate certificate chains
+      TrustManager[] trustAllCerts = new TrustManager[]{
+          new X509TrustManager() {
+            public X509Certificate[] getAcceptedIssuers() {
+              return new X509Certificate[0];
+            }
+
+            public void checkClientTrusted(X509Certificate[] certs, String authType) {
+            }
+
+            public void checkServerTrusted(X509Certificate[] certs, String authType) {
+            }
+          }};
+      // Install the all-trusting trust manager
+      SSLContext sc = SSLContext.getInstance("TLSv1.2");
+      sc.init(null, trustAllCerts, new SecureRandom());
+      sslContext = sc;
+    }
+    return sslContext;
+  }
+}
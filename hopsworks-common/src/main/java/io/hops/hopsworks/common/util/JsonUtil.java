@@ -61,7 +61,10 @@ public class JsonUtil {
           getLogger(JsonUtil.class.getName());
 
   static public InodeTableComposite parseSchemaHeader(String message) {
-    JsonObject obj = Json.createReader(new StringReader(message)).readObject();
+    return parseSchemaHeader(Json.createReader(new StringReader(message)).readObject());
+  }
+
+  static public InodeTableComposite parseSchemaHeader(JsonObject obj) {
     InodeTableComposite itc = null;
 
     try {
@@ -79,8 +82,10 @@ public class JsonUtil {
   }
 
   static public List<EntityIntf> parseSchemaPayload(String message) {
-    JsonObject obj = Json.createReader(new StringReader(message)).readObject();
+    return parseSchemaPayload(Json.createReader(new StringReader(message)).readObject());
+  }
 
+  static public List<EntityIntf> parseSchemaPayload(JsonObject obj) {
     JsonObject meta = obj.getJsonObject("metadata");
     List<EntityIntf> data = new LinkedList<>();
 
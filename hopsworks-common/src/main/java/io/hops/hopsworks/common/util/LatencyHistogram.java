@@ -0,0 +1,110 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-bucket latency histogram in milliseconds. Recording is lock-free so it can be updated from the request
+ * path; the buckets are coarse on purpose, it is meant to show where the time goes, not exact percentiles.
+ */
+public class LatencyHistogram {
+
+  private static final long[] BUCKET_BOUNDS_MS =
+      {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000};
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+  private final AtomicLong count = new AtomicLong(0);
+  private final AtomicLong sum = new AtomicLong(0);
+  private final AtomicLong max = new AtomicLong(0);
+
+  public void record(long latencyMs) {
+    if (latencyMs < 0) {
+      latencyMs = 0;
+    }
+    int bucket = BUCKET_BOUNDS_MS.length;
+    for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+      if (latencyMs <= BUCKET_BOUNDS_MS[i]) {
+        bucket = i;
+        break;
+      }
+    }
+    buckets.incrementAndGet(bucket);
+    count.incrementAndGet();
+    sum.addAndGet(latencyMs);
+    long currentMax = max.get();
+    while (latencyMs > currentMax && !max.compareAndSet(currentMax, latencyMs)) {
+      currentMax = max.get();
+    }
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  public double getMean() {
+    long c = count.get();
+    return c == 0 ? 0 : (double) sum.get() / c;
+  }
+
+  /**
+   * Approximate percentile, returns the upper bound of the bucket the percentile falls into.
+   *
+   * @param percentile between 0 and 100
+   * @return latency in milliseconds
+   */
+  public long getPercentile(double percentile) {
+    long c = count.get();
+    if (c == 0) {
+      return 0;
+    }
+    long target = (long) Math.ceil(c * percentile / 100.0);
+    long seen = 0;
+    for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+      seen += buckets.get(i);
+      if (seen >= target) {
+        return BUCKET_BOUNDS_MS[i];
+      }
+    }
+    return max.get();
+  }
+
+  /**
+   * @return bucket upper bound (as string, "+Inf" for the last one) to number of samples
+   */
+  public Map<String, Long> getBuckets() {
+    Map<String, Long> result = new LinkedHashMap<>();
+    for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+      result.put(String.valueOf(BUCKET_BOUNDS_MS[i]), buckets.get(i));
+    }
+    result.put("+Inf", buckets.get(BUCKET_BOUNDS_MS.length));
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "count=" + getCount() + ", mean=" + getMean() + "ms, p50=" + getPercentile(50) + "ms, p99="
+        + getPercentile(99) + "ms, max=" + getMax() + "ms";
+  }
+}
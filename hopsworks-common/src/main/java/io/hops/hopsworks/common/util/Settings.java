@@ -76,6 +76,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -84,6 +85,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -297,9 +299,8 @@ public class Settings implements Serializable {
   private static final String VARIABLE_KUBE_REGISTRY = "kube_registry";
   private static final String VARIABLE_KUBE_MAX_SERVING = "kube_max_serving_instances";
 
-
   private String setVar(String varName, String defaultValue) {
-    Variables userName = findById(varName);
+    Variables userName = lookupVariable(varName);
     if (userName != null && userName.getValue() != null && (!userName.getValue().isEmpty())) {
       String user = userName.getValue();
       if (user != null && !user.isEmpty()) {
@@ -310,7 +311,7 @@ public class Settings implements Serializable {
   }
 
   private String setStrVar(String varName, String defaultValue) {
-    Variables var = findById(varName);
+    Variables var = lookupVariable(varName);
     if (var != null && var.getValue() != null) {
       String val = var.getValue();
       if (val != null && !val.isEmpty()) {
@@ -321,7 +322,7 @@ public class Settings implements Serializable {
   }
 
   private String setDirVar(String varName, String defaultValue) {
-    Variables dirName = findById(varName);
+    Variables dirName = lookupVariable(varName);
     if (dirName != null && dirName.getValue() != null && (new File(dirName.
         getValue()).isDirectory())) {
       String val = dirName.getValue();
@@ -333,7 +334,7 @@ public class Settings implements Serializable {
   }
 
   private String setIpVar(String varName, String defaultValue) {
-    Variables var = findById(varName);
+    Variables var = lookupVariable(varName);
     if (var != null && var.getValue() != null && Ip.validIp(var.getValue())) {
       String val = var.getValue();
       if (val != null && !val.isEmpty()) {
@@ -344,7 +345,7 @@ public class Settings implements Serializable {
   }
 
   private String setDbVar(String varName, String defaultValue) {
-    Variables var = findById(varName);
+    Variables var = lookupVariable(varName);
     if (var != null && var.getValue() != null) {
       // TODO - check this is a valid DB name
       String val = var.getValue();
@@ -356,7 +357,7 @@ public class Settings implements Serializable {
   }
 
   private Boolean setBoolVar(String varName, Boolean defaultValue) {
-    Variables var = findById(varName);
+    Variables var = lookupVariable(varName);
     if (var != null && var.getValue() != null) {
       String val = var.getValue();
       if (val != null && !val.isEmpty()) {
@@ -367,7 +368,7 @@ public class Settings implements Serializable {
   }
 
   private Integer setIntVar(String varName, Integer defaultValue) {
-    Variables var = findById(varName);
+    Variables var = lookupVariable(varName);
     try {
       if (var != null && var.getValue() != null) {
         String val = var.getValue();
@@ -383,7 +384,7 @@ public class Settings implements Serializable {
   }
 
   private long setLongVar(String varName, Long defaultValue) {
-    Variables var = findById(varName);
+    Variables var = lookupVariable(varName);
     try {
       if (var != null && var.getValue() != null) {
         String val = var.getValue();
@@ -400,7 +401,7 @@ public class Settings implements Serializable {
   }
   
   private LOG_LEVEL setLogLevelVar(String varName, LOG_LEVEL defaultValue) {
-    Variables var = findById(varName);
+    Variables var = lookupVariable(varName);
     if (var != null && var.getValue() != null) {
       String val = var.getValue();
       if (val != null && !val.isEmpty()) {
@@ -410,197 +411,433 @@ public class Settings implements Serializable {
     return defaultValue;
   }
 
-  private boolean cached = false;
-
-  private void populateCache() {
-    if (!cached) {
-      PYTHON_KERNEL = setBoolVar(VARIABLE_PYTHON_KERNEL, PYTHON_KERNEL);
-      JAVA_HOME = setVar(VARIABLE_JAVA_HOME, JAVA_HOME);
-      TWOFACTOR_AUTH = setVar(VARIABLE_TWOFACTOR_AUTH, TWOFACTOR_AUTH);
-      TWOFACTOR_EXCLUDE = setVar(VARIABLE_TWOFACTOR_EXCLUD, TWOFACTOR_EXCLUDE);
-      HOPSWORKS_USER = setVar(VARIABLE_HOPSWORKS_USER, HOPSWORKS_USER);
-      HDFS_SUPERUSER = setVar(VARIABLE_HDFS_SUPERUSER, HDFS_SUPERUSER);
-      YARN_SUPERUSER = setVar(VARIABLE_YARN_SUPERUSER, YARN_SUPERUSER);
-      SPARK_USER = setVar(VARIABLE_SPARK_USER, SPARK_USER);
-      SPARK_DIR = setDirVar(VARIABLE_SPARK_DIR, SPARK_DIR);
-      PY4J_ARCHIVE = setVar(VARIABLE_PY4J_ARCHIVE, PY4J_ARCHIVE);
-      FLINK_USER = setVar(VARIABLE_FLINK_USER, FLINK_USER);
-      FLINK_DIR = setDirVar(VARIABLE_FLINK_DIR, FLINK_DIR);
-      STAGING_DIR = setDirVar(VARIABLE_STAGING_DIR, STAGING_DIR);
-      HOPSUTIL_VERSION = setVar(VARIABLE_HOPSUTIL_VERSION, HOPSUTIL_VERSION);
-      HOPS_EXAMPLES_VERSION = setVar(VARIABLE_HOPSEXAMPLES_VERSION, HOPS_EXAMPLES_VERSION);
-      HIVE_SERVER_HOSTNAME = setStrVar(VARIABLE_HIVE_SERVER_HOSTNAME,
-          HIVE_SERVER_HOSTNAME);
-      HIVE_SERVER_HOSTNAME_EXT = setStrVar(VARIABLE_HIVE_SERVER_HOSTNAME_EXT,
-          HIVE_SERVER_HOSTNAME_EXT);
-      HIVE_SUPERUSER = setStrVar(VARIABLE_HIVE_SUPERUSER, HIVE_SUPERUSER);
-      HIVE_WAREHOUSE = setStrVar(VARIABLE_HIVE_WAREHOUSE, HIVE_WAREHOUSE);
-      HIVE_LLAP_SLIDER_DIR = setStrVar(VARIABLE_HIVE_LLAP_SLIDER_DIR, HIVE_LLAP_SLIDER_DIR);
-      HIVE_LLAP_LOCAL_FS_DIR = setStrVar(VARIABLE_HIVE_LLAP_LOCAL_DIR, HIVE_LLAP_LOCAL_FS_DIR);
-      HIVE_SCRATCHDIR = setStrVar(VARIABLE_HIVE_SCRATCHDIR, HIVE_SCRATCHDIR);
-      HIVE_DB_DEFAULT_QUOTA = setStrVar(VARIABLE_HIVE_DEFAULT_QUOTA, HIVE_DB_DEFAULT_QUOTA);
-      ALERT_EMAIL_ADDRS = setStrVar(VARIABLE_ALERT_EMAIL_ADDRS, "");
-      ZEPPELIN_USER = setVar(VARIABLE_ZEPPELIN_USER, ZEPPELIN_USER);
-      ZEPPELIN_DIR = setDirVar(VARIABLE_ZEPPELIN_DIR, ZEPPELIN_DIR);
-      ZEPPELIN_PROJECTS_DIR = setDirVar(VARIABLE_ZEPPELIN_PROJECTS_DIR,
-          ZEPPELIN_PROJECTS_DIR);
-      ZEPPELIN_SYNC_INTERVAL = setLongVar(VARIABLE_ZEPPELIN_SYNC_INTERVAL, ZEPPELIN_SYNC_INTERVAL);
-      HADOOP_VERSION = setVar(VARIABLE_HADOOP_VERSION, HADOOP_VERSION);
-      JUPYTER_DIR = setDirVar(VARIABLE_JUPYTER_DIR, JUPYTER_DIR);
-      MYSQL_DIR = setDirVar(VARIABLE_MYSQL_DIR, MYSQL_DIR);
-      HADOOP_DIR = setDirVar(VARIABLE_HADOOP_DIR, HADOOP_DIR);
-      HOPSWORKS_INSTALL_DIR = setDirVar(VARIABLE_HOPSWORKS_DIR,
-          HOPSWORKS_INSTALL_DIR);
-      CERTS_DIR = setDirVar(VARIABLE_CERTS_DIRS, CERTS_DIR);
-      CERTIFICATE_USER_VALID_DAYS = setStrVar(VARIABLE_CERTIFICATE_USER_VALID_DAYS, CERTIFICATE_USER_VALID_DAYS);
-      NDB_DIR = setDirVar(VARIABLE_NDB_DIR, NDB_DIR);
-      ELASTIC_IP = setIpVar(VARIABLE_ELASTIC_IP, ELASTIC_IP);
-      ELASTIC_PORT = setIntVar(VARIABLE_ELASTIC_PORT, ELASTIC_PORT);
-      ELASTIC_REST_PORT = setIntVar(VARIABLE_ELASTIC_REST_PORT, ELASTIC_REST_PORT);
-      ELASTIC_LOGS_INDEX_EXPIRATION = setLongVar(VARIABLE_ELASTIC_LOGS_INDEX_EXPIRATION, ELASTIC_LOGS_INDEX_EXPIRATION);
-      HOPSWORKS_IP = setIpVar(VARIABLE_HOPSWORKS_IP, HOPSWORKS_IP);
-      HOPSWORKS_PORT = setIntVar(VARIABLE_HOPSWORKS_PORT, HOPSWORKS_PORT);
-      RM_IP = setIpVar(VARIABLE_RM_IP, RM_IP);
-      RM_PORT = setIntVar(VARIABLE_RM_PORT, RM_PORT);
-      LOGSTASH_IP = setIpVar(VARIABLE_LOGSTASH_IP, LOGSTASH_IP);
-      LOGSTASH_PORT = setIntVar(VARIABLE_LOGSTASH_PORT, LOGSTASH_PORT);
-      LOGSTASH_PORT_SERVING = setIntVar(VARIABLE_LOGSTASH_PORT_SERVING, LOGSTASH_PORT_SERVING);
-      JHS_IP = setIpVar(VARIABLE_JHS_IP, JHS_IP);
-      LIVY_IP = setIpVar(VARIABLE_LIVY_IP, LIVY_IP);
-      LIVY_ZEPPELIN_SESSION_TIMEOUT = setVar(VARIABLE_LIVY_ZEPPELIN_SESSION_TIMEOUT, LIVY_ZEPPELIN_SESSION_TIMEOUT);
-      ZEPPELIN_INTERPRETERS = setVar(VARIABLE_ZEPPELIN_INTERPRETERS, ZEPPELIN_INTERPRETERS);
-      OOZIE_IP = setIpVar(VARIABLE_OOZIE_IP, OOZIE_IP);
-      SPARK_HISTORY_SERVER_IP = setIpVar(VARIABLE_SPARK_HISTORY_SERVER_IP,
-          SPARK_HISTORY_SERVER_IP);
-      ZK_IP = setIpVar(VARIABLE_ZK_IP, ZK_IP);
-      ZK_USER = setVar(VARIABLE_ZK_USER, ZK_USER);
-      ZK_DIR = setDirVar(VARIABLE_ZK_DIR, ZK_DIR);
-      DRELEPHANT_IP = setIpVar(VARIABLE_DRELEPHANT_IP, DRELEPHANT_IP);
-      DRELEPHANT_PORT = setIntVar(VARIABLE_DRELEPHANT_PORT, DRELEPHANT_PORT);
-      DRELEPHANT_DB = setDbVar(VARIABLE_DRELEPHANT_DB, DRELEPHANT_DB);
-      KIBANA_IP = setIpVar(VARIABLE_KIBANA_IP, KIBANA_IP);
-      KAFKA_MAX_NUM_TOPICS = setIntVar(VARIABLE_KAFKA_MAX_NUM_TOPICS, KAFKA_MAX_NUM_TOPICS);
-      KAFKA_USER = setVar(VARIABLE_KAFKA_USER, KAFKA_USER);
-      KAFKA_DIR = setDirVar(VARIABLE_KAFKA_DIR, KAFKA_DIR);
-      KAFKA_DEFAULT_NUM_PARTITIONS = setIntVar(VARIABLE_KAFKA_NUM_PARTITIONS,
-          KAFKA_DEFAULT_NUM_PARTITIONS);
-      KAFKA_DEFAULT_NUM_REPLICAS = setIntVar(VARIABLE_KAFKA_NUM_REPLICAS,
-          KAFKA_DEFAULT_NUM_REPLICAS);
-      YARN_DEFAULT_QUOTA = setIntVar(VARIABLE_YARN_DEFAULT_QUOTA,
-          YARN_DEFAULT_QUOTA);
-      YARN_WEB_UI_IP = setIpVar(VARIABLE_YARN_WEB_UI_IP, YARN_WEB_UI_IP);
-      HDFS_WEB_UI_IP = setIpVar(VARIABLE_HDFS_WEB_UI_IP, HDFS_WEB_UI_IP);
-      HDFS_WEB_UI_PORT = setIntVar(VARIABLE_HDFS_WEB_UI_PORT, HDFS_WEB_UI_PORT);
-      YARN_WEB_UI_PORT = setIntVar(VARIABLE_YARN_WEB_UI_PORT, YARN_WEB_UI_PORT);
-      HDFS_DEFAULT_QUOTA_MBs = setDirVar(VARIABLE_HDFS_DEFAULT_QUOTA,
-          HDFS_DEFAULT_QUOTA_MBs);
-      MAX_NUM_PROJ_PER_USER = setDirVar(VARIABLE_MAX_NUM_PROJ_PER_USER,
-          MAX_NUM_PROJ_PER_USER);
-      HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD = setVar(
+  /**
+   * The values computed from one snapshot of the variables table. A new instance is filled in by every load and
+   * published as a whole; once published it is never modified, setters publish a modified copy instead. A getter
+   * that reads several values from the same instance therefore never mixes two loads.
+   */
+  private static class CachedValues implements Cloneable {
+
+    private final VariablesSnapshot snapshot;
+
+    String TWOFACTOR_AUTH = "false";
+    String TWOFACTOR_EXCLUDE = "AGENT;CLUSTER_AGENT";
+    String HOPS_RPC_TLS = "false";
+    String SPARK_DIR = "/srv/hops/spark";
+    String PY4J_ARCHIVE = "py4j-0.10.7-src.zip";
+    String STAGING_DIR = "/srv/hops/domains/domain1/staging";
+    String FLINK_DIR = "/srv/hops/flink";
+    String MYSQL_DIR = "/usr/local/mysql";
+    String NDB_DIR = "/var/lib/mysql-cluster";
+    String HADOOP_DIR = "/srv/hops/hadoop";
+    String HIVE_SERVER_HOSTNAME = "127.0.0.1:9085";
+    String HIVE_SERVER_HOSTNAME_EXT = "127.0.0.1:9084";
+    String HIVE_SUPERUSER = "hive";
+    String ANACONDA_DEFAULT_REPO = "defaults";
+    String HIVE_WAREHOUSE = "/apps/hive/warehouse";
+    String HIVE_LLAP_SLIDER_DIR = "/home/hive/.slider";
+    String HIVE_LLAP_LOCAL_FS_DIR = "/srv/hops/apache-hive/bin/llap";
+    String HIVE_SCRATCHDIR = "/tmp/hive";
+    String HIVE_DB_DEFAULT_QUOTA = "50000";
+    String HOPSWORKS_IP = "127.0.0.1";
+    Integer HOPSWORKS_PORT = 8080;
+    String CERTS_DIR = "/srv/hops/certs-dir";
+    String HOPSWORKS_INSTALL_DIR = "/srv/hops/domains";
+    String YARN_SUPERUSER = "rmyarn";
+    String HOPSWORKS_USER = "glassfish";
+    String HDFS_SUPERUSER = "hdfs";
+    String SPARK_USER = "spark";
+    String JAVA_HOME = "/usr/lib/jvm/default-java";
+    String FLINK_USER = "flink";
+    String ZEPPELIN_USER = "spark";
+    Integer YARN_DEFAULT_QUOTA = 60000;
+    String YARN_WEB_UI_IP = "127.0.0.1";
+    int YARN_WEB_UI_PORT = 8088;
+    String HDFS_WEB_UI_IP = "127.0.0.1";
+    int HDFS_WEB_UI_PORT = 50070;
+    String HDFS_DEFAULT_QUOTA_MBs = "200000";
+    String MAX_NUM_PROJ_PER_USER = "5";
+    String HADOOP_VERSION = "2.8.2";
+    String ELASTIC_IP = "127.0.0.1";
+    int ELASTIC_PORT = 9300;
+    int ELASTIC_REST_PORT = 9200;
+    long ELASTIC_LOGS_INDEX_EXPIRATION = 7 * 24 * 60 * 60 * 1000;
+    String CERTIFICATE_MATERIALIZER_DELAY = "1m";
+    String CERTIFICATE_USER_VALID_DAYS = "12";
+    String SPARK_HISTORY_SERVER_IP = "127.0.0.1";
+    String OOZIE_IP = "127.0.0.1";
+    String JHS_IP = "127.0.0.1";
+    String RM_IP = "127.0.0.1";
+    int RM_PORT = 8088;
+    String LOGSTASH_IP = "127.0.0.1";
+    int LOGSTASH_PORT = 8088;
+    int LOGSTASH_PORT_SERVING = 5045;
+    String LIVY_IP = "127.0.0.1";
+    String LIVY_ZEPPELIN_SESSION_TIMEOUT = "3600";
+    String KIBANA_IP = "10.0.2.15";
+    String ZK_IP = "10.0.2.15";
+    String ZK_USER = "zk";
+    String WHITELIST_USERS_LOGIN = "agent@hops.io";
+    String ZEPPELIN_DIR = "/srv/hops/zeppelin";
+    String ZEPPELIN_INTERPRETERS = "org.apache.zeppelin.hopshive.HopsHiveInterpreter";
+    String zeppelinDefaultInterpreter;
+    String ZEPPELIN_PROJECTS_DIR = "/srv/hops/zeppelin/Projects";
+    long ZEPPELIN_SYNC_INTERVAL = 24 * 60 * 60 * 1000;
+    String JUPYTER_DIR = "/srv/hops/jupyter";
+    String KAFKA_USER = "kafka";
+    String KAFKA_DIR = "/srv/kafka";
+    String ANACONDA_USER = "anaconda";
+    String ANACONDA_DIR = "/srv/hops/anaconda/anaconda";
+    String CUDA_DIR = "/usr/local/cuda";
+    String ANACONDA_ENV = "kagent";
+    Boolean ANACONDA_ENABLED = true;
+    String HOPSWORKS_REST_ENDPOINT = "hopsworks0:8181";
+    LOG_LEVEL HOPSWORKS_REST_LOG_LEVEL = LOG_LEVEL.PROD;
+    String SUPPORT_EMAIL_ADDR = "support@hops.io";
+    String FIRST_TIME_LOGIN = "0";
+    String HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD = "adminpw";
+    Integer KAFKA_DEFAULT_NUM_PARTITIONS = 2;
+    Integer KAFKA_DEFAULT_NUM_REPLICAS = 1;
+    String ZK_DIR = "/srv/zookeeper";
+    String DRELEPHANT_IP = "127.0.0.1";
+    String DRELEPHANT_DB = "hopsworks";
+    int DRELEPHANT_PORT = 11000;
+    String CLUSTER_CERT = "asdasxasx8as6dx8a7sx7asdta8dtasxa8";
+    int FILE_PREVIEW_IMAGE_SIZE = 10000000;
+    int FILE_PREVIEW_TXT_SIZE = 100;
+    String INFLUXDB_IP = "localhost";
+    String INFLUXDB_PORT = "8086";
+    String INFLUXDB_USER = "hopsworks";
+    String INFLUXDB_PW = "hopsworks";
+    String RESOURCE_DIRS = ".sparkStaging;spark-warehouse";
+    String ALERT_EMAIL_ADDRS = "";
+    int KAFKA_MAX_NUM_TOPICS = 10;
+    int MAX_STATUS_POLL_RETRY = 5;
+    boolean PYTHON_KERNEL = true;
+    String HOPSUTIL_VERSION = "0.3.0";
+    String HOPS_EXAMPLES_VERSION = "0.3.0";
+    String RECOVERY_PATH = "hopsworks-api/api/auth/recover";
+    String VERIFICATION_PATH = "hopsworks-api/api/auth/verify";
+    String HOPSSITE_HOST = "hops.site";
+    String HOPSSITE = "http://hops.site:5081/hops-site/api";
+    Boolean DELA_ENABLED = false; // set to false if not found in variables table
+    DelaClientType DELA_CLIENT_TYPE = DelaClientType.FULL_CLIENT;
+    long HOPSSITE_HEARTBEAT_INTERVAL = 10 * 60 * 1000l;//10min
+    String DELA_TRANSFER_IP = "localhost";
+    String DELA_TRANSFER_HTTP_PORT = "42000";
+    String DELA_PUBLIC_HOPSWORK_PORT = "8080";
+    String PUBLIC_HTTPS_PORT = "8181";
+    //set on registration after Dela is contacted to detect public port
+    String DELA_SEARCH_ENDPOINT = "";
+    String DELA_TRANSFER_ENDPOINT = "";
+    //set on cluster registration
+    String DELA_CLUSTER_ID = null;
+    String HOPSSITE_CLUSTER_NAME = null;
+    String HOPSSITE_CLUSTER_PSWD = null;
+    String HOPSSITE_CLUSTER_PSWD_AUX = "1234";
+    String LDAP_AUTH = "false";
+    String LDAP_GROUP_MAPPING = "";
+    String LDAP_USER_ID = "uid"; //login name
+    String LDAP_USER_GIVEN_NAME = "givenName";
+    String LDAP_USER_SURNAME = "sn";
+    String LDAP_USER_EMAIL = "mail";
+    String LDAP_USER_SEARCH_FILTER = "uid=%s";
+    String LDAP_GROUP_SEARCH_FILTER = "member=%d";
+    String LDAP_ATTR_BINARY = "java.naming.ldap.attributes.binary";
+    String LDAP_GROUP_TARGET = "cn";
+    String LDAP_DYNAMIC_GROUP_TARGET = "memberOf";
+    String LDAP_LDAP_USERDN = "";
+    String LDAP_LDAP_GROUPDN = "";
+    int LDAP_ACCOUNT_STATUS = 4;
+    boolean serviceKeyRotationEnabled = false;
+    String serviceKeyRotationInterval = "3d";
+    String applicationCertificateValidityPeriod = "3d";
+    int tensorBoardMaxLastAccessed = 1800000;
+    int sparkUILogsOffset = 512000;
+    Set<String> PROVIDED_PYTHON_LIBRARY_NAMES;
+    Set<String> PREINSTALLED_PYTHON_LIBRARY_NAMES;
+    String HOPSWORKS_VERSION;
+    String CUDA_VERSION;
+    String TENSORFLOW_VERSION;
+    String DRELEPHANT_VERSION;
+    String ELASTIC_VERSION;
+    String KAFKA_VERSION;
+    String DELA_VERSION;
+    String EPIPE_VERSION;
+    String FLINK_VERSION;
+    String SPARK_VERSION;
+    String SLIDER_VERSION;
+    String TEZ_VERSION;
+    String HIVE2_VERSION;
+    String ZEPPELIN_VERSION;
+    String LIVY_VERSION;
+    String NDB_VERSION;
+    String FILEBEAT_VERSION;
+    String KIBANA_VERSION;
+    String LOGSTASH_VERSION;
+    String KAPACITOR_VERSION;
+    String TELEGRAF_VERSION;
+    String GRAFANA_VERSION;
+    String INFLUXDB_VERSION;
+    String ZOOKEEPER_VERSION;
+    String KUBE_USER = "hopsworks";
+    String KUBEMASTER_URL = "https://192.168.68.102:6443";
+    String KUBE_CA_CERTFILE = "/srv/hops/certs-dir/certs/ca.cert.pem";
+    String KUBE_CLIENT_KEYFILE = "/srv/hops/certs-dir/kube/hopsworks/hopsworks.key.pem";
+    String KUBE_CLIENT_CERTFILE = "/srv/hops/certs-dir/kube/hopsworks/hopsworks.cert.pem";
+    String KUBE_CLIENT_KEYPASS = "adminpw";
+    String KUBE_TRUSTSTORE_PATH = "/srv/hops/certs-dir/kube/hopsworks/hopsworks__tstore.jks";
+    String KUBE_TRUSTSTORE_KEY = "adminpw";
+    String KUBE_KEYSTORE_PATH = "/srv/hops/certs-dir/kube/hopsworks/hopsworks__kstore.jks";
+    String KUBE_KEYSTORE_KEY = "adminpw";
+    String KUBE_CA_PATH = "/srv/hops/certs-dir/kube";
+    String KUBE_CA_PASSWORD = "adminpw";
+    String KUBE_REGISTRY = "registry.docker-registry.svc.cluster.local";
+    Integer KUBE_MAX_SERVING_INSTANCES = 10;
+    String TF_SERVING_MONITOR_INT = "30s";
+
+    CachedValues(VariablesSnapshot snapshot) {
+      this.snapshot = snapshot;
+    }
+
+    CachedValues copy() {
+      try {
+        return (CachedValues) super.clone();
+      } catch (CloneNotSupportedException ex) {
+        throw new IllegalStateException(ex);
+      }
+    }
+  }
+
+  /**
+   * The cached values. It is null until the first load and after invalidateCache(). Readers do not lock, they only
+   * read this reference; loads happen under the monitor of this bean and publish the new values with a single write.
+   */
+  private volatile CachedValues cachedValues = null;
+  // Snapshot being loaded, only accessed while holding the monitor of this bean
+  private VariablesSnapshot loadingSnapshot = null;
+  private final AtomicLong cacheRefreshes = new AtomicLong(0);
+  private final AtomicLong cacheInvalidations = new AtomicLong(0);
+
+  private Variables lookupVariable(String varName) {
+    CachedValues values = cachedValues;
+    VariablesSnapshot snapshot = loadingSnapshot != null ? loadingSnapshot : values == null ? null : values.snapshot;
+    if (snapshot == null) {
+      return findById(varName);
+    }
+    String value = snapshot.get(varName);
+    return value == null ? null : new Variables(varName, value);
+  }
+
+  private synchronized CachedValues populateCache() {
+    if (cachedValues == null) {
+      loadCache();
+    }
+    return cachedValues;
+  }
+
+  /**
+   * Reads all the variables in one query and recomputes the cached values. The previous values stay visible
+   * to readers until the new ones are published. Must be called holding the monitor of this bean.
+   */
+  private void loadCache() {
+    loadingSnapshot = new VariablesSnapshot(getAllVariables(), cacheRefreshes.incrementAndGet());
+    try {
+      CachedValues next = new CachedValues(loadingSnapshot);
+      next.PYTHON_KERNEL = setBoolVar(VARIABLE_PYTHON_KERNEL, next.PYTHON_KERNEL);
+      next.JAVA_HOME = setVar(VARIABLE_JAVA_HOME, next.JAVA_HOME);
+      next.TWOFACTOR_AUTH = setVar(VARIABLE_TWOFACTOR_AUTH, next.TWOFACTOR_AUTH);
+      next.TWOFACTOR_EXCLUDE = setVar(VARIABLE_TWOFACTOR_EXCLUD, next.TWOFACTOR_EXCLUDE);
+      next.HOPSWORKS_USER = setVar(VARIABLE_HOPSWORKS_USER, next.HOPSWORKS_USER);
+      next.HDFS_SUPERUSER = setVar(VARIABLE_HDFS_SUPERUSER, next.HDFS_SUPERUSER);
+      next.YARN_SUPERUSER = setVar(VARIABLE_YARN_SUPERUSER, next.YARN_SUPERUSER);
+      next.SPARK_USER = setVar(VARIABLE_SPARK_USER, next.SPARK_USER);
+      next.SPARK_DIR = setDirVar(VARIABLE_SPARK_DIR, next.SPARK_DIR);
+      next.PY4J_ARCHIVE = setVar(VARIABLE_PY4J_ARCHIVE, next.PY4J_ARCHIVE);
+      next.FLINK_USER = setVar(VARIABLE_FLINK_USER, next.FLINK_USER);
+      next.FLINK_DIR = setDirVar(VARIABLE_FLINK_DIR, next.FLINK_DIR);
+      next.STAGING_DIR = setDirVar(VARIABLE_STAGING_DIR, next.STAGING_DIR);
+      next.HOPSUTIL_VERSION = setVar(VARIABLE_HOPSUTIL_VERSION, next.HOPSUTIL_VERSION);
+      next.HOPS_EXAMPLES_VERSION = setVar(VARIABLE_HOPSEXAMPLES_VERSION, next.HOPS_EXAMPLES_VERSION);
+      next.HIVE_SERVER_HOSTNAME = setStrVar(VARIABLE_HIVE_SERVER_HOSTNAME,
+          next.HIVE_SERVER_HOSTNAME);
+      next.HIVE_SERVER_HOSTNAME_EXT = setStrVar(VARIABLE_HIVE_SERVER_HOSTNAME_EXT,
+          next.HIVE_SERVER_HOSTNAME_EXT);
+      next.HIVE_SUPERUSER = setStrVar(VARIABLE_HIVE_SUPERUSER, next.HIVE_SUPERUSER);
+      next.HIVE_WAREHOUSE = setStrVar(VARIABLE_HIVE_WAREHOUSE, next.HIVE_WAREHOUSE);
+      next.HIVE_LLAP_SLIDER_DIR = setStrVar(VARIABLE_HIVE_LLAP_SLIDER_DIR, next.HIVE_LLAP_SLIDER_DIR);
+      next.HIVE_LLAP_LOCAL_FS_DIR = setStrVar(VARIABLE_HIVE_LLAP_LOCAL_DIR, next.HIVE_LLAP_LOCAL_FS_DIR);
+      next.HIVE_SCRATCHDIR = setStrVar(VARIABLE_HIVE_SCRATCHDIR, next.HIVE_SCRATCHDIR);
+      next.HIVE_DB_DEFAULT_QUOTA = setStrVar(VARIABLE_HIVE_DEFAULT_QUOTA, next.HIVE_DB_DEFAULT_QUOTA);
+      next.ALERT_EMAIL_ADDRS = setStrVar(VARIABLE_ALERT_EMAIL_ADDRS, "");
+      next.ZEPPELIN_USER = setVar(VARIABLE_ZEPPELIN_USER, next.ZEPPELIN_USER);
+      next.ZEPPELIN_DIR = setDirVar(VARIABLE_ZEPPELIN_DIR, next.ZEPPELIN_DIR);
+      next.ZEPPELIN_PROJECTS_DIR = setDirVar(VARIABLE_ZEPPELIN_PROJECTS_DIR,
+          next.ZEPPELIN_PROJECTS_DIR);
+      next.ZEPPELIN_SYNC_INTERVAL = setLongVar(VARIABLE_ZEPPELIN_SYNC_INTERVAL, next.ZEPPELIN_SYNC_INTERVAL);
+      next.HADOOP_VERSION = setVar(VARIABLE_HADOOP_VERSION, next.HADOOP_VERSION);
+      next.JUPYTER_DIR = setDirVar(VARIABLE_JUPYTER_DIR, next.JUPYTER_DIR);
+      next.MYSQL_DIR = setDirVar(VARIABLE_MYSQL_DIR, next.MYSQL_DIR);
+      next.HADOOP_DIR = setDirVar(VARIABLE_HADOOP_DIR, next.HADOOP_DIR);
+      next.HOPSWORKS_INSTALL_DIR = setDirVar(VARIABLE_HOPSWORKS_DIR,
+          next.HOPSWORKS_INSTALL_DIR);
+      next.CERTS_DIR = setDirVar(VARIABLE_CERTS_DIRS, next.CERTS_DIR);
+      next.CERTIFICATE_USER_VALID_DAYS = setStrVar(VARIABLE_CERTIFICATE_USER_VALID_DAYS, next.CERTIFICATE_USER_VALID_DAYS);
+      next.NDB_DIR = setDirVar(VARIABLE_NDB_DIR, next.NDB_DIR);
+      next.ELASTIC_IP = setIpVar(VARIABLE_ELASTIC_IP, next.ELASTIC_IP);
+      next.ELASTIC_PORT = setIntVar(VARIABLE_ELASTIC_PORT, next.ELASTIC_PORT);
+      next.ELASTIC_REST_PORT = setIntVar(VARIABLE_ELASTIC_REST_PORT, next.ELASTIC_REST_PORT);
+      next.ELASTIC_LOGS_INDEX_EXPIRATION = setLongVar(VARIABLE_ELASTIC_LOGS_INDEX_EXPIRATION, next.ELASTIC_LOGS_INDEX_EXPIRATION);
+      next.HOPSWORKS_IP = setIpVar(VARIABLE_HOPSWORKS_IP, next.HOPSWORKS_IP);
+      next.HOPSWORKS_PORT = setIntVar(VARIABLE_HOPSWORKS_PORT, next.HOPSWORKS_PORT);
+      next.RM_IP = setIpVar(VARIABLE_RM_IP, next.RM_IP);
+      next.RM_PORT = setIntVar(VARIABLE_RM_PORT, next.RM_PORT);
+      next.LOGSTASH_IP = setIpVar(VARIABLE_LOGSTASH_IP, next.LOGSTASH_IP);
+      next.LOGSTASH_PORT = setIntVar(VARIABLE_LOGSTASH_PORT, next.LOGSTASH_PORT);
+      next.LOGSTASH_PORT_SERVING = setIntVar(VARIABLE_LOGSTASH_PORT_SERVING, next.LOGSTASH_PORT_SERVING);
+      next.JHS_IP = setIpVar(VARIABLE_JHS_IP, next.JHS_IP);
+      next.LIVY_IP = setIpVar(VARIABLE_LIVY_IP, next.LIVY_IP);
+      next.LIVY_ZEPPELIN_SESSION_TIMEOUT = setVar(VARIABLE_LIVY_ZEPPELIN_SESSION_TIMEOUT, next.LIVY_ZEPPELIN_SESSION_TIMEOUT);
+      next.ZEPPELIN_INTERPRETERS = setVar(VARIABLE_ZEPPELIN_INTERPRETERS, next.ZEPPELIN_INTERPRETERS);
+      next.OOZIE_IP = setIpVar(VARIABLE_OOZIE_IP, next.OOZIE_IP);
+      next.SPARK_HISTORY_SERVER_IP = setIpVar(VARIABLE_SPARK_HISTORY_SERVER_IP,
+          next.SPARK_HISTORY_SERVER_IP);
+      next.ZK_IP = setIpVar(VARIABLE_ZK_IP, next.ZK_IP);
+      next.ZK_USER = setVar(VARIABLE_ZK_USER, next.ZK_USER);
+      next.ZK_DIR = setDirVar(VARIABLE_ZK_DIR, next.ZK_DIR);
+      next.DRELEPHANT_IP = setIpVar(VARIABLE_DRELEPHANT_IP, next.DRELEPHANT_IP);
+      next.DRELEPHANT_PORT = setIntVar(VARIABLE_DRELEPHANT_PORT, next.DRELEPHANT_PORT);
+      next.DRELEPHANT_DB = setDbVar(VARIABLE_DRELEPHANT_DB, next.DRELEPHANT_DB);
+      next.KIBANA_IP = setIpVar(VARIABLE_KIBANA_IP, next.KIBANA_IP);
+      next.KAFKA_MAX_NUM_TOPICS = setIntVar(VARIABLE_KAFKA_MAX_NUM_TOPICS, next.KAFKA_MAX_NUM_TOPICS);
+      next.KAFKA_USER = setVar(VARIABLE_KAFKA_USER, next.KAFKA_USER);
+      next.KAFKA_DIR = setDirVar(VARIABLE_KAFKA_DIR, next.KAFKA_DIR);
+      next.KAFKA_DEFAULT_NUM_PARTITIONS = setIntVar(VARIABLE_KAFKA_NUM_PARTITIONS,
+          next.KAFKA_DEFAULT_NUM_PARTITIONS);
+      next.KAFKA_DEFAULT_NUM_REPLICAS = setIntVar(VARIABLE_KAFKA_NUM_REPLICAS,
+          next.KAFKA_DEFAULT_NUM_REPLICAS);
+      next.YARN_DEFAULT_QUOTA = setIntVar(VARIABLE_YARN_DEFAULT_QUOTA,
+          next.YARN_DEFAULT_QUOTA);
+      next.YARN_WEB_UI_IP = setIpVar(VARIABLE_YARN_WEB_UI_IP, next.YARN_WEB_UI_IP);
+      next.HDFS_WEB_UI_IP = setIpVar(VARIABLE_HDFS_WEB_UI_IP, next.HDFS_WEB_UI_IP);
+      next.HDFS_WEB_UI_PORT = setIntVar(VARIABLE_HDFS_WEB_UI_PORT, next.HDFS_WEB_UI_PORT);
+      next.YARN_WEB_UI_PORT = setIntVar(VARIABLE_YARN_WEB_UI_PORT, next.YARN_WEB_UI_PORT);
+      next.HDFS_DEFAULT_QUOTA_MBs = setDirVar(VARIABLE_HDFS_DEFAULT_QUOTA,
+          next.HDFS_DEFAULT_QUOTA_MBs);
+      next.MAX_NUM_PROJ_PER_USER = setDirVar(VARIABLE_MAX_NUM_PROJ_PER_USER,
+          next.MAX_NUM_PROJ_PER_USER);
+      next.HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD = setVar(
           VARIABLE_HOPSWORKS_SSL_MASTER_PASSWORD,
-          HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD);
-      CLUSTER_CERT = setVar(VARIABLE_CLUSTER_CERT, CLUSTER_CERT);
-      FILE_PREVIEW_IMAGE_SIZE = setIntVar(VARIABLE_FILE_PREVIEW_IMAGE_SIZE, 10000000);
-      FILE_PREVIEW_TXT_SIZE = setIntVar(VARIABLE_FILE_PREVIEW_TXT_SIZE, 100);
-      HOPSWORKS_REST_ENDPOINT = setStrVar(VARIABLE_HOPSWORKS_REST_ENDPOINT,
-          HOPSWORKS_REST_ENDPOINT);
-      CUDA_DIR = setDirVar(VARIABLE_CUDA_DIR, CUDA_DIR);
-      ANACONDA_USER = setStrVar(VARIABLE_ANACONDA_USER, ANACONDA_USER);
-      ANACONDA_DIR = setDirVar(VARIABLE_ANACONDA_DIR, ANACONDA_DIR);
-      ANACONDA_ENV = setStrVar(VARIABLE_ANACONDA_ENV, ANACONDA_ENV);
-      ANACONDA_DEFAULT_REPO = setStrVar(VARIABLE_ANACONDA_DEFAULT_REPO, ANACONDA_DEFAULT_REPO);
-      ANACONDA_ENABLED = Boolean.parseBoolean(setStrVar(
-          VARIABLE_ANACONDA_ENABLED, ANACONDA_ENABLED.toString()));
-      INFLUXDB_IP = setStrVar(VARIABLE_INFLUXDB_IP, INFLUXDB_IP);
-      INFLUXDB_PORT = setStrVar(VARIABLE_INFLUXDB_PORT, INFLUXDB_PORT);
-      INFLUXDB_USER = setStrVar(VARIABLE_INFLUXDB_USER, INFLUXDB_USER);
-      INFLUXDB_PW = setStrVar(VARIABLE_INFLUXDB_PW, INFLUXDB_PW);
-      SUPPORT_EMAIL_ADDR = setStrVar(VARIABLE_SUPPORT_EMAIL_ADDR, SUPPORT_EMAIL_ADDR);
-      UserAccountsEmailMessages.HOPSWORKS_SUPPORT_EMAIL = SUPPORT_EMAIL_ADDR;
-      RESOURCE_DIRS = setStrVar(VARIABLE_RESOURCE_DIRS, RESOURCE_DIRS);
-      MAX_STATUS_POLL_RETRY = setIntVar(VARIABLE_MAX_STATUS_POLL_RETRY, MAX_STATUS_POLL_RETRY);
-      HOPS_RPC_TLS = setStrVar(VARIABLE_HOPS_RPC_TLS, HOPS_RPC_TLS);
-      CERTIFICATE_MATERIALIZER_DELAY = setStrVar(VARIABLE_CERT_MATER_DELAY,
-          CERTIFICATE_MATERIALIZER_DELAY);
-      WHITELIST_USERS_LOGIN = setStrVar(VARIABLE_WHITELIST_USERS_LOGIN,
-          WHITELIST_USERS_LOGIN);
-      RECOVERY_PATH = setStrVar(VARIABLE_RECOVERY_PATH, RECOVERY_PATH);
-      FIRST_TIME_LOGIN = setStrVar(VARIABLE_FIRST_TIME_LOGIN, FIRST_TIME_LOGIN);
-      VERIFICATION_PATH = setStrVar(VARIABLE_VERIFICATION_PATH, VERIFICATION_PATH);
-      serviceKeyRotationEnabled = setBoolVar(SERVICE_KEY_ROTATION_ENABLED_KEY, serviceKeyRotationEnabled);
-      serviceKeyRotationInterval = setStrVar(SERVICE_KEY_ROTATION_INTERVAL_KEY, serviceKeyRotationInterval);
-      applicationCertificateValidityPeriod = setStrVar(APPLICATION_CERTIFICATE_VALIDITY_PERIOD_KEY,
-          applicationCertificateValidityPeriod);
-      tensorBoardMaxLastAccessed = setIntVar(TENSORBOARD_MAX_LAST_ACCESSED, tensorBoardMaxLastAccessed);
-      sparkUILogsOffset = setIntVar(SPARK_UI_LOGS_OFFSET, sparkUILogsOffset);
-
-      populateDelaCache();
-      populateLDAPCache();
+          next.HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD);
+      next.CLUSTER_CERT = setVar(VARIABLE_CLUSTER_CERT, next.CLUSTER_CERT);
+      next.FILE_PREVIEW_IMAGE_SIZE = setIntVar(VARIABLE_FILE_PREVIEW_IMAGE_SIZE, 10000000);
+      next.FILE_PREVIEW_TXT_SIZE = setIntVar(VARIABLE_FILE_PREVIEW_TXT_SIZE, 100);
+      next.HOPSWORKS_REST_ENDPOINT = setStrVar(VARIABLE_HOPSWORKS_REST_ENDPOINT,
+          next.HOPSWORKS_REST_ENDPOINT);
+      next.CUDA_DIR = setDirVar(VARIABLE_CUDA_DIR, next.CUDA_DIR);
+      next.ANACONDA_USER = setStrVar(VARIABLE_ANACONDA_USER, next.ANACONDA_USER);
+      next.ANACONDA_DIR = setDirVar(VARIABLE_ANACONDA_DIR, next.ANACONDA_DIR);
+      next.ANACONDA_ENV = setStrVar(VARIABLE_ANACONDA_ENV, next.ANACONDA_ENV);
+      next.ANACONDA_DEFAULT_REPO = setStrVar(VARIABLE_ANACONDA_DEFAULT_REPO, next.ANACONDA_DEFAULT_REPO);
+      next.ANACONDA_ENABLED = Boolean.parseBoolean(setStrVar(
+          VARIABLE_ANACONDA_ENABLED, next.ANACONDA_ENABLED.toString()));
+      next.INFLUXDB_IP = setStrVar(VARIABLE_INFLUXDB_IP, next.INFLUXDB_IP);
+      next.INFLUXDB_PORT = setStrVar(VARIABLE_INFLUXDB_PORT, next.INFLUXDB_PORT);
+      next.INFLUXDB_USER = setStrVar(VARIABLE_INFLUXDB_USER, next.INFLUXDB_USER);
+      next.INFLUXDB_PW = setStrVar(VARIABLE_INFLUXDB_PW, next.INFLUXDB_PW);
+      next.SUPPORT_EMAIL_ADDR = setStrVar(VARIABLE_SUPPORT_EMAIL_ADDR, next.SUPPORT_EMAIL_ADDR);
+      UserAccountsEmailMessages.HOPSWORKS_SUPPORT_EMAIL = next.SUPPORT_EMAIL_ADDR;
+      next.RESOURCE_DIRS = setStrVar(VARIABLE_RESOURCE_DIRS, next.RESOURCE_DIRS);
+      next.MAX_STATUS_POLL_RETRY = setIntVar(VARIABLE_MAX_STATUS_POLL_RETRY, next.MAX_STATUS_POLL_RETRY);
+      next.HOPS_RPC_TLS = setStrVar(VARIABLE_HOPS_RPC_TLS, next.HOPS_RPC_TLS);
+      next.CERTIFICATE_MATERIALIZER_DELAY = setStrVar(VARIABLE_CERT_MATER_DELAY,
+          next.CERTIFICATE_MATERIALIZER_DELAY);
+      next.WHITELIST_USERS_LOGIN = setStrVar(VARIABLE_WHITELIST_USERS_LOGIN,
+          next.WHITELIST_USERS_LOGIN);
+      next.RECOVERY_PATH = setStrVar(VARIABLE_RECOVERY_PATH, next.RECOVERY_PATH);
+      next.FIRST_TIME_LOGIN = setStrVar(VARIABLE_FIRST_TIME_LOGIN, next.FIRST_TIME_LOGIN);
+      next.VERIFICATION_PATH = setStrVar(VARIABLE_VERIFICATION_PATH, next.VERIFICATION_PATH);
+      next.serviceKeyRotationEnabled = setBoolVar(SERVICE_KEY_ROTATION_ENABLED_KEY, next.serviceKeyRotationEnabled);
+      next.serviceKeyRotationInterval = setStrVar(SERVICE_KEY_ROTATION_INTERVAL_KEY, next.serviceKeyRotationInterval);
+      next.applicationCertificateValidityPeriod = setStrVar(APPLICATION_CERTIFICATE_VALIDITY_PERIOD_KEY,
+          next.applicationCertificateValidityPeriod);
+      next.tensorBoardMaxLastAccessed = setIntVar(TENSORBOARD_MAX_LAST_ACCESSED, next.tensorBoardMaxLastAccessed);
+      next.sparkUILogsOffset = setIntVar(SPARK_UI_LOGS_OFFSET, next.sparkUILogsOffset);
+
+      populateDelaCache(next);
+      populateLDAPCache(next);
       //Set Zeppelin Default Interpreter
-      zeppelinDefaultInterpreter = getZeppelinDefaultInterpreter(ZEPPELIN_INTERPRETERS);
-
-      ZOOKEEPER_VERSION = setStrVar(VARIABLE_ZOOKEEPER_VERSION, ZOOKEEPER_VERSION);
-      INFLUXDB_VERSION = setStrVar(VARIABLE_INFLUXDB_VERSION, INFLUXDB_VERSION);
-      GRAFANA_VERSION = setStrVar(VARIABLE_GRAFANA_VERSION, GRAFANA_VERSION);
-      TELEGRAF_VERSION = setStrVar(VARIABLE_TELEGRAF_VERSION, TELEGRAF_VERSION);
-      KAPACITOR_VERSION = setStrVar(VARIABLE_KAPACITOR_VERSION, KAPACITOR_VERSION);
-      LOGSTASH_VERSION = setStrVar(VARIABLE_LOGSTASH_VERSION, LOGSTASH_VERSION);
-      KIBANA_VERSION = setStrVar(VARIABLE_KIBANA_VERSION, KIBANA_VERSION);
-      FILEBEAT_VERSION = setStrVar(VARIABLE_FILEBEAT_VERSION, FILEBEAT_VERSION);
-      NDB_VERSION = setStrVar(VARIABLE_NDB_VERSION, NDB_VERSION);
-      LIVY_VERSION = setStrVar(VARIABLE_LIVY_VERSION, LIVY_VERSION);
-      ZEPPELIN_VERSION = setStrVar(VARIABLE_ZEPPELIN_VERSION, ZEPPELIN_VERSION);
-      HIVE2_VERSION = setStrVar(VARIABLE_HIVE2_VERSION, HIVE2_VERSION);
-      TEZ_VERSION = setStrVar(VARIABLE_TEZ_VERSION, TEZ_VERSION);
-      SLIDER_VERSION = setStrVar(VARIABLE_SLIDER_VERSION, SLIDER_VERSION);
-      SPARK_VERSION = setStrVar(VARIABLE_SPARK_VERSION, SPARK_VERSION);
-      FLINK_VERSION = setStrVar(VARIABLE_FLINK_VERSION, FLINK_VERSION);
-      EPIPE_VERSION = setStrVar(VARIABLE_EPIPE_VERSION, EPIPE_VERSION);
-      DELA_VERSION = setStrVar(VARIABLE_DELA_VERSION, DELA_VERSION);
-      KAFKA_VERSION = setStrVar(VARIABLE_KAFKA_VERSION, KAFKA_VERSION);
-      ELASTIC_VERSION = setStrVar(VARIABLE_ELASTIC_VERSION, ELASTIC_VERSION);
-      DRELEPHANT_VERSION = setStrVar(VARIABLE_DRELEPHANT_VERSION, DRELEPHANT_VERSION);
-      TENSORFLOW_VERSION = setStrVar(VARIABLE_TENSORFLOW_VERSION, TENSORFLOW_VERSION);
-      CUDA_VERSION = setStrVar(VARIABLE_CUDA_VERSION, CUDA_VERSION);
-      HOPSWORKS_VERSION = setStrVar(VARIABLE_HOPSWORKS_VERSION, HOPSWORKS_VERSION);
-      HOPSWORKS_REST_LOG_LEVEL = setLogLevelVar(VARIABLE_HOPSWORKS_REST_LOG_LEVEL, HOPSWORKS_REST_LOG_LEVEL);
-      
-      PROVIDED_PYTHON_LIBRARY_NAMES = toSetFromCsv(
+      next.zeppelinDefaultInterpreter = getZeppelinDefaultInterpreter(next.ZEPPELIN_INTERPRETERS);
+
+      next.ZOOKEEPER_VERSION = setStrVar(VARIABLE_ZOOKEEPER_VERSION, next.ZOOKEEPER_VERSION);
+      next.INFLUXDB_VERSION = setStrVar(VARIABLE_INFLUXDB_VERSION, next.INFLUXDB_VERSION);
+      next.GRAFANA_VERSION = setStrVar(VARIABLE_GRAFANA_VERSION, next.GRAFANA_VERSION);
+      next.TELEGRAF_VERSION = setStrVar(VARIABLE_TELEGRAF_VERSION, next.TELEGRAF_VERSION);
+      next.KAPACITOR_VERSION = setStrVar(VARIABLE_KAPACITOR_VERSION, next.KAPACITOR_VERSION);
+      next.LOGSTASH_VERSION = setStrVar(VARIABLE_LOGSTASH_VERSION, next.LOGSTASH_VERSION);
+      next.KIBANA_VERSION = setStrVar(VARIABLE_KIBANA_VERSION, next.KIBANA_VERSION);
+      next.FILEBEAT_VERSION = setStrVar(VARIABLE_FILEBEAT_VERSION, next.FILEBEAT_VERSION);
+      next.NDB_VERSION = setStrVar(VARIABLE_NDB_VERSION, next.NDB_VERSION);
+      next.LIVY_VERSION = setStrVar(VARIABLE_LIVY_VERSION, next.LIVY_VERSION);
+      next.ZEPPELIN_VERSION = setStrVar(VARIABLE_ZEPPELIN_VERSION, next.ZEPPELIN_VERSION);
+      next.HIVE2_VERSION = setStrVar(VARIABLE_HIVE2_VERSION, next.HIVE2_VERSION);
+      next.TEZ_VERSION = setStrVar(VARIABLE_TEZ_VERSION, next.TEZ_VERSION);
+      next.SLIDER_VERSION = setStrVar(VARIABLE_SLIDER_VERSION, next.SLIDER_VERSION);
+      next.SPARK_VERSION = setStrVar(VARIABLE_SPARK_VERSION, next.SPARK_VERSION);
+      next.FLINK_VERSION = setStrVar(VARIABLE_FLINK_VERSION, next.FLINK_VERSION);
+      next.EPIPE_VERSION = setStrVar(VARIABLE_EPIPE_VERSION, next.EPIPE_VERSION);
+      next.DELA_VERSION = setStrVar(VARIABLE_DELA_VERSION, next.DELA_VERSION);
+      next.KAFKA_VERSION = setStrVar(VARIABLE_KAFKA_VERSION, next.KAFKA_VERSION);
+      next.ELASTIC_VERSION = setStrVar(VARIABLE_ELASTIC_VERSION, next.ELASTIC_VERSION);
+      next.DRELEPHANT_VERSION = setStrVar(VARIABLE_DRELEPHANT_VERSION, next.DRELEPHANT_VERSION);
+      next.TENSORFLOW_VERSION = setStrVar(VARIABLE_TENSORFLOW_VERSION, next.TENSORFLOW_VERSION);
+      next.CUDA_VERSION = setStrVar(VARIABLE_CUDA_VERSION, next.CUDA_VERSION);
+      next.HOPSWORKS_VERSION = setStrVar(VARIABLE_HOPSWORKS_VERSION, next.HOPSWORKS_VERSION);
+      next.HOPSWORKS_REST_LOG_LEVEL = setLogLevelVar(VARIABLE_HOPSWORKS_REST_LOG_LEVEL, next.HOPSWORKS_REST_LOG_LEVEL);
+    
+      next.PROVIDED_PYTHON_LIBRARY_NAMES = toSetFromCsv(
           setStrVar(VARIABLE_PROVIDED_PYTHON_LIBRARY_NAMES, DEFAULT_PROVIDED_PYTHON_LIBRARY_NAMES),",");
-      PREINSTALLED_PYTHON_LIBRARY_NAMES = toSetFromCsv(
+      next.PREINSTALLED_PYTHON_LIBRARY_NAMES = toSetFromCsv(
           setStrVar(VARIABLE_PREINSTALLED_PYTHON_LIBRARY_NAMES, DEFAULT_PREINSTALLED_PYTHON_LIBRARY_NAMES),
           ",");
 
-      TF_SERVING_MONITOR_INT = setStrVar(VARIABLE_TF_SERVING_MONITOR_INT, TF_SERVING_MONITOR_INT);
-
-      KUBE_USER = setStrVar(VARIABLE_KUBE_USER, KUBE_USER);
-      KUBEMASTER_URL = setStrVar(VARIABLE_KUBEMASTER_URL, KUBEMASTER_URL);
-      KUBE_CA_CERTFILE = setStrVar(VARIABLE_KUBE_CA_CERTFILE, KUBE_CA_CERTFILE);
-      KUBE_CLIENT_KEYFILE = setStrVar(VARIABLE_KUBE_CLIENT_KEYFILE, KUBE_CLIENT_KEYFILE);
-      KUBE_CLIENT_CERTFILE = setStrVar(VARIABLE_KUBE_CLIENT_CERTFILE, KUBE_CLIENT_CERTFILE);
-      KUBE_CLIENT_KEYPASS = setStrVar(VARIABLE_KUBE_CLIENT_KEYPASS, KUBE_CLIENT_KEYPASS);
-      KUBE_TRUSTSTORE_PATH = setStrVar(VARIABLE_KUBE_TRUSTSTORE_PATH, KUBE_TRUSTSTORE_PATH);
-      KUBE_TRUSTSTORE_KEY = setStrVar(VARIABLE_KUBE_TRUSTSTORE_KEY,  KUBE_TRUSTSTORE_KEY);
-      KUBE_KEYSTORE_PATH = setStrVar(VARIABLE_KUBE_KEYSTORE_PATH, KUBE_KEYSTORE_PATH);
-      KUBE_KEYSTORE_KEY = setStrVar(VARIABLE_KUBE_KEYSTORE_KEY, KUBE_KEYSTORE_KEY);
-      KUBE_CA_PATH = setStrVar(VARIABLE_KUBE_CA_PATH, KUBE_CA_PATH);
-      KUBE_CA_PASSWORD = setStrVar(VARIABLE_KUBE_CA_PASSWORD, KUBE_CA_PASSWORD);
-      KUBE_REGISTRY = setStrVar(VARIABLE_KUBE_REGISTRY, KUBE_REGISTRY);
-      KUBE_MAX_SERVING_INSTANCES = setIntVar(VARIABLE_KUBE_MAX_SERVING, KUBE_MAX_SERVING_INSTANCES);
+      next.TF_SERVING_MONITOR_INT = setStrVar(VARIABLE_TF_SERVING_MONITOR_INT, next.TF_SERVING_MONITOR_INT);
+
+      next.KUBE_USER = setStrVar(VARIABLE_KUBE_USER, next.KUBE_USER);
+      next.KUBEMASTER_URL = setStrVar(VARIABLE_KUBEMASTER_URL, next.KUBEMASTER_URL);
+      next.KUBE_CA_CERTFILE = setStrVar(VARIABLE_KUBE_CA_CERTFILE, next.KUBE_CA_CERTFILE);
+      next.KUBE_CLIENT_KEYFILE = setStrVar(VARIABLE_KUBE_CLIENT_KEYFILE, next.KUBE_CLIENT_KEYFILE);
+      next.KUBE_CLIENT_CERTFILE = setStrVar(VARIABLE_KUBE_CLIENT_CERTFILE, next.KUBE_CLIENT_CERTFILE);
+      next.KUBE_CLIENT_KEYPASS = setStrVar(VARIABLE_KUBE_CLIENT_KEYPASS, next.KUBE_CLIENT_KEYPASS);
+      next.KUBE_TRUSTSTORE_PATH = setStrVar(VARIABLE_KUBE_TRUSTSTORE_PATH, next.KUBE_TRUSTSTORE_PATH);
+      next.KUBE_TRUSTSTORE_KEY = setStrVar(VARIABLE_KUBE_TRUSTSTORE_KEY,  next.KUBE_TRUSTSTORE_KEY);
+      next.KUBE_KEYSTORE_PATH = setStrVar(VARIABLE_KUBE_KEYSTORE_PATH, next.KUBE_KEYSTORE_PATH);
+      next.KUBE_KEYSTORE_KEY = setStrVar(VARIABLE_KUBE_KEYSTORE_KEY, next.KUBE_KEYSTORE_KEY);
+      next.KUBE_CA_PATH = setStrVar(VARIABLE_KUBE_CA_PATH, next.KUBE_CA_PATH);
+      next.KUBE_CA_PASSWORD = setStrVar(VARIABLE_KUBE_CA_PASSWORD, next.KUBE_CA_PASSWORD);
+      next.KUBE_REGISTRY = setStrVar(VARIABLE_KUBE_REGISTRY, next.KUBE_REGISTRY);
+      next.KUBE_MAX_SERVING_INSTANCES = setIntVar(VARIABLE_KUBE_MAX_SERVING, next.KUBE_MAX_SERVING_INSTANCES);
+
+      cachedValues = next;
+    } finally {
+      loadingSnapshot = null;
+    }
+  }
 
-      cached = true;
+  private CachedValues cachedValues() {
+    CachedValues values = cachedValues;
+    if (values == null) {
+      values = populateCache();
     }
+    return values;
   }
 
   private void checkCache() {
-    if (!cached) {
-      populateCache();
-    }
+    cachedValues();
   }
 
   public synchronized void refreshCache() {
-    cached = false;
-    populateCache();
+    loadCache();
   }
 
   public synchronized void updateVariable(String variableName, String variableValue) {
@@ -625,7 +862,30 @@ public class Settings implements Serializable {
    * from the database.
    */
   public synchronized void invalidateCache() {
-    cached = false;
+    cacheInvalidations.incrementAndGet();
+    cachedValues = null;
+  }
+
+  /**
+   * @return number of times the variables have been (re)loaded from the database
+   */
+  public long getCacheRefreshCount() {
+    return cacheRefreshes.get();
+  }
+
+  /**
+   * @return number of times the cache has been explicitly invalidated
+   */
+  public long getCacheInvalidationCount() {
+    return cacheInvalidations.get();
+  }
+
+  /**
+   * @return time in milliseconds when the current snapshot of the variables was loaded, -1 if nothing is cached
+   */
+  public long getCacheLoadedAt() {
+    CachedValues values = cachedValues;
+    return values == null ? -1 : values.snapshot.getLoadedAt();
   }
 
   /**
@@ -633,21 +893,16 @@ public class Settings implements Serializable {
    */
   private static final String GLASSFISH_DIR = "/srv/hops/glassfish";
 
-  public synchronized String getGlassfishDir() {
+  public String getGlassfishDir() {
     return GLASSFISH_DIR;
   }
 
-  private String TWOFACTOR_AUTH = "false";
-  private String TWOFACTOR_EXCLUDE = "AGENT;CLUSTER_AGENT";
-
-  public synchronized String getTwoFactorAuth() {
-    checkCache();
-    return TWOFACTOR_AUTH;
+  public String getTwoFactorAuth() {
+    return cachedValues().TWOFACTOR_AUTH;
   }
 
-  public synchronized String getTwoFactorExclude() {
-    checkCache();
-    return TWOFACTOR_EXCLUDE;
+  public String getTwoFactorExclude() {
+    return cachedValues().TWOFACTOR_EXCLUDE;
   }
 
   public enum TwoFactorMode {
@@ -671,11 +926,9 @@ public class Settings implements Serializable {
     }
   }
 
-  private String HOPS_RPC_TLS = "false";
-
-  public synchronized boolean getHopsRpcTls() {
-    checkCache();
-    return HOPS_RPC_TLS.toLowerCase().equals("true");
+  public boolean getHopsRpcTls() {
+    CachedValues cached = cachedValues();
+    return cached.HOPS_RPC_TLS.toLowerCase().equals("true");
   }
 
   /**
@@ -687,7 +940,6 @@ public class Settings implements Serializable {
 
   public static final String TENSORBOARD_DIRS = "/tensorboard/";
 
-  private String SPARK_DIR = "/srv/hops/spark";
   public static final String SPARK_EXAMPLES_DIR = "/examples/jars";
 
   public static final String SPARK_NUMBER_EXECUTORS_ENV
@@ -754,48 +1006,38 @@ public class Settings implements Serializable {
       = "org.apache.spark.deploy.PythonRunner";
   public static final String PYSPARK_ZIP = "pyspark.zip";
   
-  
-  private String PY4J_ARCHIVE = "py4j-0.10.7-src.zip";
-  
-  public synchronized String getPy4JArchive() {
-    checkCache();
-    return PY4J_ARCHIVE;
+  public String getPy4JArchive() {
+    return cachedValues().PY4J_ARCHIVE;
   }
   
-  public synchronized String getSparkDir() {
-    checkCache();
-    return SPARK_DIR;
+  public String getSparkDir() {
+    return cachedValues().SPARK_DIR;
   }
 
-  public synchronized String getSparkConfDir() {
+  public String getSparkConfDir() {
     return getSparkDir() + "/conf";
   }
 
-  public synchronized String getSparkExampleDir() {
+  public String getSparkExampleDir() {
     checkCache();
     return SPARK_EXAMPLES_DIR;
   }
 
   private final String SPARK_CONF_FILE = "/spark-defaults.conf";
 
-  public synchronized String getSparkConfFile() {
+  public String getSparkConfFile() {
     return getSparkConfDir() + SPARK_CONF_FILE;
   }
 
   // "/tmp" by default
-  private String STAGING_DIR = "/srv/hops/domains/domain1/staging";
-
-  public synchronized String getStagingDir() {
-    checkCache();
-    return STAGING_DIR;
+  public String getStagingDir() {
+    return cachedValues().STAGING_DIR;
   }
 
   private final String FLINK_CONF_DIR = "conf";
-  private String FLINK_DIR = "/srv/hops/flink";
 
-  public synchronized String getFlinkDir() {
-    checkCache();
-    return FLINK_DIR;
+  public String getFlinkDir() {
+    return cachedValues().FLINK_DIR;
   }
 
   public String getFlinkConfDir() {
@@ -808,103 +1050,73 @@ public class Settings implements Serializable {
   public String getFlinkConfFile() {
     return getFlinkConfDir() + File.separator + FLINK_CONF_FILE;
   }
-  private String MYSQL_DIR = "/usr/local/mysql";
 
-  public synchronized String getMySqlDir() {
-    checkCache();
-    return MYSQL_DIR;
+  public String getMySqlDir() {
+    return cachedValues().MYSQL_DIR;
   }
-  private String NDB_DIR = "/var/lib/mysql-cluster";
 
-  public synchronized String getNdbDir() {
-    checkCache();
-    return NDB_DIR;
+  public String getNdbDir() {
+    return cachedValues().NDB_DIR;
   }
 
   private String ADAM_DIR = "/srv/hops/adam";
 
-  public synchronized String getAdamDir() {
+  public String getAdamDir() {
     checkCache();
     return ADAM_DIR;
   }
 
-  private String HADOOP_DIR = "/srv/hops/hadoop";
-
   // This returns the unversioned base installation directory for hops-hadoop
   // For example, "/srv/hops/hadoop" - it does not return "/srv/hops/hadoop-2.8.2"
-  public synchronized String getHadoopSymbolicLinkDir() {
-    checkCache();
-    return HADOOP_DIR;
+  public String getHadoopSymbolicLinkDir() {
+    return cachedValues().HADOOP_DIR;
   }
 
-  public synchronized String getHadoopVersionedDir() {
-    checkCache();
-    return HADOOP_DIR + "-" + getHadoopVersion();
+  public String getHadoopVersionedDir() {
+    CachedValues cached = cachedValues();
+    return cached.HADOOP_DIR + "-" + getHadoopVersion();
   }
 
-  private String HIVE_SERVER_HOSTNAME = "127.0.0.1:9085";
-  private String HIVE_SERVER_HOSTNAME_EXT = "127.0.0.1:9084";
-
-  public synchronized String getHiveServerHostName(boolean ext) {
-    checkCache();
+  public String getHiveServerHostName(boolean ext) {
+    CachedValues cached = cachedValues();
     if (ext) {
-      return HIVE_SERVER_HOSTNAME_EXT;
+      return cached.HIVE_SERVER_HOSTNAME_EXT;
     }
-    return HIVE_SERVER_HOSTNAME;
+    return cached.HIVE_SERVER_HOSTNAME;
   }
 
-  private String HIVE_SUPERUSER = "hive";
-
-  public synchronized String getHiveSuperUser() {
-    checkCache();
-    return HIVE_SUPERUSER;
+  public String getHiveSuperUser() {
+    return cachedValues().HIVE_SUPERUSER;
   }
 
-  private String ANACONDA_DEFAULT_REPO = "defaults";
-
-  public synchronized String getCondaDefaultRepo() {
-    checkCache();
-    return ANACONDA_DEFAULT_REPO;
+  public String getCondaDefaultRepo() {
+    return cachedValues().ANACONDA_DEFAULT_REPO;
   }
 
-  private String HIVE_WAREHOUSE = "/apps/hive/warehouse";
-
-  public synchronized String getHiveWarehouse() {
-    checkCache();
-    return HIVE_WAREHOUSE;
+  public String getHiveWarehouse() {
+    return cachedValues().HIVE_WAREHOUSE;
   }
 
-  private String HIVE_LLAP_SLIDER_DIR = "/home/hive/.slider";
-
-  public synchronized String getHiveLlapSliderDir() {
-    checkCache();
-    return HIVE_LLAP_SLIDER_DIR;
+  public String getHiveLlapSliderDir() {
+    return cachedValues().HIVE_LLAP_SLIDER_DIR;
   }
 
-  private String HIVE_LLAP_LOCAL_FS_DIR = "/srv/hops/apache-hive/bin/llap";
-
-  public synchronized String getHiveLlapLocalDir() {
-    checkCache();
-    return HIVE_LLAP_LOCAL_FS_DIR;
+  public String getHiveLlapLocalDir() {
+    return cachedValues().HIVE_LLAP_LOCAL_FS_DIR;
   }
 
-  private String HIVE_SCRATCHDIR = "/tmp/hive";
-
-  public synchronized String getHiveScratchdir() {
-    checkCache();
-    return HIVE_SCRATCHDIR;
+  public String getHiveScratchdir() {
+    return cachedValues().HIVE_SCRATCHDIR;
   }
 
-  private String HIVE_DB_DEFAULT_QUOTA = "50000";
-
-  public synchronized Long getHiveDbDefaultQuota() {
-    checkCache();
-    return Long.parseLong(HIVE_DB_DEFAULT_QUOTA);
+  public Long getHiveDbDefaultQuota() {
+    CachedValues cached = cachedValues();
+    return Long.parseLong(cached.HIVE_DB_DEFAULT_QUOTA);
   }
 
-  private String HOPSWORKS_EXTERNAL_IP = "127.0.0.1";
+  private volatile String HOPSWORKS_EXTERNAL_IP = "127.0.0.1";
 
-  public synchronized String getHopsworksExternalIp() {
+  public String getHopsworksExternalIp() {
     checkCache();
     return HOPSWORKS_EXTERNAL_IP;
   }
@@ -913,153 +1125,107 @@ public class Settings implements Serializable {
     HOPSWORKS_EXTERNAL_IP = ip;
   }
 
-  private String HOPSWORKS_IP = "127.0.0.1";
-
-  public synchronized String getHopsworksIp() {
-    checkCache();
-    return HOPSWORKS_IP;
+  public String getHopsworksIp() {
+    return cachedValues().HOPSWORKS_IP;
   }
 
-  private Integer HOPSWORKS_PORT = 8080;
-
-  public synchronized Integer getHopsworksPort() {
-    checkCache();
-    return HOPSWORKS_PORT;
+  public Integer getHopsworksPort() {
+    return cachedValues().HOPSWORKS_PORT;
   }
 
-  private String CERTS_DIR = "/srv/hops/certs-dir";
-
-  public synchronized String getCertsDir() {
-    checkCache();
-    return CERTS_DIR;
+  public String getCertsDir() {
+    return cachedValues().CERTS_DIR;
   }
 
-  public synchronized String getHopsworksMasterEncPasswordFile() {
+  public String getHopsworksMasterEncPasswordFile() {
     checkCache();
     return getCertsDir() + File.separator + "encryption_master_password";
   }
 
-  private String HOPSWORKS_INSTALL_DIR = "/srv/hops/domains";
-
-  public synchronized String getHopsworksInstallDir() {
-    checkCache();
-    return HOPSWORKS_INSTALL_DIR;
+  public String getHopsworksInstallDir() {
+    return cachedValues().HOPSWORKS_INSTALL_DIR;
   }
 
-  public synchronized String getHopsworksDomainDir() {
-    checkCache();
-    return HOPSWORKS_INSTALL_DIR + "/domain1";
+  public String getHopsworksDomainDir() {
+    CachedValues cached = cachedValues();
+    return cached.HOPSWORKS_INSTALL_DIR + "/domain1";
   }
 
-  public synchronized String getIntermediateCaDir() {
+  public String getIntermediateCaDir() {
     checkCache();
     return getCertsDir() + Settings.INTERMEDIATE_CA_DIR;
   }
 
-  public synchronized String getCaDir() {
+  public String getCaDir() {
     checkCache();
     return getCertsDir();
   }
 
   //User under which yarn is run
-  private String YARN_SUPERUSER = "rmyarn";
-
-  public synchronized String getYarnSuperUser() {
-    checkCache();
-    return YARN_SUPERUSER;
+  public String getYarnSuperUser() {
+    return cachedValues().YARN_SUPERUSER;
   }
-  private String HOPSWORKS_USER = "glassfish";
 
-  public synchronized String getHopsworksUser() {
-    checkCache();
-    return HOPSWORKS_USER;
+  public String getHopsworksUser() {
+    return cachedValues().HOPSWORKS_USER;
   }
-  private String HDFS_SUPERUSER = "hdfs";
 
-  public synchronized String getHdfsSuperUser() {
-    checkCache();
-    return HDFS_SUPERUSER;
+  public String getHdfsSuperUser() {
+    return cachedValues().HDFS_SUPERUSER;
   }
-  private String SPARK_USER = "spark";
 
-  public synchronized String getSparkUser() {
-    checkCache();
-    return SPARK_USER;
+  public String getSparkUser() {
+    return cachedValues().SPARK_USER;
   }
 
-  public static String JAVA_HOME = "/usr/lib/jvm/default-java";
-
-  public synchronized String getJavaHome() {
-    checkCache();
-    return JAVA_HOME;
+  public String getJavaHome() {
+    return cachedValues().JAVA_HOME;
   }
 
-  private String FLINK_USER = "flink";
-
-  public synchronized String getFlinkUser() {
-    checkCache();
-    return FLINK_USER;
+  public String getFlinkUser() {
+    return cachedValues().FLINK_USER;
   }
 
-  private String ZEPPELIN_USER = "spark";
-
-  public synchronized String getZeppelinUser() {
-    checkCache();
-    return ZEPPELIN_USER;
+  public String getZeppelinUser() {
+    return cachedValues().ZEPPELIN_USER;
   }
 
-  private Integer YARN_DEFAULT_QUOTA = 60000;
-
-  public synchronized Integer getYarnDefaultQuota() {
-    checkCache();
-    return YARN_DEFAULT_QUOTA;
+  public Integer getYarnDefaultQuota() {
+    return cachedValues().YARN_DEFAULT_QUOTA;
   }
 
-  private String YARN_WEB_UI_IP = "127.0.0.1";
-  private int YARN_WEB_UI_PORT = 8088;
-
-  public synchronized String getYarnWebUIAddress() {
-    checkCache();
-    return YARN_WEB_UI_IP + ":" + YARN_WEB_UI_PORT;
+  public String getYarnWebUIAddress() {
+    CachedValues cached = cachedValues();
+    return cached.YARN_WEB_UI_IP + ":" + cached.YARN_WEB_UI_PORT;
   }
 
-  private String HDFS_WEB_UI_IP = "127.0.0.1";
-  private int HDFS_WEB_UI_PORT = 50070;
-
-  public synchronized String getHDFSWebUIAddress() {
-    checkCache();
-    return HDFS_WEB_UI_IP + ":" + HDFS_WEB_UI_PORT;
+  public String getHDFSWebUIAddress() {
+    CachedValues cached = cachedValues();
+    return cached.HDFS_WEB_UI_IP + ":" + cached.HDFS_WEB_UI_PORT;
   }
 
-  private String HDFS_DEFAULT_QUOTA_MBs = "200000";
-
-  public synchronized long getHdfsDefaultQuotaInMBs() {
-    checkCache();
-    return Long.parseLong(HDFS_DEFAULT_QUOTA_MBs);
+  public long getHdfsDefaultQuotaInMBs() {
+    CachedValues cached = cachedValues();
+    return Long.parseLong(cached.HDFS_DEFAULT_QUOTA_MBs);
   }
 
-  private String MAX_NUM_PROJ_PER_USER = "5";
-
-  public synchronized Integer getMaxNumProjPerUser() {
-    checkCache();
+  public Integer getMaxNumProjPerUser() {
+    CachedValues cached = cachedValues();
     int num = 5;
     try {
-      num = Integer.parseInt(MAX_NUM_PROJ_PER_USER);
+      num = Integer.parseInt(cached.MAX_NUM_PROJ_PER_USER);
     } catch (NumberFormatException ex) {
       // should print to log here
     }
     return num;
   }
 
-  private String HADOOP_VERSION = "2.8.2";
-
-  public synchronized String getHadoopVersion() {
-    checkCache();
-    return HADOOP_VERSION;
+  public String getHadoopVersion() {
+    return cachedValues().HADOOP_VERSION;
   }
 
   //Hadoop locations
-  public synchronized String getHadoopConfDir() {
+  public String getHadoopConfDir() {
     return hadoopConfDir(getHadoopSymbolicLinkDir());
   }
 
@@ -1071,7 +1237,7 @@ public class Settings implements Serializable {
     return hadoopConfDir(hadoopDir);
   }
 
-  public synchronized String getYarnConfDir() {
+  public String getYarnConfDir() {
     return getHadoopConfDir();
   }
 
@@ -1148,11 +1314,11 @@ public class Settings implements Serializable {
     return "hdfs:///user/" + tfUser + "/" + TENSORFLOW_JAR;
   }
 
-  public synchronized String getLocalFlinkJarPath() {
+  public String getLocalFlinkJarPath() {
     return getFlinkDir() + "/flink.jar";
   }
 
-  public synchronized String getHdfsFlinkJarPath() {
+  public String getHdfsFlinkJarPath() {
     return hdfsFlinkJarPath(getFlinkUser());
   }
 
@@ -1164,7 +1330,7 @@ public class Settings implements Serializable {
     return hdfsFlinkJarPath(flinkUser);
   }
 
-  public synchronized String getFlinkDefaultClasspath() {
+  public String getFlinkDefaultClasspath() {
     return flinkDefaultClasspath(getFlinkDir());
   }
 
@@ -1196,7 +1362,7 @@ public class Settings implements Serializable {
     return "hdfs:///user/" + getSparkUser() + "/metrics.properties";
   }
 
-  public synchronized String getSparkDefaultClasspath() {
+  public String getSparkDefaultClasspath() {
     return sparkDefaultClasspath(getSparkDir());
   }
 
@@ -1237,40 +1403,29 @@ public class Settings implements Serializable {
   public static final String PROJECT_STAGING_DIR = "Resources";
 
   // Elasticsearch
-  private String ELASTIC_IP = "127.0.0.1";
 
-  public synchronized String getElasticIp() {
-    checkCache();
-    return ELASTIC_IP;
+  public String getElasticIp() {
+    return cachedValues().ELASTIC_IP;
   }
 
-  private int ELASTIC_PORT = 9300;
-
-  public synchronized int getElasticPort() {
-    checkCache();
-    return ELASTIC_PORT;
+  public int getElasticPort() {
+    return cachedValues().ELASTIC_PORT;
   }
 
-  private int ELASTIC_REST_PORT = 9200;
-
-  public synchronized int getElasticRESTPort() {
-    checkCache();
-    return ELASTIC_REST_PORT;
+  public int getElasticRESTPort() {
+    return cachedValues().ELASTIC_REST_PORT;
   }
 
-  public synchronized String getElasticEndpoint() {
+  public String getElasticEndpoint() {
     return getElasticIp() + ":" + getElasticPort();
   }
 
-  public synchronized String getElasticRESTEndpoint() {
+  public String getElasticRESTEndpoint() {
     return getElasticIp() + ":" + getElasticRESTPort();
   }
 
-  private long ELASTIC_LOGS_INDEX_EXPIRATION = 7 * 24 * 60 * 60 * 1000;
-
-  public synchronized long getElasticLogsIndexExpiration() {
-    checkCache();
-    return ELASTIC_LOGS_INDEX_EXPIRATION;
+  public long getElasticLogsIndexExpiration() {
+    return cachedValues().ELASTIC_LOGS_INDEX_EXPIRATION;
   }
   
   private static final int JOB_LOGS_EXPIRATION = 604800;
@@ -1305,129 +1460,97 @@ public class Settings implements Serializable {
   // m: minutes (default)
   // h: hours
   // d: days
-  private String CERTIFICATE_MATERIALIZER_DELAY = "1m";
-
-  public synchronized String getCertificateMaterializerDelay() {
-    checkCache();
-    return CERTIFICATE_MATERIALIZER_DELAY;
+  public String getCertificateMaterializerDelay() {
+    return cachedValues().CERTIFICATE_MATERIALIZER_DELAY;
   }
 
-  private String CERTIFICATE_USER_VALID_DAYS = "12";
-
-  public synchronized String getCertificateUserValidDays() {
-    checkCache();
-    return CERTIFICATE_USER_VALID_DAYS;
+  public String getCertificateUserValidDays() {
+    return cachedValues().CERTIFICATE_USER_VALID_DAYS;
   }
 
   // Spark
-  private String SPARK_HISTORY_SERVER_IP = "127.0.0.1";
 
-  public synchronized String getSparkHistoryServerIp() {
-    checkCache();
-    return SPARK_HISTORY_SERVER_IP + ":18080";
+  public String getSparkHistoryServerIp() {
+    CachedValues cached = cachedValues();
+    return cached.SPARK_HISTORY_SERVER_IP + ":18080";
   }
 
   // Oozie
-  private String OOZIE_IP = "127.0.0.1";
 
-  public synchronized String getOozieIp() {
-    checkCache();
-    return OOZIE_IP;
+  public String getOozieIp() {
+    return cachedValues().OOZIE_IP;
   }
 
   // MapReduce Job History Server
-  private String JHS_IP = "127.0.0.1";
 
-  public synchronized String getJhsIp() {
-    checkCache();
-    return JHS_IP;
+  public String getJhsIp() {
+    return cachedValues().JHS_IP;
   }
 
   // Resource Manager for YARN
-  private String RM_IP = "127.0.0.1";
 
-  public synchronized String getRmIp() {
-    checkCache();
-    return RM_IP;
+  public String getRmIp() {
+    return cachedValues().RM_IP;
   }
 
   // Resource Manager Port 
-  private int RM_PORT = 8088;
-
-  public synchronized Integer getRmPort() {
-    checkCache();
-    return RM_PORT;
+  public Integer getRmPort() {
+    return cachedValues().RM_PORT;
   }
 
-  private String LOGSTASH_IP = "127.0.0.1";
-
-  public synchronized String getLogstashIp() {
-    checkCache();
-    return LOGSTASH_IP;
+  public String getLogstashIp() {
+    return cachedValues().LOGSTASH_IP;
   }
 
   // Resource Manager Port 
-  private int LOGSTASH_PORT = 8088;
-  public synchronized Integer getLogstashPort() {
-    checkCache();
-    return LOGSTASH_PORT;
+  public Integer getLogstashPort() {
+    return cachedValues().LOGSTASH_PORT;
   }
 
-  private int LOGSTASH_PORT_SERVING = 5045;
-  public synchronized Integer getLogstashPortServing() {
-    checkCache();
-    return LOGSTASH_PORT_SERVING;
+  public Integer getLogstashPortServing() {
+    return cachedValues().LOGSTASH_PORT_SERVING;
   }
 
   // Livy Server`
-  private String LIVY_IP = "127.0.0.1";
   private final String LIVY_YARN_MODE = "yarn";
-  private String LIVY_ZEPPELIN_SESSION_TIMEOUT = "3600";
 
-  public synchronized String getLivyIp() {
-    checkCache();
-    return LIVY_IP;
+  public String getLivyIp() {
+    return cachedValues().LIVY_IP;
   }
 
-  public synchronized String getLivyUrl() {
+  public String getLivyUrl() {
     return "http://" + getLivyIp() + ":8998";
   }
 
-  public synchronized String getLivyYarnMode() {
+  public String getLivyYarnMode() {
     checkCache();
     return LIVY_YARN_MODE;
   }
 
-  public synchronized String getLivyZeppelinSessionTimeout() {
-    checkCache();
-    return LIVY_ZEPPELIN_SESSION_TIMEOUT;
+  public String getLivyZeppelinSessionTimeout() {
+    return cachedValues().LIVY_ZEPPELIN_SESSION_TIMEOUT;
   }
 
   private static final int ZK_PORT = 2181;
 
   // Kibana
   public static final String KIBANA_DEFAULT_INDEX = "hopsdefault";
-  private String KIBANA_IP = "10.0.2.15";
   private static final int KIBANA_PORT = 5601;
 
-  public synchronized String getKibanaUri() {
-    checkCache();
-    return "http://" + KIBANA_IP + ":" + KIBANA_PORT;
+  public String getKibanaUri() {
+    CachedValues cached = cachedValues();
+    return "http://" + cached.KIBANA_IP + ":" + KIBANA_PORT;
   }
 
   // Zookeeper 
-  private String ZK_IP = "10.0.2.15";
 
-  public synchronized String getZkConnectStr() {
-    checkCache();
-    return ZK_IP + ":" + ZK_PORT;
+  public String getZkConnectStr() {
+    CachedValues cached = cachedValues();
+    return cached.ZK_IP + ":" + ZK_PORT;
   }
 
-  private String ZK_USER = "zk";
-
-  public synchronized String getZkUser() {
-    checkCache();
-    return ZK_USER;
+  public String getZkUser() {
+    return cachedValues().ZK_USER;
   }
 
   /*
@@ -1435,26 +1558,18 @@ public class Settings implements Serializable {
    * userlogins table for auditing.
    * kagent -> agent@hops.io
    */
-  private String WHITELIST_USERS_LOGIN = "agent@hops.io";
-
-  public synchronized String getWhitelistUsersLogin() {
-    checkCache();
-    return WHITELIST_USERS_LOGIN;
+  public String getWhitelistUsersLogin() {
+    return cachedValues().WHITELIST_USERS_LOGIN;
   }
 
   // Zeppelin
-  private String ZEPPELIN_DIR = "/srv/hops/zeppelin";
-  private String ZEPPELIN_INTERPRETERS = "org.apache.zeppelin.hopshive.HopsHiveInterpreter";
 
-  private String zeppelinDefaultInterpreter;
-
-  public synchronized String getZeppelinInterpreters() {
-    checkCache();
-    return ZEPPELIN_INTERPRETERS;
+  public String getZeppelinInterpreters() {
+    return cachedValues().ZEPPELIN_INTERPRETERS;
   }
 
-  public synchronized String getZeppelinDefaultInterpreter() {
-    return zeppelinDefaultInterpreter;
+  public String getZeppelinDefaultInterpreter() {
+    return cachedValues().zeppelinDefaultInterpreter;
   }
 
   /**
@@ -1467,68 +1582,44 @@ public class Settings implements Serializable {
     return interpreters.split(",")[0].split("\\.")[3];
   }
 
-  public synchronized String getZeppelinDir() {
-    checkCache();
-    return ZEPPELIN_DIR;
+  public String getZeppelinDir() {
+    return cachedValues().ZEPPELIN_DIR;
   }
 
-  private String ZEPPELIN_PROJECTS_DIR = "/srv/hops/zeppelin/Projects";
-
-  public synchronized String getZeppelinProjectsDir() {
-    checkCache();
-    return ZEPPELIN_PROJECTS_DIR;
+  public String getZeppelinProjectsDir() {
+    return cachedValues().ZEPPELIN_PROJECTS_DIR;
   }
 
-  private long ZEPPELIN_SYNC_INTERVAL = 24 * 60 * 60 * 1000;
-
-  public synchronized long getZeppelinSyncInterval() {
-    checkCache();
-    return ZEPPELIN_SYNC_INTERVAL;
+  public long getZeppelinSyncInterval() {
+    return cachedValues().ZEPPELIN_SYNC_INTERVAL;
   }
 
   public static final int JUPYTER_PORT = 8888;
 
   // Jupyter
-  private String JUPYTER_DIR = "/srv/hops/jupyter";
 
-  public synchronized String getJupyterDir() {
-    checkCache();
-    return JUPYTER_DIR;
+  public String getJupyterDir() {
+    return cachedValues().JUPYTER_DIR;
   }
 
-  private String KAFKA_USER = "kafka";
-
-  public synchronized String getKafkaUser() {
-    checkCache();
-    return KAFKA_USER;
+  public String getKafkaUser() {
+    return cachedValues().KAFKA_USER;
   }
 
-  private String KAFKA_DIR = "/srv/kafka";
-
-  public synchronized String getKafkaDir() {
-    checkCache();
-    return KAFKA_DIR;
+  public String getKafkaDir() {
+    return cachedValues().KAFKA_DIR;
   }
 
-  private String ANACONDA_USER = "anaconda";
-
-  public synchronized String getAnacondaUser() {
-    checkCache();
-    return ANACONDA_USER;
+  public String getAnacondaUser() {
+    return cachedValues().ANACONDA_USER;
   }
 
-  private String ANACONDA_DIR = "/srv/hops/anaconda/anaconda";
-
-  public synchronized String getAnacondaDir() {
-    checkCache();
-    return ANACONDA_DIR;
+  public String getAnacondaDir() {
+    return cachedValues().ANACONDA_DIR;
   }
 
-  private String CUDA_DIR = "/usr/local/cuda";
-
-  public synchronized String getCudaDir() {
-    checkCache();
-    return CUDA_DIR;
+  public String getCudaDir() {
+    return cachedValues().CUDA_DIR;
   }
 
   /**
@@ -1542,58 +1633,41 @@ public class Settings implements Serializable {
     return getAnacondaDir() + File.separator + "envs" + File.separator + condaEnv;
   }
 
-  private String ANACONDA_ENV = "kagent";
-
-  public synchronized String getAnacondaEnv() {
-    checkCache();
-    return ANACONDA_ENV;
+  public String getAnacondaEnv() {
+    return cachedValues().ANACONDA_ENV;
   }
 
-  private Boolean ANACONDA_ENABLED = true;
-
-  public synchronized Boolean isAnacondaEnabled() {
-    checkCache();
-    return ANACONDA_ENABLED;
+  public Boolean isAnacondaEnabled() {
+    return cachedValues().ANACONDA_ENABLED;
   }
 
 //  private String CONDA_CHANNEL_URL = "https://repo.continuum.io/pkgs/free/linux-64/";
   private String CONDA_CHANNEL_URL = "default";
 
-  public synchronized String getCondaChannelUrl() {
+  public String getCondaChannelUrl() {
     checkCache();
     return CONDA_CHANNEL_URL;
   }
 
-  private String HOPSWORKS_REST_ENDPOINT = "hopsworks0:8181";
-
-  public synchronized String getRestEndpoint() {
-    checkCache();
-    return "https://" + HOPSWORKS_REST_ENDPOINT;
+  public String getRestEndpoint() {
+    CachedValues cached = cachedValues();
+    return "https://" + cached.HOPSWORKS_REST_ENDPOINT;
   }
   
-  private LOG_LEVEL HOPSWORKS_REST_LOG_LEVEL = LOG_LEVEL.PROD;
-  
-  public synchronized LOG_LEVEL getHopsworksRESTLogLevel() {
-    checkCache();
-    return HOPSWORKS_REST_LOG_LEVEL;
+  public LOG_LEVEL getHopsworksRESTLogLevel() {
+    return cachedValues().HOPSWORKS_REST_LOG_LEVEL;
   }
 
-  private String SUPPORT_EMAIL_ADDR = "support@hops.io";
-
-  public synchronized String getSupportEmailAddr() {
-    checkCache();
-    return SUPPORT_EMAIL_ADDR;
+  public String getSupportEmailAddr() {
+    return cachedValues().SUPPORT_EMAIL_ADDR;
   }
 
-  private String FIRST_TIME_LOGIN = "0";
-
-  public synchronized String getFirstTimeLogin() {
-    checkCache();
-    return FIRST_TIME_LOGIN;
+  public String getFirstTimeLogin() {
+    return cachedValues().FIRST_TIME_LOGIN;
   }
 
   private final String DEFAULT_ADMIN_PWD = "12fa520ec8f65d3a6feacfa97a705e622e1fea95b80b521ec016e43874dfed5a";
-  private String ADMIN_PWD = DEFAULT_ADMIN_PWD;
+  private volatile String ADMIN_PWD = DEFAULT_ADMIN_PWD;
 
   public synchronized void setAdminPasswordChanged() {
     // Just use a dummy password here, no need to store the actual password - enough to say it is different from 'admin'
@@ -1611,53 +1685,35 @@ public class Settings implements Serializable {
     return ADMIN_PWD.compareTo(DEFAULT_ADMIN_PWD) != 0;
   }
 
-  private String HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD = "adminpw";
-
-  public synchronized String getHopsworksMasterPasswordSsl() {
-    checkCache();
-    return HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD;
+  public String getHopsworksMasterPasswordSsl() {
+    return cachedValues().HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD;
   }
 
-  private Integer KAFKA_DEFAULT_NUM_PARTITIONS = 2;
-  private Integer KAFKA_DEFAULT_NUM_REPLICAS = 1;
-
-  public synchronized Integer getKafkaDefaultNumPartitions() {
-    checkCache();
-    return KAFKA_DEFAULT_NUM_PARTITIONS;
+  public Integer getKafkaDefaultNumPartitions() {
+    return cachedValues().KAFKA_DEFAULT_NUM_PARTITIONS;
   }
 
-  public synchronized Integer getKafkaDefaultNumReplicas() {
-    checkCache();
-    return KAFKA_DEFAULT_NUM_REPLICAS;
+  public Integer getKafkaDefaultNumReplicas() {
+    return cachedValues().KAFKA_DEFAULT_NUM_REPLICAS;
   }
 
-  private String ZK_DIR = "/srv/zookeeper";
-
-  public synchronized String getZkDir() {
-    checkCache();
-    return ZK_DIR;
+  public String getZkDir() {
+    return cachedValues().ZK_DIR;
   }
 
   // Dr Elephant
-  private String DRELEPHANT_IP = "127.0.0.1";
-  private String DRELEPHANT_DB = "hopsworks";
-  private int DRELEPHANT_PORT = 11000;
 
-  public synchronized String getDrElephantUrl() {
-    checkCache();
-    return "http://" + DRELEPHANT_IP + ":" + DRELEPHANT_PORT;
+  public String getDrElephantUrl() {
+    CachedValues cached = cachedValues();
+    return "http://" + cached.DRELEPHANT_IP + ":" + cached.DRELEPHANT_PORT;
   }
 
-  public synchronized String getDrElephantDb() {
-    checkCache();
-    return DRELEPHANT_DB;
+  public String getDrElephantDb() {
+    return cachedValues().DRELEPHANT_DB;
   }
 
-  private String CLUSTER_CERT = "asdasxasx8as6dx8a7sx7asdta8dtasxa8";
-
-  public synchronized String getCLUSTER_CERT() {
-    checkCache();
-    return CLUSTER_CERT;
+  public String getCLUSTER_CERT() {
+    return cachedValues().CLUSTER_CERT;
   }
 
   // Hopsworks
@@ -1743,8 +1799,6 @@ public class Settings implements Serializable {
   public static final String HOPSWORKS_REST_ENDPOINT_PROPERTY = "hopsworks.restendpoint";
   public static final String HOPSWORKS_ELASTIC_ENDPOINT_PROPERTY = "hopsworks.elastic.endpoint";
 
-  private int FILE_PREVIEW_IMAGE_SIZE = 10000000;
-  private int FILE_PREVIEW_TXT_SIZE = 100;
   public static final int FILE_PREVIEW_TXT_SIZE_BYTES = 1024 * 384;
   public static final String README_TEMPLATE = "*This is an auto-generated README.md"
       + " file for your Dataset!*\n"
@@ -1805,9 +1859,8 @@ public class Settings implements Serializable {
    *
    * @return file size
    */
-  public synchronized int getFilePreviewImageSize() {
-    checkCache();
-    return FILE_PREVIEW_IMAGE_SIZE;
+  public int getFilePreviewImageSize() {
+    return cachedValues().FILE_PREVIEW_IMAGE_SIZE;
   }
 
   /**
@@ -1817,29 +1870,21 @@ public class Settings implements Serializable {
    *
    * @return file size
    */
-  public synchronized int getFilePreviewTxtSize() {
-    checkCache();
-    return FILE_PREVIEW_TXT_SIZE;
+  public int getFilePreviewTxtSize() {
+    return cachedValues().FILE_PREVIEW_TXT_SIZE;
   }
 
-  private String INFLUXDB_IP = "localhost";
-  private String INFLUXDB_PORT = "8086";
-  private String INFLUXDB_USER = "hopsworks";
-  private String INFLUXDB_PW = "hopsworks";
-
-  public synchronized String getInfluxDBAddress() {
-    checkCache();
-    return "http://" + INFLUXDB_IP + ":" + INFLUXDB_PORT;
+  public String getInfluxDBAddress() {
+    CachedValues cached = cachedValues();
+    return "http://" + cached.INFLUXDB_IP + ":" + cached.INFLUXDB_PORT;
   }
 
-  public synchronized String getInfluxDBUser() {
-    checkCache();
-    return INFLUXDB_USER;
+  public String getInfluxDBUser() {
+    return cachedValues().INFLUXDB_USER;
   }
 
-  public synchronized String getInfluxDBPW() {
-    checkCache();
-    return INFLUXDB_PW;
+  public String getInfluxDBPW() {
+    return cachedValues().INFLUXDB_PW;
   }
 
   //Project creation: default datasets
@@ -1890,21 +1935,16 @@ public class Settings implements Serializable {
   }
 
   public static final String JUPYTER_PIDS = "/tmp/jupyterNotebookServer.pids";
-  private String RESOURCE_DIRS = ".sparkStaging;spark-warehouse";
 
-  public synchronized String getResourceDirs() {
-    checkCache();
-    return RESOURCE_DIRS;
+  public String getResourceDirs() {
+    return cachedValues().RESOURCE_DIRS;
   }
 
   public Settings() {
   }
 
-  private String ALERT_EMAIL_ADDRS = "";
-
-  public synchronized String getAlertEmailAddrs() {
-    checkCache();
-    return ALERT_EMAIL_ADDRS;
+  public String getAlertEmailAddrs() {
+    return cachedValues().ALERT_EMAIL_ADDRS;
   }
 
   /**
@@ -2037,18 +2077,12 @@ public class Settings implements Serializable {
     }
   }
 
-  private int KAFKA_MAX_NUM_TOPICS = 10;
-
-  public synchronized int getKafkaMaxNumTopics() {
-    checkCache();
-    return KAFKA_MAX_NUM_TOPICS;
+  public int getKafkaMaxNumTopics() {
+    return cachedValues().KAFKA_MAX_NUM_TOPICS;
   }
 
-  private int MAX_STATUS_POLL_RETRY = 5;
-
-  public synchronized int getMaxStatusPollRetry() {
-    checkCache();
-    return MAX_STATUS_POLL_RETRY;
+  public int getMaxStatusPollRetry() {
+    return cachedValues().MAX_STATUS_POLL_RETRY;
   }
 
   /**
@@ -2144,43 +2178,32 @@ public class Settings implements Serializable {
     return state;
   }
 
-  private boolean PYTHON_KERNEL = true;
-
-  public synchronized boolean isPythonKernelEnabled() {
-    checkCache();
-    return PYTHON_KERNEL;
+  public boolean isPythonKernelEnabled() {
+    return cachedValues().PYTHON_KERNEL;
   }
 
-  private String HOPSUTIL_VERSION = "0.3.0";
-
   public String getHopsUtilHdfsPath() {
     return "hdfs:///user/" + getSparkUser() + "/" + getHopsUtilFilename();
   }
 
-  public synchronized String getHopsUtilFilename() {
-    checkCache();
-    return "hops-util-" + HOPSUTIL_VERSION + ".jar";
+  public String getHopsUtilFilename() {
+    CachedValues cached = cachedValues();
+    return "hops-util-" + cached.HOPSUTIL_VERSION + ".jar";
   }
 
-  private String HOPS_EXAMPLES_VERSION = "0.3.0";
-
-  public synchronized String getHopsExamplesFilename() {
-    checkCache();
-    return "hops-examples-spark-" + HOPS_EXAMPLES_VERSION + ".jar";
+  public String getHopsExamplesFilename() {
+    CachedValues cached = cachedValues();
+    return "hops-examples-spark-" + cached.HOPS_EXAMPLES_VERSION + ".jar";
   }
 
-  private String RECOVERY_PATH = "hopsworks-api/api/auth/recover";
-
-  public synchronized String getRecoveryEndpoint() {
-    checkCache();
-    return HOPSWORKS_IP + ":" + HOPSWORKS_PORT + "/" + RECOVERY_PATH;
+  public String getRecoveryEndpoint() {
+    CachedValues cached = cachedValues();
+    return cached.HOPSWORKS_IP + ":" + cached.HOPSWORKS_PORT + "/" + cached.RECOVERY_PATH;
   }
 
-  private String VERIFICATION_PATH = "hopsworks-api/api/auth/verify";
-
-  public synchronized String getVerificationEndpoint() {
-    checkCache();
-    return HOPSWORKS_IP + ":" + HOPSWORKS_PORT + "/" + VERIFICATION_PATH;
+  public String getVerificationEndpoint() {
+    CachedValues cached = cachedValues();
+    return cached.HOPSWORKS_IP + ":" + cached.HOPSWORKS_PORT + "/" + cached.VERIFICATION_PATH;
   }
 
   //Dela START
@@ -2200,125 +2223,102 @@ public class Settings implements Serializable {
   private static final String VARIABLE_DELA_TRANSFER_ENDPOINT = "dela_transfer_endpoint";
 
   public static final Level DELA_DEBUG = Level.INFO;
-  private String HOPSSITE_HOST = "hops.site";
-  private String HOPSSITE = "http://hops.site:5081/hops-site/api";
-  private Boolean DELA_ENABLED = false; // set to false if not found in variables table
-  private DelaClientType DELA_CLIENT_TYPE = DelaClientType.FULL_CLIENT;
 
   private long HOPSSITE_HEARTBEAT_RETRY = 10 * 1000l; //10s
-  private long HOPSSITE_HEARTBEAT_INTERVAL = 10 * 60 * 1000l;//10min
-
-  private String DELA_TRANSFER_IP = "localhost";
-  private String DELA_TRANSFER_HTTP_PORT = "42000";
-  private String DELA_PUBLIC_HOPSWORK_PORT = "8080";
-  private String PUBLIC_HTTPS_PORT = "8181";
-
-  //set on registration after Dela is contacted to detect public port
-  private String DELA_SEARCH_ENDPOINT = "";
-  private String DELA_TRANSFER_ENDPOINT = "";
-  //set on cluster registration
-  private String DELA_CLUSTER_ID = null;
+
   //
-  private AddressJSON DELA_PUBLIC_ENDPOINT = null;
+  private volatile AddressJSON DELA_PUBLIC_ENDPOINT = null;
   //
   public static final String MANIFEST_FILE = "manifest.json";
   public static final String README_FILE = "README.md";
 
-  private void populateDelaCache() {
-    DELA_ENABLED = setBoolVar(VARIABLE_DELA_ENABLED, DELA_ENABLED);
-    DELA_CLIENT_TYPE = DelaClientType.from(setVar(VARIABLE_DELA_CLIENT_TYPE, DELA_CLIENT_TYPE.type));
-    HOPSSITE_CLUSTER_NAME = setVar(VARIABLE_HOPSSITE_CLUSTER_NAME, HOPSSITE_CLUSTER_NAME);
-    HOPSSITE_CLUSTER_PSWD = setVar(VARIABLE_HOPSSITE_CLUSTER_PSWD, HOPSSITE_CLUSTER_PSWD);
-    HOPSSITE_CLUSTER_PSWD_AUX = setVar(VARIABLE_HOPSSITE_CLUSTER_PSWD_AUX, HOPSSITE_CLUSTER_PSWD_AUX);
-    HOPSSITE_HOST = setVar(VARIABLE_HOPSSITE_BASE_URI_HOST, HOPSSITE_HOST);
-    HOPSSITE = setVar(VARIABLE_HOPSSITE_BASE_URI, HOPSSITE);
-    HOPSSITE_HEARTBEAT_INTERVAL = setLongVar(VARIABLE_HOPSSITE_HEARTBEAT_INTERVAL, HOPSSITE_HEARTBEAT_INTERVAL);
-
-    DELA_TRANSFER_IP = setStrVar(VARIABLE_DELA_CLUSTER_IP, DELA_TRANSFER_IP);
-    DELA_TRANSFER_HTTP_PORT = setStrVar(VARIABLE_DELA_CLUSTER_HTTP_PORT, DELA_TRANSFER_HTTP_PORT);
-    DELA_SEARCH_ENDPOINT = setStrVar(VARIABLE_DELA_SEARCH_ENDPOINT, DELA_SEARCH_ENDPOINT);
-    DELA_TRANSFER_ENDPOINT = setStrVar(VARIABLE_DELA_TRANSFER_ENDPOINT, DELA_TRANSFER_ENDPOINT);
-    DELA_PUBLIC_HOPSWORK_PORT = setStrVar(VARIABLE_DELA_PUBLIC_HOPSWORKS_PORT, DELA_PUBLIC_HOPSWORK_PORT);
-    PUBLIC_HTTPS_PORT = setStrVar(VARIABLE_PUBLIC_HTTPS_PORT, PUBLIC_HTTPS_PORT);
-    DELA_CLUSTER_ID = setStrVar(VARIABLE_DELA_CLUSTER_ID, DELA_CLUSTER_ID);
-  }
-
-  public synchronized Boolean isDelaEnabled() {
-    checkCache();
-    return DELA_ENABLED;
+  private void populateDelaCache(CachedValues next) {
+    next.DELA_ENABLED = setBoolVar(VARIABLE_DELA_ENABLED, next.DELA_ENABLED);
+    next.DELA_CLIENT_TYPE = DelaClientType.from(setVar(VARIABLE_DELA_CLIENT_TYPE, next.DELA_CLIENT_TYPE.type));
+    next.HOPSSITE_CLUSTER_NAME = setVar(VARIABLE_HOPSSITE_CLUSTER_NAME, next.HOPSSITE_CLUSTER_NAME);
+    next.HOPSSITE_CLUSTER_PSWD = setVar(VARIABLE_HOPSSITE_CLUSTER_PSWD, next.HOPSSITE_CLUSTER_PSWD);
+    next.HOPSSITE_CLUSTER_PSWD_AUX = setVar(VARIABLE_HOPSSITE_CLUSTER_PSWD_AUX, next.HOPSSITE_CLUSTER_PSWD_AUX);
+    next.HOPSSITE_HOST = setVar(VARIABLE_HOPSSITE_BASE_URI_HOST, next.HOPSSITE_HOST);
+    next.HOPSSITE = setVar(VARIABLE_HOPSSITE_BASE_URI, next.HOPSSITE);
+    next.HOPSSITE_HEARTBEAT_INTERVAL = setLongVar(VARIABLE_HOPSSITE_HEARTBEAT_INTERVAL, next.HOPSSITE_HEARTBEAT_INTERVAL);
+
+    next.DELA_TRANSFER_IP = setStrVar(VARIABLE_DELA_CLUSTER_IP, next.DELA_TRANSFER_IP);
+    next.DELA_TRANSFER_HTTP_PORT = setStrVar(VARIABLE_DELA_CLUSTER_HTTP_PORT, next.DELA_TRANSFER_HTTP_PORT);
+    next.DELA_SEARCH_ENDPOINT = setStrVar(VARIABLE_DELA_SEARCH_ENDPOINT, next.DELA_SEARCH_ENDPOINT);
+    next.DELA_TRANSFER_ENDPOINT = setStrVar(VARIABLE_DELA_TRANSFER_ENDPOINT, next.DELA_TRANSFER_ENDPOINT);
+    next.DELA_PUBLIC_HOPSWORK_PORT = setStrVar(VARIABLE_DELA_PUBLIC_HOPSWORKS_PORT, next.DELA_PUBLIC_HOPSWORK_PORT);
+    next.PUBLIC_HTTPS_PORT = setStrVar(VARIABLE_PUBLIC_HTTPS_PORT, next.PUBLIC_HTTPS_PORT);
+    next.DELA_CLUSTER_ID = setStrVar(VARIABLE_DELA_CLUSTER_ID, next.DELA_CLUSTER_ID);
   }
 
-  public synchronized DelaClientType getDelaClientType() {
-    return DELA_CLIENT_TYPE;
+  public Boolean isDelaEnabled() {
+    return cachedValues().DELA_ENABLED;
   }
 
-  public synchronized String getHOPSSITE_HOST() {
-    checkCache();
-    return HOPSSITE_HOST;
+  public DelaClientType getDelaClientType() {
+    return cachedValues().DELA_CLIENT_TYPE;
   }
 
-  public synchronized String getHOPSSITE() {
-    checkCache();
-    return HOPSSITE;
+  public String getHOPSSITE_HOST() {
+    return cachedValues().HOPSSITE_HOST;
   }
 
-  public synchronized long getHOPSSITE_HEARTBEAT_RETRY() {
+  public String getHOPSSITE() {
+    return cachedValues().HOPSSITE;
+  }
+
+  public long getHOPSSITE_HEARTBEAT_RETRY() {
     checkCache();
     return HOPSSITE_HEARTBEAT_RETRY;
   }
 
-  public synchronized long getHOPSSITE_HEARTBEAT_INTERVAL() {
-    checkCache();
-    return HOPSSITE_HEARTBEAT_INTERVAL;
+  public long getHOPSSITE_HEARTBEAT_INTERVAL() {
+    return cachedValues().HOPSSITE_HEARTBEAT_INTERVAL;
   }
 
-  public synchronized String getDELA_TRANSFER_IP() {
-    checkCache();
-    return DELA_TRANSFER_IP;
+  public String getDELA_TRANSFER_IP() {
+    return cachedValues().DELA_TRANSFER_IP;
   }
 
-  public synchronized String getDELA_TRANSFER_HTTP_PORT() {
-    checkCache();
-    return DELA_TRANSFER_HTTP_PORT;
+  public String getDELA_TRANSFER_HTTP_PORT() {
+    return cachedValues().DELA_TRANSFER_HTTP_PORT;
   }
 
-  public synchronized String getDELA_TRANSFER_HTTP_ENDPOINT() {
-    checkCache();
-    return "http://" + DELA_TRANSFER_IP + ":" + DELA_TRANSFER_HTTP_PORT + "/";
+  public String getDELA_TRANSFER_HTTP_ENDPOINT() {
+    CachedValues cached = cachedValues();
+    return "http://" + cached.DELA_TRANSFER_IP + ":" + cached.DELA_TRANSFER_HTTP_PORT + "/";
   }
 
-  public synchronized String getDELA_HOPSWORKS_PORT() {
-    checkCache();
-    return DELA_PUBLIC_HOPSWORK_PORT;
+  public String getDELA_HOPSWORKS_PORT() {
+    return cachedValues().DELA_PUBLIC_HOPSWORK_PORT;
   }
 
-  public synchronized String getPUBLIC_HTTPS_PORT() {
-    checkCache();
-    return PUBLIC_HTTPS_PORT;
+  public String getPUBLIC_HTTPS_PORT() {
+    return cachedValues().PUBLIC_HTTPS_PORT;
   }
 
-  public synchronized AddressJSON getDELA_PUBLIC_ENDPOINT() {
+  public AddressJSON getDELA_PUBLIC_ENDPOINT() {
     return DELA_PUBLIC_ENDPOINT;
   }
 
-  public synchronized String getDELA_SEARCH_ENDPOINT() {
-    checkCache();
-    if (DELA_SEARCH_ENDPOINT != null) {
-      return DELA_SEARCH_ENDPOINT;
+  public String getDELA_SEARCH_ENDPOINT() {
+    CachedValues cached = cachedValues();
+    if (cached.DELA_SEARCH_ENDPOINT != null) {
+      return cached.DELA_SEARCH_ENDPOINT;
     }
-    Variables v = findById(DELA_SEARCH_ENDPOINT);
+    Variables v = findById(cached.DELA_SEARCH_ENDPOINT);
     if (v != null) {
       return v.getValue();
     }
     return null;
   }
 
-  public synchronized String getDELA_TRANSFER_ENDPOINT() {
-    checkCache();
-    if (DELA_TRANSFER_ENDPOINT != null) {
-      return DELA_TRANSFER_ENDPOINT;
+  public String getDELA_TRANSFER_ENDPOINT() {
+    CachedValues cached = cachedValues();
+    if (cached.DELA_TRANSFER_ENDPOINT != null) {
+      return cached.DELA_TRANSFER_ENDPOINT;
     }
-    Variables v = findById(DELA_TRANSFER_ENDPOINT);
+    Variables v = findById(cached.DELA_TRANSFER_ENDPOINT);
     if (v != null) {
       return v.getValue();
     }
@@ -2337,14 +2337,16 @@ public class Settings implements Serializable {
     } else {
       em.merge(new Variables(VARIABLE_DELA_SEARCH_ENDPOINT, delaSearchEndpoint));
     }
-    DELA_SEARCH_ENDPOINT = delaSearchEndpoint;
 
     if (getDELA_TRANSFER_ENDPOINT() == null) {
       em.persist(new Variables(VARIABLE_DELA_TRANSFER_ENDPOINT, delaTransferEndpoint));
     } else {
       em.merge(new Variables(VARIABLE_DELA_TRANSFER_ENDPOINT, delaTransferEndpoint));
     }
-    DELA_TRANSFER_ENDPOINT = delaTransferEndpoint;
+    CachedValues next = cachedValues().copy();
+    next.DELA_SEARCH_ENDPOINT = delaSearchEndpoint;
+    next.DELA_TRANSFER_ENDPOINT = delaTransferEndpoint;
+    cachedValues = next;
   }
 
   public synchronized void setDELA_CLUSTER_ID(String id) {
@@ -2353,13 +2355,15 @@ public class Settings implements Serializable {
     } else {
       em.merge(new Variables(VARIABLE_DELA_CLUSTER_ID, id));
     }
-    DELA_CLUSTER_ID = id;
+    CachedValues next = cachedValues().copy();
+    next.DELA_CLUSTER_ID = id;
+    cachedValues = next;
   }
 
-  public synchronized String getDELA_CLUSTER_ID() {
-    checkCache();
-    if (DELA_CLUSTER_ID != null) {
-      return DELA_CLUSTER_ID;
+  public String getDELA_CLUSTER_ID() {
+    CachedValues cached = cachedValues();
+    if (cached.DELA_CLUSTER_ID != null) {
+      return cached.DELA_CLUSTER_ID;
     } else {
       Variables v = findById(VARIABLE_DELA_CLUSTER_ID);
       if (v != null) {
@@ -2369,7 +2373,7 @@ public class Settings implements Serializable {
     }
   }
 
-  public synchronized String getDELA_DOMAIN() {
+  public String getDELA_DOMAIN() {
     if (DELA_PUBLIC_ENDPOINT != null) {
       return DELA_PUBLIC_ENDPOINT.getIp();
     }
@@ -2392,13 +2396,9 @@ public class Settings implements Serializable {
   private static final String VARIABLE_HOPSSITE_CLUSTER_PSWD = "hops_site_cluster_pswd";
   private static final String VARIABLE_HOPSSITE_CLUSTER_PSWD_AUX = "hops_site_cluster_pswd_aux";
 
-  private String HOPSSITE_CLUSTER_NAME = null;
-  private String HOPSSITE_CLUSTER_PSWD = null;
-  private String HOPSSITE_CLUSTER_PSWD_AUX = "1234";
-
-  public synchronized Optional<String> getHopsSiteClusterName() {
-    checkCache();
-    return Optional.ofNullable(HOPSSITE_CLUSTER_NAME);
+  public Optional<String> getHopsSiteClusterName() {
+    CachedValues cached = cachedValues();
+    return Optional.ofNullable(cached.HOPSSITE_CLUSTER_NAME);
   }
 
   public synchronized void setHopsSiteClusterName(String clusterName) {
@@ -2407,25 +2407,28 @@ public class Settings implements Serializable {
     } else {
       em.persist(new Variables(VARIABLE_HOPSSITE_CLUSTER_NAME, clusterName));
     }
-    HOPSSITE_CLUSTER_NAME = clusterName;
+    CachedValues next = cachedValues().copy();
+    next.HOPSSITE_CLUSTER_NAME = clusterName;
+    cachedValues = next;
   }
 
   public synchronized void deleteHopsSiteClusterName() {
     if (getHopsSiteClusterName().isPresent()) {
       Variables v = findById(VARIABLE_HOPSSITE_CLUSTER_NAME);
       em.remove(v);
-      HOPSSITE_CLUSTER_NAME = null;
+      CachedValues next = cachedValues().copy();
+      next.HOPSSITE_CLUSTER_NAME = null;
+      cachedValues = next;
     }
   }
 
-  public synchronized String getHopsSiteClusterPswdAux() {
-    checkCache();
-    return HOPSSITE_CLUSTER_PSWD_AUX;
+  public String getHopsSiteClusterPswdAux() {
+    return cachedValues().HOPSSITE_CLUSTER_PSWD_AUX;
   }
 
-  public synchronized Optional<String> getHopsSiteClusterPswd() {
-    checkCache();
-    return Optional.ofNullable(HOPSSITE_CLUSTER_PSWD);
+  public Optional<String> getHopsSiteClusterPswd() {
+    CachedValues cached = cachedValues();
+    return Optional.ofNullable(cached.HOPSSITE_CLUSTER_PSWD);
   }
 
   public synchronized void setHopsSiteClusterPswd(String pswd) {
@@ -2434,36 +2437,38 @@ public class Settings implements Serializable {
     } else {
       em.persist(new Variables(VARIABLE_HOPSSITE_CLUSTER_PSWD, pswd));
     }
-    HOPSSITE_CLUSTER_PSWD = pswd;
+    CachedValues next = cachedValues().copy();
+    next.HOPSSITE_CLUSTER_PSWD = pswd;
+    cachedValues = next;
   }
 
-  public synchronized String getHopsSiteCaDir() {
+  public String getHopsSiteCaDir() {
     return getCertsDir() + File.separator + HOPS_SITE_CA_DIR;
   }
 
-  public synchronized String getHopsSiteCaScript() {
+  public String getHopsSiteCaScript() {
     return getHopsworksDomainDir()
         + File.separator + "bin"
         + File.separator + "ca-keystore.sh";
   }
 
-  public synchronized String getHopsSiteCert() {
+  public String getHopsSiteCert() {
     return getHopsSiteCaDir() + HOPS_SITE_CERTFILE;
   }
 
-  public synchronized String getHopsSiteCaCert() {
+  public String getHopsSiteCaCert() {
     return getHopsSiteCaDir() + HOPS_SITE_CA_CERTFILE;
   }
 
-  public synchronized String getHopsSiteIntermediateCert() {
+  public String getHopsSiteIntermediateCert() {
     return getHopsSiteCaDir() + HOPS_SITE_INTERMEDIATE_CERTFILE;
   }
 
-  public synchronized String getHopsSiteKeyStorePath() {
+  public String getHopsSiteKeyStorePath() {
     return getHopsSiteCaDir() + HOPS_SITE_KEY_STORE;
   }
 
-  public synchronized String getHopsSiteTrustStorePath() {
+  public String getHopsSiteTrustStorePath() {
     return getHopsSiteCaDir() + HOPS_SITE_TRUST_STORE;
   }
   //Dela END
@@ -2477,10 +2482,10 @@ public class Settings implements Serializable {
   public static final String KAFKA_ACL_WILDCARD = "*";
   public static final String KAFKA_DEFAULT_CONSUMER_GROUP = "default";
   private static final String KAFKA_BROKER_PROTOCOL = "INTERNAL";
-  //These brokers are updated periodically by ZookeeperTimerThread
-  private Set<String> kafkaBrokers = new HashSet<>();
+  //These brokers are updated periodically by ZookeeperTimerThread, the set is replaced and never modified in place
+  private volatile Set<String> kafkaBrokers = Collections.emptySet();
 
-  public synchronized Set<String> getKafkaBrokers() {
+  public Set<String> getKafkaBrokers() {
     return kafkaBrokers;
   }
 
@@ -2489,7 +2494,7 @@ public class Settings implements Serializable {
    *
    * @return broker
    */
-  public synchronized String getRandomKafkaBroker() {
+  public String getRandomKafkaBroker() {
     Iterator<String> it = this.kafkaBrokers.iterator();
     if (it.hasNext()) {
       return it.next();
@@ -2501,10 +2506,11 @@ public class Settings implements Serializable {
    *
    * @return brokers
    */
-  public synchronized String getKafkaBrokersStr() {
-    if (!kafkaBrokers.isEmpty()) {
+  public String getKafkaBrokersStr() {
+    Set<String> brokers = kafkaBrokers;
+    if (!brokers.isEmpty()) {
       StringBuilder sb = new StringBuilder();
-      for (String addr : kafkaBrokers) {
+      for (String addr : brokers) {
         sb.append(addr).append(",");
       }
       return sb.substring(0, sb.length() - 1);
@@ -2512,9 +2518,8 @@ public class Settings implements Serializable {
     return null;
   }
 
-  public synchronized void setKafkaBrokers(Set<String> kafkaBrokers) {
-    this.kafkaBrokers.clear();
-    this.kafkaBrokers.addAll(kafkaBrokers);
+  public void setKafkaBrokers(Set<String> kafkaBrokers) {
+    this.kafkaBrokers = Collections.unmodifiableSet(new HashSet<>(kafkaBrokers));
   }
   
   public Set<String> getBrokerEndpoints() throws IOException, KeeperException, InterruptedException {
@@ -2564,151 +2569,112 @@ public class Settings implements Serializable {
   private static final String VARIABLE_LDAP_GROUPDN = "ldap_group_dn";
   private static final String VARIABLE_LDAP_ACCOUNT_STATUS = "ldap_account_status";
 
-  private String LDAP_AUTH = "false";
-  private String LDAP_GROUP_MAPPING = "";
-  private String LDAP_USER_ID = "uid"; //login name
-  private String LDAP_USER_GIVEN_NAME = "givenName";
-  private String LDAP_USER_SURNAME = "sn";
-  private String LDAP_USER_EMAIL = "mail";
-  private String LDAP_USER_SEARCH_FILTER = "uid=%s";
-  private String LDAP_GROUP_SEARCH_FILTER = "member=%d";
-  private String LDAP_ATTR_BINARY = "java.naming.ldap.attributes.binary";
-  private String LDAP_GROUP_TARGET = "cn";
-  private String LDAP_DYNAMIC_GROUP_TARGET = "memberOf";
-  private String LDAP_LDAP_USERDN = "";
-  private String LDAP_LDAP_GROUPDN = "";
-  private int LDAP_ACCOUNT_STATUS = 4;
-
-  private void populateLDAPCache() {
-    LDAP_AUTH = setVar(VARIABLE_LDAP_AUTH, LDAP_AUTH);
-    LDAP_GROUP_MAPPING = setVar(VARIABLE_LDAP_GROUP_MAPPING, LDAP_GROUP_MAPPING);
-    LDAP_USER_ID = setVar(VARIABLE_LDAP_USER_ID, LDAP_USER_ID);
-    LDAP_USER_GIVEN_NAME = setVar(VARIABLE_LDAP_USER_GIVEN_NAME, LDAP_USER_GIVEN_NAME);
-    LDAP_USER_SURNAME = setVar(VARIABLE_LDAP_USER_SURNAME, LDAP_USER_SURNAME);
-    LDAP_USER_EMAIL = setVar(VARIABLE_LDAP_USER_EMAIL, LDAP_USER_EMAIL);
-    LDAP_USER_SEARCH_FILTER = setVar(VARIABLE_LDAP_USER_SEARCH_FILTER, LDAP_USER_SEARCH_FILTER);
-    LDAP_GROUP_SEARCH_FILTER = setVar(VARIABLE_LDAP_GROUP_SEARCH_FILTER, LDAP_GROUP_SEARCH_FILTER);
-    LDAP_ATTR_BINARY = setVar(VARIABLE_LDAP_ATTR_BINARY, LDAP_ATTR_BINARY);
-    LDAP_GROUP_TARGET = setVar(VARIABLE_LDAP_GROUP_TARGET, LDAP_GROUP_TARGET);
-    LDAP_DYNAMIC_GROUP_TARGET = setVar(VARIABLE_LDAP_DYNAMIC_GROUP_TARGET, LDAP_DYNAMIC_GROUP_TARGET);
-    LDAP_LDAP_USERDN = setVar(VARIABLE_LDAP_USERDN, LDAP_LDAP_USERDN);
-    LDAP_LDAP_GROUPDN = setVar(VARIABLE_LDAP_GROUPDN, LDAP_LDAP_GROUPDN);
-    LDAP_ACCOUNT_STATUS = setIntVar(VARIABLE_LDAP_ACCOUNT_STATUS, LDAP_ACCOUNT_STATUS);
-  }
-
-  public synchronized String getLDAPAuthStatus() {
-    checkCache();
-    return LDAP_AUTH;
+  private void populateLDAPCache(CachedValues next) {
+    next.LDAP_AUTH = setVar(VARIABLE_LDAP_AUTH, next.LDAP_AUTH);
+    next.LDAP_GROUP_MAPPING = setVar(VARIABLE_LDAP_GROUP_MAPPING, next.LDAP_GROUP_MAPPING);
+    next.LDAP_USER_ID = setVar(VARIABLE_LDAP_USER_ID, next.LDAP_USER_ID);
+    next.LDAP_USER_GIVEN_NAME = setVar(VARIABLE_LDAP_USER_GIVEN_NAME, next.LDAP_USER_GIVEN_NAME);
+    next.LDAP_USER_SURNAME = setVar(VARIABLE_LDAP_USER_SURNAME, next.LDAP_USER_SURNAME);
+    next.LDAP_USER_EMAIL = setVar(VARIABLE_LDAP_USER_EMAIL, next.LDAP_USER_EMAIL);
+    next.LDAP_USER_SEARCH_FILTER = setVar(VARIABLE_LDAP_USER_SEARCH_FILTER, next.LDAP_USER_SEARCH_FILTER);
+    next.LDAP_GROUP_SEARCH_FILTER = setVar(VARIABLE_LDAP_GROUP_SEARCH_FILTER, next.LDAP_GROUP_SEARCH_FILTER);
+    next.LDAP_ATTR_BINARY = setVar(VARIABLE_LDAP_ATTR_BINARY, next.LDAP_ATTR_BINARY);
+    next.LDAP_GROUP_TARGET = setVar(VARIABLE_LDAP_GROUP_TARGET, next.LDAP_GROUP_TARGET);
+    next.LDAP_DYNAMIC_GROUP_TARGET = setVar(VARIABLE_LDAP_DYNAMIC_GROUP_TARGET, next.LDAP_DYNAMIC_GROUP_TARGET);
+    next.LDAP_LDAP_USERDN = setVar(VARIABLE_LDAP_USERDN, next.LDAP_LDAP_USERDN);
+    next.LDAP_LDAP_GROUPDN = setVar(VARIABLE_LDAP_GROUPDN, next.LDAP_LDAP_GROUPDN);
+    next.LDAP_ACCOUNT_STATUS = setIntVar(VARIABLE_LDAP_ACCOUNT_STATUS, next.LDAP_ACCOUNT_STATUS);
   }
 
-  public synchronized String getLdapGroupMapping() {
-    checkCache();
-    return LDAP_GROUP_MAPPING;
+  public String getLDAPAuthStatus() {
+    return cachedValues().LDAP_AUTH;
   }
 
-  public synchronized String getLdapUserId() {
-    checkCache();
-    return LDAP_USER_ID;
+  public String getLdapGroupMapping() {
+    return cachedValues().LDAP_GROUP_MAPPING;
   }
 
-  public synchronized String getLdapUserGivenName() {
-    checkCache();
-    return LDAP_USER_GIVEN_NAME;
+  public String getLdapUserId() {
+    return cachedValues().LDAP_USER_ID;
   }
 
-  public synchronized String getLdapUserSurname() {
-    checkCache();
-    return LDAP_USER_SURNAME;
+  public String getLdapUserGivenName() {
+    return cachedValues().LDAP_USER_GIVEN_NAME;
   }
 
-  public synchronized String getLdapUserMail() {
-    checkCache();
-    return LDAP_USER_EMAIL;
+  public String getLdapUserSurname() {
+    return cachedValues().LDAP_USER_SURNAME;
   }
 
-  public synchronized String getLdapUserSearchFilter() {
-    checkCache();
-    return LDAP_USER_SEARCH_FILTER;
+  public String getLdapUserMail() {
+    return cachedValues().LDAP_USER_EMAIL;
   }
 
-  public synchronized String getLdapGroupSearchFilter() {
-    checkCache();
-    return LDAP_GROUP_SEARCH_FILTER;
+  public String getLdapUserSearchFilter() {
+    return cachedValues().LDAP_USER_SEARCH_FILTER;
   }
 
-  public synchronized String getLdapAttrBinary() {
-    checkCache();
-    return LDAP_ATTR_BINARY;
+  public String getLdapGroupSearchFilter() {
+    return cachedValues().LDAP_GROUP_SEARCH_FILTER;
   }
 
-  public synchronized String getLdapGroupTarget() {
-    checkCache();
-    return LDAP_GROUP_TARGET;
+  public String getLdapAttrBinary() {
+    return cachedValues().LDAP_ATTR_BINARY;
   }
 
-  public synchronized String getLdapDynGroupTarget() {
-    checkCache();
-    return LDAP_DYNAMIC_GROUP_TARGET;
+  public String getLdapGroupTarget() {
+    return cachedValues().LDAP_GROUP_TARGET;
   }
 
-  public synchronized String getLdapUserDN() {
-    checkCache();
-    return LDAP_LDAP_USERDN;
+  public String getLdapDynGroupTarget() {
+    return cachedValues().LDAP_DYNAMIC_GROUP_TARGET;
   }
 
-  public synchronized String getLdapGroupDN() {
-    checkCache();
-    return LDAP_LDAP_GROUPDN;
+  public String getLdapUserDN() {
+    return cachedValues().LDAP_LDAP_USERDN;
   }
 
-  public synchronized int getLdapAccountStatus() {
-    checkCache();
-    return LDAP_ACCOUNT_STATUS;
+  public String getLdapGroupDN() {
+    return cachedValues().LDAP_LDAP_GROUPDN;
+  }
+
+  public int getLdapAccountStatus() {
+    return cachedValues().LDAP_ACCOUNT_STATUS;
   }
   //----------------------------END LDAP------------------------------------
 
   // Service key rotation enabled
   private static final String SERVICE_KEY_ROTATION_ENABLED_KEY = "service_key_rotation_enabled";
-  private boolean serviceKeyRotationEnabled = false;
 
-  public synchronized boolean isServiceKeyRotationEnabled() {
-    checkCache();
-    return serviceKeyRotationEnabled;
+  public boolean isServiceKeyRotationEnabled() {
+    return cachedValues().serviceKeyRotationEnabled;
   }
 
   // Service key rotation interval
   private static final String SERVICE_KEY_ROTATION_INTERVAL_KEY = "service_key_rotation_interval";
-  private String serviceKeyRotationInterval = "3d";
 
-  public synchronized String getServiceKeyRotationInterval() {
-    checkCache();
-    return serviceKeyRotationInterval;
+  public String getServiceKeyRotationInterval() {
+    return cachedValues().serviceKeyRotationInterval;
   }
 
   private static final String APPLICATION_CERTIFICATE_VALIDITY_PERIOD_KEY = "application_certificate_validity_period";
-  private String applicationCertificateValidityPeriod = "3d";
   
-  public synchronized String getApplicationCertificateValidityPeriod() {
-    checkCache();
-    return applicationCertificateValidityPeriod;
+  public String getApplicationCertificateValidityPeriod() {
+    return cachedValues().applicationCertificateValidityPeriod;
   }
 
   // TensorBoard kill rotation interval in milliseconds
   private static final String TENSORBOARD_MAX_LAST_ACCESSED = "tensorboard_max_last_accessed";
-  private int tensorBoardMaxLastAccessed = 1800000;
 
-  public synchronized int getTensorBoardMaxLastAccessed() {
-    checkCache();
-    return tensorBoardMaxLastAccessed;
+  public int getTensorBoardMaxLastAccessed() {
+    return cachedValues().tensorBoardMaxLastAccessed;
   }
 
   // TensorBoard kill rotation interval in milliseconds
   private static final String SPARK_UI_LOGS_OFFSET = "spark_ui_logs_offset";
-  private int sparkUILogsOffset = 512000;
 
-  public synchronized int getSparkUILogsOffset() {
-    checkCache();
-    return sparkUILogsOffset;
+  public int getSparkUILogsOffset() {
+    return cachedValues().sparkUILogsOffset;
   }
 
   public Long getConfTimeValue(String configurationTime) {
@@ -2736,284 +2702,178 @@ public class Settings implements Serializable {
   }
   
   // User upgradable libraries we installed for them
-  private Set<String> PROVIDED_PYTHON_LIBRARY_NAMES;
   private static final String VARIABLE_PROVIDED_PYTHON_LIBRARY_NAMES = "provided_python_lib_names";
   private static final String DEFAULT_PROVIDED_PYTHON_LIBRARY_NAMES =
       "hops, pandas, tensorflow-serving-api, hopsfacets, mmlspark, numpy";
   
-  public synchronized Set<String> getProvidedPythonLibraryNames() {
-    checkCache();
-    return PROVIDED_PYTHON_LIBRARY_NAMES;
+  public Set<String> getProvidedPythonLibraryNames() {
+    return cachedValues().PROVIDED_PYTHON_LIBRARY_NAMES;
   }
   
   // Libraries we preinstalled users should not mess with
-  private Set<String> PREINSTALLED_PYTHON_LIBRARY_NAMES;
   private static final String VARIABLE_PREINSTALLED_PYTHON_LIBRARY_NAMES = "preinstalled_python_lib_names";
   private static final String DEFAULT_PREINSTALLED_PYTHON_LIBRARY_NAMES =
       "tensorflow-gpu, tensorflow, pydoop, pyspark, tensorboard";
   
-  public synchronized Set<String> getPreinstalledPythonLibraryNames() {
-    checkCache();
-    return PREINSTALLED_PYTHON_LIBRARY_NAMES;
+  public Set<String> getPreinstalledPythonLibraryNames() {
+    return cachedValues().PREINSTALLED_PYTHON_LIBRARY_NAMES;
   }
   
-  private String HOPSWORKS_VERSION;
-
-  public synchronized String getHopsworksVersion() {
-    checkCache();
-    return HOPSWORKS_VERSION;
+  public String getHopsworksVersion() {
+    return cachedValues().HOPSWORKS_VERSION;
   }
 
-  private String CUDA_VERSION;
-
-  public synchronized String getCudaVersion() {
-    checkCache();
-    return CUDA_VERSION;
+  public String getCudaVersion() {
+    return cachedValues().CUDA_VERSION;
   }
 
-  private String TENSORFLOW_VERSION;
-
-  public synchronized String getTensorflowVersion() {
-    checkCache();
-    return TENSORFLOW_VERSION;
+  public String getTensorflowVersion() {
+    return cachedValues().TENSORFLOW_VERSION;
   }
 
-  private String DRELEPHANT_VERSION;
-
-  public synchronized String getDrelephantVersion() {
-    checkCache();
-    return DRELEPHANT_VERSION;
+  public String getDrelephantVersion() {
+    return cachedValues().DRELEPHANT_VERSION;
   }
 
-  private String ELASTIC_VERSION;
-
-  public synchronized String getElasticVersion() {
-    checkCache();
-    return ELASTIC_VERSION;
+  public String getElasticVersion() {
+    return cachedValues().ELASTIC_VERSION;
   }
 
-  private String KAFKA_VERSION;
-
-  public synchronized String getKafkaVersion() {
-    checkCache();
-    return KAFKA_VERSION;
+  public String getKafkaVersion() {
+    return cachedValues().KAFKA_VERSION;
   }
 
-  private String DELA_VERSION;
-
-  public synchronized String getDelaVersion() {
-    checkCache();
-    return DELA_VERSION;
+  public String getDelaVersion() {
+    return cachedValues().DELA_VERSION;
   }
 
-  private String EPIPE_VERSION;
-
-  public synchronized String getEpipeVersion() {
-    checkCache();
-    return EPIPE_VERSION;
+  public String getEpipeVersion() {
+    return cachedValues().EPIPE_VERSION;
   }
 
-  private String FLINK_VERSION;
-
-  public synchronized String getFlinkVersion() {
-    checkCache();
-    return FLINK_VERSION;
+  public String getFlinkVersion() {
+    return cachedValues().FLINK_VERSION;
   }
 
-  private String SPARK_VERSION;
-
-  public synchronized String getSparkVersion() {
-    checkCache();
-    return SPARK_VERSION;
+  public String getSparkVersion() {
+    return cachedValues().SPARK_VERSION;
   }
 
-  private String SLIDER_VERSION;
-
-  public synchronized String getSliderVersion() {
-    checkCache();
-    return SLIDER_VERSION;
+  public String getSliderVersion() {
+    return cachedValues().SLIDER_VERSION;
   }
 
-  private String TEZ_VERSION;
-
-  public synchronized String getTezVersion() {
-    checkCache();
-    return TEZ_VERSION;
+  public String getTezVersion() {
+    return cachedValues().TEZ_VERSION;
   }
 
-  private String HIVE2_VERSION;
-
-  public synchronized String getHive2Version() {
-    checkCache();
-    return HIVE2_VERSION;
+  public String getHive2Version() {
+    return cachedValues().HIVE2_VERSION;
   }
 
-  private String ZEPPELIN_VERSION;
-
-  public synchronized String getZeppelinVersion() {
-    checkCache();
-    return ZEPPELIN_VERSION;
+  public String getZeppelinVersion() {
+    return cachedValues().ZEPPELIN_VERSION;
   }
 
-  private String LIVY_VERSION;
-
-  public synchronized String getLivyVersion() {
-    checkCache();
-    return LIVY_VERSION;
+  public String getLivyVersion() {
+    return cachedValues().LIVY_VERSION;
   }
 
-  private String NDB_VERSION;
-
-  public synchronized String getNdbVersion() {
-    checkCache();
-    return NDB_VERSION;
+  public String getNdbVersion() {
+    return cachedValues().NDB_VERSION;
   }
 
-  private String FILEBEAT_VERSION;
-
-  public synchronized String getFilebeatVersion() {
-    checkCache();
-    return FILEBEAT_VERSION;
+  public String getFilebeatVersion() {
+    return cachedValues().FILEBEAT_VERSION;
   }
 
-  private String KIBANA_VERSION;
-
-  public synchronized String getKibanaVersion() {
-    checkCache();
-    return KIBANA_VERSION;
+  public String getKibanaVersion() {
+    return cachedValues().KIBANA_VERSION;
   }
 
-  private String LOGSTASH_VERSION;
-
-  public synchronized String getLogstashVersion() {
-    checkCache();
-    return LOGSTASH_VERSION;
+  public String getLogstashVersion() {
+    return cachedValues().LOGSTASH_VERSION;
   }
 
-  private String KAPACITOR_VERSION;
-
-  public synchronized String getKapacitorVersion() {
-    checkCache();
-    return KAPACITOR_VERSION;
+  public String getKapacitorVersion() {
+    return cachedValues().KAPACITOR_VERSION;
   }
 
-  private String TELEGRAF_VERSION;
-
-  public synchronized String getTelegrafVersion() {
-    checkCache();
-    return TELEGRAF_VERSION;
+  public String getTelegrafVersion() {
+    return cachedValues().TELEGRAF_VERSION;
   }
 
-  private String GRAFANA_VERSION;
-
-  public synchronized String getGrafanaVersion() {
-    checkCache();
-    return GRAFANA_VERSION;
+  public String getGrafanaVersion() {
+    return cachedValues().GRAFANA_VERSION;
   }
 
-  private String INFLUXDB_VERSION;
-
-  public synchronized String getInfluxdbVersion() {
-    checkCache();
-    return INFLUXDB_VERSION;
+  public String getInfluxdbVersion() {
+    return cachedValues().INFLUXDB_VERSION;
   }
 
-  private String ZOOKEEPER_VERSION;
-
-  public synchronized String getZookeeperVersion() {
-    checkCache();
-    return ZOOKEEPER_VERSION;
+  public String getZookeeperVersion() {
+    return cachedValues().ZOOKEEPER_VERSION;
   }
   
   // -------------------------------- Kubernetes ----------------------------------------------//
-  private String KUBE_USER = "hopsworks";
-  public synchronized String getKubeUser() {
-    checkCache();
-    return KUBE_USER;
+  public String getKubeUser() {
+    return cachedValues().KUBE_USER;
   }
 
-  private String KUBEMASTER_URL = "https://192.168.68.102:6443";
-  public synchronized String getKubeMasterUrl() {
-    checkCache();
-    return KUBEMASTER_URL;
+  public String getKubeMasterUrl() {
+    return cachedValues().KUBEMASTER_URL;
   }
 
-  private String KUBE_CA_CERTFILE = "/srv/hops/certs-dir/certs/ca.cert.pem";
-  public synchronized String getKubeCaCertfile() {
-    checkCache();
-    return KUBE_CA_CERTFILE;
+  public String getKubeCaCertfile() {
+    return cachedValues().KUBE_CA_CERTFILE;
   }
 
-  private String KUBE_CLIENT_KEYFILE = "/srv/hops/certs-dir/kube/hopsworks/hopsworks.key.pem";
-  public synchronized String getKubeClientKeyfile() {
-    checkCache();
-    return KUBE_CLIENT_KEYFILE;
+  public String getKubeClientKeyfile() {
+    return cachedValues().KUBE_CLIENT_KEYFILE;
   }
 
-  private String KUBE_CLIENT_CERTFILE = "/srv/hops/certs-dir/kube/hopsworks/hopsworks.cert.pem";
-  public synchronized String getKubeClientCertfile() {
-    checkCache();
-    return KUBE_CLIENT_CERTFILE;
+  public String getKubeClientCertfile() {
+    return cachedValues().KUBE_CLIENT_CERTFILE;
   }
 
-  private String KUBE_CLIENT_KEYPASS = "adminpw";
-  public synchronized String getKubeClientKeypass() {
-    checkCache();
-    return KUBE_CLIENT_KEYPASS;
+  public String getKubeClientKeypass() {
+    return cachedValues().KUBE_CLIENT_KEYPASS;
   }
 
-  private String KUBE_TRUSTSTORE_PATH = "/srv/hops/certs-dir/kube/hopsworks/hopsworks__tstore.jks";
-  public synchronized String getKubeTruststorePath() {
-    checkCache();
-    return KUBE_TRUSTSTORE_PATH;
+  public String getKubeTruststorePath() {
+    return cachedValues().KUBE_TRUSTSTORE_PATH;
   }
 
-  private String KUBE_TRUSTSTORE_KEY = "adminpw";
-  public synchronized String getKubeTruststoreKey() {
-    checkCache();
-    return KUBE_TRUSTSTORE_KEY;
+  public String getKubeTruststoreKey() {
+    return cachedValues().KUBE_TRUSTSTORE_KEY;
   }
 
-  private String KUBE_KEYSTORE_PATH = "/srv/hops/certs-dir/kube/hopsworks/hopsworks__kstore.jks";
-  public synchronized String getKubeKeystorePath() {
-    checkCache();
-    return KUBE_KEYSTORE_PATH;
+  public String getKubeKeystorePath() {
+    return cachedValues().KUBE_KEYSTORE_PATH;
   }
 
-  private String KUBE_KEYSTORE_KEY = "adminpw";
-  public synchronized String getKubeKeystoreKey() {
-    checkCache();
-    return KUBE_KEYSTORE_KEY;
+  public String getKubeKeystoreKey() {
+    return cachedValues().KUBE_KEYSTORE_KEY;
   }
 
-  private String KUBE_CA_PATH = "/srv/hops/certs-dir/kube";
-  public synchronized String getKubeCAPath() {
-    checkCache();
-    return KUBE_CA_PATH;
+  public String getKubeCAPath() {
+    return cachedValues().KUBE_CA_PATH;
   }
 
-  private String KUBE_CA_PASSWORD = "adminpw";
-  public synchronized String getKubeCAPassword() {
-    checkCache();
-    return KUBE_CA_PASSWORD;
+  public String getKubeCAPassword() {
+    return cachedValues().KUBE_CA_PASSWORD;
   }
 
-  private String KUBE_REGISTRY = "registry.docker-registry.svc.cluster.local";
-  public synchronized String getKubeRegistry() {
-    checkCache();
-    return KUBE_REGISTRY;
+  public String getKubeRegistry() {
+    return cachedValues().KUBE_REGISTRY;
   }
 
-  private Integer KUBE_MAX_SERVING_INSTANCES = 10;
-  public synchronized Integer getKubeMaxServingInstances() {
-    checkCache();
-    return KUBE_MAX_SERVING_INSTANCES;
+  public Integer getKubeMaxServingInstances() {
+    return cachedValues().KUBE_MAX_SERVING_INSTANCES;
   }
 
-  private String TF_SERVING_MONITOR_INT = "30s";
-  public synchronized String getTFServingMonitorInt() {
-    checkCache();
-    return TF_SERVING_MONITOR_INT;
+  public String getTFServingMonitorInt() {
+    return cachedValues().TF_SERVING_MONITOR_INT;
   }
   
   public enum LOG_LEVEL {
@@ -0,0 +1,66 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.util;
+
+import io.hops.hopsworks.common.dao.util.Variables;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of all the rows of the variables table at the time it was loaded. A new snapshot is built
+ * every time Settings refreshes its cache and is published through a volatile reference, so readers never
+ * observe a partially loaded table.
+ */
+final class VariablesSnapshot {
+
+  private final Map<String, String> variables;
+  private final long generation;
+  private final long loadedAt;
+
+  VariablesSnapshot(List<Variables> rows, long generation) {
+    Map<String, String> values = new HashMap<>(rows.size());
+    for (Variables row : rows) {
+      values.put(row.getId(), row.getValue());
+    }
+    this.variables = Collections.unmodifiableMap(values);
+    this.generation = generation;
+    this.loadedAt = System.currentTimeMillis();
+  }
+
+  /**
+   * @param id variable name
+   * @return the value of the variable or null if it is not present in the table
+   */
+  String get(String id) {
+    return variables.get(id);
+  }
+
+  int size() {
+    return variables.size();
+  }
+
+  long getGeneration() {
+    return generation;
+  }
+
+  long getLoadedAt() {
+    return loadedAt;
+  }
+}
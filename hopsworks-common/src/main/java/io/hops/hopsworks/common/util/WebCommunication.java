@@ -39,45 +39,43 @@
 
 package io.hops.hopsworks.common.util;
 
+import io.hops.hopsworks.common.dao.host.Hosts;
 import io.hops.hopsworks.common.dao.pythonDeps.PythonDepsFacade;
 import io.hops.hopsworks.common.exception.GenericException;
 import io.hops.hopsworks.common.exception.RESTCodes;
 import org.apache.commons.lang.StringEscapeUtils;
 
-import javax.annotation.PreDestroy;
-import javax.ejb.AsyncResult;
-import javax.ejb.Asynchronous;
+import javax.annotation.Resource;
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.json.Json;
 import javax.json.JsonArray;
 import javax.json.JsonObject;
-import javax.net.ssl.HostnameVerifier;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLSession;
-import javax.net.ssl.TrustManager;
-import javax.net.ssl.X509TrustManager;
 import javax.ws.rs.client.Client;
-import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.Invocation;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status.Family;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.io.Reader;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
-import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -87,37 +85,70 @@ public class WebCommunication {
   private static final Logger logger = Logger.getLogger(WebCommunication.class.
           getName());
 
-  private static boolean DISABLE_CERTIFICATE_VALIDATION = true;
   private static String PROTOCOL = "https";
   private static int PORT = 8090;
   private static String NOT_AVAILABLE = "Not available.";
-  private final ConcurrentLinkedQueue<Client> inUseClientPool =
-      new ConcurrentLinkedQueue<>();
-  private final ConcurrentLinkedQueue<Client> availableClientPool =
-      new ConcurrentLinkedQueue<>();
+  // Number of agents a bulk service operation talks to at the same time
+  public static final int MAX_PARALLEL_SERVICE_OPS = 16;
+  // How long an agent has to answer a start, stop or restart
+  private static final int SERVICE_OP_TIMEOUT_MS = (int) TimeUnit.MINUTES.toMillis(2);
+  // After this, a host that did not answer is reported as timed out and the bulk operation moves on
+  private static final long SERVICE_OP_DEADLINE_MS = AgentClientPool.CONNECT_TIMEOUT_MS + SERVICE_OP_TIMEOUT_MS
+      + TimeUnit.SECONDS.toMillis(5);
   @EJB
   private Settings settings;
+  @EJB
+  private AgentClientPool clientPool;
+  @Resource(lookup = "concurrent/kagentExecutorService")
+  private ManagedExecutorService kagentExecutorService;
 
   public WebCommunication() {
   }
 
-  @PreDestroy
-  private void cleanUp() {
-    for (Client client : availableClientPool) {
-      client.close();
-      client = null;
+  /**
+   * Reads what is needed from the response of an agent, while the client that made the request is still borrowed.
+   */
+  private interface ResponseReader<T, E extends Exception> {
+
+    T read(Response response) throws E;
+  }
+
+  /**
+   * The outcome of a service operation on one host.
+   */
+  public static class ServiceOpResult {
+
+    private final String hostname;
+    private final boolean success;
+    private final String result;
+
+    public ServiceOpResult(String hostname, boolean success, String result) {
+      this.hostname = hostname;
+      this.success = success;
+      this.result = result;
     }
-    for (Client client : inUseClientPool) {
-      client.close();
-      client = null;
+
+    public String getHostname() {
+      return hostname;
+    }
+
+    public boolean isSuccess() {
+      return success;
+    }
+
+    public String getResult() {
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return hostname + ": " + result;
     }
   }
   
   public Response getWebResponse(String url, String agentPassword) {
-    Response response;
     try {
-      response = getWebResource(url, agentPassword);
-      return response;
+      return getWebResource(url, agentPassword, null, 0, WebCommunication::bufferResponse);
     } catch (Exception ex) {
       logger.log(Level.SEVERE, null, ex);
     }
@@ -140,13 +171,128 @@ public class WebCommunication {
     return fetchContent(url, agentPassword);
   }
 
-  @Asynchronous
-  public Future<String> asyncServiceOp(String operation, String hostAddress,
-      String agentPassword, String cluster, String group, String service) throws GenericException {
-    String url = createUrl(operation, hostAddress, cluster, group, service);
-    return new AsyncResult<>(fetchContent(url, agentPassword));
+  /**
+   * Runs a service operation on all the hosts, at most {@link #MAX_PARALLEL_SERVICE_OPS} at a time. A host that does
+   * not answer within its deadline, counted from when a thread of the kagent executor starts on it, is reported as
+   * timed out instead of holding up the others. A host that waited as long for a free thread is reported as not
+   * attempted. Progress is logged as the hosts answer, the results are only returned once all the hosts have answered
+   * or timed out.
+   *
+   * @param operation start | stop | restart
+   * @param hosts
+   * @param cluster
+   * @param group
+   * @param service
+   * @return one result per host, in the order the hosts answered
+   */
+  public List<ServiceOpResult> serviceOpAll(final String operation, List<Hosts> hosts, final String cluster,
+      final String group, final String service) {
+    CompletionService<ServiceOpResult> completionService = new ExecutorCompletionService<>(kagentExecutorService);
+    Map<Future<ServiceOpResult>, String> pendingHosts = new HashMap<>();
+    Map<Future<ServiceOpResult>, Long> submittedAt = new HashMap<>();
+    // Set by the task itself, 0 while it waits for a thread of the shared executor
+    Map<Future<ServiceOpResult>, AtomicLong> startedAt = new HashMap<>();
+    List<ServiceOpResult> results = new ArrayList<>(hosts.size());
+    Iterator<Hosts> toSubmit = hosts.iterator();
+    while (toSubmit.hasNext() || !pendingHosts.isEmpty()) {
+      while (toSubmit.hasNext() && pendingHosts.size() < MAX_PARALLEL_SERVICE_OPS) {
+        final Hosts host = toSubmit.next();
+        final AtomicLong started = new AtomicLong(0);
+        Future<ServiceOpResult> future = completionService.submit(() -> {
+          started.set(System.currentTimeMillis());
+          return serviceOpOnHost(operation, host, cluster, group, service);
+        });
+        pendingHosts.put(future, host.getHostname());
+        submittedAt.put(future, System.currentTimeMillis());
+        startedAt.put(future, started);
+      }
+      Future<ServiceOpResult> done;
+      try {
+        long nextDeadline = Long.MAX_VALUE;
+        for (Future<ServiceOpResult> pending : pendingHosts.keySet()) {
+          nextDeadline = Math.min(nextDeadline, getDeadline(pending, submittedAt, startedAt));
+        }
+        done = completionService.poll(Math.max(nextDeadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        for (Map.Entry<Future<ServiceOpResult>, String> pending : pendingHosts.entrySet()) {
+          pending.getKey().cancel(true);
+          results.add(new ServiceOpResult(pending.getValue(), false, "Error: interrupted"));
+        }
+        while (toSubmit.hasNext()) {
+          results.add(new ServiceOpResult(toSubmit.next().getHostname(), false, "Error: interrupted"));
+        }
+        return results;
+      }
+      if (done != null) {
+        // Futures cancelled after their deadline are queued too, they were already reported
+        String hostname = pendingHosts.remove(done);
+        submittedAt.remove(done);
+        startedAt.remove(done);
+        if (hostname != null) {
+          ServiceOpResult result = getServiceOpResult(hostname, done);
+          logger.log(Level.INFO, "{0} {1}/{2}/{3} on {4} ({5}/{6})", new Object[]{operation, cluster, group, service,
+            result, results.size() + 1, hosts.size()});
+          results.add(result);
+        }
+        continue;
+      }
+      long now = System.currentTimeMillis();
+      Iterator<Map.Entry<Future<ServiceOpResult>, String>> it = pendingHosts.entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<Future<ServiceOpResult>, String> pending = it.next();
+        Future<ServiceOpResult> future = pending.getKey();
+        if (getDeadline(future, submittedAt, startedAt) > now) {
+          continue;
+        }
+        it.remove();
+        future.cancel(true);
+        submittedAt.remove(future);
+        // A task cancelled before it started never runs
+        boolean attempted = startedAt.remove(future).get() != 0;
+        logger.log(Level.WARNING, "{0} {1}/{2}/{3} on {4} {5}", new Object[]{operation, cluster, group, service,
+          pending.getValue(), attempted ? "timed out" : "was not attempted"});
+        long seconds = TimeUnit.MILLISECONDS.toSeconds(SERVICE_OP_DEADLINE_MS);
+        results.add(new ServiceOpResult(pending.getValue(), false, attempted
+            ? "Error: the agent did not answer in " + seconds + "s"
+            : "Error: not attempted, no thread was free to contact the agent in " + seconds + "s"));
+      }
+    }
+    return results;
   }
-  
+
+  /**
+   * A host has {@link #SERVICE_OP_DEADLINE_MS} to answer once its task started, and as long to wait for a thread
+   * before that.
+   */
+  private static long getDeadline(Future<ServiceOpResult> future, Map<Future<ServiceOpResult>, Long> submittedAt,
+      Map<Future<ServiceOpResult>, AtomicLong> startedAt) {
+    long started = startedAt.get(future).get();
+    return (started != 0 ? started : submittedAt.get(future)) + SERVICE_OP_DEADLINE_MS;
+  }
+
+  private ServiceOpResult serviceOpOnHost(String operation, Hosts host, String cluster, String group,
+      String service) {
+    String url = createUrl(operation, host.getPublicOrPrivateIp(), cluster, group, service);
+    try {
+      return new ServiceOpResult(host.getHostname(), true, fetchContent(url, host.getAgentPassword(),
+          SERVICE_OP_TIMEOUT_MS));
+    } catch (GenericException | RuntimeException ex) {
+      return new ServiceOpResult(host.getHostname(), false, "Error: " + ex.getMessage());
+    }
+  }
+
+  private ServiceOpResult getServiceOpResult(String hostname, Future<ServiceOpResult> future) {
+    try {
+      return future.get();
+    } catch (ExecutionException ex) {
+      return new ServiceOpResult(hostname, false, "Error: " + ex.getCause().getMessage());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return new ServiceOpResult(hostname, false, "Error: interrupted");
+    }
+  }
+
   public String getConfig(String hostAddress, String agentPassword,
       String cluster, String group, String service) throws GenericException {
     String url = createUrl("config", hostAddress, cluster, group, service);
@@ -232,20 +378,20 @@ public class WebCommunication {
     for (String param : params) {
       optionsAndParams += optionsAndParams.isEmpty() ? param : " " + param;
     }
-    Response response = postWebResource(url, agentPassword,
-            optionsAndParams);
-    int code = response.getStatus();
-    Family res = Response.Status.Family.familyOf(code);
-    if (res == Response.Status.Family.SUCCESSFUL) {
-      String responseString = response.readEntity(String.class);
-      if (path.equalsIgnoreCase("execute/continue")) {
-        JsonObject json = Json.createReader(response.readEntity(Reader.class)).
-                readObject();
-        responseString = json.getString("before");
+    return postWebResource(url, agentPassword, optionsAndParams, response -> {
+      int code = response.getStatus();
+      Family res = Response.Status.Family.familyOf(code);
+      if (res == Response.Status.Family.SUCCESSFUL) {
+        String responseString = response.readEntity(String.class);
+        if (path.equalsIgnoreCase("execute/continue")) {
+          JsonObject json = Json.createReader(new StringReader(responseString)).
+                  readObject();
+          responseString = json.getString("before");
+        }
+        return FormatUtils.stdoutToHtml(responseString);
       }
-      return FormatUtils.stdoutToHtml(responseString);
-    }
-    throw new RuntimeException("Did not succeed to execute command.");
+      throw new RuntimeException("Did not succeed to execute command.");
+    });
   }
 
   public Response doCommand(String hostAddress, String agentPassword,
@@ -253,7 +399,7 @@ public class WebCommunication {
           Exception {
     String url = createUrl("do", hostAddress, agentPassword, cluster, group,
             service, command);
-    return getWebResource(url, agentPassword);
+    return getWebResource(url, agentPassword, null, 0, WebCommunication::bufferResponse);
   }
 
   private String createUrl(String context, String hostAddress, String... args) {
@@ -266,23 +412,25 @@ public class WebCommunication {
   }
 
   private String fetchContent(String url, String agentPassword) throws GenericException {
-    String content = NOT_AVAILABLE;
+    return fetchContent(url, agentPassword, 0);
+  }
+
+  private String fetchContent(String url, String agentPassword, int readTimeoutMs) throws GenericException {
     try {
-      Response response = getWebResource(url, agentPassword);
-      int code = response.getStatus();
-      Family res = Response.Status.Family.familyOf(code);
-      if (res == Response.Status.Family.SUCCESSFUL) {
-        content = response.readEntity(String.class);
-      } else {
+      return getWebResource(url, agentPassword, null, readTimeoutMs, response -> {
+        int code = response.getStatus();
+        Family res = Response.Status.Family.familyOf(code);
+        if (res == Response.Status.Family.SUCCESSFUL) {
+          return response.readEntity(String.class);
+        }
         throw new GenericException(RESTCodes.GenericErrorCode.UNKNOWN_ERROR,
           Level.SEVERE, "response status: " + response.getStatus(),
           response + ", reason: " + response.getStatusInfo().getReasonPhrase());
-      }
+      });
     } catch (KeyManagementException | NoSuchAlgorithmException e) {
       logger.log(Level.SEVERE, null, e);
       throw new GenericException(RESTCodes.GenericErrorCode.UNKNOWN_ERROR, Level.SEVERE, null, e.getMessage(), e);
     }
-    return content;
   }
 
   private String fetchLog(String url, String agentPassword) throws GenericException {
@@ -291,105 +439,86 @@ public class WebCommunication {
     return log;
   }
 
-  private Response getWebResource(String url, String agentPassword) throws NoSuchAlgorithmException,
-      KeyManagementException {
-    return getWebResource(url, agentPassword, null);
+  /**
+   * Reads the entity into memory so that the response can be handed out after its client is released. A buffered
+   * response holds no connection.
+   */
+  private static Response bufferResponse(Response response) {
+    response.bufferEntity();
+    return response;
+  }
+
+  /**
+   * The client is held until the reader is done with the response, the response is then closed unless the reader
+   * returns it.
+   *
+   * @param readTimeoutMs 0 to wait for as long as the agent takes to answer
+   */
+  private <T, E extends Exception> T getWebResource(String url, String agentPassword, Map<String, String> args,
+      int readTimeoutMs, ResponseReader<T, E> reader) throws E, NoSuchAlgorithmException, KeyManagementException {
+    return getWebResource(url, agentPassword, args, readTimeoutMs, false, reader);
   }
 
-  private Response getWebResource(String url, String agentPassword, Map<String, String> args) throws
-      NoSuchAlgorithmException, KeyManagementException {
+  /**
+   * @param condaOp whether to use a client reserved for conda operations, see {@link AgentClientPool#borrow(boolean)}
+   */
+  private <T, E extends Exception> T getWebResource(String url, String agentPassword, Map<String, String> args,
+      int readTimeoutMs, boolean condaOp, ResponseReader<T, E> reader) throws E, NoSuchAlgorithmException,
+      KeyManagementException {
 
-    Client client = getClient();
-    WebTarget webResource = client.target(url);
+    Client client = clientPool.borrow(condaOp);
+    Response response = null;
+    T result = null;
+    try {
+      WebTarget webResource = client.target(url);
 
-    webResource = webResource.queryParam("username", Settings.AGENT_EMAIL);
-    webResource = webResource.queryParam("password", agentPassword);
-    if (args != null) {
-      for (String key : args.keySet()) {
-        webResource = webResource.queryParam(key, args.get(key));
+      webResource = webResource.queryParam("username", Settings.AGENT_EMAIL);
+      webResource = webResource.queryParam("password", agentPassword);
+      if (args != null) {
+        for (String key : args.keySet()) {
+          webResource = webResource.queryParam(key, args.get(key));
+        }
       }
-    }
-    logger.log(Level.INFO,
-            "WebCommunication: Requesting url: {0} with password {1}",
-            new Object[]{url, agentPassword});
-    
-    Response response = webResource.request()
-            .header("Accept-Encoding", "gzip,deflate")
-            .get(Response.class);
-    discardClient(client);
-    logger.log(Level.INFO, "WebCommunication: Requesting url: {0}", url);
-    return response;
-  }
-  
-  private Client getClient() throws NoSuchAlgorithmException, KeyManagementException {
-    Client client = availableClientPool.poll();
-    if (null == client) {
-      client = createClient();
-    }
+      logger.log(Level.INFO,
+              "WebCommunication: Requesting url: {0} with password {1}",
+              new Object[]{url, agentPassword});
     
-    inUseClientPool.offer(client);
-    return client;
-  }
-  
-  private void discardClient(Client client) {
-    inUseClientPool.remove(client);
-    availableClientPool.offer(client);
-  }
-  
-  // This method should never be invoked but from the getClient() method
-  private Client createClient() throws NoSuchAlgorithmException,
-      KeyManagementException {
-    if (DISABLE_CERTIFICATE_VALIDATION) {
-      // Create a trust manager that does not validate certificate chains
-      TrustManager[] trustAllCerts = new TrustManager[]{
-          new X509TrustManager() {
-            public X509Certificate[] getAcceptedIssuers() {
-              return new X509Certificate[0];
-            }
-            
-            public void checkClientTrusted(X509Certificate[] certs, String authType) {
-            }
-            
-            public void checkServerTrusted(X509Certificate[] certs, String authType) {
-            }
-          }};
-      
-      // Ignore differences between given hostname and certificate hostname
-      HostnameVerifier hv = new HostnameVerifier() {
-        public boolean verify(String hostAddress, SSLSession session) {
-          return true;
-        }
-      };
-      
-      // Install the all-trusting trust manager
-      SSLContext sc = SSLContext.getInstance("TLSv1.2");
-      sc.init(null, trustAllCerts, new SecureRandom());
-      ClientBuilder clientBuilder = ClientBuilder.newBuilder()
-          .hostnameVerifier(hv)
-          .sslContext(sc);
-      return clientBuilder.build();
-    } else {
-      return ClientBuilder.newClient();
+      Invocation.Builder request = webResource.request()
+              .header("Accept-Encoding", "gzip,deflate");
+      if (readTimeoutMs > 0) {
+        request = request.property(AgentClientPool.READ_TIMEOUT_PROPERTY, readTimeoutMs);
+      }
+      response = request.get(Response.class);
+      logger.log(Level.INFO, "WebCommunication: Requesting url: {0}", url);
+      result = reader.read(response);
+      return result;
+    } finally {
+      if (response != null && result != response) {
+        response.close();
+      }
+      clientPool.release(client, condaOp);
     }
   }
-  
-  private Response postWebResource(String url, String agentPassword,
-          String body) throws Exception {
-    return postWebResource(url, agentPassword, "", "", body);
-  }
 
-  private Response postWebResource(String url, String agentPassword,
-          String channelUrl, String version, String body) throws Exception {
-    Client client = getClient();
-    WebTarget webResource = client.target(url);
-    webResource.queryParam("username", Settings.AGENT_EMAIL);
-    webResource.queryParam("password", agentPassword);
-
-    Response response = webResource.request()
-            .header("Accept-Encoding", "gzip,deflate")
-            .post(Entity.entity(body, MediaType.TEXT_PLAIN), Response.class);
-    discardClient(client);
-    return response;
+  private <T> T postWebResource(String url, String agentPassword,
+          String body, ResponseReader<T, ? extends Exception> reader) throws Exception {
+    Client client = clientPool.borrow();
+    Response response = null;
+    try {
+      WebTarget webResource = client.target(url);
+      webResource.queryParam("username", Settings.AGENT_EMAIL);
+      webResource.queryParam("password", agentPassword);
+
+      response = webResource.request()
+              .header("Accept-Encoding", "gzip,deflate")
+              .post(Entity.entity(body, MediaType.TEXT_PLAIN), Response.class);
+      return reader.read(response);
+    } finally {
+      if (response != null) {
+        response.close();
+      }
+      clientPool.release(client);
+    }
   }
 
   public Object anaconda(String hostAddress, String agentPassword, String op,
@@ -410,14 +539,15 @@ public class WebCommunication {
       }
       args.put("srcproj", arg);
     }
-    Response response = getWebResource(url, agentPassword, args);
-    int code = response.getStatus();
-    Family res = Response.Status.Family.familyOf(code);
-    if (res == Response.Status.Family.SUCCESSFUL) {
-      return response.getEntity();
-    }
-    throw new RuntimeException("Error. Failed to execute anaconda command " + op
-            + " on " + project + ". Result was: " + res);
+    return getWebResource(url, agentPassword, args, 0, true, response -> {
+      int code = response.getStatus();
+      Family res = Response.Status.Family.familyOf(code);
+      if (res == Response.Status.Family.SUCCESSFUL) {
+        return response.readEntity(String.class);
+      }
+      throw new RuntimeException("Error. Failed to execute anaconda command " + op
+              + " on " + project + ". Result was: " + res);
+    });
   }
 
   public Object conda(String hostAddress, String agentPassword, String op,
@@ -440,14 +570,15 @@ public class WebCommunication {
       args.put("version", version);
     }
 
-    Response response = getWebResource(url, agentPassword, args);
-    int code = response.getStatus();
-    Family res = Response.Status.Family.familyOf(code);
-    if (res == Response.Status.Family.SUCCESSFUL) {
-      return response.getEntity();
-    }
-    throw new RuntimeException("Error. Failed to execute conda command " + op
-            + " on " + project + ". Result was: " + res);
+    return getWebResource(url, agentPassword, args, 0, true, response -> {
+      int code = response.getStatus();
+      Family res = Response.Status.Family.familyOf(code);
+      if (res == Response.Status.Family.SUCCESSFUL) {
+        return response.readEntity(String.class);
+      }
+      throw new RuntimeException("Error. Failed to execute conda command " + op
+              + " on " + project + ". Result was: " + res);
+    });
   }
 
 }
@@ -0,0 +1,263 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.security;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequestBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestX509CertificateAuthority {
+  
+  private static final Logger LOG = Logger.getLogger(TestX509CertificateAuthority.class.getName());
+  
+  private static final int CERTIFICATES = 200;
+  private static final int THREADS = 8;
+  
+  private Path caDir;
+  private X509CertificateAuthority ca;
+  
+  @Before
+  public void createCA() throws Exception {
+    caDir = Files.createTempDirectory("ca");
+    Files.createDirectories(caDir.resolve("certs"));
+    Files.createDirectories(caDir.resolve("newcerts"));
+    Files.createDirectories(caDir.resolve("crl"));
+    Files.createDirectories(caDir.resolve("private"));
+    Files.write(caDir.resolve("index.txt"), new byte[0]);
+    Files.write(caDir.resolve("serial"), "1000\n".getBytes(StandardCharsets.US_ASCII));
+    Files.write(caDir.resolve("crlnumber"), "1000\n".getBytes(StandardCharsets.US_ASCII));
+    
+    KeyPair caKeys = generateKeyPair();
+    X509Certificate caCert = selfSigned("C=SE, O=Hopsworks, CN=HopsRootCA", caKeys, true);
+    Files.write(caDir.resolve("ca.cert.pem"), pem("CERTIFICATE", caCert.getEncoded()));
+    Files.write(caDir.resolve("private/ca.key.pem"), pem("PRIVATE KEY", caKeys.getPrivate().getEncoded()));
+    
+    String config = "dir = " + caDir + "\n"
+        + "[ ca ]\n"
+        + "default_ca = CA_default\n"
+        + "[ CA_default ]\n"
+        + "certs = $dir/certs\n"
+        + "new_certs_dir = $dir/newcerts\n"
+        + "database = $dir/index.txt\n"
+        + "serial = $dir/serial\n"
+        + "crlnumber = $dir/crlnumber\n"
+        + "private_key = $dir/private/ca.key.pem\n"
+        + "certificate = $dir/ca.cert.pem\n"
+        + "crl_extensions = crl_ext\n"
+        + "default_crl_days = 30\n"
+        + "default_md = sha256\n"
+        + "preserve = no\n"
+        + "policy = policy_loose\n"
+        + "[ policy_loose ]\n"
+        + "countryName = optional\n"
+        + "organizationName = optional\n"
+        + "organizationalUnitName = optional\n"
+        + "commonName = supplied\n"
+        + "[ usr_cert ]\n"
+        + "basicConstraints = CA:FALSE\n"
+        + "nsCertType = client, server\n"
+        + "nsComment = \"OpenSSL Generated Client Certificate\"\n"
+        + "subjectKeyIdentifier = hash\n"
+        + "authorityKeyIdentifier = keyid,issuer\n"
+        + "keyUsage = critical, nonRepudiation, digitalSignature, keyEncipherment\n"
+        + "extendedKeyUsage = clientAuth, serverAuth\n"
+        + "[ crl_ext ]\n"
+        + "authorityKeyIdentifier = keyid:always\n";
+    Path configPath = caDir.resolve("openssl-ca.cnf");
+    Files.write(configPath, config.getBytes(StandardCharsets.US_ASCII));
+    Files.write(caDir.resolve("chain.pem"), pem("CERTIFICATE", caCert.getEncoded()));
+    
+    ca = new X509CertificateAuthority(configPath, "", "usr_cert", caDir.resolve("crl/ca.crl.pem"));
+  }
+  
+  @After
+  public void deleteCA() throws IOException {
+    try (Stream<Path> files = Files.walk(caDir)) {
+      files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+  
+  @Test
+  public void testSignRevokeAndValidate() throws Exception {
+    String csr = createCSR("C=SE, O=Hopsworks, OU=0, CN=user__project");
+    assertTrue(X509CertificateAuthority.verifyCSR(csr));
+    assertEquals("subject=/C=SE/O=Hopsworks/OU=0/CN=user__project", X509CertificateAuthority.getSubjectFromCSR(csr));
+    
+    Path certFile = caDir.resolve("certs/user__project.cert.pem");
+    String pem = ca.sign(csr, 365, certFile);
+    X509Certificate certificate = parse(pem);
+    assertEquals("serial=1000", X509CertificateAuthority.getSerialNumber(pem));
+    assertTrue(Files.exists(caDir.resolve("newcerts/1000.pem")));
+    assertTrue(new String(Files.readAllBytes(caDir.resolve("index.txt")), StandardCharsets.UTF_8)
+        .startsWith("V\t"));
+    
+    ca.generateCRL();
+    Path chain = caDir.resolve("chain.pem");
+    Path crl = caDir.resolve("crl/ca.crl.pem");
+    X509CertificateAuthority.validate(certificate, chain, crl);
+    
+    try {
+      ca.sign(createCSR("C=SE, O=Hopsworks, OU=0, CN=user__project"), 365, caDir.resolve("certs/other.cert.pem"));
+      fail("Subject must be unique");
+    } catch (IOException ex) {
+      // Expected
+    }
+    
+    ca.revoke(certFile);
+    ca.generateCRL();
+    try {
+      X509CertificateAuthority.validate(certificate, chain, crl);
+      fail("Certificate must be revoked");
+    } catch (IOException ex) {
+      // Expected
+    }
+    // The subject can be signed again once revoked
+    ca.sign(csr, 365, certFile);
+  }
+  
+  @Test
+  public void testValidateRejectsNonCAIssuer() throws Exception {
+    KeyPair issuerKeys = generateKeyPair();
+    X509Certificate issuer = selfSigned("C=SE, O=Hopsworks, CN=NotACA", issuerKeys, false);
+    Path chain = caDir.resolve("notca-chain.pem");
+    Files.write(chain, pem("CERTIFICATE", issuer.getEncoded()));
+    Path crl = caDir.resolve("crl/notca.crl.pem");
+    ContentSigner signer = new JcaContentSignerBuilder("SHA256withRSA").build(issuerKeys.getPrivate());
+    X509v2CRLBuilder crlBuilder = new X509v2CRLBuilder(new X500Name("C=SE, O=Hopsworks, CN=NotACA"), new Date());
+    Files.write(crl, pem("X509 CRL", crlBuilder.build(signer).getEncoded()));
+    
+    Date now = new Date();
+    X509Certificate certificate = parse(new String(pem("CERTIFICATE", new JcaX509v3CertificateBuilder(
+        new X500Name("C=SE, O=Hopsworks, CN=NotACA"), BigInteger.valueOf(2), now,
+        new Date(now.getTime() + TimeUnit.DAYS.toMillis(1)), new X500Name("C=SE, O=Hopsworks, CN=user"),
+        generateKeyPair().getPublic()).build(signer).getEncoded()), StandardCharsets.US_ASCII));
+    try {
+      X509CertificateAuthority.validate(certificate, chain, crl);
+      fail("The issuer is not a CA");
+    } catch (IOException ex) {
+      // Expected
+    }
+  }
+  
+  /**
+   * Signs {@link #CERTIFICATES} certificates from {@link #THREADS} threads and
+   * logs the throughput.
+   */
+  @Ignore("Benchmark, run manually")
+  @Test
+  public void benchmarkSigning() throws Exception {
+    List<String> csrs = new ArrayList<>(CERTIFICATES);
+    for (int i = 0; i < CERTIFICATES; i++) {
+      csrs.add(createCSR("C=SE, O=Hopsworks, CN=user" + i + "__project"));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      long start = System.nanoTime();
+      List<Future<String>> futures = new ArrayList<>(CERTIFICATES);
+      for (int i = 0; i < CERTIFICATES; i++) {
+        String csr = csrs.get(i);
+        Path certFile = caDir.resolve("certs/user" + i + ".cert.pem");
+        futures.add(executor.submit(() -> ca.sign(csr, 365, certFile)));
+      }
+      for (Future<String> future : futures) {
+        future.get();
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      LOG.log(Level.INFO, String.format("Signed %d certificates in %.2f s, %.1f certificates/s", CERTIFICATES,
+          seconds, CERTIFICATES / seconds));
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(CERTIFICATES, ca.getSignedCount());
+    assertEquals(CERTIFICATES, Files.readAllLines(caDir.resolve("index.txt")).size());
+    assertEquals(String.format("%04X", 0x1000 + CERTIFICATES),
+        new String(Files.readAllBytes(caDir.resolve("serial")), StandardCharsets.US_ASCII).trim());
+  }
+  
+  private static KeyPair generateKeyPair() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    return generator.generateKeyPair();
+  }
+  
+  private static X509Certificate selfSigned(String subject, KeyPair keyPair, boolean ca) throws Exception {
+    Date now = new Date();
+    JcaX509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(new X500Name(subject), BigInteger.ONE, now,
+        new Date(now.getTime() + TimeUnit.DAYS.toMillis(3650)), new X500Name(subject), keyPair.getPublic());
+    if (ca) {
+      builder.addExtension(Extension.basicConstraints, true, new BasicConstraints(true));
+      builder.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.keyCertSign | KeyUsage.cRLSign));
+    }
+    ContentSigner signer = new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate());
+    return parse(new String(pem("CERTIFICATE", builder.build(signer).getEncoded()), StandardCharsets.US_ASCII));
+  }
+  
+  private static String createCSR(String subject) throws Exception {
+    KeyPair keyPair = generateKeyPair();
+    ContentSigner signer = new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate());
+    byte[] csr = new JcaPKCS10CertificationRequestBuilder(new X500Name(subject), keyPair.getPublic()).build(signer)
+        .getEncoded();
+    return new String(pem("CERTIFICATE REQUEST", csr), StandardCharsets.US_ASCII);
+  }
+  
+  private static byte[] pem(String type, byte[] der) {
+    return ("-----BEGIN " + type + "-----\n" + Base64.getMimeEncoder(64, new byte[]{'\n'}).encodeToString(der)
+        + "\n-----END " + type + "-----\n").getBytes(StandardCharsets.US_ASCII);
+  }
+  
+  private static X509Certificate parse(String pem) throws Exception {
+    return (X509Certificate) CertificateFactory.getInstance("X.509")
+        .generateCertificate(new ByteArrayInputStream(pem.getBytes(StandardCharsets.US_ASCII)));
+  }
+}
@@ -26,16 +26,51 @@ import java.security.interfaces.ECPrivateKey;
 import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
 import javax.ejb.EJB;
-import javax.ejb.Stateless;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
 import javax.ws.rs.NotSupportedException;
 
-@Stateless
+/**
+ * Builds the algorithms to sign and verify tokens with. The signing keys and the algorithms built from them are
+ * cached, a key is read again from the database once it is older than {@link #KEY_CACHE_TTL}, so keys deleted by
+ * another instance stop being accepted after that time. Keys deleted through this instance are evicted right away.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
 public class AlgorithmFactory {
 
+  public final static long KEY_CACHE_TTL = TimeUnit.MINUTES.toMillis(1);
+
   @EJB
   private JwtSigningKeyFacade jwtSigningKeyFacade;
 
+  private final Map<String, CachedKey> keysById = new ConcurrentHashMap<>();
+  private final Map<String, CachedKey> keysByName = new ConcurrentHashMap<>();
+  private final Map<String, Algorithm> algorithms = new ConcurrentHashMap<>();
+
+  private static class CachedKey {
+
+    private final JwtSigningKey key;
+    private final long loadedAt;
+
+    private CachedKey(JwtSigningKey key) {
+      this.key = key;
+      this.loadedAt = System.currentTimeMillis();
+    }
+
+    private boolean isStale() {
+      return System.currentTimeMillis() - loadedAt > KEY_CACHE_TTL;
+    }
+  }
+
   public Algorithm getAlgorithm(DecodedJWT jwt) throws SigningKeyNotFoundException {
     return getAlgorithm(jwt.getAlgorithm(), jwt.getKeyId());
   }
@@ -50,6 +85,74 @@ public class AlgorithmFactory {
   }
 
   public Algorithm getAlgorithm(SignatureAlgorithm algorithm, String keyId) throws SigningKeyNotFoundException {
+    if (keyId == null) {
+      throw new SigningKeyNotFoundException("Signing key not found. The key id is missing.");
+    }
+    if (!isHmac(algorithm)) {
+      // RSA and EC algorithms do not use a signing key from the database and are cheap to build, caching them by
+      // the key id of the token would let any token grow the cache
+      return buildAlgorithm(algorithm, keyId);
+    }
+    String cacheKey = algorithm.name() + ":" + keyId;
+    Algorithm cached = algorithms.get(cacheKey);
+    if (cached != null) {
+      CachedKey signingKey = keysById.get(keyId);
+      if (signingKey != null && !signingKey.isStale()) {
+        return cached;
+      }
+    }
+    // Only reached once the key was found in the database, unknown key ids throw before anything is cached
+    Algorithm built = buildAlgorithm(algorithm, keyId);
+    algorithms.put(cacheKey, built);
+    return built;
+  }
+
+  private boolean isHmac(SignatureAlgorithm algorithm) {
+    return algorithm == SignatureAlgorithm.HS256 || algorithm == SignatureAlgorithm.HS384
+        || algorithm == SignatureAlgorithm.HS512;
+  }
+
+  /**
+   * Gets the signing key with the given name.
+   *
+   * @param keyName
+   * @return the key or null if there is no key with this name
+   */
+  public JwtSigningKey getSigningKeyByName(String keyName) {
+    CachedKey cached = keysByName.get(keyName);
+    if (cached != null && !cached.isStale()) {
+      return cached.key;
+    }
+    JwtSigningKey signingKey = jwtSigningKeyFacade.findByName(keyName);
+    if (signingKey == null) {
+      keysByName.remove(keyName);
+      return null;
+    }
+    keysByName.put(keyName, new CachedKey(signingKey));
+    return signingKey;
+  }
+
+  /**
+   * Drops a signing key and the algorithms built with it from the cache.
+   *
+   * @param signingKey
+   */
+  public void evict(JwtSigningKey signingKey) {
+    keysByName.remove(signingKey.getName());
+    String keyId = String.valueOf(signingKey.getId());
+    keysById.remove(keyId);
+    evictAlgorithms(keyId);
+  }
+
+  private void evictAlgorithms(String keyId) {
+    for (SignatureAlgorithm algorithm : SignatureAlgorithm.values()) {
+      if (isHmac(algorithm)) {
+        algorithms.remove(algorithm.name() + ":" + keyId);
+      }
+    }
+  }
+
+  private Algorithm buildAlgorithm(SignatureAlgorithm algorithm, String keyId) throws SigningKeyNotFoundException {
     switch (algorithm) {
       case ES256:
         return getES256Algorithm(keyId);
@@ -96,10 +199,17 @@ public class AlgorithmFactory {
     } catch (NumberFormatException e) {
       throw new SigningKeyNotFoundException("Signing key not found. The key id should be integer.");
     }
+    CachedKey cached = keysById.get(keyId);
+    if (cached != null && !cached.isStale()) {
+      return cached.key.getSecret();
+    }
     JwtSigningKey signingKey = jwtSigningKeyFacade.find(id);
     if (signingKey == null) {
+      keysById.remove(keyId);
+      evictAlgorithms(keyId);
       throw new SigningKeyNotFoundException("Signing key not found.");
     }
+    keysById.put(keyId, new CachedKey(signingKey));
     return signingKey.getSecret();
   }
 
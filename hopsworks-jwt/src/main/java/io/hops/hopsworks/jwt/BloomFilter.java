@@ -0,0 +1,90 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread safe bloom filter of strings. It answers false only for strings that were never added.
+ */
+final class BloomFilter {
+
+  private final AtomicLongArray bits;
+  private final int numBits;
+  private final int numHashes;
+
+  /**
+   * @param expectedInsertions
+   * @param falsePositiveRate the expected false positive rate once expectedInsertions strings are added
+   */
+  BloomFilter(int expectedInsertions, double falsePositiveRate) {
+    int n = Math.max(expectedInsertions, 1);
+    long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    m = Math.max(64, Math.min(m, Integer.MAX_VALUE - 63));
+    this.numBits = (int) ((m + 63) / 64 * 64);
+    this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+    this.bits = new AtomicLongArray(numBits / 64);
+  }
+
+  void add(String value) {
+    long hash = hash64(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= numHashes; i++) {
+      int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+      long mask = 1L << bit;
+      int word = bit >>> 6;
+      long old;
+      do {
+        old = bits.get(word);
+        if ((old & mask) != 0) {
+          break;
+        }
+      } while (!bits.compareAndSet(word, old, old | mask));
+    }
+  }
+
+  boolean mightContain(String value) {
+    long hash = hash64(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= numHashes; i++) {
+      int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+      if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * 64 bit FNV-1a, finished with the MurmurHash3 mix so that both halves are usable as hashes.
+   */
+  private static long hash64(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xff;
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
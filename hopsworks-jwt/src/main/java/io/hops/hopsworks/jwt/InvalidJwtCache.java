@@ -0,0 +1,150 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2018, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.jwt;
+
+import io.hops.hopsworks.jwt.dao.InvalidJwtFacade;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.Timer;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+
+/**
+ * Answers whether a token id was invalidated without querying the invalid tokens table for every request. The ids
+ * of the table are kept in a bloom filter, only the ids it cannot rule out are looked up in the database. The ids
+ * invalidated by this instance are added as soon as they are persisted, the filter is rebuilt from the table
+ * periodically to pick up the ones invalidated by other instances and drop the ones cleaned up.
+ */
+@Startup
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class InvalidJwtCache {
+
+  private final static Logger LOGGER = Logger.getLogger(InvalidJwtCache.class.getName());
+  private final static double FALSE_POSITIVE_RATE = 0.001;
+  private final static int MIN_EXPECTED_INSERTIONS = 10000;
+
+  @EJB
+  private InvalidJwtFacade invalidJwtFacade;
+
+  // null until the table could be read, every lookup goes to the database then
+  private volatile BloomFilter filter;
+  // Ids invalidated by this instance, with the time they were added, not yet in a reloaded filter
+  private final Map<String, Long> recent = new ConcurrentHashMap<>();
+
+  private final AtomicLong lookups = new AtomicLong(0);
+  private final AtomicLong databaseLookups = new AtomicLong(0);
+  private final AtomicLong falsePositives = new AtomicLong(0);
+
+  @PostConstruct
+  public void init() {
+    reload();
+  }
+
+  /**
+   * @param jti
+   * @return true if the token id is in the invalid tokens table
+   */
+  public boolean isInvalidated(String jti) {
+    lookups.incrementAndGet();
+    if (jti == null) {
+      return false;
+    }
+    if (recent.containsKey(jti)) {
+      return true;
+    }
+    BloomFilter current = filter;
+    if (current != null && !current.mightContain(jti)) {
+      return false;
+    }
+    databaseLookups.incrementAndGet();
+    boolean invalidated = invalidJwtFacade.find(jti) != null;
+    if (!invalidated && current != null) {
+      falsePositives.incrementAndGet();
+    }
+    return invalidated;
+  }
+
+  /**
+   * Records a token id persisted in the invalid tokens table.
+   *
+   * @param jti
+   */
+  public void add(String jti) {
+    recent.put(jti, System.currentTimeMillis());
+    BloomFilter current = filter;
+    if (current != null) {
+      current.add(jti);
+    }
+  }
+
+  /**
+   * Rebuilds the filter from the invalid tokens table.
+   */
+  public void reload() {
+    long start = System.currentTimeMillis();
+    List<String> jtis;
+    try {
+      jtis = invalidJwtFacade.findAllJti();
+    } catch (RuntimeException e) {
+      LOGGER.log(Level.WARNING, "Could not load invalidated tokens, checking them in the database.", e);
+      return;
+    }
+    BloomFilter reloaded = new BloomFilter(Math.max(2 * jtis.size(), MIN_EXPECTED_INSERTIONS), FALSE_POSITIVE_RATE);
+    for (String jti : jtis) {
+      reloaded.add(jti);
+    }
+    // Ids added during the reload may have been committed after the query
+    for (String jti : recent.keySet()) {
+      reloaded.add(jti);
+    }
+    filter = reloaded;
+    recent.values().removeIf(added -> added < start);
+    LOGGER.log(Level.FINE, "Loaded {0} invalidated tokens.", jtis.size());
+  }
+
+  @Schedule(persistent = false,
+      second = "*/30",
+      minute = "*",
+      hour = "*")
+  public void reload(Timer timer) {
+    reload();
+  }
+
+  public long getLookups() {
+    return lookups.get();
+  }
+
+  public long getDatabaseLookups() {
+    return databaseLookups.get();
+  }
+
+  public long getFalsePositives() {
+    return falsePositives.get();
+  }
+}
@@ -58,6 +58,8 @@ public class JWTController {
   private AlgorithmFactory algorithmFactory;
   @EJB
   private JwtSigningKeyFacade jwtSigningKeyFacade;
+  @EJB
+  private InvalidJwtCache invalidJwtCache;
 
   /**
    * Create a jwt.
@@ -260,8 +262,7 @@ public class JWTController {
   }
 
   private boolean isTokenInvalidated(String id) {
-    InvalidJwt invalidJwt = invalidJwtFacade.find(id);
-    return invalidJwt != null;
+    return invalidJwtCache.isInvalidated(id);
   }
 
   /**
@@ -304,6 +305,7 @@ public class JWTController {
     } catch (Exception e) {
       throw new InvalidationException("Could not persist token.", e.getCause());
     }
+    invalidJwtCache.add(id);
   }
 
   /**
@@ -338,12 +340,10 @@ public class JWTController {
   public String generateJti() {
     UUID uuid = UUID.randomUUID();
     String randomUUIDString = uuid.toString();
-    InvalidJwt invalidJwt = invalidJwtFacade.find(randomUUIDString);
     //Wikipedia: the probability to find a duplicate within 103 trillion version 4 UUIDs is one in a billion.
-    while (invalidJwt != null) {
+    while (isTokenInvalidated(randomUUIDString)) {
       uuid = UUID.randomUUID();
       randomUUIDString = uuid.toString();
-      invalidJwt = invalidJwtFacade.find(randomUUIDString);
     }
     return randomUUIDString;
   }
@@ -357,7 +357,7 @@ public class JWTController {
    * @throws NoSuchAlgorithmException
    */
   public JwtSigningKey getOrCreateSigningKey(String keyName, SignatureAlgorithm alg) throws NoSuchAlgorithmException {
-    JwtSigningKey signingKey = jwtSigningKeyFacade.findByName(keyName);
+    JwtSigningKey signingKey = algorithmFactory.getSigningKeyByName(keyName);
     if (signingKey == null) {
       signingKey = createSigningKey(keyName, alg);
     }
@@ -397,11 +397,16 @@ public class JWTController {
    * @param keyName a unique name given to signing key when created.
    */
   public void deleteSigningKey(String keyName) {
-    jwtSigningKeyFacade.remove(keyName);
+    JwtSigningKey signingKey = jwtSigningKeyFacade.findByName(keyName);
+    if (signingKey == null) {
+      return;
+    }
+    jwtSigningKeyFacade.remove(signingKey);
+    algorithmFactory.evict(signingKey);
   }
 
   /**
-   * Removes expired tokens from invalidated tokens table.
+   * Removes expired tokens from invalidated tokens table and reloads the invalidated tokens cache.
    *
    * @return
    */
@@ -414,6 +419,7 @@ public class JWTController {
         count++;
       }
     }
+    invalidJwtCache.reload();
     return count;
   }
 
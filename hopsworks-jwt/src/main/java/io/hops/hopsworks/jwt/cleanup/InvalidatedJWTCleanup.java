@@ -15,6 +15,7 @@
  */
 package io.hops.hopsworks.jwt.cleanup;
 
+import io.hops.hopsworks.jwt.InvalidJwtCache;
 import io.hops.hopsworks.jwt.JWTController;
 import io.hops.hopsworks.jwt.dao.InvalidJwtFacade;
 import java.util.Date;
@@ -40,6 +41,8 @@ public class InvalidatedJWTCleanup {
   private InvalidJwtFacade invalidJwtFacade;
   @EJB
   private JWTController jWTController;
+  @EJB
+  private InvalidJwtCache invalidJwtCache;
   @Resource
   TimerService timerService;
 
@@ -60,5 +63,8 @@ public class InvalidatedJWTCleanup {
     int count = jWTController.cleanupInvalidTokens();
     LOGGER.
         log(Level.INFO, "{0} timer event: {1}, removed {2} tokens.", new Object[]{timer.getInfo(), new Date(), count});
+    LOGGER.log(Level.INFO, "Invalidated token lookups: {0}, in database: {1}, false positives: {2}.",
+        new Object[]{invalidJwtCache.getLookups(), invalidJwtCache.getDatabaseLookups(),
+          invalidJwtCache.getFalsePositives()});
   }
 }
@@ -47,7 +47,7 @@ import javax.ejb.EJB;
 import javax.faces.bean.ManagedBean;
 import javax.faces.bean.ManagedProperty;
 import javax.faces.bean.RequestScoped;
-import io.hops.hopsworks.common.dao.kagent.HostServicesFacade;
+import io.hops.hopsworks.common.dao.kagent.ClusterRollupCache;
 import io.hops.hopsworks.kmon.struct.ClusterInfo; 
 import io.hops.hopsworks.common.dao.host.Health;
 import io.hops.hopsworks.kmon.struct.GroupInfo;
@@ -57,7 +57,7 @@ import io.hops.hopsworks.kmon.struct.GroupInfo;
 public class ClusterStatusController {
 
   @EJB
-  private HostServicesFacade hostServicesFacade;
+  private ClusterRollupCache clusterRollupCache;
   @ManagedProperty("#{param.cluster}")
   private String cluster;
   private static final Logger logger = Logger.getLogger(ClusterStatusController.class.getName());
@@ -65,6 +65,7 @@ public class ClusterStatusController {
   private Health clusterHealth;
   private boolean found;
   private ClusterInfo clusterInfo;
+  private ClusterRollupCache.ClusterRollup rollup;
 
   public ClusterStatusController() {
   }
@@ -103,13 +104,13 @@ public class ClusterStatusController {
 
   public void loadServices() {
     clusterHealth = Health.Good;
-    List<String> groupList = hostServicesFacade.findGroups(cluster);
+    List<String> groupList = getRollup().getGroups();
     if (!groupList.isEmpty()) {
       found = true;
     }
     for (String s : groupList) {
       GroupInfo groupInfo = new GroupInfo(s);
-      Health health = groupInfo.addServices(hostServicesFacade.findHostServicesByGroup(cluster, s));
+      Health health = groupInfo.addServices(getRollup().getHostServices(s));
       if (health == Health.Bad) {
         clusterHealth = Health.Bad;
       }
@@ -122,15 +123,25 @@ public class ClusterStatusController {
       return;
     }
     clusterInfo = new ClusterInfo(cluster);
-    clusterInfo.setNumberOfHosts(hostServicesFacade.countHosts(cluster));
-    clusterInfo.setTotalCores(hostServicesFacade.totalCores(cluster));
-    clusterInfo.setTotalGPUs(hostServicesFacade.totalGPUs(cluster));
-    clusterInfo.setTotalMemoryCapacity(hostServicesFacade.totalMemoryCapacity(cluster));
-    clusterInfo.setTotalDiskCapacity(hostServicesFacade.totalDiskCapacity(cluster));
-    clusterInfo.addServices(hostServicesFacade.findHostServicesByCluster(cluster));
+    clusterInfo.setNumberOfHosts(getRollup().getNumberOfHosts());
+    clusterInfo.setTotalCores(getRollup().getTotalCores());
+    clusterInfo.setTotalGPUs(getRollup().getTotalGPUs());
+    clusterInfo.setTotalMemoryCapacity(getRollup().getTotalMemoryCapacity());
+    clusterInfo.setTotalDiskCapacity(getRollup().getTotalDiskCapacity());
+    clusterInfo.addServices(getRollup().getHostServices());
     found = true;
   }
 
+  /**
+   * All the views of the request read the same snapshot of the cluster.
+   */
+  private ClusterRollupCache.ClusterRollup getRollup() {
+    if (rollup == null) {
+      rollup = clusterRollupCache.get(cluster);
+    }
+    return rollup;
+  }
+
   public ClusterInfo getClusterInfo() {
     loadCluster();
     return clusterInfo;
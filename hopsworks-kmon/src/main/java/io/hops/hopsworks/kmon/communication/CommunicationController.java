@@ -54,7 +54,6 @@ import io.hops.hopsworks.common.dao.kagent.HostServicesFacade;
 import io.hops.hopsworks.common.util.NodesTableItem;
 import io.hops.hopsworks.kmon.group.ServiceInstancesController;
 import io.hops.hopsworks.kmon.struct.InstanceInfo;
-import java.util.concurrent.Future;
 import java.util.logging.Level;
 import javax.faces.application.FacesMessage;
 import javax.faces.context.FacesContext;
@@ -189,7 +188,7 @@ public class CommunicationController {
   }
 
   public void serviceStartAll() {
-    uiMsg(serviceOperationAll("startService"));
+    serviceOperationAll("startService");
   }
 
   public void serviceRestart() {
@@ -197,7 +196,7 @@ public class CommunicationController {
   }
 
   public void serviceRestartAll() {
-    uiMsg(serviceOperationAll("restartService"));
+    serviceOperationAll("restartService");
   }
 
   public void serviceStop() {
@@ -206,33 +205,25 @@ public class CommunicationController {
 
   public void serviceStopAll() {
     logger.log(Level.SEVERE, "serviceStopAll 1");
-    uiMsg(serviceOperationAll("stopService"));
+    serviceOperationAll("stopService");
   }
 
-  private String serviceOperationAll(String operation) {
+  private void serviceOperationAll(String operation) {
     instances = serviceInstancesController.getInstances();
-    List<Future<String>> results = new ArrayList<>();
-    String result = "";
+    List<Hosts> hosts = new ArrayList<>();
     for (InstanceInfo instance : instances) {
       if (instance.getService().equals(service)) {
         try {
-          Hosts h = findHostByName(instance.getHost());
-          String ip = h.getPublicOrPrivateIp();
-          String agentPassword = h.getAgentPassword();
-          results.add(web.asyncServiceOp(operation, ip, agentPassword, cluster, group, service));
+          hosts.add(findHostByName(instance.getHost()));
         } catch (Exception ex) {
-          result = result + ex.getMessage() + "\n";
+          uiMsg("Error: " + ex.getMessage());
         }
       }
     }
-    for (Future<String> r : results) {
-      try {
-        result = result + r.get() + "\n";
-      } catch (Exception ex) {
-        result = result + ex.getMessage() + "\n";
-      }
+    // One message per host, in the order the hosts answered
+    for (WebCommunication.ServiceOpResult result : web.serviceOpAll(operation, hosts, cluster, group, service)) {
+      uiMsg(result.toString());
     }
-    return result;
   }
 
   private String serviceOperation(String operation) {
@@ -52,7 +52,7 @@ import javax.faces.bean.RequestScoped;
 import io.hops.hopsworks.kmon.service.GroupServiceMapper;
 import io.hops.hopsworks.kmon.struct.ServiceType;
 import io.hops.hopsworks.common.dao.host.Health;
-import io.hops.hopsworks.common.dao.kagent.HostServicesFacade;
+import io.hops.hopsworks.common.dao.kagent.ClusterRollupCache;
 import io.hops.hopsworks.common.dao.kagent.HostServicesInfo;
 import io.hops.hopsworks.kmon.struct.ServiceInstancesInfo;
 
@@ -66,7 +66,7 @@ public class GroupStatusController {
   private String group;
 
   @EJB
-  private HostServicesFacade hostServicesFacade;
+  private ClusterRollupCache clusterRollupCache;
 
   private Health health;
   private List<ServiceInstancesInfo> groupServices = new ArrayList<ServiceInstancesInfo>();
@@ -129,20 +129,23 @@ public class GroupStatusController {
 
   private void loadServices() {
     health = Health.Good;
+    List<HostServicesInfo> hostServices = clusterRollupCache.get(cluster).getHostServices(group);
     try {
       for (ServiceType service : GroupServiceMapper.getServices(group)) {
-        groupServices.add(createServiceInstancesInfo(cluster, group, service));
+        groupServices.add(createServiceInstancesInfo(hostServices, service));
       }
     } catch (Exception ex) {
       logger.log(Level.SEVERE, "Invalid service type: {0}", group);
     }
   }
 
-  private ServiceInstancesInfo createServiceInstancesInfo(String cluster, String group, ServiceType service) {
+  private ServiceInstancesInfo createServiceInstancesInfo(List<HostServicesInfo> hostServices, ServiceType service) {
     ServiceInstancesInfo groupInstancesInfo = new ServiceInstancesInfo(GroupServiceMapper.getServiceFullName(service),
         service);
-    List<HostServicesInfo> serviceHosts = hostServicesFacade.findHostServices(cluster, group, service.toString());
-    for (HostServicesInfo serviceHost : serviceHosts) {
+    for (HostServicesInfo serviceHost : hostServices) {
+      if (!serviceHost.getHostServices().getService().equals(service.toString())) {
+        continue;
+      }
       groupInstancesInfo.addInstanceInfo(serviceHost.getStatus(), serviceHost.getHealth());
     }
     if (groupInstancesInfo.getOverallHealth() == Health.Bad) {